@@ -3,7 +3,9 @@ package org.waitlight.simple.jsonql.builder;
 import org.apache.commons.lang3.StringUtils;
 import org.waitlight.simple.jsonql.metadata.Metadata;
 import org.waitlight.simple.jsonql.metadata.MetadataException;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
 import org.waitlight.simple.jsonql.metadata.Property;
+import org.waitlight.simple.jsonql.statement.model.FieldOperator;
 import org.waitlight.simple.jsonql.statement.model.FieldStatement;
 import org.waitlight.simple.jsonql.statement.model.PersistStatement;
 
@@ -53,4 +55,26 @@ public abstract class AbstractPersistSqlBuilder<T extends PersistStatement> exte
         return result;
     }
 
-}
\ No newline at end of file
+    /**
+     * 查找字段对应的列，匹配规则与 {@link #map} 一致
+     */
+    protected String requireColumn(PersistentClass persistentClass, String fieldName) throws SqlBuildException {
+        for (Property property : persistentClass.getProperties()) {
+            if (StringUtils.equals(property.fieldName(), fieldName)
+                    || StringUtils.equals(property.foreignKeyName(), fieldName)) {
+                return property.columnName();
+            }
+        }
+        throw new SqlBuildException("Could not find metadata definition for field: " + fieldName);
+    }
+
+    /**
+     * 除 {@link FieldOperator#SET} 外的更新方式只用于更新语句，插入的值不能基于当前值计算，拒绝而不是当作普通值写入
+     */
+    protected static void requireSetOperator(FieldStatement field) throws SqlBuildException {
+        if (field.getOperator() != null && field.getOperator() != FieldOperator.SET) {
+            throw new SqlBuildException("Field operator " + field.getOperator().getValue()
+                    + " is only supported in update: " + field.getField());
+        }
+    }
+}
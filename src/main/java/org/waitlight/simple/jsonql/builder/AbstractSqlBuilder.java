@@ -3,7 +3,11 @@ package org.waitlight.simple.jsonql.builder;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.rel2sql.RelToSqlConverter;
 import org.apache.calcite.sql.SqlDialect;
+import org.apache.calcite.sql.SqlIdentifier;
 import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlWriter;
+import org.apache.calcite.sql.util.SqlShuttle;
+import org.apache.calcite.sql.util.SqlString;
 import org.waitlight.simple.jsonql.metadata.Metadata;
 import org.waitlight.simple.jsonql.statement.JsonQLStatement;
 
@@ -41,7 +45,38 @@ public abstract class AbstractSqlBuilder<T extends JsonQLStatement> {
             throw new SqlBuildException("RelNode is null");
         }
 
-        SqlNode sqlNode = converter.visitRoot(relNode).asStatement();
-        return sqlNode.toSqlString(dialect).getSql();
+        return render(relNode).getSql();
+    }
+
+    /**
+     * 将 RelNode 渲染为 MySQL 方言的 SQL，动态参数渲染为 {@code ?}
+     * <p>
+     * 返回的 {@link SqlString#getDynamicParameters()} 给出了占位符在 SQL 中依次对应的动态参数下标
+     */
+    protected SqlString render(RelNode relNode) {
+        SqlNode sqlNode = converter.visitRoot(relNode).asStatement().accept(QuotingShuttle.INSTANCE);
+        return sqlNode.toSqlString(c -> c.withDialect(dialect));
+    }
+
+    /**
+     * 强制给表名、列名加引号
+     * <p>
+     * 方言只在必要时加引号，与内置函数同名的标识符（例如 user）会被当作函数渲染成 USER
+     */
+    private static class QuotingShuttle extends SqlShuttle {
+        private static final QuotingShuttle INSTANCE = new QuotingShuttle();
+
+        @Override
+        public SqlNode visit(SqlIdentifier id) {
+            if (!id.isSimple() || id.isStar()) {
+                return id;
+            }
+            return new SqlIdentifier(id.names, id.getParserPosition()) {
+                @Override
+                public void unparse(SqlWriter writer, int leftPrec, int rightPrec) {
+                    writer.identifier(names.get(0), true);
+                }
+            };
+        }
     }
 }
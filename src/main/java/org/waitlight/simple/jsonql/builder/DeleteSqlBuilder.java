@@ -1,13 +1,16 @@
 package org.waitlight.simple.jsonql.builder;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.SQLDialect;
 import org.jooq.Table;
 import org.jooq.impl.DSL;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
 import org.waitlight.simple.jsonql.statement.DeleteStatement;
 
 import java.util.ArrayList;
@@ -17,6 +20,11 @@ public class DeleteSqlBuilder extends AbstractSqlBuilder<DeleteStatement> {
 
     private static final Logger log = LoggerFactory.getLogger(DeleteSqlBuilder.class);
 
+    /**
+     * 按 ID 列表删除时每条 IN 列表的默认长度，兼顾 SQL 长度和 max_allowed_packet
+     */
+    public static final int DEFAULT_IN_SIZE = 1000;
+
     public DeleteSqlBuilder(Metadata metadata) {
         super(metadata);
     }
@@ -41,6 +49,104 @@ public class DeleteSqlBuilder extends AbstractSqlBuilder<DeleteStatement> {
         return buildSql(entityId, id);
     }
 
+    /**
+     * 按 ID 列表构建删除语句，ID 去重后按 {@code batchSize}（默认 {@link #DEFAULT_IN_SIZE}）拆分为多条
+     * {@code DELETE ... WHERE id IN (...)}
+     */
+    public List<PreparedSql<DeleteStatement>> buildBatch(DeleteStatement statement) throws SqlBuildException {
+        PersistentClass persistentClass = requireEntity(statement);
+        if (statement.getFilters() != null || StringUtils.isNotBlank(statement.getId())) {
+            throw new SqlBuildException("ids cannot be combined with id or filters in delete statement");
+        }
+        List<String> ids = statement.getIds() == null ? List.of() : statement.getIds().stream()
+                .filter(StringUtils::isNotBlank)
+                .distinct()
+                .toList();
+        if (ids.isEmpty()) {
+            throw new SqlBuildException("ids is required for batch delete statement");
+        }
+
+        int chunkSize = Math.min(positiveOr(statement.getBatchSize(), DEFAULT_IN_SIZE),
+                InsertSqlBuilder.MAX_PARAMETERS);
+        Field<Object> idField = DSL.field(DSL.name(persistentClass.getIdProperty().columnName()));
+        List<PreparedSql<DeleteStatement>> result = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Object> parameters = new ArrayList<>(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            List<Field<Object>> params = new ArrayList<>(parameters.size());
+            parameters.forEach(id -> params.add(DSL.param()));
+
+            String sql = create().deleteFrom(table(persistentClass))
+                    .where(idField.in(params))
+                    .getSQL();
+            result.add(new PreparedSql<>(sql, parameters, DeleteStatement.class));
+        }
+        log.info("build batch delete sql, ids: {}, statements: {}", ids.size(), result.size());
+        return result;
+    }
+
+    /**
+     * 按 {@code filters} 构建删除语句，指定 {@code limit} 时追加 {@code LIMIT ?} 用于分批删除
+     *
+     * @param statement 包含过滤条件的删除语句
+     * @param limit     每批删除的行数，为 null 时不限制
+     */
+    public PreparedSql<DeleteStatement> buildByFilter(DeleteStatement statement, Integer limit)
+            throws SqlBuildException {
+        PersistentClass persistentClass = requireEntity(statement);
+        if ((statement.getIds() != null && !statement.getIds().isEmpty()) || StringUtils.isNotBlank(statement.getId())) {
+            throw new SqlBuildException("filters cannot be combined with id or ids in delete statement");
+        }
+
+        List<Object> parameters = new ArrayList<>();
+        Condition condition = FilterConditions.build(persistentClass, statement.getFilters(), parameters);
+        String sql;
+        if (limit == null) {
+            sql = create().deleteFrom(table(persistentClass)).where(condition).getSQL();
+        } else {
+            sql = create().deleteFrom(table(persistentClass))
+                    .where(condition)
+                    .limit(DSL.param(Integer.class))
+                    .getSQL();
+            parameters.add(limit);
+        }
+
+        log.info("build delete sql: {}", sql);
+        return new PreparedSql<>(sql, parameters, DeleteStatement.class);
+    }
+
+    /**
+     * 统计 {@code filters} 匹配的行数，用于执行前检查影响行数上限
+     */
+    public PreparedSql<DeleteStatement> buildCount(DeleteStatement statement) throws SqlBuildException {
+        PersistentClass persistentClass = requireEntity(statement);
+        List<Object> parameters = new ArrayList<>();
+        Condition condition = FilterConditions.build(persistentClass, statement.getFilters(), parameters);
+        String sql = create().selectCount().from(table(persistentClass)).where(condition).getSQL();
+        return new PreparedSql<>(sql, parameters, DeleteStatement.class);
+    }
+
+    private PersistentClass requireEntity(DeleteStatement statement) throws SqlBuildException {
+        if (statement == null) {
+            throw new SqlBuildException("DeleteStatement is null");
+        }
+        if (StringUtils.isBlank(statement.getEntityId())) {
+            throw new SqlBuildException("entityId is required for delete statements");
+        }
+        return metadata.getEntity(statement.getEntityId());
+    }
+
+    private static DSLContext create() {
+        return DSL.using(SQLDialect.MYSQL);
+    }
+
+    private static Table<?> table(PersistentClass persistentClass) {
+        return DSL.table(DSL.name(persistentClass.getTableName()));
+    }
+
+    private static int positiveOr(Integer value, int defaultValue) {
+        return value != null && value > 0 ? value : defaultValue;
+    }
+
     /**
      * 构建DELETE SQL语句及其参数
      */
@@ -66,4 +172,4 @@ public class DeleteSqlBuilder extends AbstractSqlBuilder<DeleteStatement> {
 
         return preparedSql;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+package org.waitlight.simple.jsonql.builder;
+
+import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
+import org.waitlight.simple.jsonql.metadata.Property;
+import org.waitlight.simple.jsonql.metadata.RelationshipType;
+import org.waitlight.simple.jsonql.statement.model.FilterCondition;
+import org.waitlight.simple.jsonql.statement.model.FilterCriteria;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 把 {@link FilterCriteria} 转换为 jOOQ 的 WHERE 条件，供按条件更新、删除使用
+ * <p>
+ * 各操作符的含义与查询一致（{@code like} 为包含匹配，{@code eq null} 为 IS NULL），
+ * 但不支持的操作符和空的 IN 列表不会被忽略，避免条件被放宽后影响到预期之外的行
+ */
+final class FilterConditions {
+
+    private FilterConditions() {
+    }
+
+    /**
+     * @param persistentClass 条件所属的实体
+     * @param filters         过滤条件，至少包含一个条件
+     * @param parameters      按占位符顺序追加参数值
+     * @return 组合后的条件
+     */
+    static Condition build(PersistentClass persistentClass, FilterCriteria filters, List<Object> parameters)
+            throws SqlBuildException {
+        if (!hasConditions(filters)) {
+            throw new SqlBuildException("At least one filter condition is required");
+        }
+
+        List<Condition> conditions = new ArrayList<>(filters.getConditions().size());
+        for (FilterCondition condition : filters.getConditions()) {
+            conditions.add(build(persistentClass, condition, parameters));
+        }
+        return "OR".equalsIgnoreCase(filters.getRel()) ? DSL.or(conditions) : DSL.and(conditions);
+    }
+
+    static boolean hasConditions(FilterCriteria filters) {
+        return filters != null && filters.getConditions() != null && !filters.getConditions().isEmpty();
+    }
+
+    private static Condition build(PersistentClass persistentClass, FilterCondition condition,
+                                   List<Object> parameters) throws SqlBuildException {
+        if (condition.getMethod() == null) {
+            throw new SqlBuildException("Filter method is required for field: " + condition.getField());
+        }
+        Field<Object> field = DSL.field(DSL.name(requireColumn(persistentClass, condition.getField())));
+        Object value = condition.getValue();
+
+        switch (condition.getMethod()) {
+            case EQ:
+                if (value == null) {
+                    return field.isNull();
+                }
+                parameters.add(value);
+                return field.eq(DSL.param());
+            case IS:
+                if (value == null) {
+                    return field.isNull();
+                }
+                break;
+            case NE:
+                if (value == null) {
+                    return field.isNotNull();
+                }
+                parameters.add(value);
+                return field.ne(DSL.param());
+            case GT:
+            case LT:
+            case GE:
+            case LE:
+                if (value == null) {
+                    throw new SqlBuildException("Value is required for filter method: " + condition.getMethod().getValue());
+                }
+                parameters.add(value);
+                return switch (condition.getMethod()) {
+                    case GT -> field.gt(DSL.param());
+                    case LT -> field.lt(DSL.param());
+                    case GE -> field.ge(DSL.param());
+                    default -> field.le(DSL.param());
+                };
+            case BETWEEN:
+                if (condition.getValues() == null || condition.getValues().size() < 2) {
+                    throw new SqlBuildException("Two values are required for filter method: between");
+                }
+                parameters.add(condition.getValues().get(0));
+                parameters.add(condition.getValues().get(1));
+                return field.between(DSL.param(), DSL.param());
+            case IN:
+                List<Object> values = QueryShape.inValues(condition);
+                if (values.isEmpty()) {
+                    // 空列表不匹配任何行
+                    return DSL.falseCondition();
+                }
+                List<Field<Object>> params = new ArrayList<>(values.size());
+                for (Object inValue : values) {
+                    parameters.add(inValue);
+                    params.add(DSL.param());
+                }
+                return field.in(params);
+            case LIKE:
+                if (value == null) {
+                    break;
+                }
+                parameters.add("%" + value + "%");
+                return field.like(DSL.param(String.class));
+            default:
+                break;
+        }
+        throw new SqlBuildException("Unsupported filter method: " + condition.getMethod().getValue());
+    }
+
+    private static String requireColumn(PersistentClass persistentClass, String fieldName) throws SqlBuildException {
+        for (Property property : persistentClass.getProperties()) {
+            if (property.relationship() == RelationshipType.ONE_TO_MANY
+                    || property.relationship() == RelationshipType.MANY_TO_MANY) {
+                continue;
+            }
+            if (property.fieldName().equals(fieldName) || property.columnName().equals(fieldName)) {
+                return property.columnName();
+            }
+        }
+        throw new SqlBuildException("Field not found: " + fieldName);
+    }
+}
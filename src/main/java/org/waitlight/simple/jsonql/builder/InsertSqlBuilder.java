@@ -25,6 +25,16 @@ public class InsertSqlBuilder extends AbstractPersistSqlBuilder<InsertStatement>
 
     private static final Logger log = LoggerFactory.getLogger(InsertSqlBuilder.class);
 
+    /**
+     * 批量插入时每条 INSERT 语句默认包含的行数
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /**
+     * MySQL 单条预编译语句最多支持的参数个数
+     */
+    static final int MAX_PARAMETERS = 65535;
+
     public InsertSqlBuilder(Metadata metadata) {
         super(metadata);
     }
@@ -64,6 +74,79 @@ public class InsertSqlBuilder extends AbstractPersistSqlBuilder<InsertStatement>
         return preparedSql;
     }
 
+    /**
+     * 构建批量插入的 SQL
+     * <p>
+     * 连续的、字段相同的记录合并为一条多行 {@code INSERT ... VALUES (...), (...)}，每条语句最多
+     * {@link InsertStatement#getBatchSize()} 行，返回的语句按记录顺序排列，依次执行即可按顺序得到生成的主键。
+     * 批量记录只支持实体自身的字段，不支持嵌套实体
+     *
+     * @param statement 包含 {@code records} 的插入语句
+     * @return 按顺序执行的多行插入 SQL
+     * @throws SqlBuildException 记录为空、包含嵌套实体或字段不存在
+     */
+    public List<PreparedSql<InsertStatement>> buildBatch(InsertStatement statement) throws SqlBuildException {
+        if (Objects.isNull(statement) || CollectionUtils.isEmpty(statement.getRecords())) {
+            throw new SqlBuildException("Records are required for batch insert");
+        }
+        if (CollectionUtils.isNotEmpty(statement.getFields())) {
+            throw new SqlBuildException("Fields and records can not be used together");
+        }
+
+        PersistentClass persistentClass = metadata.getEntity(statement.getEntityId());
+        int batchSize = statement.getBatchSize() != null && statement.getBatchSize() > 0
+                ? statement.getBatchSize()
+                : DEFAULT_BATCH_SIZE;
+
+        List<PreparedSql<InsertStatement>> result = new ArrayList<>();
+        List<String> chunkColumns = null;
+        List<List<Object>> chunkRows = new ArrayList<>();
+        for (List<FieldStatement> record : statement.getRecords()) {
+            if (CollectionUtils.isEmpty(record)) {
+                throw new SqlBuildException("Batch insert record is empty");
+            }
+            List<String> columns = new ArrayList<>(record.size());
+            List<Object> row = new ArrayList<>(record.size());
+            for (FieldStatement field : record) {
+                if (CollectionUtils.isNotEmpty(field.getValues())) {
+                    throw new SqlBuildException("Nested values are not supported in batch insert: " + field.getField());
+                }
+                requireSetOperator(field);
+                columns.add(requireColumn(persistentClass, field.getField()));
+                row.add(field.getValue());
+            }
+
+            int maxRows = Math.max(1, Math.min(batchSize, MAX_PARAMETERS / columns.size()));
+            if (!columns.equals(chunkColumns) || chunkRows.size() >= maxRows) {
+                if (!chunkRows.isEmpty()) {
+                    result.add(buildMultiRowSql(persistentClass, chunkColumns, chunkRows));
+                }
+                chunkColumns = columns;
+                chunkRows = new ArrayList<>();
+            }
+            chunkRows.add(row);
+        }
+        result.add(buildMultiRowSql(persistentClass, chunkColumns, chunkRows));
+        return result;
+    }
+
+    private PreparedSql<InsertStatement> buildMultiRowSql(PersistentClass persistentClass, List<String> columns,
+                                                          List<List<Object>> rows) {
+        DSLContext create = DSL.using(SQLDialect.MYSQL);
+        List<Field<Object>> fields = columns.stream().map(column -> DSL.field(DSL.name(column))).toList();
+        var insert = create.insertInto(DSL.table(DSL.name(persistentClass.getTableName())))
+                .columns(fields.toArray(new Field[0]));
+
+        List<Object> parameters = new ArrayList<>(rows.size() * columns.size());
+        for (List<Object> row : rows) {
+            insert = insert.values(row.toArray());
+            parameters.addAll(row);
+        }
+        String sql = insert.getSQL();
+        log.debug("build batch sql: {} rows, {}", rows.size(), sql);
+        return new PreparedSql<>(sql, parameters, InsertStatement.class);
+    }
+
     /**
      * 处理一对多关系，根据嵌套对象是否包含ID来决定处理方式
      */
@@ -218,6 +301,7 @@ public class InsertSqlBuilder extends AbstractPersistSqlBuilder<InsertStatement>
 
         Map<FieldStatement, Property> map = map(statement.getEntityId(), statement);
         for (FieldStatement field : statement.getFields()) {
+            requireSetOperator(field);
             Property property = map.get(field);
             String columnName = property.columnName();
             fields.add(DSL.field(DSL.name(columnName)));
@@ -229,6 +313,26 @@ public class InsertSqlBuilder extends AbstractPersistSqlBuilder<InsertStatement>
                 .values(values.toArray())
                 .getSQL();
         log.info("build sql: {}", sql);
-        return new PreparedSql<>(sql, parameters, InsertStatement.class);
+        PreparedSql<InsertStatement> preparedSql = new PreparedSql<>(sql, parameters, InsertStatement.class);
+        preparedSql.setAssignedId(assignedId(statement));
+        return preparedSql;
+    }
+
+    /**
+     * 语句中显式指定的数值主键，例如由客户端主键生成器分配的主键
+     */
+    private Long assignedId(PersistStatement statement) {
+        String idFieldName = metadata.getEntity(statement.getEntityId()).getIdFieldName();
+        for (FieldStatement field : statement.getFields()) {
+            if (idFieldName.equals(field.getField())) {
+                if (field.getValue() instanceof Number number) {
+                    return number.longValue();
+                }
+                if (field.getValue() instanceof String string && StringUtils.isNumeric(string)) {
+                    return Long.parseLong(string);
+                }
+            }
+        }
+        return null;
     }
 }
\ No newline at end of file
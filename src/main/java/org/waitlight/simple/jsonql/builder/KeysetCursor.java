@@ -0,0 +1,81 @@
+package org.waitlight.simple.jsonql.builder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * keyset 分页游标的编解码
+ * <p>
+ * 游标是对调用方不透明的 URL 安全 Base64 字符串，内容为上一页最后一行的排序键值以及排序规则的指纹，
+ * 指纹用于拒绝在不同实体或不同排序下复用的游标
+ */
+public final class KeysetCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    private static final String KEYS = "k";
+    private static final String FINGERPRINT = "f";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param keys        最后一行的排序键值，顺序与排序字段一致
+     * @param fingerprint 排序规则指纹
+     * @return 游标
+     */
+    public static String encode(List<Object> keys, String fingerprint) {
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(Map.of(KEYS, keys, FINGERPRINT, fingerprint));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode keyset cursor: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor      游标
+     * @param fingerprint 当前查询的排序规则指纹
+     * @param size        排序键个数
+     * @return 排序键值
+     * @throws SqlBuildException 游标格式错误或与当前查询不匹配
+     */
+    public static List<Object> decode(String cursor, String fingerprint, int size) throws SqlBuildException {
+        Map<String, Object> content;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor);
+            content = MAPPER.readValue(new String(json, StandardCharsets.UTF_8), new TypeReference<>() {
+            });
+        } catch (Exception e) {
+            throw new SqlBuildException("Invalid page cursor", e);
+        }
+
+        // 游标来自调用方，内容可能是任意 JSON
+        if (content == null || !(content.get(FINGERPRINT) instanceof String cursorFingerprint)) {
+            throw new SqlBuildException("Invalid page cursor");
+        }
+        if (!StringUtils.equals(fingerprint, cursorFingerprint)
+                || !(content.get(KEYS) instanceof List<?> keys)
+                || keys.size() != size) {
+            throw new SqlBuildException("Page cursor does not match the query sort");
+        }
+        @SuppressWarnings("unchecked")
+        List<Object> values = (List<Object>) keys;
+        return values;
+    }
+}
@@ -0,0 +1,17 @@
+package org.waitlight.simple.jsonql.builder;
+
+/**
+ * 查询计划缓存统计
+ *
+ * @param hitCount      命中次数
+ * @param missCount     未命中次数
+ * @param evictionCount 淘汰次数
+ * @param size          当前缓存的计划数
+ */
+public record PlanCacheStats(long hitCount, long missCount, long evictionCount, long size) {
+
+    public double hitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 1.0 : (double) hitCount / total;
+    }
+}
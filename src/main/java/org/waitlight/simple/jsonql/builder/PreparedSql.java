@@ -13,6 +13,10 @@ public class PreparedSql<T extends JsonQLStatement> {
     private List<Object> parameters;
     private Class<T> statementType;
     private List<PreparedSql<T>> nestedSQLs = new ArrayList<>();
+    /**
+     * INSERT 语句中已经指定的主键值，为 null 时主键由数据库生成
+     */
+    private Long assignedId;
 
     /**
      * 默认构造函数
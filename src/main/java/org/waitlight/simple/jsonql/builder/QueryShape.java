@@ -0,0 +1,195 @@
+package org.waitlight.simple.jsonql.builder;
+
+import org.waitlight.simple.jsonql.statement.SelectStatement;
+import org.waitlight.simple.jsonql.statement.model.CountMode;
+import org.waitlight.simple.jsonql.statement.model.DirectionType;
+import org.waitlight.simple.jsonql.statement.model.FilterCondition;
+import org.waitlight.simple.jsonql.statement.model.FilterCriteria;
+import org.waitlight.simple.jsonql.statement.model.MethodType;
+import org.waitlight.simple.jsonql.statement.model.PageCriteria;
+import org.waitlight.simple.jsonql.statement.model.PageMode;
+import org.waitlight.simple.jsonql.statement.model.SortCriteria;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 查询语句的"形状"，作为查询计划缓存的 key
+ * <p>
+ * 形状只包含影响生成 SQL 结构的部分（实体、查询字段、过滤字段及操作符、IN 列表长度分桶、排序、是否分页、结果形式），
+ * 不包含具体的参数值，因此只有参数值不同的请求会命中同一个查询计划
+ *
+ * @param entityId   实体ID
+ * @param select     查询的字段，为 null 时查询所有字段
+ * @param or         多个过滤条件之间是否为 OR 关系
+ * @param conditions 过滤条件形状
+ * @param sorts      排序形状
+ * @param paged      是否分页
+ * @param projection 查询结果的形式
+ * @param keyset     keyset 分页形状，非 keyset 分页时为 null
+ */
+public record QueryShape(
+        String entityId,
+        List<String> select,
+        boolean or,
+        List<ConditionShape> conditions,
+        List<SortShape> sorts,
+        boolean paged,
+        Projection projection,
+        KeysetShape keyset
+) {
+
+    /**
+     * 查询结果的形式
+     */
+    public enum Projection {
+        /**
+         * 只查询记录
+         */
+        ROWS,
+        /**
+         * 查询记录并附加 {@code COUNT(*) OVER()} 总数列
+         */
+        ROWS_WITH_TOTAL,
+        /**
+         * 只查询满足条件的记录总数
+         */
+        COUNT
+    }
+
+    /**
+     * IS NULL 条件的参数个数标记
+     */
+    static final int NULL_ARITY = -1;
+
+    /**
+     * @param field  过滤字段
+     * @param method 过滤操作符
+     * @param arity  绑定参数个数，IN 条件按 2 的幂分桶，{@link #NULL_ARITY} 表示与 NULL 比较，
+     *               0 表示 IN 列表为空（不匹配任何行）或 BETWEEN 缺少取值（构建时拒绝）
+     */
+    public record ConditionShape(String field, MethodType method, int arity) {
+    }
+
+    /**
+     * @param field     排序字段
+     * @param direction 排序方向
+     */
+    public record SortShape(String field, DirectionType direction) {
+    }
+
+    /**
+     * keyset 分页形状
+     *
+     * @param nullKeys 游标中每个排序键是否为 NULL，NULL 值的比较方式不同因此影响 SQL 结构；
+     *                 第一页没有游标时为空列表
+     */
+    public record KeysetShape(List<Boolean> nullKeys) {
+
+        public boolean seek() {
+            return !nullKeys.isEmpty();
+        }
+    }
+
+    public static QueryShape of(SelectStatement statement) {
+        return of(statement, null);
+    }
+
+    /**
+     * @param statement  查询语句
+     * @param cursorKeys keyset 分页游标解码后的排序键值，没有游标时为 null
+     */
+    public static QueryShape of(SelectStatement statement, List<Object> cursorKeys) {
+        FilterCriteria filters = statement.getFilters();
+        List<ConditionShape> conditions = new ArrayList<>();
+        boolean or = false;
+        if (filters != null && filters.getConditions() != null) {
+            or = "OR".equalsIgnoreCase(filters.getRel());
+            for (FilterCondition condition : filters.getConditions()) {
+                conditions.add(new ConditionShape(condition.getField(), condition.getMethod(), arityOf(condition)));
+            }
+        }
+
+        List<SortShape> sorts = new ArrayList<>();
+        if (statement.getSort() != null) {
+            for (SortCriteria sort : statement.getSort()) {
+                sorts.add(new SortShape(sort.getField(), directionOf(sort)));
+            }
+        }
+
+        PageCriteria page = statement.getPage();
+        KeysetShape keyset = null;
+        if (page != null && page.getMode() == PageMode.KEYSET) {
+            List<Boolean> nullKeys = new ArrayList<>();
+            if (cursorKeys != null) {
+                cursorKeys.forEach(key -> nullKeys.add(key == null));
+            }
+            keyset = new KeysetShape(Collections.unmodifiableList(nullKeys));
+        }
+        // keyset 分页的窗口计数只能统计到游标之后的记录，总数需要单独计数
+        Projection projection = page != null && keyset == null && countModeOf(page) == CountMode.WINDOW
+                ? Projection.ROWS_WITH_TOTAL
+                : Projection.ROWS;
+        List<String> select = statement.getSelect() == null || statement.getSelect().isEmpty()
+                ? null
+                : List.copyOf(statement.getSelect());
+        return new QueryShape(statement.getEntityId(), select, or,
+                Collections.unmodifiableList(conditions),
+                Collections.unmodifiableList(sorts),
+                page != null,
+                projection,
+                keyset);
+    }
+
+    /**
+     * 同一过滤条件下的计数查询形状，忽略排序和分页
+     */
+    public QueryShape forCount() {
+        return new QueryShape(entityId, null, or, conditions, List.of(), false, Projection.COUNT, null);
+    }
+
+    public static CountMode countModeOf(PageCriteria page) {
+        return page.getCount() == null ? CountMode.WINDOW : page.getCount();
+    }
+
+    /**
+     * 计算过滤条件需要绑定的参数个数
+     */
+    static int arityOf(FilterCondition condition) {
+        if (condition.getMethod() == MethodType.IN) {
+            return bucket(inValues(condition).size());
+        }
+        if (condition.getMethod() == MethodType.BETWEEN) {
+            return condition.getValues() != null && condition.getValues().size() >= 2 ? 2 : 0;
+        }
+        return condition.getValue() == null ? NULL_ARITY : 1;
+    }
+
+    /**
+     * 获取 IN 条件的值列表，兼容只传 value 的写法
+     */
+    static List<Object> inValues(FilterCondition condition) {
+        if (condition.getValues() != null) {
+            return condition.getValues();
+        }
+        if (condition.getValue() != null) {
+            return List.of(condition.getValue());
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * 将 IN 列表长度向上取整到 2 的幂，避免每种长度都生成一个查询计划
+     */
+    static int bucket(int size) {
+        if (size <= 1) {
+            return size;
+        }
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    static DirectionType directionOf(SortCriteria sort) {
+        return sort.getDirection() == null ? DirectionType.ASC : sort.getDirection();
+    }
+}
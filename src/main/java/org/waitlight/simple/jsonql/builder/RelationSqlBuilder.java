@@ -0,0 +1,140 @@
+package org.waitlight.simple.jsonql.builder;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jooq.Field;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
+import org.waitlight.simple.jsonql.metadata.Property;
+import org.waitlight.simple.jsonql.metadata.RelationshipType;
+import org.waitlight.simple.jsonql.statement.SelectStatement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 构建一对多关联展开的批量查询
+ * <p>
+ * 一页父记录的子记录按关联各用一条 {@code SELECT * FROM child WHERE fk IN (...)} 查询，
+ * 父记录主键较多时按 {@link DeleteSqlBuilder#DEFAULT_IN_SIZE} 拆分为多条，避免逐行查询子记录的 N+1 问题
+ */
+public class RelationSqlBuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(RelationSqlBuilder.class);
+
+    private final Metadata metadata;
+
+    public RelationSqlBuilder(Metadata metadata) {
+        this.metadata = metadata;
+    }
+
+    /**
+     * 解析并校验查询语句中要展开的关联
+     *
+     * @param statement 查询语句
+     * @return 要展开的关联，未指定 {@code expand} 时为空列表
+     * @throws SqlBuildException 关联不存在、不是一对多关联，或者与列式结果、不含主键的 select 同时使用时抛出
+     */
+    public List<Expansion> resolve(SelectStatement statement) throws SqlBuildException {
+        if (statement.getExpand() == null || statement.getExpand().isEmpty()) {
+            return List.of();
+        }
+        if (statement.isCompact()) {
+            throw new SqlBuildException("Expand cannot be combined with compact result");
+        }
+
+        PersistentClass parent = metadata.getEntity(statement.getEntityId());
+        Property idProperty = parent.getIdProperty();
+        if (statement.getSelect() != null && !statement.getSelect().isEmpty()
+                && !statement.getSelect().contains(idProperty.fieldName())
+                && !statement.getSelect().contains(idProperty.columnName())) {
+            throw new SqlBuildException("Expand requires the id field in select: " + idProperty.fieldName());
+        }
+
+        Set<String> fields = new LinkedHashSet<>(statement.getExpand());
+        List<Expansion> expansions = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            expansions.add(resolve(parent, field));
+        }
+        return expansions;
+    }
+
+    /**
+     * 按父记录主键构建子记录查询，主键需已去重
+     *
+     * @param expansion 要展开的关联
+     * @param parentIds 本页父记录的主键
+     * @return 拆分后的查询，父记录为空时返回空列表
+     */
+    public List<PreparedSql<SelectStatement>> build(Expansion expansion, List<Object> parentIds) {
+        Field<Object> foreignKey = DSL.field(DSL.name(expansion.foreignKeyColumn()));
+        Field<Object> childId = DSL.field(DSL.name(expansion.child().getIdProperty().columnName()));
+        List<PreparedSql<SelectStatement>> result = new ArrayList<>();
+        for (int from = 0; from < parentIds.size(); from += DeleteSqlBuilder.DEFAULT_IN_SIZE) {
+            List<Object> parameters = new ArrayList<>(
+                    parentIds.subList(from, Math.min(from + DeleteSqlBuilder.DEFAULT_IN_SIZE, parentIds.size())));
+            List<Field<Object>> params = new ArrayList<>(parameters.size());
+            parameters.forEach(id -> params.add(DSL.param()));
+
+            String sql = DSL.using(SQLDialect.MYSQL)
+                    .select(DSL.asterisk())
+                    .from(DSL.table(DSL.name(expansion.child().getTableName())))
+                    .where(foreignKey.in(params))
+                    .orderBy(childId)
+                    .getSQL();
+            result.add(new PreparedSql<>(sql, parameters, SelectStatement.class));
+        }
+        log.info("build expand sql, relation: {}, parents: {}, statements: {}",
+                expansion.field(), parentIds.size(), result.size());
+        return result;
+    }
+
+    private Expansion resolve(PersistentClass parent, String field) throws SqlBuildException {
+        if (StringUtils.isBlank(field)) {
+            throw new SqlBuildException("Expand field is blank");
+        }
+        Property property = parent.getProperties().stream()
+                .filter(p -> p.fieldName().equals(field))
+                .findFirst()
+                .orElseThrow(() -> new SqlBuildException("Expand field not found: " + field));
+        if (property.relationship() != RelationshipType.ONE_TO_MANY) {
+            throw new SqlBuildException("Only one-to-many relations can be expanded: " + field);
+        }
+
+        PersistentClass child = metadata.findEntity(property.targetEntity());
+        if (child == null) {
+            throw new SqlBuildException("Expand target entity not registered: " + field);
+        }
+        return new Expansion(property.fieldName(), child, foreignKeyColumn(property, child));
+    }
+
+    /**
+     * 子实体上指向父实体的外键列：优先使用 {@code mappedBy} 对应的多对一字段的列，
+     * 未声明 {@code mappedBy} 时使用默认的外键名
+     */
+    private static String foreignKeyColumn(Property property, PersistentClass child) throws SqlBuildException {
+        if (StringUtils.isBlank(property.mappedBy())) {
+            return property.foreignKeyName();
+        }
+        return child.getProperties().stream()
+                .filter(p -> p.fieldName().equals(property.mappedBy())
+                        && p.relationship() == RelationshipType.MANY_TO_ONE)
+                .map(Property::columnName)
+                .findFirst()
+                .orElseThrow(() -> new SqlBuildException("mappedBy field not found on ["
+                        + child.getEntityName() + "]: " + property.mappedBy()));
+    }
+
+    /**
+     * @param field            父实体上的一对多字段名，也是结果中子记录列表的键
+     * @param child            子实体
+     * @param foreignKeyColumn 子表中指向父记录主键的外键列
+     */
+    public record Expansion(String field, PersistentClass child, String foreignKeyColumn) {
+    }
+}
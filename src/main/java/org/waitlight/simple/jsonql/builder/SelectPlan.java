@@ -0,0 +1,27 @@
+package org.waitlight.simple.jsonql.builder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编译后的查询计划，同一 {@link QueryShape} 的请求共享同一个计划
+ *
+ * @param sql            带 {@code ?} 占位符的 SQL
+ * @param parameterOrder SQL 中占位符依次对应的动态参数下标
+ */
+public record SelectPlan(String sql, List<Integer> parameterOrder) {
+
+    /**
+     * 按占位符在 SQL 中出现的顺序排列参数
+     *
+     * @param indexedParameters 按动态参数下标排列的参数值
+     * @return 可直接依次绑定到 PreparedStatement 的参数列表
+     */
+    public List<Object> bind(List<Object> indexedParameters) {
+        List<Object> parameters = new ArrayList<>(parameterOrder.size());
+        for (Integer index : parameterOrder) {
+            parameters.add(indexedParameters.get(index));
+        }
+        return parameters;
+    }
+}
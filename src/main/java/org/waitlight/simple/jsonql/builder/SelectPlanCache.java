@@ -0,0 +1,49 @@
+package org.waitlight.simple.jsonql.builder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * 有界、线程安全的查询计划缓存，key 为 {@link QueryShape}
+ */
+public class SelectPlanCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private final Cache<QueryShape, SelectPlan> cache;
+
+    public SelectPlanCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public SelectPlanCache(int maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 获取已编译的查询计划
+     *
+     * @param shape 查询形状
+     * @return 查询计划，未命中时返回 null
+     */
+    public SelectPlan get(QueryShape shape) {
+        return cache.getIfPresent(shape);
+    }
+
+    public void put(QueryShape shape, SelectPlan plan) {
+        cache.put(shape, plan);
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public PlanCacheStats getStats() {
+        CacheStats stats = cache.stats();
+        return new PlanCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+}
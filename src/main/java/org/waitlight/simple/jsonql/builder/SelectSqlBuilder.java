@@ -1,14 +1,15 @@
 package org.waitlight.simple.jsonql.builder;
 
-import org.apache.calcite.jdbc.CalciteConnection;
-import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rex.RexBuilder;
-import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexNode;
-import org.apache.calcite.sql.SqlDialect;
-import org.apache.calcite.sql.dialect.MysqlSqlDialect;
+import org.apache.calcite.rex.RexUtil;
+import org.apache.calcite.sql.SqlOperator;
 import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.sql.util.SqlString;
 import org.apache.calcite.tools.FrameworkConfig;
 import org.apache.calcite.tools.RelBuilder;
 import org.apache.commons.lang3.StringUtils;
@@ -17,23 +18,58 @@ import org.slf4j.LoggerFactory;
 import org.waitlight.simple.jsonql.metadata.Metadata;
 import org.waitlight.simple.jsonql.metadata.PersistentClass;
 import org.waitlight.simple.jsonql.metadata.Property;
+import org.waitlight.simple.jsonql.metadata.RelationshipType;
 import org.waitlight.simple.jsonql.statement.SelectStatement;
+import org.waitlight.simple.jsonql.statement.model.DirectionType;
 import org.waitlight.simple.jsonql.statement.model.FilterCondition;
-import org.waitlight.simple.jsonql.statement.model.FilterCriteria;
+import org.waitlight.simple.jsonql.statement.model.MethodType;
 import org.waitlight.simple.jsonql.statement.model.PageCriteria;
-import org.waitlight.simple.jsonql.statement.model.SortCriteria;
+import org.waitlight.simple.jsonql.statement.model.PageMode;
 
-import java.sql.DriverManager;
-import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SELECT 语句构建器
+ * <p>
+ * 过滤条件和分页参数都以动态参数（{@code ?}）的形式生成，生成的 SQL 只取决于语句的 {@link QueryShape}，
+ * 编译结果缓存在 {@link SelectPlanCache} 中，形状相同的请求只需重新绑定参数
+ */
 public class SelectSqlBuilder extends AbstractSqlBuilder<SelectStatement> {
 
     private static final Logger log = LoggerFactory.getLogger(SelectSqlBuilder.class);
 
+    /**
+     * 总记录数列名，用于窗口计数列和计数查询
+     */
+    public static final String TOTAL_COLUMN = "__total";
+
+    /**
+     * 内部使用的列名前缀，例如未在 select 中指定但排序需要的列，这类列不会映射到查询结果
+     */
+    public static final String HIDDEN_COLUMN_PREFIX = "__";
+
+    public static final int DEFAULT_PAGE_SIZE = 10;
+
+    private static final Map<MethodType, SqlOperator> COMPARISONS = Map.of(
+            MethodType.GT, SqlStdOperatorTable.GREATER_THAN,
+            MethodType.LT, SqlStdOperatorTable.LESS_THAN,
+            MethodType.GE, SqlStdOperatorTable.GREATER_THAN_OR_EQUAL,
+            MethodType.LE, SqlStdOperatorTable.LESS_THAN_OR_EQUAL);
+
+    private final SelectPlanCache planCache;
+
     public SelectSqlBuilder(Metadata metadata) {
+        this(metadata, new SelectPlanCache());
+    }
+
+    public SelectSqlBuilder(Metadata metadata, SelectPlanCache planCache) {
         super(metadata);
+        this.planCache = planCache;
     }
 
     @Override
@@ -47,8 +83,109 @@ public class SelectSqlBuilder extends AbstractSqlBuilder<SelectStatement> {
             throw new SqlBuildException("EntityId is required for select statement");
         }
 
+        List<Object> cursorKeys = decodeCursor(statement);
+        return prepare(QueryShape.of(statement, cursorKeys), statement, cursorKeys);
+    }
+
+    /**
+     * 构建与查询语句过滤条件相同的计数 SQL，结果只有一列 {@link #TOTAL_COLUMN}
+     *
+     * @param statement 查询语句
+     * @return 计数 SQL
+     * @throws SqlBuildException 构建异常
+     */
+    public PreparedSql<SelectStatement> buildCount(SelectStatement statement) throws SqlBuildException {
+        if (statement == null || StringUtils.isBlank(statement.getEntityId())) {
+            throw new SqlBuildException("EntityId is required for select statement");
+        }
+        return prepare(QueryShape.of(statement).forCount(), statement, null);
+    }
+
+    /**
+     * keyset 分页使用的排序键列名，依次对应游标中的排序键值
+     *
+     * @param statement keyset 分页的查询语句
+     * @return 列名列表
+     */
+    public List<String> getKeysetColumns(SelectStatement statement) throws SqlBuildException {
+        PersistentClass persistentClass = metadata.getEntity(statement.getEntityId());
+        List<QueryShape.SortShape> sorts = keysetSorts(QueryShape.of(statement).sorts(), persistentClass);
+        Map<String, String> hidden = hiddenSortColumns(sorts, selectColumns(persistentClass, statement.getSelect()),
+                persistentClass);
+        List<String> columns = new ArrayList<>();
+        for (QueryShape.SortShape sort : sorts) {
+            String column = requireSortProperty(persistentClass, sort.field()).columnName();
+            columns.add(hidden.getOrDefault(column, column));
+        }
+        return columns;
+    }
+
+    /**
+     * 根据本页最后一行的排序键值生成下一页的游标
+     *
+     * @param statement keyset 分页的查询语句
+     * @param keys      排序键值，顺序与 {@link #getKeysetColumns} 一致
+     * @return 游标
+     */
+    public String encodeCursor(SelectStatement statement, List<Object> keys) throws SqlBuildException {
+        return KeysetCursor.encode(keys, fingerprint(statement));
+    }
+
+    private List<Object> decodeCursor(SelectStatement statement) throws SqlBuildException {
+        PageCriteria page = statement.getPage();
+        if (page == null || page.getMode() != PageMode.KEYSET || StringUtils.isBlank(page.getCursor())) {
+            return null;
+        }
+        PersistentClass persistentClass = metadata.getEntity(statement.getEntityId());
+        int size = keysetSorts(QueryShape.of(statement).sorts(), persistentClass).size();
+        return KeysetCursor.decode(page.getCursor(), fingerprint(statement), size);
+    }
+
+    /**
+     * 游标对应的实体和排序规则的指纹
+     */
+    private String fingerprint(SelectStatement statement) throws SqlBuildException {
+        PersistentClass persistentClass = metadata.getEntity(statement.getEntityId());
+        StringBuilder sb = new StringBuilder(persistentClass.getTableName());
+        for (QueryShape.SortShape sort : keysetSorts(QueryShape.of(statement).sorts(), persistentClass)) {
+            sb.append('|').append(sort.field()).append(' ').append(sort.direction().getValue());
+        }
+        return Integer.toHexString(sb.toString().hashCode());
+    }
+
+    /**
+     * keyset 分页的排序键：请求的排序字段加上主键作为唯一的决胜字段，保证排序结果确定
+     */
+    private List<QueryShape.SortShape> keysetSorts(List<QueryShape.SortShape> sorts, PersistentClass persistentClass)
+            throws SqlBuildException {
+        Property idProperty = persistentClass.getIdProperty();
+        for (QueryShape.SortShape sort : sorts) {
+            if (requireSortProperty(persistentClass, sort.field()) == idProperty) {
+                return sorts;
+            }
+        }
+        List<QueryShape.SortShape> keys = new ArrayList<>(sorts);
+        keys.add(new QueryShape.SortShape(idProperty.fieldName(), DirectionType.ASC));
+        return keys;
+    }
+
+    private PreparedSql<SelectStatement> prepare(QueryShape shape, SelectStatement statement, List<Object> cursorKeys)
+            throws SqlBuildException {
         try {
-            return buildWithCalcite(statement);
+            SelectPlan plan = planCache.get(shape);
+            if (plan == null) {
+                plan = compile(shape);
+                planCache.put(shape, plan);
+                log.info("build select sql: {}", plan.sql());
+            }
+
+            PreparedSql<SelectStatement> preparedSql = new PreparedSql<>();
+            preparedSql.setSql(plan.sql());
+            preparedSql.setParameters(plan.bind(bindParameters(shape, statement, cursorKeys)));
+            preparedSql.setStatementType(SelectStatement.class);
+            return preparedSql;
+        } catch (SqlBuildException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to build SELECT SQL with Calcite: {}", e.getMessage());
             throw new SqlBuildException("Failed to build SELECT SQL: " + e.getMessage(), e);
@@ -62,84 +199,234 @@ public class SelectSqlBuilder extends AbstractSqlBuilder<SelectStatement> {
         return build(statement);
     }
 
+    public PlanCacheStats getPlanCacheStats() {
+        return planCache.getStats();
+    }
+
     /**
-     * 使用Apache Calcite构建SELECT SQL
+     * 使用Apache Calcite将查询形状编译为查询计划
      */
-    private PreparedSql<SelectStatement> buildWithCalcite(SelectStatement statement) throws Exception {
-        // 使用已有的Calcite Schema
+    private SelectPlan compile(QueryShape shape) throws SqlBuildException {
+        PersistentClass persistentClass = metadata.getEntity(shape.entityId());
+        if (persistentClass == null) {
+            throw new SqlBuildException("Entity not found: " + shape.entityId());
+        }
+
         FrameworkConfig config = metadata.getFrameworkConfig();
         RelBuilder builder = RelBuilder.create(config);
-
-        // 构建查询
-        buildQuery(builder, statement);
+        ParamCounter params = new ParamCounter();
+        List<String> columns = selectColumns(persistentClass, shape.select());
+        List<QueryShape.SortShape> sorts = shape.keyset() != null
+                ? keysetSorts(shape.sorts(), persistentClass)
+                : shape.sorts();
+        Map<String, String> hidden = hiddenSortColumns(sorts, columns, persistentClass);
+
+        // FROM子句，计数查询不需要关联表：多对一关联按主键 LEFT JOIN 不改变行数
+        builder.scan(persistentClass.getTableName());
+        List<RexNode> joined = shape.projection() == QueryShape.Projection.COUNT
+                ? List.of()
+                : addJoins(builder, joins(persistentClass, shape.select()));
+        // WHERE子句
+        addFilters(builder, shape, persistentClass, params);
+        // keyset 分页的定位条件
+        addSeek(builder, shape, persistentClass, params);
+        switch (shape.projection()) {
+            case COUNT -> builder.aggregate(builder.groupKey(), builder.countStar(TOTAL_COLUMN));
+            case ROWS_WITH_TOTAL -> {
+                // SELECT子句（查询字段 + 窗口计数列，分页前计算，一次往返同时得到总数）
+                List<RexNode> fields = projectFields(builder, columns, joined, hidden);
+                fields.add(builder.aggregateCall(SqlStdOperatorTable.COUNT).over().as(TOTAL_COLUMN));
+                builder.project(fields);
+            }
+            // SELECT子句（查询字段，未指定时为所有字段）
+            default -> builder.project(projectFields(builder, columns, joined, hidden));
+        }
+        // ORDER BY、LIMIT和OFFSET
+        addSortAndPagination(builder, shape, sorts, hidden, persistentClass, params);
 
         RelNode relNode = builder.build();
+        SqlString sqlString = render(relNode);
+        List<Integer> parameterOrder = sqlString.getDynamicParameters() == null
+                ? List.of()
+                : List.copyOf(sqlString.getDynamicParameters());
+        return new SelectPlan(sqlString.getSql(), parameterOrder);
+    }
 
-        // 生成SQL
-        String sql = convertRelNodeToSql(relNode);
-
-        // 提取参数
-        List<Object> parameters = extractParameters(statement);
-
-        log.info("build select sql: {}", sql);
+    /**
+     * 查询的列，关联表的列以 {@code 关联字段.列名} 为别名排在本表的列之后，
+     * 排序需要但未被选择的列以 {@link #HIDDEN_COLUMN_PREFIX} 开头的别名附加在最后
+     */
+    private List<RexNode> projectFields(RelBuilder builder, List<String> columns, List<RexNode> joined,
+                                        Map<String, String> hidden) {
+        if (columns == null) {
+            return new ArrayList<>(builder.fields());
+        }
+        List<RexNode> fields = new ArrayList<>(columns.size() + joined.size() + hidden.size());
+        for (String column : columns) {
+            fields.add(builder.field(column));
+        }
+        fields.addAll(joined);
+        hidden.forEach((column, alias) -> fields.add(builder.alias(builder.field(column), alias)));
+        return fields;
+    }
 
-        PreparedSql<SelectStatement> preparedSql = new PreparedSql<>();
-        preparedSql.setSql(sql);
-        preparedSql.setParameters(parameters);
-        preparedSql.setStatementType(SelectStatement.class);
+    /**
+     * 把 select 字段解析为实体表的列名并去重，未指定 select 时返回 null 表示查询所有列
+     * <ul>
+     *     <li>实体自身的字段，可以使用字段名或列名</li>
+     *     <li>多对一关联字段 {@code user} 或其主键 {@code user.id}，从外键列读取</li>
+     *     <li>多对一关联实体的其它字段 {@code user.name} 或全部字段 {@code user.*}，由 {@link #joins} 关联查询，
+     *     同时读取外键列作为关联对象的主键</li>
+     * </ul>
+     * 一对多、多对多关联不能通过 select 查询
+     */
+    private List<String> selectColumns(PersistentClass persistentClass, List<String> select) throws SqlBuildException {
+        if (select == null || select.isEmpty()) {
+            return null;
+        }
 
-        return preparedSql;
+        Set<String> columns = new LinkedHashSet<>();
+        for (String field : select) {
+            if (StringUtils.isBlank(field)) {
+                throw new SqlBuildException("Select field is blank");
+            }
+            int dot = field.indexOf('.');
+            Property property = findProperty(persistentClass, dot > 0 ? field.substring(0, dot) : field);
+            if (property == null) {
+                throw new SqlBuildException("Select field not found: " + field);
+            }
+            if (property.relationship() == RelationshipType.ONE_TO_MANY
+                    || property.relationship() == RelationshipType.MANY_TO_MANY) {
+                throw new SqlBuildException("Select of collection relation is not supported: " + field);
+            }
+            if (dot > 0 && property.relationship() != RelationshipType.MANY_TO_ONE) {
+                throw new SqlBuildException("Select field not found: " + field);
+            }
+            columns.add(property.columnName());
+        }
+        return List.copyOf(columns);
     }
 
     /**
-     * 创建Calcite连接
+     * 解析 select 中引用多对一关联实体字段的路径，按关联字段分组为需要 LEFT JOIN 的关联表
+     * <p>
+     * 关联实体的主键就是本表的外键，不需要关联查询；只引用主键的关联不会生成 JOIN
      */
-    private CalciteConnection createCalciteConnection() throws SQLException {
-        return DriverManager.getConnection("jdbc:calcite:")
-                .unwrap(CalciteConnection.class);
+    private List<Join> joins(PersistentClass persistentClass, List<String> select) throws SqlBuildException {
+        if (select == null || select.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Join> joins = new LinkedHashMap<>();
+        for (String field : select) {
+            int dot = field.indexOf('.');
+            if (dot <= 0) {
+                continue;
+            }
+            Property property = findProperty(persistentClass, field.substring(0, dot));
+            PersistentClass target = property == null ? null : metadata.findEntity(property.targetEntity());
+            if (target == null || property.relationship() != RelationshipType.MANY_TO_ONE) {
+                throw new SqlBuildException("Select field not found: " + field);
+            }
+
+            String subField = field.substring(dot + 1);
+            Property idProperty = target.getIdProperty();
+            List<String> targetColumns = new ArrayList<>();
+            if ("*".equals(subField)) {
+                for (Property targetProperty : target.getProperties()) {
+                    if (targetProperty != idProperty && !isCollection(targetProperty)) {
+                        targetColumns.add(targetProperty.columnName());
+                    }
+                }
+            } else {
+                Property targetProperty = findProperty(target, subField);
+                if (targetProperty == null || isCollection(targetProperty)) {
+                    throw new SqlBuildException("Select field not found: " + field);
+                }
+                if (targetProperty != idProperty) {
+                    targetColumns.add(targetProperty.columnName());
+                }
+            }
+            if (targetColumns.isEmpty()) {
+                continue;
+            }
+
+            Join join = joins.computeIfAbsent(property.fieldName(),
+                    relation -> new Join(relation, target, property.columnName(), new LinkedHashSet<>()));
+            join.columns().addAll(targetColumns);
+        }
+        return List.copyOf(joins.values());
     }
 
     /**
-     * 构建查询
+     * 按外键 LEFT JOIN 关联表，返回以 {@code 关联字段.列名} 为别名的关联列
+     * <p>
+     * JOIN 后同名列会被重命名，关联列按其在连接结果中的位置引用；本表的列排在最前面，仍可按列名引用
      */
-    private void buildQuery(RelBuilder builder, SelectStatement statement) throws SqlBuildException {
-        String entityId = statement.getEntityId();
-        PersistentClass persistentClass = metadata.getEntity(entityId);
+    private List<RexNode> addJoins(RelBuilder builder, List<Join> joins) {
+        if (joins.isEmpty()) {
+            return List.of();
+        }
 
-        if (persistentClass == null) {
-            throw new SqlBuildException("Entity not found: " + entityId);
+        List<Integer> indexes = new ArrayList<>();
+        List<String> aliases = new ArrayList<>();
+        for (Join join : joins) {
+            int offset = builder.peek().getRowType().getFieldCount();
+            builder.scan(join.target().getTableName()).as(join.relation());
+            RelDataType targetType = builder.peek().getRowType();
+            for (String column : join.columns()) {
+                indexes.add(offset + targetType.getField(column, true, false).getIndex());
+                aliases.add(join.relation() + "." + column);
+            }
+            builder.join(JoinRelType.LEFT, builder.equals(
+                    builder.field(2, 0, join.foreignKey()),
+                    builder.field(2, 1, join.target().getIdProperty().columnName())));
         }
 
-        String tableName = persistentClass.getTableName();
-        // FROM子句
-        builder.scan(tableName);
-        // WHERE子句
-        addFilters(builder, statement.getFilters(), persistentClass);
-        // ORDER BY子句
-        addSorts(builder, statement.getSort(), persistentClass);
-        // SELECT子句（选择所有字段）
-        builder.project(builder.fields());
-        // LIMIT和OFFSET
-        addPagination(builder, statement.getPage());
+        List<RexNode> fields = new ArrayList<>(indexes.size());
+        for (int i = 0; i < indexes.size(); i++) {
+            fields.add(builder.alias(builder.field(indexes.get(i)), aliases.get(i)));
+        }
+        return fields;
+    }
+
+    private static boolean isCollection(Property property) {
+        return property.relationship() == RelationshipType.ONE_TO_MANY
+                || property.relationship() == RelationshipType.MANY_TO_MANY;
+    }
+
+    /**
+     * 排序需要但不在 select 中的列及其别名，查询所有列时为空
+     */
+    private Map<String, String> hiddenSortColumns(List<QueryShape.SortShape> sorts, List<String> columns,
+                                                  PersistentClass persistentClass) throws SqlBuildException {
+        if (columns == null) {
+            return Map.of();
+        }
+        Map<String, String> hidden = new LinkedHashMap<>();
+        for (QueryShape.SortShape sort : sorts) {
+            String column = requireSortProperty(persistentClass, sort.field()).columnName();
+            if (!columns.contains(column) && !hidden.containsKey(column)) {
+                hidden.put(column, HIDDEN_COLUMN_PREFIX + "s" + hidden.size());
+            }
+        }
+        return hidden;
     }
 
     /**
      * 添加过滤条件
      */
-    private void addFilters(RelBuilder builder, FilterCriteria filters, PersistentClass persistentClass)
-            throws SqlBuildException {
-        if (filters == null || filters.getConditions() == null || filters.getConditions().isEmpty()) {
+    private void addFilters(RelBuilder builder, QueryShape shape, PersistentClass persistentClass,
+                            ParamCounter params) throws SqlBuildException {
+        if (shape.conditions().isEmpty()) {
             return;
         }
 
         RexBuilder rexBuilder = builder.getRexBuilder();
         List<RexNode> conditions = new ArrayList<>();
 
-        for (FilterCondition condition : filters.getConditions()) {
-            RexNode filterCondition = buildFilterCondition(builder, rexBuilder, condition, persistentClass);
-            if (filterCondition != null) {
-                conditions.add(filterCondition);
-            }
+        for (QueryShape.ConditionShape condition : shape.conditions()) {
+            conditions.add(buildFilterCondition(builder, rexBuilder, condition, persistentClass, params));
         }
 
         if (!conditions.isEmpty()) {
@@ -147,218 +434,301 @@ public class SelectSqlBuilder extends AbstractSqlBuilder<SelectStatement> {
             if (conditions.size() == 1) {
                 // 只有一个条件时直接使用
                 combinedCondition = conditions.get(0);
+            } else if (shape.or()) {
+                combinedCondition = rexBuilder.makeCall(SqlStdOperatorTable.OR, conditions);
             } else {
-                // 多个条件时使用AND/OR组合
-                if ("OR".equalsIgnoreCase(filters.getRel())) {
-                    combinedCondition = rexBuilder.makeCall(SqlStdOperatorTable.OR, conditions);
-                } else {
-                    combinedCondition = rexBuilder.makeCall(SqlStdOperatorTable.AND, conditions);
-                }
+                combinedCondition = rexBuilder.makeCall(SqlStdOperatorTable.AND, conditions);
             }
             builder.filter(combinedCondition);
         }
     }
 
     /**
-     * 构建单个过滤条件
+     * 构建单个过滤条件，参数个数必须与 {@link #bindCondition} 绑定的值个数一致
      */
     private RexNode buildFilterCondition(RelBuilder builder, RexBuilder rexBuilder,
-                                         FilterCondition condition, PersistentClass persistentClass)
-            throws SqlBuildException {
-        String fieldName = condition.getField();
-        Property property = findProperty(persistentClass, fieldName);
-
+                                         QueryShape.ConditionShape condition, PersistentClass persistentClass,
+                                         ParamCounter params) throws SqlBuildException {
+        Property property = findProperty(persistentClass, condition.field());
         if (property == null) {
-            throw new SqlBuildException("Field not found: " + fieldName);
+            throw new SqlBuildException("Field not found: " + condition.field());
         }
 
-        RexInputRef fieldRef = rexBuilder.makeInputRef(
-                builder.peek().getRowType().getField(property.columnName(), false, false).getType(),
-                builder.peek().getRowType().getFieldNames().indexOf(property.columnName()));
+        RexNode fieldRef = builder.field(property.columnName());
+        RelDataType type = fieldRef.getType();
+        int arity = condition.arity();
 
-        Object value = condition.getValue();
-
-        switch (condition.getMethod()) {
+        switch (condition.method()) {
             case EQ:
-                RexNode literal = rexBuilder.makeLiteral(value, fieldRef.getType(), true);
-                return rexBuilder.makeCall(SqlStdOperatorTable.EQUALS, fieldRef, literal);
+                if (arity == QueryShape.NULL_ARITY) {
+                    return rexBuilder.makeCall(SqlStdOperatorTable.IS_NULL, fieldRef);
+                }
+                return rexBuilder.makeCall(SqlStdOperatorTable.EQUALS, fieldRef, params.next(rexBuilder, type));
+
+            case NE:
+                if (arity == QueryShape.NULL_ARITY) {
+                    return rexBuilder.makeCall(SqlStdOperatorTable.IS_NOT_NULL, fieldRef);
+                }
+                return rexBuilder.makeCall(SqlStdOperatorTable.NOT_EQUALS, fieldRef, params.next(rexBuilder, type));
+
+            case GT:
+            case LT:
+            case GE:
+            case LE:
+                if (arity == QueryShape.NULL_ARITY) {
+                    throw new SqlBuildException("Value is required for filter method: " + condition.method().getValue());
+                }
+                return rexBuilder.makeCall(COMPARISONS.get(condition.method()), fieldRef, params.next(rexBuilder, type));
+
+            case BETWEEN:
+                if (arity == 0) {
+                    throw new SqlBuildException("Two values are required for filter method: between");
+                }
+                RexNode lower = params.next(rexBuilder, type);
+                RexNode upper = params.next(rexBuilder, type);
+                return rexBuilder.makeCall(SqlStdOperatorTable.AND,
+                        rexBuilder.makeCall(SqlStdOperatorTable.GREATER_THAN_OR_EQUAL, fieldRef, lower),
+                        rexBuilder.makeCall(SqlStdOperatorTable.LESS_THAN_OR_EQUAL, fieldRef, upper));
 
             case IN:
-                List<RexNode> inValues = new ArrayList<>();
-                if (condition.getValues() != null) {
-                    for (Object val : condition.getValues()) {
-                        inValues.add(rexBuilder.makeLiteral(val, fieldRef.getType(), true));
-                    }
-                } else if (value != null) {
-                    inValues.add(rexBuilder.makeLiteral(value, fieldRef.getType(), true));
+                if (arity <= 0) {
+                    // 空列表不匹配任何行
+                    return rexBuilder.makeLiteral(false);
                 }
-                if (!inValues.isEmpty()) {
-                    return rexBuilder.makeIn(fieldRef, inValues);
+                List<RexNode> inValues = new ArrayList<>(arity);
+                for (int i = 0; i < arity; i++) {
+                    inValues.add(params.next(rexBuilder, type));
                 }
-                break;
+                return rexBuilder.makeIn(fieldRef, inValues);
 
             case LIKE:
-                String likeValue = "%" + value + "%";
-                RexNode likeLiteral = rexBuilder.makeLiteral(likeValue, fieldRef.getType(), true);
-                return rexBuilder.makeCall(SqlStdOperatorTable.LIKE, fieldRef, likeLiteral);
+                if (arity == QueryShape.NULL_ARITY) {
+                    throw new SqlBuildException("Value is required for filter method: like");
+                }
+                return rexBuilder.makeCall(SqlStdOperatorTable.LIKE, fieldRef, params.next(rexBuilder, type));
 
             case IS:
-                if (value == null) {
+                if (arity == QueryShape.NULL_ARITY) {
                     return rexBuilder.makeCall(SqlStdOperatorTable.IS_NULL, fieldRef);
                 }
                 break;
 
-            // 可以添加更多操作符支持
             default:
-                log.warn("Unsupported filter method: {}", condition.getMethod());
+                break;
         }
 
-        return null;
+        // 与按条件更新、删除一致，不支持的条件不会被忽略，避免条件被放宽后返回预期之外的行
+        throw new SqlBuildException("Unsupported filter method: " + condition.method().getValue());
     }
 
     /**
-     * 添加排序
+     * 添加 keyset 分页的定位条件，即按排序键展开的 {@code (k1, k2, ...) > (?, ?, ...)}：
+     * {@code k1 > ? OR (k1 = ? AND k2 > ?) OR ...}，展开后支持每个排序键使用不同的排序方向
+     * <p>
+     * NULL 按 MySQL 默认规则排序（升序在前、降序在后），游标中为 NULL 的排序键使用 IS NULL 比较
      */
-    private void addSorts(RelBuilder builder, List<SortCriteria> sorts, PersistentClass persistentClass)
-            throws SqlBuildException {
-        if (sorts == null || sorts.isEmpty()) {
+    private void addSeek(RelBuilder builder, QueryShape shape, PersistentClass persistentClass,
+                         ParamCounter params) throws SqlBuildException {
+        if (shape.keyset() == null || !shape.keyset().seek()) {
             return;
         }
 
-        List<RexNode> sortFields = new ArrayList<>();
+        RexBuilder rexBuilder = builder.getRexBuilder();
+        List<QueryShape.SortShape> keys = keysetSorts(shape.sorts(), persistentClass);
+        List<Boolean> nullKeys = shape.keyset().nullKeys();
+        List<RexNode> fields = new ArrayList<>(keys.size());
+        for (QueryShape.SortShape key : keys) {
+            fields.add(builder.field(requireSortProperty(persistentClass, key.field()).columnName()));
+        }
 
-        for (SortCriteria sort : sorts) {
-            Property property = findProperty(persistentClass, sort.getField());
-            if (property == null) {
-                throw new SqlBuildException("Sort field not found: " + sort.getField());
+        List<RexNode> levels = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            boolean descending = keys.get(i).direction() == DirectionType.DESC;
+            // 降序时 NULL 排在最后，之后没有记录
+            if (nullKeys.get(i) && descending) {
+                continue;
             }
 
-            RexInputRef fieldRef = builder.field(property.columnName());
+            List<RexNode> terms = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                RexNode field = fields.get(j);
+                terms.add(nullKeys.get(j)
+                        ? rexBuilder.makeCall(SqlStdOperatorTable.IS_NULL, field)
+                        : rexBuilder.makeCall(SqlStdOperatorTable.EQUALS, field, params.next(rexBuilder, field.getType())));
+            }
 
-            if ("DESC".equalsIgnoreCase(sort.getDirection().getValue())) {
-                sortFields.add(builder.desc(fieldRef));
+            RexNode field = fields.get(i);
+            if (nullKeys.get(i)) {
+                terms.add(rexBuilder.makeCall(SqlStdOperatorTable.IS_NOT_NULL, field));
+            } else if (descending) {
+                terms.add(rexBuilder.makeCall(SqlStdOperatorTable.OR,
+                        rexBuilder.makeCall(SqlStdOperatorTable.LESS_THAN, field, params.next(rexBuilder, field.getType())),
+                        rexBuilder.makeCall(SqlStdOperatorTable.IS_NULL, field)));
             } else {
-                sortFields.add(fieldRef);
+                terms.add(rexBuilder.makeCall(SqlStdOperatorTable.GREATER_THAN, field, params.next(rexBuilder, field.getType())));
             }
+            levels.add(RexUtil.composeConjunction(rexBuilder, terms));
         }
-
-        builder.sort(sortFields);
+        builder.filter(RexUtil.composeDisjunction(rexBuilder, levels));
     }
 
     /**
-     * 添加分页
+     * 添加排序和分页
      */
-    private void addPagination(RelBuilder builder, PageCriteria page) {
-        if (page == null) {
+    private void addSortAndPagination(RelBuilder builder, QueryShape shape, List<QueryShape.SortShape> sorts,
+                                      Map<String, String> hidden, PersistentClass persistentClass,
+                                      ParamCounter params) throws SqlBuildException {
+        if (sorts.isEmpty() && !shape.paged()) {
             return;
         }
 
-        int pageSize = page.getSize() > 0 ? page.getSize() : 10;
-        int pageNumber = page.getNumber() > 0 ? page.getNumber() : 1;
-        int offset = (pageNumber - 1) * pageSize;
-
-        builder.limit(offset, pageSize);
-    }
+        List<RexNode> sortFields = new ArrayList<>();
+        for (QueryShape.SortShape sort : sorts) {
+            String column = requireSortProperty(persistentClass, sort.field()).columnName();
+            RexNode fieldRef = builder.field(hidden.getOrDefault(column, column));
+            // 显式使用 MySQL 默认的 NULL 排序规则（升序在前、降序在后），避免方言生成 IS NULL 模拟排序
+            sortFields.add(sort.direction() == DirectionType.DESC
+                    ? builder.nullsLast(builder.desc(fieldRef))
+                    : builder.nullsFirst(fieldRef));
+        }
 
-    /**
-     * 查找属性
-     */
-    private Property findProperty(PersistentClass persistentClass, String fieldName) {
-        for (Property property : persistentClass.getProperties()) {
-            if (property.fieldName().equals(fieldName) || property.columnName().equals(fieldName)) {
-                return property;
+        RexNode offset = null;
+        RexNode fetch = null;
+        if (shape.paged()) {
+            RexBuilder rexBuilder = builder.getRexBuilder();
+            RelDataType intType = builder.getTypeFactory().createSqlType(SqlTypeName.INTEGER);
+            // keyset 分页由定位条件跳过已读记录，不需要 OFFSET
+            if (shape.keyset() == null) {
+                offset = params.next(rexBuilder, intType);
             }
+            fetch = params.next(rexBuilder, intType);
         }
-        return null;
-    }
-
-    /**
-     * 提取参数（目前Calcite构建的查询中参数已经内联，这里返回空列表）
-     */
-    private List<Object> extractParameters(SelectStatement statement) {
-        // 在使用Calcite构建的查询中，参数通常已经内联到SQL中
-        // 如果需要参数化查询，需要使用不同的方法
-        return new ArrayList<>();
+        builder.sortLimit(offset, fetch, sortFields);
     }
 
     /**
-     * 将RelNode转换为SQL字符串
+     * 按编译时分配动态参数的顺序收集参数值
      */
-    private String convertRelNodeToSql(RelNode relNode) {
-        // 使用MySQL方言生成SQL
-        SqlDialect dialect = MysqlSqlDialect.DEFAULT;
-
-        // 先获取基本的SQL字符串
-        String sql = RelOptUtil.toString(relNode);
+    private List<Object> bindParameters(QueryShape shape, SelectStatement statement, List<Object> cursorKeys) {
+        List<Object> values = new ArrayList<>();
+        if (!shape.conditions().isEmpty()) {
+            List<FilterCondition> conditions = statement.getFilters().getConditions();
+            for (int i = 0; i < conditions.size(); i++) {
+                bindCondition(shape.conditions().get(i), conditions.get(i), values);
+            }
+        }
 
-        // 手动转换为MySQL格式的SELECT语句
-        // 这是一个简化的实现，实际项目中可能需要更复杂的转换
-        sql = convertToMysqlSelect(sql, relNode);
+        if (shape.keyset() != null && shape.keyset().seek()) {
+            bindSeek(shape, cursorKeys, values);
+        }
 
-        return sql;
+        if (shape.paged()) {
+            PageCriteria page = statement.getPage();
+            int pageSize = page.getSize() != null && page.getSize() > 0 ? page.getSize() : DEFAULT_PAGE_SIZE;
+            if (shape.keyset() != null) {
+                // 多取一行用于判断是否还有下一页
+                values.add(pageSize + 1);
+            } else {
+                int pageNumber = page.getNumber() != null && page.getNumber() > 0 ? page.getNumber() : 1;
+                values.add((pageNumber - 1) * pageSize);
+                values.add(pageSize);
+            }
+        }
+        return values;
     }
 
     /**
-     * 转换为MySQL格式的SELECT语句
+     * 与 {@link #addSeek} 的展开顺序一致地绑定游标中的排序键值
      */
-    private String convertToMysqlSelect(String relString, RelNode relNode) {
-        // 根据RelNode的类型构建相应的SQL
-        return buildMysqlSelectFromRelNode(relNode, relString);
+    private void bindSeek(QueryShape shape, List<Object> cursorKeys, List<Object> values) {
+        List<Boolean> nullKeys = shape.keyset().nullKeys();
+        for (int i = 0; i < cursorKeys.size(); i++) {
+            boolean descending = i < shape.sorts().size() && shape.sorts().get(i).direction() == DirectionType.DESC;
+            if (nullKeys.get(i) && descending) {
+                continue;
+            }
+            for (int j = 0; j < i; j++) {
+                if (!nullKeys.get(j)) {
+                    values.add(cursorKeys.get(j));
+                }
+            }
+            if (!nullKeys.get(i)) {
+                values.add(cursorKeys.get(i));
+            }
+        }
     }
 
-    /**
-     * 从RelNode构建MySQL SELECT语句
-     */
-    private String buildMysqlSelectFromRelNode(RelNode relNode, String relString) {
-        StringBuilder sql = new StringBuilder();
-        sql.append("SELECT * FROM ");
-
-        // 从RelNode中提取表名
-        String tableName = extractTableName(relString);
-        sql.append("`").append(tableName).append("`");
-
-        // 处理WHERE条件
-        if (relString.contains("LogicalFilter")) {
-            sql.append(" WHERE ");
-            // 这里应该解析过滤条件，暂时简化
-            sql.append("1=1");
+    private void bindCondition(QueryShape.ConditionShape shape, FilterCondition condition, List<Object> values) {
+        int arity = shape.arity();
+        switch (shape.method()) {
+            case EQ:
+            case NE:
+            case GT:
+            case LT:
+            case GE:
+            case LE:
+                if (arity != QueryShape.NULL_ARITY) {
+                    values.add(condition.getValue());
+                }
+                break;
+            case BETWEEN:
+                values.add(condition.getValues().get(0));
+                values.add(condition.getValues().get(1));
+                break;
+            case IN:
+                // 列表长度按 2 的幂分桶，不足的部分重复最后一个值补齐，不影响查询结果
+                List<Object> inValues = QueryShape.inValues(condition);
+                for (int i = 0; i < arity; i++) {
+                    values.add(inValues.get(Math.min(i, inValues.size() - 1)));
+                }
+                break;
+            case LIKE:
+                if (arity != QueryShape.NULL_ARITY) {
+                    values.add("%" + condition.getValue() + "%");
+                }
+                break;
+            default:
+                break;
         }
+    }
 
-        // 处理ORDER BY
-        if (relString.contains("LogicalSort")) {
-            sql.append(" ORDER BY id");
+    private Property requireSortProperty(PersistentClass persistentClass, String fieldName) throws SqlBuildException {
+        Property property = findProperty(persistentClass, fieldName);
+        if (property == null) {
+            throw new SqlBuildException("Sort field not found: " + fieldName);
         }
+        return property;
+    }
 
-        // 处理LIMIT - 检查是否包含LogicalSort且有limit信息
-        if (relString.contains("LogicalSort")) {
-            // 从relString中查找limit信息
-            if (relString.contains("offset") || relString.contains("fetch")) {
-                sql.append(" LIMIT 10");
-            } else {
-                // 如果有LogicalSort但没有明确的limit信息，也可能是有分页的
-                // 检查原始的RelNode类型
-                log.debug("RelNode details: {}", relString);
-                sql.append(" LIMIT 10");
+    /**
+     * 查找属性
+     */
+    private Property findProperty(PersistentClass persistentClass, String fieldName) {
+        for (Property property : persistentClass.getProperties()) {
+            if (property.fieldName().equals(fieldName) || property.columnName().equals(fieldName)) {
+                return property;
             }
         }
+        return null;
+    }
 
-        return sql.toString();
+    /**
+     * @param relation   多对一关联字段名，也是关联表的别名
+     * @param target     关联实体
+     * @param foreignKey 本表的外键列
+     * @param columns    查询的关联表列，不含主键
+     */
+    private record Join(String relation, PersistentClass target, String foreignKey, Set<String> columns) {
     }
 
     /**
-     * 从RelNode字符串中提取表名
+     * 按遍历顺序为动态参数分配下标
      */
-    private String extractTableName(String relString) {
-        // 解析类似 "LogicalTableScan(table=[[user]])" 的字符串
-        if (relString.contains("table=[[")) {
-            int start = relString.indexOf("table=[[") + 8;
-            int end = relString.indexOf("]]", start);
-            if (end > start) {
-                return relString.substring(start, end);
-            }
-        }
+    private static class ParamCounter {
+        private int index;
 
-        // 默认返回user（基于测试）
-        return "user";
+        RexNode next(RexBuilder rexBuilder, RelDataType type) {
+            return rexBuilder.makeDynamicParam(type, index++);
+        }
     }
-}
\ No newline at end of file
+}
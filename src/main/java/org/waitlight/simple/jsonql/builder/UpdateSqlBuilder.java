@@ -2,6 +2,7 @@ package org.waitlight.simple.jsonql.builder;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
 import org.jooq.Field;
 import org.jooq.SQLDialect;
@@ -16,6 +17,7 @@ import org.waitlight.simple.jsonql.metadata.RelationshipType;
 import org.waitlight.simple.jsonql.statement.StatementUtils;
 import org.waitlight.simple.jsonql.statement.StatementsPairs;
 import org.waitlight.simple.jsonql.statement.UpdateStatement;
+import org.waitlight.simple.jsonql.statement.model.FieldOperator;
 import org.waitlight.simple.jsonql.statement.model.FieldStatement;
 import org.waitlight.simple.jsonql.statement.model.PersistStatement;
 
@@ -63,6 +65,154 @@ public class UpdateSqlBuilder extends AbstractPersistSqlBuilder<UpdateStatement>
         return preparedSql;
     }
 
+    /**
+     * 按 {@code filters} 构建更新语句，把同一组 {@code fields} 应用到所有匹配的行
+     * <p>
+     * 同时指定 {@code dataId} 时为条件更新：只在该记录满足 {@code filters} 时更新（例如 {@code stock >= ?}），
+     * 影响行数为 0 表示条件不满足
+     *
+     * @param statement 包含过滤条件的更新语句
+     * @return {@code UPDATE ... SET ... WHERE [id = ? AND] <filters>}
+     * @throws SqlBuildException 缺少条件或字段、包含嵌套实体或字段不存在
+     */
+    public PreparedSql<UpdateStatement> buildByFilter(UpdateStatement statement) throws SqlBuildException {
+        PersistentClass persistentClass = requireEntity(statement);
+        if (CollectionUtils.isNotEmpty(statement.getRecords())) {
+            throw new SqlBuildException("filters cannot be combined with records in update statement");
+        }
+
+        List<Object> parameters = new ArrayList<>();
+        Map<Field<?>, Object> setMap = setClause(persistentClass, statement.getFields(), parameters);
+        Condition condition = DSL.noCondition();
+        if (StringUtils.isNotBlank(statement.getDataId())) {
+            condition = DSL.field(DSL.name(persistentClass.getIdProperty().columnName())).eq(DSL.param());
+            parameters.add(statement.getDataId());
+        }
+        condition = condition.and(FilterConditions.build(persistentClass, statement.getFilters(), parameters));
+        String sql = DSL.using(SQLDialect.MYSQL)
+                .update(DSL.table(DSL.name(persistentClass.getTableName())))
+                .set(setMap)
+                .where(condition)
+                .getSQL();
+
+        log.info("build update sql: {}", sql);
+        return new PreparedSql<>(sql, parameters, UpdateStatement.class);
+    }
+
+    /**
+     * 统计 {@code filters} 匹配的行数，用于执行前检查影响行数上限
+     */
+    public PreparedSql<UpdateStatement> buildCount(UpdateStatement statement) throws SqlBuildException {
+        PersistentClass persistentClass = requireEntity(statement);
+        List<Object> parameters = new ArrayList<>();
+        Condition condition = FilterConditions.build(persistentClass, statement.getFilters(), parameters);
+        String sql = DSL.using(SQLDialect.MYSQL)
+                .selectCount()
+                .from(DSL.table(DSL.name(persistentClass.getTableName())))
+                .where(condition)
+                .getSQL();
+        return new PreparedSql<>(sql, parameters, UpdateStatement.class);
+    }
+
+    /**
+     * 按 {@code records} 构建批量更新语句，每条记录一条 {@code UPDATE ... WHERE id = ?}，
+     * 更新字段相同的记录 SQL 文本相同，执行时可以合并为一个 JDBC 批次
+     *
+     * @param statement 包含 {@code records} 的更新语句
+     * @return 与记录一一对应的更新 SQL
+     * @throws SqlBuildException 记录缺少 dataId 或字段、包含嵌套实体或字段不存在
+     */
+    public List<PreparedSql<UpdateStatement>> buildBatch(UpdateStatement statement) throws SqlBuildException {
+        PersistentClass persistentClass = requireEntity(statement);
+        if (CollectionUtils.isEmpty(statement.getRecords())) {
+            throw new SqlBuildException("Records are required for batch update");
+        }
+        if (CollectionUtils.isNotEmpty(statement.getFields()) || statement.getFilters() != null) {
+            throw new SqlBuildException("Records cannot be combined with fields or filters in update statement");
+        }
+
+        DSLContext create = DSL.using(SQLDialect.MYSQL);
+        Table<?> table = DSL.table(DSL.name(persistentClass.getTableName()));
+        Field<Object> idField = DSL.field(DSL.name(persistentClass.getIdProperty().columnName()));
+        List<PreparedSql<UpdateStatement>> result = new ArrayList<>(statement.getRecords().size());
+        for (PersistStatement record : statement.getRecords()) {
+            if (record == null || StringUtils.isBlank(record.getDataId())) {
+                throw new SqlBuildException("dataId is required for every batch update record");
+            }
+            List<Object> parameters = new ArrayList<>();
+            Map<Field<?>, Object> setMap = setClause(persistentClass, record.getFields(), parameters);
+            String sql = create.update(table).set(setMap).where(idField.eq(DSL.param())).getSQL();
+            parameters.add(record.getDataId());
+            result.add(new PreparedSql<>(sql, parameters, UpdateStatement.class));
+        }
+        log.info("build batch update sql, records: {}", result.size());
+        return result;
+    }
+
+    /**
+     * 构建 SET 子句，按字段顺序追加参数值
+     */
+    private Map<Field<?>, Object> setClause(PersistentClass persistentClass, List<FieldStatement> fields,
+                                            List<Object> parameters) throws SqlBuildException {
+        if (CollectionUtils.isEmpty(fields)) {
+            throw new SqlBuildException("Fields are required for update statement");
+        }
+        Map<Field<?>, Object> setMap = new LinkedHashMap<>();
+        for (FieldStatement field : fields) {
+            if (CollectionUtils.isNotEmpty(field.getValues())) {
+                throw new SqlBuildException("Nested values are not supported in bulk update: " + field.getField());
+            }
+            Field<Object> column = DSL.field(DSL.name(requireColumn(persistentClass, field.getField())));
+            if (setMap.put(column, assignment(column, field, parameters)) != null) {
+                throw new SqlBuildException("Duplicate field in update statement: " + field.getField());
+            }
+        }
+        return setMap;
+    }
+
+    /**
+     * 按 {@link FieldOperator} 构建赋值表达式，按占位符顺序追加参数值
+     */
+    private Field<?> assignment(Field<Object> column, FieldStatement field, List<Object> parameters)
+            throws SqlBuildException {
+        FieldOperator operator = field.getOperator() == null ? FieldOperator.SET : field.getOperator();
+        Object value = field.getValue();
+        if (operator == FieldOperator.SET) {
+            parameters.add(value);
+            return DSL.param();
+        }
+        if (value == null) {
+            throw new SqlBuildException("Value is required for field operator: " + operator.getValue());
+        }
+
+        parameters.add(value);
+        return switch (operator) {
+            case INC -> DSL.coalesce(column, DSL.inline(0)).plus(DSL.param());
+            case DEC -> DSL.coalesce(column, DSL.inline(0)).minus(DSL.param());
+            case MIN -> {
+                parameters.add(value);
+                yield DSL.least(DSL.coalesce(column, DSL.param()), DSL.param());
+            }
+            case MAX -> {
+                parameters.add(value);
+                yield DSL.greatest(DSL.coalesce(column, DSL.param()), DSL.param());
+            }
+            case COALESCE -> DSL.coalesce(column, DSL.param());
+            case APPEND -> DSL.concat(DSL.coalesce(column, DSL.inline("")), DSL.param());
+            case SET -> DSL.param();
+        };
+    }
+
+    private PersistentClass requireEntity(UpdateStatement statement) throws SqlBuildException {
+        if (Objects.isNull(statement)) {
+            throw new SqlBuildException("Statement is null");
+        }
+        if (StringUtils.isBlank(statement.getEntityId())) {
+            throw new SqlBuildException("entityId is required for update statements");
+        }
+        return metadata.getEntity(statement.getEntityId());
+    }
+
     /**
      * 处理一对多关系，根据嵌套对象是否包含ID来决定处理方式
      */
@@ -199,9 +349,8 @@ public class UpdateSqlBuilder extends AbstractPersistSqlBuilder<UpdateStatement>
 
         for (FieldStatement field : statement.getFields()) {
             Property property = map.get(field);
-            String columnName = property.columnName();
-            setMap.put(DSL.field(DSL.name(columnName)), DSL.param());
-            parameters.add(field.getValue());
+            Field<Object> column = DSL.field(DSL.name(property.columnName()));
+            setMap.put(column, assignment(column, field, parameters));
         }
 
         // 使用jooq构建UPDATE语句
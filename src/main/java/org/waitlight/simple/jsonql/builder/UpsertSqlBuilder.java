@@ -0,0 +1,161 @@
+package org.waitlight.simple.jsonql.builder;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
+import org.waitlight.simple.jsonql.statement.UpsertStatement;
+import org.waitlight.simple.jsonql.statement.model.FieldStatement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 构建 {@code INSERT ... ON DUPLICATE KEY UPDATE} 语句
+ * <p>
+ * 更新部分通过行别名引用待插入的值（{@code col = t.col}），需要 MySQL 8.0.19 及以上版本
+ */
+public class UpsertSqlBuilder extends AbstractPersistSqlBuilder<UpsertStatement> {
+
+    private static final Logger log = LoggerFactory.getLogger(UpsertSqlBuilder.class);
+
+    public UpsertSqlBuilder(Metadata metadata) {
+        super(metadata);
+    }
+
+    @Override
+    public PreparedSql<UpsertStatement> build(UpsertStatement statement) throws SqlBuildException {
+        List<PreparedSql<UpsertStatement>> batch = buildBatch(statement);
+        if (batch.size() != 1) {
+            throw new SqlBuildException("Upsert statement with " + batch.size() + " statements, use buildBatch");
+        }
+        return batch.getFirst();
+    }
+
+    /**
+     * 构建插入或更新语句，字段相同的连续记录合并为一条多行语句，每条最多 {@code batchSize} 行
+     *
+     * @param statement 包含 {@code fields} 或 {@code records} 的语句
+     * @return 按顺序执行的 SQL
+     * @throws SqlBuildException 缺少记录或冲突字段、包含嵌套实体、字段不存在或记录缺少冲突字段
+     */
+    public List<PreparedSql<UpsertStatement>> buildBatch(UpsertStatement statement) throws SqlBuildException {
+        if (Objects.isNull(statement)) {
+            throw new SqlBuildException("Statement is null");
+        }
+        List<List<FieldStatement>> records = recordsOf(statement);
+        PersistentClass persistentClass = metadata.getEntity(statement.getEntityId());
+        if (CollectionUtils.isEmpty(statement.getConflictFields())) {
+            throw new SqlBuildException("conflictFields are required for upsert statement");
+        }
+        List<String> conflictColumns = new ArrayList<>();
+        for (String field : statement.getConflictFields()) {
+            conflictColumns.add(requireColumn(persistentClass, field));
+        }
+        List<String> updateColumns = null;
+        if (CollectionUtils.isNotEmpty(statement.getUpdateFields())) {
+            updateColumns = new ArrayList<>();
+            for (String field : statement.getUpdateFields()) {
+                updateColumns.add(requireColumn(persistentClass, field));
+            }
+        }
+        int batchSize = statement.getBatchSize() != null && statement.getBatchSize() > 0
+                ? statement.getBatchSize()
+                : InsertSqlBuilder.DEFAULT_BATCH_SIZE;
+
+        List<PreparedSql<UpsertStatement>> result = new ArrayList<>();
+        List<String> chunkColumns = null;
+        List<List<Object>> chunkRows = new ArrayList<>();
+        for (List<FieldStatement> record : records) {
+            if (CollectionUtils.isEmpty(record)) {
+                throw new SqlBuildException("Upsert record is empty");
+            }
+            List<String> columns = new ArrayList<>(record.size());
+            List<Object> row = new ArrayList<>(record.size());
+            for (FieldStatement field : record) {
+                if (CollectionUtils.isNotEmpty(field.getValues())) {
+                    throw new SqlBuildException("Nested values are not supported in upsert: " + field.getField());
+                }
+                requireSetOperator(field);
+                columns.add(requireColumn(persistentClass, field.getField()));
+                row.add(field.getValue());
+            }
+            if (!columns.containsAll(conflictColumns)) {
+                throw new SqlBuildException("Upsert record must contain all conflict fields: "
+                        + statement.getConflictFields());
+            }
+
+            int maxRows = Math.max(1, Math.min(batchSize, InsertSqlBuilder.MAX_PARAMETERS / columns.size()));
+            if (!columns.equals(chunkColumns) || chunkRows.size() >= maxRows) {
+                if (!chunkRows.isEmpty()) {
+                    result.add(buildSql(persistentClass, chunkColumns, chunkRows, conflictColumns, updateColumns));
+                }
+                chunkColumns = columns;
+                chunkRows = new ArrayList<>();
+            }
+            chunkRows.add(row);
+        }
+        result.add(buildSql(persistentClass, chunkColumns, chunkRows, conflictColumns, updateColumns));
+        return result;
+    }
+
+    private List<List<FieldStatement>> recordsOf(UpsertStatement statement) throws SqlBuildException {
+        boolean hasFields = CollectionUtils.isNotEmpty(statement.getFields());
+        boolean hasRecords = CollectionUtils.isNotEmpty(statement.getRecords());
+        if (hasFields && hasRecords) {
+            throw new SqlBuildException("Fields and records can not be used together");
+        }
+        if (!hasFields && !hasRecords) {
+            throw new SqlBuildException("Fields or records are required for upsert statement");
+        }
+        return hasFields ? List.of(statement.getFields()) : statement.getRecords();
+    }
+
+    private PreparedSql<UpsertStatement> buildSql(PersistentClass persistentClass, List<String> columns,
+                                                  List<List<Object>> rows, List<String> conflictColumns,
+                                                  List<String> updateColumns) throws SqlBuildException {
+        List<String> updates = updateColumns;
+        if (updates == null) {
+            String idColumn = persistentClass.getIdProperty().columnName();
+            updates = columns.stream()
+                    .filter(column -> !conflictColumns.contains(column) && !column.equals(idColumn))
+                    .toList();
+        }
+
+        Map<Field<?>, Field<?>> setMap = new LinkedHashMap<>();
+        for (String column : updates) {
+            if (!columns.contains(column)) {
+                throw new SqlBuildException("Update field is not provided in upsert record: " + column);
+            }
+            Field<Object> field = DSL.field(DSL.name(column));
+            setMap.put(field, DSL.excluded(field));
+        }
+        if (setMap.isEmpty()) {
+            // 没有需要更新的列时保留原行，不能用 INSERT IGNORE，否则会同时忽略其它错误
+            Field<Object> field = DSL.field(DSL.name(conflictColumns.getFirst()));
+            setMap.put(field, field);
+        }
+
+        DSLContext create = DSL.using(SQLDialect.MYSQL);
+        List<Field<Object>> fields = columns.stream().map(column -> DSL.field(DSL.name(column))).toList();
+        var insert = create.insertInto(DSL.table(DSL.name(persistentClass.getTableName())))
+                .columns(fields.toArray(new Field[0]));
+
+        List<Object> parameters = new ArrayList<>(rows.size() * columns.size());
+        for (List<Object> row : rows) {
+            insert = insert.values(row.toArray());
+            parameters.addAll(row);
+        }
+        String sql = insert.onDuplicateKeyUpdate().set(setMap).getSQL();
+        log.debug("build upsert sql: {} rows, {}", rows.size(), sql);
+        return new PreparedSql<>(sql, parameters, UpsertStatement.class);
+    }
+}
@@ -1,15 +1,19 @@
 package org.waitlight.simple.jsonql.config;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.waitlight.simple.jsonql.datasource.DataSourceRegistry;
 
+/**
+ * 数据源配置，根据 {@code jsonql.datasources.*} 创建带连接池的数据源注册表
+ */
+@Configuration
+@EnableConfigurationProperties(JsonQLProperties.class)
 public class DBConfig {
-    private static final String JDBC_URL = "jdbc:mysql://localhost:3306/test";
-    private static final String USERNAME = "root";
-    private static final String PASSWORD = "123456";
 
-    public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(JDBC_URL, USERNAME, PASSWORD);
+    @Bean(destroyMethod = "close")
+    public DataSourceRegistry dataSourceRegistry(JsonQLProperties properties) {
+        return new DataSourceRegistry(properties);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package org.waitlight.simple.jsonql.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.persistence.Entity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+import org.waitlight.simple.jsonql.datasource.DataSourceRegistry;
+import org.waitlight.simple.jsonql.execute.ExecuteEngine;
+import org.waitlight.simple.jsonql.execute.ExecuteOptions;
+import org.waitlight.simple.jsonql.execute.cache.ResultCache;
+import org.waitlight.simple.jsonql.execute.cache.RowCache;
+import org.waitlight.simple.jsonql.execute.PinningMonitor;
+import org.waitlight.simple.jsonql.execute.reactive.ReactiveExecuteEngine;
+import org.waitlight.simple.jsonql.metadata.MetadataHolder;
+import org.waitlight.simple.jsonql.metadata.MetadataSource;
+
+import java.time.Duration;
+
+/**
+ * 执行引擎配置，扫描 {@code jsonql.entity-packages} 下的实体类构建元数据并创建 {@link ExecuteEngine}
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "jsonql", name = "entity-packages")
+public class JsonQLConfig {
+
+    @Bean
+    public MetadataHolder metadataHolder(JsonQLProperties properties) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+
+        MetadataSource metadataSource = new MetadataSource();
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        for (String entityPackage : properties.getEntityPackages()) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(entityPackage)) {
+                metadataSource.registry(ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader));
+            }
+        }
+        if (metadataSource.getEntityClasses().isEmpty()) {
+            // 没有实体时执行引擎只会对每条语句报告实体不存在，启动时直接失败更容易发现配置错误
+            throw new IllegalStateException("No @Entity classes found in jsonql.entity-packages: "
+                    + properties.getEntityPackages());
+        }
+        log.info("扫描到实体类: {}", metadataSource.getEntityClasses().size());
+        return new MetadataHolder(metadataSource);
+    }
+
+    @Bean
+    public ExecuteEngine executeEngine(MetadataHolder metadataHolder, DataSourceRegistry dataSourceRegistry,
+                                       JsonQLProperties properties) {
+        JsonQLProperties.CacheProperties cache = properties.getCache();
+        ResultCache resultCache = cache.isEnabled()
+                ? new ResultCache(cache.getMaximumSize(), cache.getMaximumBytes(), Duration.ofMillis(cache.getTtl()))
+                : null;
+        RowCache rowCache = cache.isRowEnabled()
+                ? new RowCache(cache.getRowMaximumSize(), Duration.ofMillis(cache.getTtl()))
+                : null;
+        ExecuteOptions options = new ExecuteOptions.Builder()
+                .setWorkerId(properties.getId().getWorkerId())
+                .setMaxWriteRows(properties.getWrite().getMaxRows())
+                .setResultCache(resultCache)
+                .setRowCache(rowCache)
+                .build();
+        return new ExecuteEngine(metadataHolder, dataSourceRegistry, options);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "jsonql.async", name = "pinning-detection", matchIfMissing = true)
+    public PinningMonitor pinningMonitor(JsonQLProperties properties) {
+        return new PinningMonitor(Duration.ofMillis(properties.getAsync().getPinningThreshold()));
+    }
+
+    /**
+     * 配置 {@code spring.r2dbc.url} 后使用 Spring Boot 创建的 R2DBC 连接池创建响应式执行引擎，
+     * 与 JDBC 执行引擎共享主键生成器，避免同一节点号的两个 Snowflake 生成器产生重复主键；
+     * 共享查询结果缓存，响应式写入同样使缓存结果失效
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.r2dbc", name = "url")
+    public ReactiveExecuteEngine reactiveExecuteEngine(MetadataHolder metadataHolder,
+                                                       ConnectionFactory connectionFactory,
+                                                       ExecuteEngine executeEngine) {
+        return new ReactiveExecuteEngine(metadataHolder, connectionFactory, executeEngine.getIdGenerators(),
+                executeEngine.getResultCache());
+    }
+}
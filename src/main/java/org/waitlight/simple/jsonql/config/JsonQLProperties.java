@@ -0,0 +1,239 @@
+package org.waitlight.simple.jsonql.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JsonQL 配置项，前缀为 {@code jsonql}
+ * <p>
+ * 示例：
+ * <pre>
+ * jsonql.datasources.default.url=jdbc:mysql://localhost:3306/test
+ * jsonql.datasources.default.username=root
+ * jsonql.datasources.default.password=******
+ * jsonql.datasources.default.maximum-pool-size=20
+ * jsonql.entity-packages=com.example.entity
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "jsonql")
+public class JsonQLProperties {
+
+    /**
+     * 数据源配置，key 为数据源名称，{@code default} 为默认数据源
+     */
+    private Map<String, DataSourceProperties> datasources = new LinkedHashMap<>();
+
+    /**
+     * 扫描 {@code @Entity} 实体类的包，配置后才会创建 {@code ExecuteEngine}
+     */
+    private List<String> entityPackages = new ArrayList<>();
+
+    /**
+     * 流式导出配置
+     */
+    private ExportProperties export = new ExportProperties();
+
+    /**
+     * 客户端主键生成配置
+     */
+    private IdProperties id = new IdProperties();
+
+    /**
+     * 批量写入配置
+     */
+    private WriteProperties write = new WriteProperties();
+
+    /**
+     * 异步执行配置
+     */
+    private AsyncProperties async = new AsyncProperties();
+
+    /**
+     * 查询结果缓存配置
+     */
+    private CacheProperties cache = new CacheProperties();
+
+    /**
+     * 查询结果缓存配置，实体的存活时间和是否缓存见 {@code CachePolicy}
+     */
+    @Getter
+    @Setter
+    public static class CacheProperties {
+        /**
+         * 是否开启查询结果缓存
+         */
+        private boolean enabled = false;
+
+        /**
+         * 最多缓存的结果数
+         */
+        private int maximumSize = 10_000;
+
+        /**
+         * 缓存结果的最大估算字节数
+         */
+        private long maximumBytes = 64L * 1024 * 1024;
+
+        /**
+         * 实体未配置 {@code @CacheTtl} 时缓存结果的存活时间（毫秒）
+         */
+        private long ttl = 60_000;
+        /**
+         * 是否开启按主键缓存记录，按主键查询时先查找缓存，更新、删除后按主键失效
+         */
+        private boolean rowEnabled = false;
+        /**
+         * 记录缓存最多缓存的记录数
+         */
+        private int rowMaximumSize = 100_000;
+    }
+
+    /**
+     * 异步执行配置
+     */
+    @Getter
+    @Setter
+    public static class AsyncProperties {
+        /**
+         * 是否通过 JFR 统计虚拟线程在载体线程上被钉住（pinning）的次数
+         */
+        private boolean pinningDetection = true;
+
+        /**
+         * 钉住超过该时间（毫秒）才记录
+         */
+        private long pinningThreshold = 20;
+
+        /**
+         * 多查询请求中同时执行的最大查询数
+         */
+        private int maxParallelism = 4;
+
+        /**
+         * 多查询请求的默认超时时间（毫秒），0 表示不限制
+         */
+        private long multiQueryTimeout = 30_000;
+    }
+
+    /**
+     * 批量写入配置
+     */
+    @Getter
+    @Setter
+    public static class WriteProperties {
+        /**
+         * 按 ID 列表或按条件删除、按条件更新和批量更新时允许影响的最大行数，超过时拒绝执行，0 表示不限制
+         */
+        private int maxRows = 10_000;
+    }
+
+    /**
+     * 客户端主键生成配置
+     */
+    @Getter
+    @Setter
+    public static class IdProperties {
+        /**
+         * Snowflake 节点号（0-1023），多个应用节点需要配置不同的值
+         */
+        private long workerId = 0;
+    }
+
+    /**
+     * 流式导出配置
+     */
+    @Getter
+    @Setter
+    public static class ExportProperties {
+        /**
+         * 每次从数据库游标拉取的行数
+         */
+        private int fetchSize = 1000;
+
+        /**
+         * 导出请求的超时时间（毫秒），只作用于导出接口，0 或负数表示不限制
+         */
+        private long timeout = 0;
+    }
+
+    /**
+     * 单个数据源及其连接池配置
+     */
+    @Getter
+    @Setter
+    public static class DataSourceProperties {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+
+        /**
+         * 连接池最小空闲连接数，同时也是预热时建立的连接数
+         */
+        private int minimumIdle = 2;
+
+        /**
+         * 连接池最大连接数
+         */
+        private int maximumPoolSize = 10;
+
+        /**
+         * 异步执行时同时执行的最大语句数，0 表示与最大连接数一致
+         */
+        private int maxConcurrency = 0;
+
+        /**
+         * 号段主键生成器申请号段专用连接池的最大连接数，0 表示与业务共用连接池。
+         * 插入语句在持有业务连接时申请号段，共用连接池时并发插入可能耗尽连接池而互相等待
+         */
+        private int idPoolSize = 2;
+
+        /**
+         * 获取连接的最大等待时间（毫秒）
+         */
+        private long connectionTimeout = 30_000;
+
+        /**
+         * 空闲连接回收时间（毫秒）
+         */
+        private long idleTimeout = 600_000;
+
+        /**
+         * 空闲连接保活校验间隔（毫秒），0 表示关闭
+         */
+        private long keepaliveTime = 120_000;
+
+        /**
+         * 连接最大存活时间（毫秒），应小于数据库的 wait_timeout
+         */
+        private long maxLifetime = 1_800_000;
+
+        /**
+         * 连接有效性校验超时时间（毫秒）
+         */
+        private long validationTimeout = 5_000;
+
+        /**
+         * 连接泄漏检测阈值（毫秒），连接被借出超过该时间未归还时输出告警，0 表示关闭
+         */
+        private long leakDetectionThreshold = 0;
+
+        /**
+         * 启动时是否预热连接池
+         */
+        private boolean warmUp = true;
+
+        /**
+         * 透传给 JDBC 驱动的连接属性
+         */
+        private Map<String, String> properties = new LinkedHashMap<>();
+    }
+}
@@ -1,13 +1,35 @@
 package org.waitlight.simple.jsonql.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.waitlight.simple.jsonql.builder.SqlBuildException;
+import org.waitlight.simple.jsonql.config.JsonQLProperties;
+import org.waitlight.simple.jsonql.execute.ExecuteEngine;
+import org.waitlight.simple.jsonql.execute.result.BatchResult;
+import org.waitlight.simple.jsonql.execute.result.MultiQueryResult;
+import org.waitlight.simple.jsonql.execute.stream.ExportFormat;
 import org.waitlight.simple.jsonql.model.dto.*;
 import org.waitlight.simple.jsonql.service.DataService;
+import org.waitlight.simple.jsonql.statement.BatchStatement;
+import org.waitlight.simple.jsonql.statement.JsonQLStatementException;
+import org.waitlight.simple.jsonql.statement.SelectStatement;
 
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Map;
 
 /**
@@ -19,9 +41,18 @@ import java.util.Map;
 public class DataController {
 
     private final DataService dataService;
+    private final ObjectProvider<ExecuteEngine> executeEngine;
+    private final JsonQLProperties properties;
+    private final ObjectMapper objectMapper;
 
-    public DataController(DataService dataService) {
+    public DataController(DataService dataService,
+                          ObjectProvider<ExecuteEngine> executeEngine,
+                          JsonQLProperties properties,
+                          ObjectMapper objectMapper) {
         this.dataService = dataService;
+        this.executeEngine = executeEngine;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -61,6 +92,51 @@ public class DataController {
         return ResponseEntity.ok(ApiResponse.success(data));
     }
 
+    /**
+     * 批量执行
+     * <p>
+     * 多条语句在同一个事务中按顺序执行，任意一条失败时全部回滚；后面的语句可以用 {@code "${ref}"}
+     * 引用前面插入语句生成的主键
+     *
+     * @param batch 批量语句
+     * @return 与语句一一对应的执行结果
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchResult>> batch(@RequestBody BatchStatement batch) throws SQLException {
+        ExecuteEngine engine = executeEngine.getIfAvailable();
+        if (engine == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "jsonql.entity-packages is not configured");
+        }
+        try {
+            return ResponseEntity.ok(ApiResponse.success(engine.executeBatch(batch)));
+        } catch (JsonQLStatementException | SqlBuildException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 并发执行多条互不依赖的查询
+     * <p>
+     * 每条查询使用各自的连接并发执行，总耗时取决于最慢的一条；单条查询失败时在 {@code errors} 中返回原因
+     *
+     * @param statements  查询名称到查询语句的映射
+     * @param parallelism 同时执行的最大查询数，不能超过 {@code jsonql.async.max-parallelism}
+     * @return 按名称返回的查询结果
+     */
+    @PostMapping("/multi")
+    public ResponseEntity<ApiResponse<MultiQueryResult>> multi(@RequestBody Map<String, SelectStatement> statements,
+                                                               @RequestParam(required = false) Integer parallelism) {
+        ExecuteEngine engine = executeEngine.getIfAvailable();
+        if (engine == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "jsonql.entity-packages is not configured");
+        }
+        JsonQLProperties.AsyncProperties async = properties.getAsync();
+        int maxParallelism = async.getMaxParallelism();
+        int effective = parallelism == null || parallelism <= 0 ? maxParallelism : Math.min(parallelism, maxParallelism);
+        Duration timeout = async.getMultiQueryTimeout() > 0 ? Duration.ofMillis(async.getMultiQueryTimeout()) : null;
+        return ResponseEntity.ok(ApiResponse.success(engine.executeAll(statements, effective, timeout)));
+    }
+
     /**
      * 分页查询数据
      *
@@ -82,4 +158,51 @@ public class DataController {
 
         return ResponseEntity.ok(response);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 流式导出数据
+     * <p>
+     * 结果边查询边写出，内存占用与结果集大小无关；客户端断开连接时查询随之取消。
+     * 导出耗时与结果集大小相关，使用 {@code jsonql.export.timeout} 代替全局的异步请求超时
+     *
+     * @param statement 查询语句，不指定 page 时导出全部满足条件的记录
+     * @param format    导出格式，ndjson 或 csv
+     * @param request   当前请求
+     * @return 流式响应
+     */
+    @PostMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestBody SelectStatement statement,
+                                                        @RequestParam(defaultValue = "ndjson") String format,
+                                                        HttpServletRequest request) {
+        ExecuteEngine engine = executeEngine.getIfAvailable();
+        if (engine == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "jsonql.entity-packages is not configured");
+        }
+
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromValue(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        // 流式响应在本次请求开启的异步处理中写出，超时时间只对当前请求生效
+        long timeout = properties.getExport().getTimeout();
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(timeout > 0 ? timeout : -1);
+
+        int fetchSize = properties.getExport().getFetchSize();
+        StreamingResponseBody body = out -> {
+            try {
+                engine.stream(statement, fetchSize, exportFormat.newWriter(out, objectMapper));
+            } catch (SQLException | SqlBuildException e) {
+                throw new IOException("导出失败: " + e.getMessage(), e);
+            }
+        };
+
+        String filename = statement.getEntityId() + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+}
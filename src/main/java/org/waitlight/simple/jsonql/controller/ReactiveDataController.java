@@ -0,0 +1,76 @@
+package org.waitlight.simple.jsonql.controller;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.waitlight.simple.jsonql.execute.reactive.ReactiveExecuteEngine;
+import org.waitlight.simple.jsonql.execute.result.ExecuteResult;
+import org.waitlight.simple.jsonql.model.dto.ApiResponse;
+import org.waitlight.simple.jsonql.statement.InsertStatement;
+import org.waitlight.simple.jsonql.statement.SelectStatement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * 基于 R2DBC 的数据操作API控制器
+ * <p>
+ * 请求处理过程中不占用线程等待数据库，配置 {@code spring.r2dbc.url} 后可用
+ */
+@RestController
+@RequestMapping("/api/v1/reactive/data")
+public class ReactiveDataController {
+
+    private final ObjectProvider<ReactiveExecuteEngine> executeEngine;
+
+    public ReactiveDataController(ObjectProvider<ReactiveExecuteEngine> executeEngine) {
+        this.executeEngine = executeEngine;
+    }
+
+    /**
+     * 查询数据
+     *
+     * @param statement 查询语句
+     * @return 查询结果
+     */
+    @PostMapping("/query")
+    public Mono<ApiResponse<ExecuteResult>> query(@RequestBody SelectStatement statement) {
+        return engine().execute(statement).map(ApiResponse::success);
+    }
+
+    /**
+     * 流式查询数据，每行作为一行 JSON 写出
+     *
+     * @param statement 查询语句
+     * @return 查询结果行
+     */
+    @PostMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Map<String, Object>> stream(@RequestBody SelectStatement statement) {
+        return engine().stream(statement);
+    }
+
+    /**
+     * 创建数据
+     *
+     * @param statement 插入语句
+     * @return 插入结果
+     */
+    @PostMapping("/create")
+    public Mono<ApiResponse<ExecuteResult>> create(@RequestBody InsertStatement statement) {
+        return engine().execute(statement).map(ApiResponse::success);
+    }
+
+    private ReactiveExecuteEngine engine() {
+        ReactiveExecuteEngine engine = executeEngine.getIfAvailable();
+        if (engine == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "spring.r2dbc.url is not configured");
+        }
+        return engine;
+    }
+}
@@ -0,0 +1,57 @@
+package org.waitlight.simple.jsonql.controller;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.waitlight.simple.jsonql.execute.ExecuteEngine;
+import org.waitlight.simple.jsonql.execute.PinningMonitor;
+import org.waitlight.simple.jsonql.model.dto.ApiResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 运行统计API控制器
+ * <p>
+ * 返回查询计划缓存、结果缓存和虚拟线程钉住统计，未启用的部分不出现在结果中
+ */
+@RestController
+@RequestMapping("/api/v1/stats")
+public class StatsController {
+
+    private final ObjectProvider<ExecuteEngine> executeEngine;
+    private final ObjectProvider<PinningMonitor> pinningMonitor;
+
+    public StatsController(ObjectProvider<ExecuteEngine> executeEngine,
+                           ObjectProvider<PinningMonitor> pinningMonitor) {
+        this.executeEngine = executeEngine;
+        this.pinningMonitor = pinningMonitor;
+    }
+
+    /**
+     * 获取运行统计
+     *
+     * @return 按名称返回的统计
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        ExecuteEngine engine = executeEngine.getIfAvailable();
+        if (engine != null) {
+            stats.put("planCache", engine.getPlanCacheStats());
+            if (engine.getResultCache() != null) {
+                stats.put("resultCache", engine.getResultCache().getStats());
+            }
+            if (engine.getRowCache() != null) {
+                stats.put("rowCache", engine.getRowCache().getStats());
+            }
+        }
+        PinningMonitor monitor = pinningMonitor.getIfAvailable();
+        if (monitor != null) {
+            stats.put("pinning", monitor.getStats());
+        }
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+}
@@ -0,0 +1,82 @@
+package org.waitlight.simple.jsonql.datasource;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个数据源的并发上限
+ * <p>
+ * 虚拟线程的数量不受限制，同时执行的语句需要限制在连接池能承受的范围内：超过上限的请求按到达顺序排队，
+ * 而不是都去连接池等待连接直到 {@code connectionTimeout}
+ */
+public class ConcurrencyLimiter {
+
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param maxConcurrency 最大并发数
+     */
+    public ConcurrencyLimiter(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    /**
+     * 获取执行许可
+     *
+     * @param timeoutMillis 最长等待时间（毫秒），小于 0 时一直等待
+     * @throws SQLTimeoutException 等待超时
+     */
+    public void acquire(long timeoutMillis) throws SQLException {
+        try {
+            if (timeoutMillis < 0) {
+                permits.acquire();
+                return;
+            }
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new SQLTimeoutException("Timed out waiting for a datasource permit after " + timeoutMillis + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a datasource permit", e);
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 正在执行的语句数
+     */
+    public int getInFlight() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * 正在排队的语句数
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * 等待超时被拒绝的次数
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,287 @@
+package org.waitlight.simple.jsonql.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.waitlight.simple.jsonql.config.JsonQLProperties;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据源注册表，按名称管理多个带连接池的 {@link DataSource}
+ * <p>
+ * 通过 {@link JsonQLProperties} 创建的数据源基于 HikariCP，支持预热、空闲保活校验、连接泄漏检测和连接池指标；
+ * 也可以通过 {@link #register(String, DataSource)} 注册任意外部提供的数据源。
+ * 通过配置创建的数据源另有一个申请主键号段专用的小连接池，见 {@link #getIdDataSource(String)}。
+ * 关闭注册表时只关闭由注册表创建的连接池，外部注册的数据源由提供方负责关闭
+ */
+@Slf4j
+public class DataSourceRegistry implements AutoCloseable {
+
+    public static final String DEFAULT_NAME = "default";
+
+    /**
+     * MySQL 驱动默认属性：开启服务端预编译并在连接上缓存 PreparedStatement，
+     * 同一形状的查询在连接被复用时不需要重新解析；设置了 fetchSize 的查询使用服务端游标分批拉取；
+     * JDBC 批量执行的 INSERT 改写为一条多行 INSERT。
+     * 可通过 {@code properties} 覆盖
+     */
+    static final Map<String, String> MYSQL_DEFAULT_PROPERTIES = Map.of(
+            "useServerPrepStmts", "true",
+            "cachePrepStmts", "true",
+            "prepStmtCacheSize", "256",
+            "prepStmtCacheSqlLimit", "2048",
+            "useCursorFetch", "true",
+            "rewriteBatchedStatements", "true");
+
+    /**
+     * 外部注册的非 HikariCP 数据源默认的并发上限，与 HikariCP 默认的最大连接数一致
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 10;
+
+    private final Map<String, DataSource> dataSources = new ConcurrentHashMap<>();
+    /**
+     * 由注册表根据配置创建、需要在关闭时一并关闭的连接池
+     */
+    private final Map<String, HikariDataSource> ownedDataSources = new ConcurrentHashMap<>();
+    private final Map<String, HikariDataSource> idDataSources = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public DataSourceRegistry() {
+    }
+
+    public DataSourceRegistry(JsonQLProperties properties) {
+        properties.getDatasources().forEach(this::register);
+    }
+
+    /**
+     * 根据配置创建连接池并注册
+     *
+     * @param name       数据源名称
+     * @param properties 数据源配置
+     * @return 创建的数据源
+     */
+    public DataSource register(String name, JsonQLProperties.DataSourceProperties properties) {
+        if (StringUtils.isBlank(properties.getUrl())) {
+            throw new IllegalArgumentException("jsonql.datasources." + name + ".url is required");
+        }
+        // 先检查名称再创建连接池，避免重名时创建的连接池无人关闭
+        checkName(name);
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("jsonql-" + name);
+        config.setJdbcUrl(properties.getUrl());
+        config.setUsername(properties.getUsername());
+        config.setPassword(properties.getPassword());
+        if (StringUtils.isNotBlank(properties.getDriverClassName())) {
+            config.setDriverClassName(properties.getDriverClassName());
+        }
+        config.setMinimumIdle(properties.getMinimumIdle());
+        config.setMaximumPoolSize(properties.getMaximumPoolSize());
+        config.setConnectionTimeout(properties.getConnectionTimeout());
+        config.setIdleTimeout(properties.getIdleTimeout());
+        config.setKeepaliveTime(properties.getKeepaliveTime());
+        config.setMaxLifetime(properties.getMaxLifetime());
+        config.setValidationTimeout(properties.getValidationTimeout());
+        config.setLeakDetectionThreshold(properties.getLeakDetectionThreshold());
+        // 连接池延迟到第一次借用连接才建立，数据库不可用时不影响启动，预热失败只记录警告
+        config.setInitializationFailTimeout(-1);
+        if (properties.getUrl().startsWith("jdbc:mysql:")) {
+            MYSQL_DEFAULT_PROPERTIES.forEach(config::addDataSourceProperty);
+        }
+        properties.getProperties().forEach(config::addDataSourceProperty);
+        HikariConfig idConfig = properties.getIdPoolSize() > 0 ? idPoolConfig(name, config, properties) : null;
+
+        HikariDataSource dataSource = new HikariDataSource(config);
+        try {
+            register(name, dataSource);
+        } catch (RuntimeException e) {
+            // 并发注册同名数据源时检查与注册之间可能被抢先
+            dataSource.close();
+            throw e;
+        }
+        ownedDataSources.put(name, dataSource);
+        if (idConfig != null) {
+            idDataSources.put(name, new HikariDataSource(idConfig));
+        }
+        if (properties.getMaxConcurrency() > 0) {
+            limiters.put(name, new ConcurrencyLimiter(properties.getMaxConcurrency()));
+        }
+
+        if (properties.isWarmUp()) {
+            warmUp(name, dataSource, properties.getMinimumIdle());
+        }
+        return dataSource;
+    }
+
+    /**
+     * 注册外部提供的数据源
+     *
+     * @param name       数据源名称
+     * @param dataSource 数据源
+     */
+    public void register(String name, DataSource dataSource) {
+        Objects.requireNonNull(dataSource, "dataSource");
+        DataSource previous = dataSources.putIfAbsent(name, dataSource);
+        if (previous != null) {
+            throw new IllegalArgumentException("Duplicate datasource name: '" + name + "'");
+        }
+        log.info("注册数据源: {}", name);
+    }
+
+    /**
+     * 号段申请专用连接池的配置：连接参数与业务连接池相同，不保留空闲连接
+     */
+    private static HikariConfig idPoolConfig(String name, HikariConfig config,
+                                             JsonQLProperties.DataSourceProperties properties) {
+        HikariConfig idConfig = new HikariConfig();
+        config.copyStateTo(idConfig);
+        idConfig.setPoolName("jsonql-" + name + "-id");
+        idConfig.setMinimumIdle(0);
+        idConfig.setMaximumPoolSize(properties.getIdPoolSize());
+        return idConfig;
+    }
+
+    private void checkName(String name) {
+        if (dataSources.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate datasource name: '" + name + "'");
+        }
+    }
+
+    public DataSource getDataSource() {
+        return getDataSource(DEFAULT_NAME);
+    }
+
+    public DataSource getDataSource(String name) {
+        DataSource dataSource = dataSources.get(name);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("DataSource [" + name + "] not registered");
+        }
+        return dataSource;
+    }
+
+    /**
+     * 获取申请主键号段使用的数据源
+     * <p>
+     * 申请号段发生在插入语句持有业务连接期间，使用独立的连接池避免并发插入耗尽业务连接池后互相等待；
+     * 外部注册的数据源或未配置专用连接池时返回业务数据源
+     *
+     * @param name 数据源名称
+     * @return 申请号段使用的数据源
+     */
+    public DataSource getIdDataSource(String name) {
+        DataSource idDataSource = idDataSources.get(name);
+        return idDataSource != null ? idDataSource : getDataSource(name);
+    }
+
+    public Connection getConnection() throws SQLException {
+        return getConnection(DEFAULT_NAME);
+    }
+
+    public Connection getConnection(String name) throws SQLException {
+        return getDataSource(name).getConnection();
+    }
+
+    /**
+     * 获取数据源的并发上限，未配置时与连接池最大连接数一致
+     *
+     * @param name 数据源名称
+     * @return 并发限制器，同一数据源的所有执行引擎共享
+     */
+    public ConcurrencyLimiter getLimiter(String name) {
+        DataSource dataSource = getDataSource(name);
+        return limiters.computeIfAbsent(name, key -> new ConcurrencyLimiter(
+                dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : DEFAULT_MAX_CONCURRENCY));
+    }
+
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(dataSources.keySet());
+    }
+
+    /**
+     * 获取指定数据源的连接池指标，非 HikariCP 数据源或连接池尚未启动时返回空
+     *
+     * @param name 数据源名称
+     * @return 连接池指标
+     */
+    public Optional<PoolMetrics> getMetrics(String name) {
+        if (!(getDataSource(name) instanceof HikariDataSource hikari)) {
+            return Optional.empty();
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new PoolMetrics(name,
+                pool.getActiveConnections(),
+                pool.getIdleConnections(),
+                pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection(),
+                hikari.getMaximumPoolSize()));
+    }
+
+    /**
+     * 获取所有数据源的连接池指标
+     *
+     * @return 数据源名称到指标的映射
+     */
+    public Map<String, PoolMetrics> getMetrics() {
+        Map<String, PoolMetrics> metrics = new TreeMap<>();
+        for (String name : dataSources.keySet()) {
+            getMetrics(name).ifPresent(m -> metrics.put(name, m));
+        }
+        return metrics;
+    }
+
+    /**
+     * 预热连接池：同时借出 {@code count} 个连接后立即归还，使连接在第一次请求到来前完成握手
+     */
+    private void warmUp(String name, DataSource dataSource, int count) {
+        List<Connection> connections = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                connections.add(dataSource.getConnection());
+            }
+            log.info("数据源 {} 预热完成，连接数: {}", name, connections.size());
+        } catch (SQLException e) {
+            log.warn("数据源 {} 预热失败: {}", name, e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                closeQuietly(connection);
+            }
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("归还连接失败", e);
+        }
+    }
+
+    /**
+     * 关闭注册表创建的连接池，外部注册的数据源不会被关闭
+     */
+    @Override
+    public void close() {
+        ownedDataSources.forEach((name, dataSource) -> {
+            dataSource.close();
+            log.info("关闭数据源: {}", name);
+        });
+        idDataSources.forEach((name, dataSource) -> {
+            dataSource.close();
+            log.info("关闭号段数据源: {}", name);
+        });
+        dataSources.clear();
+        ownedDataSources.clear();
+        idDataSources.clear();
+        limiters.clear();
+    }
+}
@@ -0,0 +1,21 @@
+package org.waitlight.simple.jsonql.datasource;
+
+/**
+ * 连接池运行指标快照
+ *
+ * @param name               数据源名称
+ * @param activeConnections  正在被使用的连接数
+ * @param idleConnections    空闲连接数
+ * @param totalConnections   连接总数
+ * @param threadsAwaiting    等待获取连接的线程数
+ * @param maximumPoolSize    连接池最大连接数
+ */
+public record PoolMetrics(
+        String name,
+        int activeConnections,
+        int idleConnections,
+        int totalConnections,
+        int threadsAwaiting,
+        int maximumPoolSize
+) {
+}
@@ -0,0 +1,89 @@
+package org.waitlight.simple.jsonql.execute;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.waitlight.simple.jsonql.builder.SqlBuildException;
+import org.waitlight.simple.jsonql.execute.result.ExecuteResult;
+import org.waitlight.simple.jsonql.execute.result.InsertResult;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 批量执行中语句之间的主键引用
+ * <p>
+ * 值恰好为 {@code "${ref}"} 或 {@code "${ref[i]}"} 的字符串替换为引用语句生成的主键，其它字符串原样保留
+ */
+final class BatchReferences {
+
+    private static final Pattern REFERENCE = Pattern.compile("\\$\\{([A-Za-z_][\\w-]*)(?:\\[(\\d+)])?}");
+
+    private final Map<String, List<Long>> ids = new HashMap<>();
+
+    /**
+     * 记录已执行语句生成的主键
+     *
+     * @param ref    引用名，为 null 时不记录
+     * @param result 执行结果，只有插入语句可以声明引用
+     */
+    void register(String ref, ExecuteResult result) throws SqlBuildException {
+        if (ref == null) {
+            return;
+        }
+        if (ids.containsKey(ref)) {
+            throw new SqlBuildException("Duplicate batch reference: " + ref);
+        }
+        ids.put(ref, result instanceof InsertResult insert ? insert.getMainIds() : List.of());
+    }
+
+    /**
+     * @param node 语句内容
+     * @return 替换引用后的副本
+     */
+    JsonNode resolve(JsonNode node) throws SqlBuildException {
+        return node == null ? null : replace(node.deepCopy());
+    }
+
+    private JsonNode replace(JsonNode node) throws SqlBuildException {
+        if (node.isTextual()) {
+            Matcher matcher = REFERENCE.matcher(node.textValue());
+            return matcher.matches() ? LongNode.valueOf(lookup(matcher)) : node;
+        }
+        if (node instanceof ObjectNode object) {
+            Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                field.setValue(replace(field.getValue()));
+            }
+        } else if (node instanceof ArrayNode array) {
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, replace(array.get(i)));
+            }
+        }
+        return node;
+    }
+
+    private long lookup(Matcher matcher) throws SqlBuildException {
+        String ref = matcher.group(1);
+        List<Long> generated = ids.get(ref);
+        if (generated == null) {
+            throw new SqlBuildException("Unknown batch reference: " + ref);
+        }
+        int index;
+        try {
+            index = matcher.group(2) == null ? 0 : Integer.parseInt(matcher.group(2));
+        } catch (NumberFormatException e) {
+            throw new SqlBuildException("Batch reference " + matcher.group() + " has no generated id");
+        }
+        if (index >= generated.size() || generated.get(index) == null) {
+            throw new SqlBuildException("Batch reference " + matcher.group() + " has no generated id");
+        }
+        return generated.get(index);
+    }
+}
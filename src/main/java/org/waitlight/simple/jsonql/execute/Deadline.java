@@ -0,0 +1,98 @@
+package org.waitlight.simple.jsonql.execute;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * 语句执行的截止时间
+ * <p>
+ * 截止时间绑定在执行语句的线程上，{@link StatementEngine} 借用连接时把剩余时间设置为连接的网络超时，
+ * 超时后驱动中断阻塞的读写，连接随之失效并由连接池回收；HikariCP 在连接归还时会恢复原来的网络超时
+ */
+@Slf4j
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    /**
+     * 驱动设置 socket 超时的操作很轻，直接在调用线程执行
+     */
+    private static final Executor DIRECT = Runnable::run;
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @param timeout 从现在开始的超时时间
+     * @return 截止时间
+     */
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * 当前线程的截止时间，没有时为 null
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 在 {@code deadline} 内执行任务，任务中借用的连接都受截止时间约束
+     *
+     * @param deadline 截止时间，为 null 时不限制
+     * @param task     任务
+     * @return 任务的返回值
+     */
+    public static <T> T call(Deadline deadline, Callable<T> task) throws Exception {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public long remainingMillis() {
+        return Math.max(0, Duration.ofNanos(deadlineNanos - System.nanoTime()).toMillis());
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 截止时间已过时抛出 {@link SQLTimeoutException}
+     */
+    public void check() throws SQLTimeoutException {
+        if (isExpired()) {
+            throw new SQLTimeoutException("Deadline exceeded");
+        }
+    }
+
+    /**
+     * 把剩余时间设置为连接的网络超时，不支持网络超时的驱动只依赖执行前的检查
+     */
+    void apply(Connection conn) throws SQLException {
+        check();
+        try {
+            conn.setNetworkTimeout(DIRECT, (int) Math.min(Integer.MAX_VALUE, Math.max(1, remainingMillis())));
+        } catch (SQLFeatureNotSupportedException e) {
+            log.debug("驱动不支持网络超时，截止时间只在执行前检查");
+        }
+    }
+}
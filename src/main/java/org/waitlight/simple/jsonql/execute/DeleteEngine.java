@@ -2,29 +2,77 @@ package org.waitlight.simple.jsonql.execute;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.waitlight.simple.jsonql.builder.DeleteSqlBuilder;
 import org.waitlight.simple.jsonql.builder.PreparedSql;
+import org.waitlight.simple.jsonql.builder.SqlBuildException;
 import org.waitlight.simple.jsonql.execute.result.DeleteResult;
-import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
-import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
 import org.waitlight.simple.jsonql.statement.DeleteStatement;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 public class DeleteEngine extends StatementEngine<DeleteStatement, DeleteResult> {
     private final DeleteSqlBuilder deleteSqlBuilder;
+    /**
+     * 按 ID 列表或按条件删除时允许影响的最大行数，0 表示不限制
+     */
+    private final int maxRows;
 
-    public DeleteEngine(MetadataSource metadataSource) {
-        super(metadataSource);
-        this.deleteSqlBuilder = new DeleteSqlBuilder(MetadataBuilderFactory.createLocalBuilder(metadataSource).build());
+    public DeleteEngine(Metadata metadata, DataSource dataSource) {
+        this(metadata, dataSource, DEFAULT_MAX_ROWS);
+    }
+
+    /**
+     * @param maxRows 批量删除允许影响的最大行数，0 表示不限制
+     */
+    public DeleteEngine(Metadata metadata, DataSource dataSource, int maxRows) {
+        super(metadata, dataSource);
+        this.deleteSqlBuilder = new DeleteSqlBuilder(metadata);
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public Set<String> writtenTables(DeleteStatement stmt) {
+        return Set.of(metadata.getEntity(stmt.getEntityId()).getTableName());
+    }
+
+    /**
+     * 按 ID 或 ID 列表删除时只影响指定的记录，按条件删除时无法确定受影响的记录
+     */
+    @Override
+    public Map<String, List<Object>> changedRows(DeleteStatement stmt) {
+        PersistentClass persistentClass = metadata.getEntity(stmt.getEntityId());
+        List<Object> ids = null;
+        if (stmt.getFilters() == null && StringUtils.isNotBlank(stmt.getId())) {
+            ids = rowIds(persistentClass, List.of(stmt.getId()));
+        } else if (stmt.getFilters() == null && CollectionUtils.isNotEmpty(stmt.getIds())) {
+            ids = rowIds(persistentClass, stmt.getIds());
+        }
+        Map<String, List<Object>> rows = new HashMap<>();
+        rows.put(persistentClass.getTableName(), ids);
+        return rows;
     }
 
     @Override
-    public DeleteResult execute(Connection conn, DeleteStatement stmt) throws SQLException {
+    public DeleteResult execute(Connection conn, DeleteStatement stmt) throws SQLException, SqlBuildException {
+        if (stmt != null && stmt.getFilters() != null) {
+            return executeByFilter(conn, stmt);
+        }
+        if (stmt != null && CollectionUtils.isNotEmpty(stmt.getIds())) {
+            return executeBatch(conn, stmt);
+        }
+
         try {
             PreparedSql<DeleteStatement> preparedSql = deleteSqlBuilder.build(stmt);
 
@@ -59,4 +107,89 @@ public class DeleteEngine extends StatementEngine<DeleteStatement, DeleteResult>
             throw new SQLException("删除SQL构建失败: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * 按 ID 列表删除：在一个事务中依次执行拆分后的 {@code DELETE ... WHERE id IN (...)}
+     */
+    private DeleteResult executeBatch(Connection conn, DeleteStatement stmt) throws SQLException, SqlBuildException {
+        List<PreparedSql<DeleteStatement>> batch = deleteSqlBuilder.buildBatch(stmt);
+        int idCount = batch.stream().mapToInt(sql -> sql.getParameters().size()).sum();
+        checkMaxRows(stmt, idCount);
+        log.info("执行实体批量删除语句: {}, ID数: {}, SQL条数: {}", stmt.getEntityId(), idCount, batch.size());
+
+        boolean ownTransaction = beginTransaction(conn);
+        int affectedRows = 0;
+        try {
+            for (PreparedSql<DeleteStatement> preparedSql : batch) {
+                affectedRows += executeUpdate(conn, preparedSql);
+            }
+            commitTransaction(conn, ownTransaction);
+
+            log.info("批量删除事务提交成功，总影响行数: {}", affectedRows);
+            return DeleteResult.of(affectedRows);
+        } catch (SQLException e) {
+            rollbackTransaction(conn, ownTransaction, e);
+            log.error("批量删除失败，已执行影响行数: {}", affectedRows);
+            throw e;
+        } finally {
+            endTransaction(conn, ownTransaction);
+        }
+    }
+
+    /**
+     * 按条件删除：先统计匹配行数检查上限，指定 {@code batchSize} 时循环执行 {@code DELETE ... LIMIT n}，
+     * 每批单独提交，避免一次大范围删除长时间持有行锁
+     */
+    private DeleteResult executeByFilter(Connection conn, DeleteStatement stmt)
+            throws SQLException, SqlBuildException {
+        if (maxRows > 0) {
+            checkMaxRows(stmt, count(conn, deleteSqlBuilder.buildCount(stmt)));
+        }
+
+        Integer batchSize = stmt.getBatchSize() != null && stmt.getBatchSize() > 0 ? stmt.getBatchSize() : null;
+        PreparedSql<DeleteStatement> preparedSql = deleteSqlBuilder.buildByFilter(stmt, batchSize);
+        log.info("执行实体按条件删除语句: {}, SQL: {}, 参数: {}",
+                stmt.getEntityId(), preparedSql.getSql(), preparedSql.getParameters());
+
+        if (batchSize == null) {
+            int affectedRows = executeUpdate(conn, preparedSql);
+            log.info("按条件删除影响行数: {}", affectedRows);
+            return DeleteResult.of(affectedRows);
+        }
+
+        int affectedRows = 0;
+        int batches = 0;
+        int affected;
+        do {
+            // 自动提交模式下每批单独提交；处于外层事务中时由调用方统一提交
+            affected = executeUpdate(conn, preparedSql);
+            affectedRows += affected;
+            batches++;
+        } while (affected >= batchSize);
+        log.info("按条件分批删除完成，总影响行数: {}, 批次数: {}", affectedRows, batches);
+        return DeleteResult.of(affectedRows);
+    }
+
+    private void checkMaxRows(DeleteStatement stmt, long rows) throws SqlBuildException {
+        if (maxRows > 0 && rows > maxRows) {
+            throw new SqlBuildException("Delete of entity [" + stmt.getEntityId() + "] matches " + rows
+                    + " rows, exceeding the limit of " + maxRows);
+        }
+    }
+
+    private long count(Connection conn, PreparedSql<DeleteStatement> preparedSql) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(preparedSql.getSql())) {
+            setParameters(ps, preparedSql.getParameters());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private int executeUpdate(Connection conn, PreparedSql<DeleteStatement> preparedSql) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(preparedSql.getSql())) {
+            setParameters(ps, preparedSql.getParameters());
+            return ps.executeUpdate();
+        }
+    }
 }
@@ -1,38 +1,122 @@
 package org.waitlight.simple.jsonql.execute;
 
 import lombok.extern.slf4j.Slf4j;
+import org.waitlight.simple.jsonql.builder.PlanCacheStats;
 import org.waitlight.simple.jsonql.builder.SqlBuildException;
-import org.waitlight.simple.jsonql.config.DBConfig;
+import org.waitlight.simple.jsonql.datasource.ConcurrencyLimiter;
+import org.waitlight.simple.jsonql.datasource.DataSourceRegistry;
+import org.waitlight.simple.jsonql.execute.cache.ResultCache;
+import org.waitlight.simple.jsonql.execute.cache.RowCache;
+import org.waitlight.simple.jsonql.execute.id.IdGenerators;
+import org.waitlight.simple.jsonql.execute.result.BatchResult;
 import org.waitlight.simple.jsonql.execute.result.ExecuteResult;
+import org.waitlight.simple.jsonql.execute.result.MultiQueryResult;
+import org.waitlight.simple.jsonql.execute.stream.RowWriter;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.metadata.MetadataHolder;
 import org.waitlight.simple.jsonql.metadata.MetadataSource;
 import org.waitlight.simple.jsonql.statement.*;
+import org.waitlight.simple.jsonql.statement.model.BatchItem;
+import org.waitlight.simple.jsonql.statement.model.StatementType;
 
+import javax.sql.DataSource;
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.util.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Slf4j
 public class ExecuteEngine {
 
-    private final MetadataSource metadataSource;
+    /**
+     * 异步执行的语句各自运行在一个虚拟线程上，阻塞在 JDBC 调用时只占用连接而不占用平台线程
+     */
+    private static final ExecutorService ASYNC_EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jsonql-", 0).factory());
+
+    private final MetadataHolder metadataHolder;
+    private final DataSource dataSource;
+    private final ConcurrencyLimiter limiter;
+    private final IdGenerators idGenerators;
+    private final int maxWriteRows;
+    /**
+     * 查询结果缓存，为 null 时不缓存；元数据快照替换后继续使用，表的版本号不受影响
+     */
+    private final ResultCache resultCache;
+    /**
+     * 按主键缓存的记录，为 null 时不缓存
+     */
+    private final RowCache rowCache;
     private final StatementParser parser;
-    private final Map<Class<? extends JsonQLStatement>, StatementEngine<? extends JsonQLStatement, ? extends ExecuteResult>> executors;
+    private volatile BoundEngines executors;
+
+    /**
+     * 与某一份元数据快照绑定的执行器集合
+     */
+    private record BoundEngines(Metadata metadata,
+                             Map<Class<? extends JsonQLStatement>, StatementEngine<? extends JsonQLStatement, ? extends ExecuteResult>> engines) {
+    }
 
-    public ExecuteEngine(MetadataSource metadataSource) {
-        this.metadataSource = metadataSource;
+    public ExecuteEngine(MetadataSource metadataSource, DataSourceRegistry dataSourceRegistry) {
+        this(new MetadataHolder(metadataSource), dataSourceRegistry);
+    }
+
+    public ExecuteEngine(MetadataHolder metadataHolder, DataSourceRegistry dataSourceRegistry) {
+        this(metadataHolder, dataSourceRegistry, ExecuteOptions.DEFAULT);
+    }
+
+    /**
+     * 创建执行引擎，多个引擎（例如每个租户一个）可以共享同一个 {@link MetadataHolder}
+     *
+     * @param metadataHolder     共享的元数据快照持有者
+     * @param dataSourceRegistry 数据源注册表
+     * @param options            数据源、主键、写入限制和缓存配置
+     */
+    public ExecuteEngine(MetadataHolder metadataHolder, DataSourceRegistry dataSourceRegistry, ExecuteOptions options) {
+        this.metadataHolder = metadataHolder;
+        this.dataSource = dataSourceRegistry.getDataSource(options.dataSourceName());
+        this.limiter = dataSourceRegistry.getLimiter(options.dataSourceName());
+        this.idGenerators = new IdGenerators(dataSourceRegistry.getIdDataSource(options.dataSourceName()),
+                options.workerId());
+        this.maxWriteRows = options.maxWriteRows();
+        this.resultCache = options.resultCache();
+        this.rowCache = options.rowCache();
         this.parser = new StatementParser();
-        this.executors = initializeExecutors();
+        this.executors = initializeExecutors(metadataHolder.get());
     }
 
-    private Map<Class<? extends JsonQLStatement>, StatementEngine<? extends JsonQLStatement, ? extends ExecuteResult>> initializeExecutors() {
-        Map<Class<? extends JsonQLStatement>, StatementEngine<? extends JsonQLStatement, ? extends ExecuteResult>> executors = new HashMap<>();
-        executors.put(SelectStatement.class, new SelectEngine(metadataSource));
-        executors.put(InsertStatement.class, new InsertEngine(metadataSource));
-        executors.put(UpdateStatement.class, new UpdateEngine(metadataSource));
-        executors.put(DeleteStatement.class, new DeleteEngine(metadataSource));
-        return executors;
+    private BoundEngines initializeExecutors(Metadata metadata) {
+        Map<Class<? extends JsonQLStatement>, StatementEngine<? extends JsonQLStatement, ? extends ExecuteResult>> engines = new HashMap<>();
+        engines.put(SelectStatement.class, new SelectEngine(metadata, dataSource, resultCache, rowCache));
+        engines.put(InsertStatement.class, new InsertEngine(metadata, dataSource, idGenerators));
+        engines.put(UpdateStatement.class, new UpdateEngine(metadata, dataSource, maxWriteRows));
+        engines.put(DeleteStatement.class, new DeleteEngine(metadata, dataSource, maxWriteRows));
+        engines.put(UpsertStatement.class, new UpsertEngine(metadata, dataSource, idGenerators));
+        return new BoundEngines(metadata, engines);
+    }
+
+    /**
+     * 获取与当前元数据快照绑定的执行器，快照被替换后重新创建执行器
+     */
+    private BoundEngines currentExecutors() {
+        Metadata metadata = metadataHolder.get();
+        BoundEngines current = executors;
+        if (current.metadata() != metadata) {
+            current = initializeExecutors(metadata);
+            executors = current;
+        }
+        return current;
     }
 
     /**
@@ -45,53 +129,257 @@ public class ExecuteEngine {
      */
     public ExecuteResult execute(String jsonQuery, Class<? extends JsonQLStatement> jsonQLStatementType) throws Exception {
         JsonQLStatement statement = parser.parse(jsonQuery, jsonQLStatementType);
-        try (Connection conn = DBConfig.getConnection()) {
-            return execute(conn, statement);
+        return execute(statement);
+    }
+
+    /**
+     * 流式执行查询语句，结果逐行写出到 {@code writer}
+     *
+     * @param statement 查询语句
+     * @param fetchSize 每批从数据库拉取的行数
+     * @param writer    行写出器
+     * @return 写出的行数
+     */
+    public long stream(SelectStatement statement, int fetchSize, RowWriter writer)
+            throws SQLException, SqlBuildException, IOException {
+        SelectEngine engine = (SelectEngine) currentExecutors().engines().get(SelectStatement.class);
+        return engine.stream(statement, fetchSize, writer);
+    }
+
+    /**
+     * 在同一个连接、同一个事务中按顺序执行多条语句，任意一条失败时全部回滚
+     *
+     * @param jsonBatch JSON格式的批量语句
+     * @return 与语句一一对应的执行结果
+     */
+    public BatchResult executeBatch(String jsonBatch)
+            throws JsonQLStatementException, SQLException, SqlBuildException {
+        return executeBatch(parser.parseBatch(jsonBatch));
+    }
+
+    /**
+     * 在同一个连接、同一个事务中按顺序执行多条语句，任意一条失败时全部回滚
+     * <p>
+     * 语句在执行到时才解析，此前插入语句生成的主键可以通过 {@code "${ref}"} 引用；
+     * 各执行器检测到外层事务后不再单独提交。{@link org.waitlight.simple.jsonql.statement.model.CountMode#PARALLEL}
+     * 计数使用另一个连接，看不到本批次未提交的写入
+     *
+     * @param batch 批量语句
+     * @return 与语句一一对应的执行结果
+     */
+    public BatchResult executeBatch(BatchStatement batch)
+            throws JsonQLStatementException, SQLException, SqlBuildException {
+        if (batch == null || batch.getStatements() == null || batch.getStatements().isEmpty()) {
+            throw new SqlBuildException("At least one statement is required in batch");
+        }
+        BoundEngines engines = currentExecutors();
+        BatchReferences references = new BatchReferences();
+        List<ExecuteResult> results = new ArrayList<>(batch.getStatements().size());
+        Set<String> writtenTables = new LinkedHashSet<>();
+        Map<String, List<Object>> changedRows = new HashMap<>();
+
+        try (Connection conn = dataSource.getConnection()) {
+            boolean originalAutoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            int index = 0;
+            try {
+                for (BatchItem item : batch.getStatements()) {
+                    if (item.getType() == null) {
+                        throw new SqlBuildException("Statement type is required in batch at index " + index);
+                    }
+                    // 只有插入语句返回生成的主键，其它语句声明的引用无法解析
+                    if (item.getRef() != null && item.getType() != StatementType.INSERT) {
+                        throw new SqlBuildException("Batch reference is only supported for insert statements at index "
+                                + index);
+                    }
+                    JsonQLStatement statement = parser.parse(references.resolve(item.getStatement()),
+                            item.getType().getStatementClass());
+                    StatementEngine<JsonQLStatement, ExecuteResult> engine = engineOf(engines, statement);
+                    ExecuteResult result = engine.execute(conn, statement);
+                    writtenTables.addAll(engine.writtenTables(statement));
+                    mergeChangedRows(changedRows, engine.changedRows(statement));
+                    references.register(item.getRef(), result);
+                    results.add(result);
+                    index++;
+                }
+                conn.commit();
+                log.info("批量执行事务提交成功，语句数: {}", results.size());
+                return new BatchResult(results);
+            } catch (JsonQLStatementException | SQLException | SqlBuildException | RuntimeException e) {
+                log.error("批量执行第 {} 条语句失败，事务回滚: {}", index, e.getMessage());
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackEx) {
+                    e.addSuppressed(rollbackEx);
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(originalAutoCommit);
+                invalidate(writtenTables, changedRows);
+            }
         }
     }
 
-    private ExecuteResult execute(Connection conn, JsonQLStatement statement) throws SQLException, SqlBuildException {
-        StatementEngine<JsonQLStatement, ExecuteResult> executor = (StatementEngine<JsonQLStatement, ExecuteResult>) executors.get(statement.getClass());
+    /**
+     * 在虚拟线程上异步执行语句，同时执行的语句数受数据源的 {@link ConcurrencyLimiter} 限制
+     *
+     * @param statement 已解析的语句
+     * @return 执行结果，失败时以 {@link CompletionException} 包装 {@link SQLException} 或 {@link SqlBuildException}
+     */
+    public CompletableFuture<ExecuteResult> executeAsync(JsonQLStatement statement) {
+        return executeAsync(statement, null);
+    }
 
-        if (executor == null) {
-            throw new IllegalStateException("Unsupported statement type: " + statement.getClass());
+    /**
+     * 在虚拟线程上异步执行语句，截止时间从调用时开始计算，包含排队等待许可和借用连接的时间
+     *
+     * @param statement 已解析的语句
+     * @param timeout   超时时间，为 null 时不限制
+     * @return 执行结果，超时时以 {@link CompletionException} 包装 {@link java.sql.SQLTimeoutException}
+     */
+    public CompletableFuture<ExecuteResult> executeAsync(JsonQLStatement statement, Duration timeout) {
+        Deadline deadline = timeout == null ? null : Deadline.after(timeout);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return executeLimited(statement, limiter, deadline);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, ASYNC_EXECUTOR);
+    }
+
+    /**
+     * 并发执行多条互不依赖的查询，每条查询使用各自的连接，总耗时取决于最慢的一条
+     * <p>
+     * 同一请求中同时执行的查询数不超过 {@code parallelism}，同时仍受数据源的 {@link ConcurrencyLimiter} 限制；
+     * 单条查询失败不影响其它查询，失败原因按名称记录在结果中
+     *
+     * @param statements  查询名称到查询语句的映射
+     * @param parallelism 同时执行的最大查询数
+     * @param timeout     整个请求的超时时间，为 null 时不限制
+     * @return 按名称返回的查询结果和失败原因
+     */
+    public MultiQueryResult executeAll(Map<String, SelectStatement> statements, int parallelism, Duration timeout) {
+        Deadline deadline = timeout == null ? null : Deadline.after(timeout);
+        ConcurrencyLimiter permits = new ConcurrencyLimiter(Math.max(1, parallelism));
+        Map<String, CompletableFuture<ExecuteResult>> futures = new LinkedHashMap<>();
+        statements.forEach((name, statement) -> futures.put(name, CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire(deadline == null ? -1 : deadline.remainingMillis());
+                try {
+                    return executeLimited(statement, limiter, deadline);
+                } finally {
+                    permits.release();
+                }
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, ASYNC_EXECUTOR)));
+
+        Map<String, ExecuteResult> results = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        futures.forEach((name, future) -> {
+            try {
+                results.put(name, future.join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("多查询中的查询 {} 失败: {}", name, cause.getMessage());
+                errors.put(name, cause.getMessage());
+            }
+        });
+        return new MultiQueryResult(results, errors);
+    }
+
+    /**
+     * 获取数据源许可后在截止时间内执行语句
+     */
+    private ExecuteResult executeLimited(JsonQLStatement statement, ConcurrencyLimiter limiter, Deadline deadline)
+            throws Exception {
+        limiter.acquire(deadline == null ? -1 : deadline.remainingMillis());
+        try {
+            return Deadline.call(deadline, () -> execute(statement));
+        } finally {
+            limiter.release();
         }
+    }
 
-        return executor.execute(conn, statement);
+    public IdGenerators getIdGenerators() {
+        return idGenerators;
     }
 
-    private static List<Map<String, Object>> processResultSet(ResultSet rs) throws SQLException {
-        List<Map<String, Object>> result = new ArrayList<>();
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
+    public ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
 
-        while (rs.next()) {
-            Map<String, Object> row = new LinkedHashMap<>();
-            Map<String, Map<String, Object>> relationData = new LinkedHashMap<>();
+    /**
+     * 当前元数据快照的查询计划缓存统计，快照被替换后查询计划重新编译，统计随之重新开始
+     */
+    public PlanCacheStats getPlanCacheStats() {
+        return ((SelectEngine) currentExecutors().engines().get(SelectStatement.class)).getPlanCacheStats();
+    }
 
-            for (int i = 1; i <= columnCount; i++) {
-                String columnName = metaData.getColumnLabel(i);
-                Object value = rs.getObject(i);
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
 
-                // 处理关联字段 (格式: relation_field)
-                if (columnName.contains("_")) {
-                    String[] parts = columnName.split("_", 2);
-                    String relation = parts[0];
-                    String field = parts[1];
+    public RowCache getRowCache() {
+        return rowCache;
+    }
 
-                    relationData.computeIfAbsent(relation, k -> new LinkedHashMap<>())
-                            .put(field, value);
-                } else {
-                    // 普通字段直接放入row
-                    row.put(columnName, value);
-                }
+    /**
+     * 执行语句；写入语句结束后（无论成功与否，失败前可能已有部分批次提交）使依赖被写入表的查询结果缓存
+     * 和受影响的记录缓存失效
+     */
+    private ExecuteResult execute(JsonQLStatement statement) throws SQLException, SqlBuildException {
+        StatementEngine<JsonQLStatement, ExecuteResult> engine = engineOf(currentExecutors(), statement);
+        if (resultCache == null && rowCache == null) {
+            return engine.execute(statement);
+        }
+        try {
+            return engine.execute(statement);
+        } finally {
+            try {
+                invalidate(engine.writtenTables(statement), engine.changedRows(statement));
+            } catch (RuntimeException e) {
+                // 语句引用的实体不存在时没有写入任何数据
+                log.warn("解析写入的表失败 Entity: {}: {}", statement.getEntityId(), e.getMessage());
+            }
+        }
+    }
+
+    private void invalidate(Set<String> tables, Map<String, List<Object>> changedRows) {
+        if (resultCache != null) {
+            resultCache.invalidate(tables);
+        }
+        if (rowCache != null) {
+            changedRows.forEach(rowCache::invalidate);
+        }
+    }
+
+    /**
+     * 合并批量语句中各条语句影响的记录，任一语句无法确定受影响的主键时该表按全部记录失效
+     */
+    private static void mergeChangedRows(Map<String, List<Object>> target, Map<String, List<Object>> rows) {
+        rows.forEach((table, ids) -> {
+            if (target.containsKey(table) && target.get(table) == null) {
+                return;
+            }
+            if (ids == null) {
+                target.put(table, null);
+            } else {
+                target.computeIfAbsent(table, key -> new ArrayList<>()).addAll(ids);
             }
+        });
+    }
 
-            // 合并关联数据到结果
-            relationData.forEach(row::put);
+    @SuppressWarnings("unchecked")
+    private static StatementEngine<JsonQLStatement, ExecuteResult> engineOf(BoundEngines engines,
+                                                                           JsonQLStatement statement) {
+        StatementEngine<JsonQLStatement, ExecuteResult> executor = (StatementEngine<JsonQLStatement, ExecuteResult>) engines.engines().get(statement.getClass());
 
-            result.add(row);
+        if (executor == null) {
+            throw new IllegalStateException("Unsupported statement type: " + statement.getClass());
         }
-        return result;
+        return executor;
     }
 }
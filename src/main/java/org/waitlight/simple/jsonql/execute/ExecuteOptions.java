@@ -0,0 +1,60 @@
+package org.waitlight.simple.jsonql.execute;
+
+import org.waitlight.simple.jsonql.datasource.DataSourceRegistry;
+import org.waitlight.simple.jsonql.execute.cache.ResultCache;
+import org.waitlight.simple.jsonql.execute.cache.RowCache;
+
+/**
+ * 执行引擎的可选配置，未设置的项使用默认值
+ *
+ * @param dataSourceName 执行语句时使用的数据源名称
+ * @param workerId       Snowflake 主键生成器的节点号
+ * @param maxWriteRows   批量删除、更新允许影响的最大行数，0 表示不限制
+ * @param resultCache    查询结果缓存，为 null 时不缓存
+ * @param rowCache       按主键缓存的记录，为 null 时不缓存
+ */
+public record ExecuteOptions(String dataSourceName,
+                             long workerId,
+                             int maxWriteRows,
+                             ResultCache resultCache,
+                             RowCache rowCache) {
+
+    public static final ExecuteOptions DEFAULT = new Builder().build();
+
+    public static class Builder {
+        private String dataSourceName = DataSourceRegistry.DEFAULT_NAME;
+        private long workerId;
+        private int maxWriteRows = StatementEngine.DEFAULT_MAX_ROWS;
+        private ResultCache resultCache;
+        private RowCache rowCache;
+
+        public Builder setDataSourceName(String dataSourceName) {
+            this.dataSourceName = dataSourceName;
+            return this;
+        }
+
+        public Builder setWorkerId(long workerId) {
+            this.workerId = workerId;
+            return this;
+        }
+
+        public Builder setMaxWriteRows(int maxWriteRows) {
+            this.maxWriteRows = maxWriteRows;
+            return this;
+        }
+
+        public Builder setResultCache(ResultCache resultCache) {
+            this.resultCache = resultCache;
+            return this;
+        }
+
+        public Builder setRowCache(RowCache rowCache) {
+            this.rowCache = rowCache;
+            return this;
+        }
+
+        public ExecuteOptions build() {
+            return new ExecuteOptions(dataSourceName, workerId, maxWriteRows, resultCache, rowCache);
+        }
+    }
+}
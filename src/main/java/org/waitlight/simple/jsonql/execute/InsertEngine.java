@@ -6,19 +6,27 @@ import org.apache.commons.lang3.StringUtils;
 import org.waitlight.simple.jsonql.builder.InsertSqlBuilder;
 import org.waitlight.simple.jsonql.builder.PreparedSql;
 import org.waitlight.simple.jsonql.builder.SqlBuildException;
+import org.waitlight.simple.jsonql.execute.id.IdGenerator;
+import org.waitlight.simple.jsonql.execute.id.IdGenerators;
 import org.waitlight.simple.jsonql.execute.result.InsertResult;
 import org.waitlight.simple.jsonql.metadata.Metadata;
-import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
-import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
 import org.waitlight.simple.jsonql.statement.InsertStatement;
+import org.waitlight.simple.jsonql.statement.model.FieldStatement;
+import org.waitlight.simple.jsonql.statement.model.PersistStatement;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 处理插入语句的引擎实现类，负责将InsertStatement转换为SQL并执行
@@ -30,30 +38,46 @@ public class InsertEngine extends StatementEngine<InsertStatement, InsertResult>
     private record MainExecutionDetail(Long generatedId, int affectedRows) {
     }
 
-    // Helper record/class for nested statement execution result
-    private record NestedExecutionDetail(Long generatedId, int affectedRows) {
-    }
-
     // Helper record/class for aggregated nested statements execution result
     private record NestedExecutionSummary(List<Long> generatedIds, int totalAffectedRows) {
     }
 
     private final InsertSqlBuilder insertSqlBuilder;
+    private final IdGenerators idGenerators;
 
-    public InsertEngine(MetadataSource metadataSource) {
-        super(metadataSource);
-        this.insertSqlBuilder = new InsertSqlBuilder(MetadataBuilderFactory.createLocalBuilder(metadataSource).build());
+    public InsertEngine(Metadata metadata, DataSource dataSource) {
+        this(metadata, dataSource, new IdGenerators(dataSource, 0));
     }
 
-    public InsertEngine(MetadataSource metadataSource, Metadata metadata) {
-        super(metadataSource);
-        super.metadata = metadata;
-        this.insertSqlBuilder = new InsertSqlBuilder(MetadataBuilderFactory.createLocalBuilder(metadataSource).build());
+    /**
+     * @param idGenerators 客户端主键生成器，应在同一数据源的执行器之间共享
+     */
+    public InsertEngine(Metadata metadata, DataSource dataSource, IdGenerators idGenerators) {
+        super(metadata, dataSource);
+        this.insertSqlBuilder = new InsertSqlBuilder(metadata);
+        this.idGenerators = idGenerators;
+    }
+
+    @Override
+    public Set<String> writtenTables(InsertStatement stmt) {
+        return persistedTables(stmt, stmt.getRecords());
+    }
+
+    /**
+     * 插入只新增记录，不影响已缓存的记录
+     */
+    @Override
+    public Map<String, List<Object>> changedRows(InsertStatement stmt) {
+        return Map.of();
     }
 
     @Override
     public InsertResult execute(Connection conn, InsertStatement stmt) throws SQLException, SqlBuildException {
-        final PreparedSql<InsertStatement> preparedSql = insertSqlBuilder.build(stmt);
+        if (CollectionUtils.isNotEmpty(stmt.getRecords())) {
+            return executeBatch(conn, stmt.copy());
+        }
+
+        final PreparedSql<InsertStatement> preparedSql = insertSqlBuilder.build(assignIds(stmt));
 
         if (StringUtils.isBlank(preparedSql.getSql()) && CollectionUtils.isEmpty(preparedSql.getNestedSQLs())) {
             return new InsertResult(0, Collections.emptyList(), Collections.emptyList());
@@ -61,18 +85,17 @@ public class InsertEngine extends StatementEngine<InsertStatement, InsertResult>
 
         logStatementInfo(stmt, preparedSql);
 
-        boolean originalAutoCommit = conn.getAutoCommit();
+        boolean ownTransaction = beginTransaction(conn);
         MainExecutionDetail mainResult = null;
         NestedExecutionSummary nestedSummary = new NestedExecutionSummary(new ArrayList<>(), 0);
 
         try {
-            conn.setAutoCommit(false);
 
             mainResult = executeMainStatement(conn, preparedSql);
             nestedSummary = executeNestedStatements(conn, preparedSql,
                     mainResult != null ? mainResult.generatedId() : null);
 
-            conn.commit();
+            commitTransaction(conn, ownTransaction);
 
             InsertResult executionResult = buildInsertResult(mainResult, nestedSummary);
             log.info("事务提交成功，总影响行数: {}, 主ID: {}, 嵌套ID: {}",
@@ -80,15 +103,154 @@ public class InsertEngine extends StatementEngine<InsertStatement, InsertResult>
 
             return executionResult;
         } catch (SQLException e) {
-            handleTransactionError(conn, e);
+            rollbackTransaction(conn, ownTransaction, e);
             InsertResult executionResult = buildInsertResult(mainResult, nestedSummary);
             log.error("事务执行失败，当前状态: {}", executionResult);
             throw e;
         } finally {
-            restoreAutoCommit(conn, originalAutoCommit);
+            endTransaction(conn, ownTransaction);
         }
     }
 
+    /**
+     * 批量插入：在一个事务中依次执行多行 INSERT，按记录顺序收集生成的主键
+     *
+     * @param conn 数据库连接
+     * @param stmt 包含 {@code records} 的插入语句的副本，分配的主键写入其中
+     * @return 插入结果，{@code mainIds} 与记录一一对应
+     */
+    private InsertResult executeBatch(Connection conn, InsertStatement stmt) throws SQLException, SqlBuildException {
+        List<Long> assignedIds = assignRecordIds(stmt);
+        List<PreparedSql<InsertStatement>> batch = insertSqlBuilder.buildBatch(stmt);
+        log.info("执行实体批量插入语句: {}, 记录数: {}, SQL条数: {}",
+                stmt.getEntityId(), stmt.getRecords().size(), batch.size());
+
+        boolean ownTransaction = beginTransaction(conn);
+        List<Long> ids = assignedIds != null ? assignedIds : new ArrayList<>(stmt.getRecords().size());
+        int affectedRows = 0;
+        try {
+            for (PreparedSql<InsertStatement> preparedSql : batch) {
+                // 客户端已分配主键时不需要读取 generated keys
+                try (PreparedStatement ps = assignedIds != null
+                        ? conn.prepareStatement(preparedSql.getSql())
+                        : conn.prepareStatement(preparedSql.getSql(), PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    setParameters(ps, preparedSql.getParameters());
+                    affectedRows += ps.executeUpdate();
+                    if (assignedIds != null) {
+                        continue;
+                    }
+                    // 多行 INSERT 生成的主键按 VALUES 的顺序返回
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        while (rs.next()) {
+                            ids.add(rs.getLong(1));
+                        }
+                    }
+                }
+            }
+            commitTransaction(conn, ownTransaction);
+
+            log.info("批量插入事务提交成功，总影响行数: {}, 生成ID数: {}", affectedRows, ids.size());
+            return new InsertResult(affectedRows, ids, Collections.emptyList());
+        } catch (SQLException e) {
+            rollbackTransaction(conn, ownTransaction, e);
+            log.error("批量插入失败，已执行影响行数: {}", affectedRows);
+            throw e;
+        } finally {
+            endTransaction(conn, ownTransaction);
+        }
+    }
+
+    /**
+     * 为配置了客户端主键生成器、且未指定主键的主实体和嵌套实体分配主键
+     * <p>
+     * 主键在发送 SQL 之前确定，嵌套实体的外键不再依赖主实体插入后返回的自增主键；
+     * 主键写入语句的副本，调用方重复执行同一个语句对象（例如重试）时重新分配
+     *
+     * @return 分配了主键的语句副本
+     */
+    private InsertStatement assignIds(InsertStatement stmt) {
+        InsertStatement copy = stmt.copy();
+        if (CollectionUtils.isEmpty(copy.getFields())) {
+            return copy;
+        }
+        assignId(copy);
+        for (FieldStatement field : copy.getFields()) {
+            if (field.hasNestedStatement()) {
+                field.getValues().forEach(this::assignId);
+            }
+        }
+        return copy;
+    }
+
+    private void assignId(PersistStatement stmt) {
+        // 只有 dataId 或没有字段的嵌套实体是对已有记录的引用
+        if (StringUtils.isNotBlank(stmt.getDataId()) || CollectionUtils.isEmpty(stmt.getFields())) {
+            return;
+        }
+        PersistentClass persistentClass = metadata.getEntity(stmt.getEntityId());
+        IdGenerator generator = idGenerators.get(persistentClass);
+        if (generator == null || hasField(stmt.getFields(), persistentClass.getIdFieldName())) {
+            return;
+        }
+        stmt.getFields().add(idField(persistentClass, generator.nextId()));
+    }
+
+    /**
+     * 为批量插入的记录分配主键
+     *
+     * @return 与记录一一对应的主键，实体未配置客户端主键生成器时为 null
+     */
+    private List<Long> assignRecordIds(InsertStatement stmt) {
+        PersistentClass persistentClass = metadata.getEntity(stmt.getEntityId());
+        IdGenerator generator = idGenerators.get(persistentClass);
+        if (generator == null) {
+            return null;
+        }
+
+        List<List<FieldStatement>> records = new ArrayList<>(stmt.getRecords().size());
+        List<Long> ids = new ArrayList<>(stmt.getRecords().size());
+        for (List<FieldStatement> record : stmt.getRecords()) {
+            FieldStatement idField = findField(record, persistentClass.getIdFieldName());
+            if (idField != null && idField.getValue() instanceof Number number) {
+                records.add(record);
+                ids.add(number.longValue());
+                continue;
+            }
+            if (idField != null) {
+                // 主键不是数值时无法按顺序返回，交给数据库处理
+                return null;
+            }
+            long id = generator.nextId();
+            List<FieldStatement> fields = new ArrayList<>(record.size() + 1);
+            fields.add(idField(persistentClass, id));
+            fields.addAll(record);
+            records.add(fields);
+            ids.add(id);
+        }
+        stmt.setRecords(records);
+        return ids;
+    }
+
+    private static FieldStatement idField(PersistentClass persistentClass, long id) {
+        FieldStatement idField = new FieldStatement();
+        idField.setField(persistentClass.getIdFieldName());
+        idField.setValue(id);
+        return idField;
+    }
+
+    private static boolean hasField(List<FieldStatement> fields, String fieldName) {
+        return findField(fields, fieldName) != null;
+    }
+
+    private static FieldStatement findField(List<FieldStatement> fields, String fieldName) {
+        for (FieldStatement field : fields) {
+            if (fieldName.equals(field.getField())) {
+                return field;
+            }
+        }
+        return null;
+    }
+
     /**
      * 记录SQL语句和相关参数的日志信息
      *
@@ -122,10 +284,17 @@ public class InsertEngine extends StatementEngine<InsertStatement, InsertResult>
             return new MainExecutionDetail(null, 0);
         }
 
+        if (preparedSql.getAssignedId() != null) {
+            try (PreparedStatement ps = conn.prepareStatement(preparedSql.getSql())) {
+                setParameters(ps, preparedSql.getParameters());
+                return new MainExecutionDetail(preparedSql.getAssignedId(), ps.executeUpdate());
+            }
+        }
+
         try (PreparedStatement ps = conn.prepareStatement(
                 preparedSql.getSql(), PreparedStatement.RETURN_GENERATED_KEYS)) {
 
-            setStatementParameters(ps, preparedSql.getParameters());
+            setParameters(ps, preparedSql.getParameters());
             int affected = ps.executeUpdate();
             Long generatedId = extractGeneratedId(ps, affected, "主实体");
 
@@ -159,6 +328,9 @@ public class InsertEngine extends StatementEngine<InsertStatement, InsertResult>
 
     /**
      * 执行所有嵌套SQL语句
+     * <p>
+     * SQL 相同（同一实体、同一组字段）的嵌套语句合并为一个 PreparedStatement 批量执行，
+     * 生成的主键按嵌套语句的原始顺序返回
      *
      * @param conn            数据库连接
      * @param preparedSql     包含嵌套SQL的预处理SQL对象
@@ -170,94 +342,97 @@ public class InsertEngine extends StatementEngine<InsertStatement, InsertResult>
             Connection conn, PreparedSql<InsertStatement> preparedSql, Long mainGeneratedId)
             throws SQLException {
 
-        List<Long> allNestedGeneratedIds = new ArrayList<>();
-        int totalNestedAffectedRows = 0;
-
         if (CollectionUtils.isEmpty(preparedSql.getNestedSQLs())) {
-            return new NestedExecutionSummary(allNestedGeneratedIds, totalNestedAffectedRows);
+            return new NestedExecutionSummary(new ArrayList<>(), 0);
         }
 
-        for (PreparedSql<InsertStatement> childSql : preparedSql.getNestedSQLs()) {
-            if (StringUtils.isNotBlank(childSql.getSql())) {
-                NestedExecutionDetail detail = executeNestedStatement(conn, childSql, mainGeneratedId);
-                totalNestedAffectedRows += detail.affectedRows();
-                if (detail.generatedId() != null) {
-                    allNestedGeneratedIds.add(detail.generatedId());
-                }
+        List<PreparedSql<InsertStatement>> children = preparedSql.getNestedSQLs();
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < children.size(); i++) {
+            if (StringUtils.isNotBlank(children.get(i).getSql())) {
+                groups.computeIfAbsent(children.get(i).getSql(), sql -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Long[] generatedIds = new Long[children.size()];
+        int totalNestedAffectedRows = 0;
+        for (Map.Entry<String, List<Integer>> group : groups.entrySet()) {
+            totalNestedAffectedRows += executeNestedBatch(conn, group.getKey(), group.getValue(), children,
+                    mainGeneratedId, generatedIds);
+        }
+
+        List<Long> allNestedGeneratedIds = new ArrayList<>(children.size());
+        for (Long id : generatedIds) {
+            if (id != null) {
+                allNestedGeneratedIds.add(id);
             }
         }
         return new NestedExecutionSummary(allNestedGeneratedIds, totalNestedAffectedRows);
     }
 
     /**
-     * 执行单个嵌套SQL语句
+     * 批量执行 SQL 相同的一组嵌套语句
      *
      * @param conn            数据库连接
-     * @param childSql        嵌套SQL对象
+     * @param sql             这一组嵌套语句共同的 SQL
+     * @param indexes         这一组嵌套语句在 {@code children} 中的位置
+     * @param children        所有嵌套语句
      * @param mainGeneratedId 主语句生成的ID (用于外键替换)
-     * @return NestedExecutionDetail 包含该嵌套语句生成的主键ID和影响行数
+     * @param generatedIds    按嵌套语句位置写入生成的主键
+     * @return 影响行数
      * @throws SQLException 当SQL执行发生错误时抛出
      */
-    private NestedExecutionDetail executeNestedStatement(
-            Connection conn, PreparedSql<InsertStatement> childSql, Long mainGeneratedId)
-            throws SQLException {
-
-        log.info("执行嵌套SQL: {}", childSql.getSql());
-        if (CollectionUtils.isNotEmpty(childSql.getParameters())) {
-            log.info("嵌套SQL参数 (ID替换前): {}", childSql.getParameters());
-        }
-
-        try (PreparedStatement ps = conn.prepareStatement(childSql.getSql(), PreparedStatement.RETURN_GENERATED_KEYS)) {
-            List<Object> params = replaceForeignKeyPlaceholders(childSql.getParameters(), mainGeneratedId);
-            setStatementParameters(ps, params);
-            log.info("嵌套SQL参数 (ID替换后): {}", params);
-
-            int affected = ps.executeUpdate();
-            Long generatedId = extractGeneratedId(ps, affected, "嵌套实体");
-
-            return new NestedExecutionDetail(generatedId, affected);
-        }
-    }
+    private int executeNestedBatch(Connection conn, String sql, List<Integer> indexes,
+                                   List<PreparedSql<InsertStatement>> children, Long mainGeneratedId,
+                                   Long[] generatedIds) throws SQLException {
+        log.info("执行嵌套SQL: {}, 批量条数: {}", sql, indexes.size());
+
+        // SQL 相同则外键占位符的位置相同，只需在第一条语句中查找一次
+        int[] foreignKeyIndexes = foreignKeyPlaceholderIndexes(children.get(indexes.getFirst()).getParameters());
+        boolean assigned = indexes.stream().allMatch(i -> children.get(i).getAssignedId() != null);
+
+        try (PreparedStatement ps = assigned
+                ? conn.prepareStatement(sql)
+                : conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+            for (int index : indexes) {
+                List<Object> params = new ArrayList<>(children.get(index).getParameters());
+                for (int foreignKeyIndex : foreignKeyIndexes) {
+                    params.set(foreignKeyIndex, mainGeneratedId);
+                }
+                setParameters(ps, params);
+                ps.addBatch();
+            }
 
-    private List<Object> replaceForeignKeyPlaceholders(List<Object> parameters, Long generatedId) {
-        if (CollectionUtils.isEmpty(parameters)) {
-            return Collections.emptyList();
-        }
+            int affected = 0;
+            for (int count : ps.executeBatch()) {
+                // 改写为多行 INSERT 后驱动无法给出每条语句的影响行数
+                affected += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
 
-        List<Object> params = new ArrayList<>(parameters);
-        for (int j = 0; j < params.size(); j++) {
-            Object param = params.get(j);
-            if (param != null && InsertSqlBuilder.FOREIGN_KEY_PLACEHOLDER.equals(param.toString())) {
-                params.set(j, generatedId);
+            if (assigned) {
+                indexes.forEach(i -> generatedIds[i] = children.get(i).getAssignedId());
+            } else {
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    int i = 0;
+                    while (rs.next() && i < indexes.size()) {
+                        generatedIds[indexes.get(i++)] = rs.getLong(1);
+                    }
+                }
             }
+            log.info("嵌套实体生成ID: {}", indexes.stream().map(i -> generatedIds[i]).toList());
+            return affected;
         }
-        return params;
     }
 
-    private void setStatementParameters(PreparedStatement ps, List<Object> parameters) throws SQLException {
-        if (CollectionUtils.isEmpty(parameters)) {
-            return;
-        }
+    private int[] foreignKeyPlaceholderIndexes(List<Object> parameters) {
+        List<Integer> indexes = new ArrayList<>();
         for (int i = 0; i < parameters.size(); i++) {
-            ps.setObject(i + 1, parameters.get(i));
-        }
-    }
-
-    private void handleTransactionError(Connection conn, SQLException e) {
-        try {
-            conn.rollback();
-            log.error("事务回滚，错误原因: {}", e.getMessage());
-        } catch (SQLException rollbackEx) {
-            log.error("事务回滚失败", rollbackEx);
-        }
-    }
-
-    private void restoreAutoCommit(Connection conn, boolean originalAutoCommit) {
-        try {
-            conn.setAutoCommit(originalAutoCommit);
-        } catch (SQLException e) {
-            log.error("恢复AutoCommit设置失败", e);
+            Object param = parameters.get(i);
+            if (param != null && InsertSqlBuilder.FOREIGN_KEY_PLACEHOLDER.equals(param.toString())) {
+                indexes.add(i);
+            }
         }
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
     }
 
     /**
@@ -0,0 +1,99 @@
+package org.waitlight.simple.jsonql.execute;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 通过 JFR 的 {@code jdk.VirtualThreadPinned} 事件统计虚拟线程被钉住（pinning）的情况
+ * <p>
+ * 虚拟线程在 synchronized 块或本地方法中阻塞时无法卸载，会一直占用载体线程；驱动或连接池中的这类代码
+ * 在高并发下会把载体线程耗尽。每个钉住位置（栈上第一个非 JDK 的帧）第一次出现时记录一条警告
+ */
+@Slf4j
+public class PinningMonitor implements AutoCloseable {
+
+    private static final String EVENT_NAME = "jdk.VirtualThreadPinned";
+
+    private final RecordingStream stream;
+    private final LongAdder pinnedCount = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final Map<String, LongAdder> pinnedSites = new ConcurrentHashMap<>();
+
+    /**
+     * @param threshold 钉住超过该时间才记录
+     */
+    public PinningMonitor(Duration threshold) {
+        this.stream = new RecordingStream();
+        stream.enable(EVENT_NAME).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT_NAME, this::onPinned);
+        stream.startAsync();
+        log.info("虚拟线程钉住检测已启动，阈值: {}ms", threshold.toMillis());
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCount.increment();
+        pinnedNanos.add(event.getDuration().toNanos());
+        String site = site(event.getStackTrace());
+        LongAdder count = pinnedSites.computeIfAbsent(site, key -> {
+            log.warn("虚拟线程被钉住 {}ms，位置: {}", event.getDuration().toMillis(), key);
+            return new LongAdder();
+        });
+        count.increment();
+    }
+
+    private static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "unknown";
+    }
+
+    /**
+     * 钉住的总次数
+     */
+    public long getPinnedCount() {
+        return pinnedCount.sum();
+    }
+
+    /**
+     * 钉住的总时长
+     */
+    public Duration getPinnedDuration() {
+        return Duration.ofNanos(pinnedNanos.sum());
+    }
+
+    /**
+     * 按钉住位置统计的次数
+     */
+    public Map<String, Long> getPinnedSites() {
+        Map<String, Long> result = new ConcurrentHashMap<>();
+        pinnedSites.forEach((site, count) -> result.put(site, count.sum()));
+        return result;
+    }
+
+    /**
+     * 钉住统计快照
+     */
+    public PinningStats getStats() {
+        return new PinningStats(getPinnedCount(), getPinnedDuration().toMillis(), Map.copyOf(getPinnedSites()));
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
@@ -0,0 +1,13 @@
+package org.waitlight.simple.jsonql.execute;
+
+import java.util.Map;
+
+/**
+ * 虚拟线程钉住统计
+ *
+ * @param pinnedCount  钉住的总次数
+ * @param pinnedMillis 钉住的总时长（毫秒）
+ * @param pinnedSites  按钉住位置统计的次数
+ */
+public record PinningStats(long pinnedCount, long pinnedMillis, Map<String, Long> pinnedSites) {
+}
@@ -1,27 +1,280 @@
 package org.waitlight.simple.jsonql.execute;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
+import org.waitlight.simple.jsonql.builder.PlanCacheStats;
 import org.waitlight.simple.jsonql.builder.PreparedSql;
+import org.waitlight.simple.jsonql.builder.QueryShape;
+import org.waitlight.simple.jsonql.builder.RelationSqlBuilder;
+import org.waitlight.simple.jsonql.builder.SelectPlanCache;
 import org.waitlight.simple.jsonql.builder.SelectSqlBuilder;
+import org.waitlight.simple.jsonql.builder.SqlBuildException;
+import org.waitlight.simple.jsonql.execute.cache.ResultCache;
+import org.waitlight.simple.jsonql.execute.cache.RowCache;
+import org.waitlight.simple.jsonql.execute.mapper.RowMapper;
+import org.waitlight.simple.jsonql.execute.result.ColumnarRowSet;
 import org.waitlight.simple.jsonql.execute.result.SelectResult;
-import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
-import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.execute.stream.RowWriter;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
+import org.waitlight.simple.jsonql.metadata.Property;
+import org.waitlight.simple.jsonql.metadata.RelationshipType;
 import org.waitlight.simple.jsonql.statement.SelectStatement;
+import org.waitlight.simple.jsonql.statement.model.CountMode;
+import org.waitlight.simple.jsonql.statement.model.FilterCondition;
+import org.waitlight.simple.jsonql.statement.model.FilterCriteria;
+import org.waitlight.simple.jsonql.statement.model.MethodType;
 import org.waitlight.simple.jsonql.statement.model.PageCriteria;
+import org.waitlight.simple.jsonql.statement.model.PageMode;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigInteger;
 import java.sql.*;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Slf4j
 public class SelectEngine extends StatementEngine<SelectStatement, SelectResult> {
+    /**
+     * {@link CountMode#NONE} 时的总记录数
+     */
+    public static final int UNKNOWN_TOTAL = -1;
+
+    /**
+     * 并发计数查询的执行器，计数查询大部分时间阻塞在 IO 上，使用虚拟线程
+     */
+    private static final ExecutorService COUNT_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
     private final SelectSqlBuilder selectSqlBuilder;
+    private final RelationSqlBuilder relationSqlBuilder;
+    private final Cache<String, RowMapper> rowMappers = Caffeine.newBuilder()
+            .maximumSize(SelectPlanCache.DEFAULT_MAXIMUM_SIZE)
+            .build();
+
+    /**
+     * 查询结果缓存，为 null 时不缓存
+     */
+    private final ResultCache resultCache;
+    /**
+     * 按主键缓存的记录，为 null 时不缓存
+     */
+    private final RowCache rowCache;
+
+    public SelectEngine(Metadata metadata, DataSource dataSource) {
+        this(metadata, dataSource, null, null);
+    }
+
+    /**
+     * @param resultCache 查询结果缓存，为 null 时不缓存
+     * @param rowCache    按主键缓存的记录，为 null 时不缓存
+     */
+    public SelectEngine(Metadata metadata, DataSource dataSource, ResultCache resultCache, RowCache rowCache) {
+        super(metadata, dataSource);
+        this.selectSqlBuilder = new SelectSqlBuilder(metadata);
+        this.relationSqlBuilder = new RelationSqlBuilder(metadata);
+        this.resultCache = resultCache;
+        this.rowCache = rowCache;
+    }
+
+    /**
+     * 查询计划缓存统计
+     */
+    public PlanCacheStats getPlanCacheStats() {
+        return selectSqlBuilder.getPlanCacheStats();
+    }
+
+    /**
+     * 借用连接执行查询；开启记录缓存时按主键查询先查找记录缓存，开启结果缓存时先查找结果缓存，命中时不借用连接
+     * <p>
+     * 在调用方的连接上执行的查询（{@link #execute(Connection, SelectStatement)}）可能看到未提交的写入，不使用缓存
+     */
+    @Override
+    public SelectResult execute(SelectStatement statement) throws SQLException, SqlBuildException {
+        if (rowCache != null) {
+            PersistentClass persistentClass = metadata.getEntity(statement.getEntityId());
+            List<Object> ids = persistentClass.getCachePolicy().cacheable()
+                    ? rowCacheIds(statement, persistentClass)
+                    : null;
+            if (ids != null) {
+                return executeByIds(statement, persistentClass, ids);
+            }
+        }
+
+        List<PersistentClass> dependencies = resultCache == null ? null : cacheDependencies(statement);
+        if (dependencies == null) {
+            return super.execute(statement);
+        }
+
+        PreparedSql<SelectStatement> preparedSql = selectSqlBuilder.build(statement);
+        ResultCache.Key key = new ResultCache.Key(preparedSql.getSql(), List.copyOf(preparedSql.getParameters()),
+                cacheOptions(statement));
+        SelectResult cached = resultCache.get(key);
+        if (cached != null) {
+            log.info("查询结果缓存命中 Entity: {}", statement.getEntityId());
+            return cached;
+        }
+
+        List<String> tables = new ArrayList<>(dependencies.size());
+        Duration ttl = null;
+        for (PersistentClass dependency : dependencies) {
+            tables.add(dependency.getTableName());
+            Duration entityTtl = dependency.getCachePolicy().ttl();
+            if (entityTtl != null && (ttl == null || entityTtl.compareTo(ttl) < 0)) {
+                ttl = entityTtl;
+            }
+        }
+        ResultCache.Stamp stamp = resultCache.stamp(tables);
+        // 缓存的结果由多个请求共享，未命中时也返回同一个只读副本
+        SelectResult result = super.execute(statement).readOnly();
+        resultCache.put(key, stamp, result, ttl);
+        return result;
+    }
+
+    /**
+     * 按主键查询：先从记录缓存中取，未命中的主键合并为一条 {@code id IN (...)} 查询，结果按请求的主键顺序返回
+     */
+    private SelectResult executeByIds(SelectStatement statement, PersistentClass persistentClass, List<Object> ids)
+            throws SQLException, SqlBuildException {
+        String table = persistentClass.getTableName();
+        Property idProperty = persistentClass.getIdProperty();
+        long stamp = rowCache.stamp(table);
+        Map<Object, Map<String, Object>> rows = new HashMap<>(rowCache.getAll(table, ids));
+        List<Object> misses = ids.stream().filter(id -> !rows.containsKey(id)).toList();
+        log.info("按主键查询 Entity: {}, 主键数: {}, 记录缓存命中: {}", statement.getEntityId(), ids.size(),
+                ids.size() - misses.size());
+
+        if (!misses.isEmpty()) {
+            FilterCondition condition = new FilterCondition();
+            condition.setField(idProperty.fieldName());
+            condition.setMethod(MethodType.IN);
+            condition.setValues(misses);
+            FilterCriteria filters = new FilterCriteria();
+            filters.setConditions(List.of(condition));
+            SelectStatement missStatement = new SelectStatement();
+            missStatement.setEntityId(statement.getEntityId());
+            missStatement.setFilters(filters);
+
+            for (Map<String, Object> record : super.execute(missStatement).getRecords()) {
+                Object id = RowCache.normalizeId(record.get(idProperty.fieldName()), idProperty.columnType());
+                if (id != null) {
+                    Map<String, Object> row = SelectResult.readOnly(record);
+                    rows.put(id, row);
+                    rowCache.put(table, stamp, id, row, persistentClass.getCachePolicy().ttl());
+                }
+            }
+        }
+
+        // 缓存的记录只读且由多个请求共享，返回可修改的副本，与不使用缓存时的结果一致
+        List<Map<String, Object>> records = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            Map<String, Object> record = rows.get(id);
+            if (record != null) {
+                records.add(new LinkedHashMap<>(record));
+            }
+        }
+        return SelectResult.of(records);
+    }
+
+    /**
+     * 可以由记录缓存回答的查询：查询实体的所有字段，唯一的条件是主键等于或 IN，没有排序、分页、展开和列式结果；
+     * 返回去重、规范化后的主键，其他查询返回 null
+     */
+    private static List<Object> rowCacheIds(SelectStatement statement, PersistentClass persistentClass) {
+        if ((statement.getSelect() != null && !statement.getSelect().isEmpty())
+                || (statement.getSort() != null && !statement.getSort().isEmpty())
+                || statement.getPage() != null
+                || (statement.getExpand() != null && !statement.getExpand().isEmpty())
+                || statement.isCompact()
+                || statement.getFilters() == null
+                || statement.getFilters().getConditions() == null
+                || statement.getFilters().getConditions().size() != 1) {
+            return null;
+        }
+
+        FilterCondition condition = statement.getFilters().getConditions().get(0);
+        Property idProperty = persistentClass.getIdProperty();
+        if (condition == null
+                || !(idProperty.fieldName().equals(condition.getField())
+                || idProperty.columnName().equals(condition.getField()))) {
+            return null;
+        }
+        List<Object> values;
+        if (condition.getMethod() == MethodType.EQ && condition.getValue() != null) {
+            values = List.of(condition.getValue());
+        } else if (condition.getMethod() == MethodType.IN && condition.getValues() != null
+                && !condition.getValues().isEmpty()) {
+            values = condition.getValues();
+        } else {
+            return null;
+        }
+
+        Set<Object> ids = new LinkedHashSet<>();
+        for (Object value : values) {
+            Object id = RowCache.normalizeId(value, idProperty.columnType());
+            if (id == null) {
+                return null;
+            }
+            ids.add(id);
+        }
+        return List.copyOf(ids);
+    }
+
+    /**
+     * 查询结果依赖的实体：查询的实体、关联查询的多对一实体和展开的一对多实体，任一实体不允许缓存时返回 null
+     */
+    private List<PersistentClass> cacheDependencies(SelectStatement statement) throws SqlBuildException {
+        PersistentClass persistentClass = metadata.getEntity(statement.getEntityId());
+        Set<PersistentClass> dependencies = new LinkedHashSet<>();
+        dependencies.add(persistentClass);
+        if (statement.getSelect() != null) {
+            for (String field : statement.getSelect()) {
+                int dot = field == null ? -1 : field.indexOf('.');
+                if (dot <= 0) {
+                    continue;
+                }
+                String relation = field.substring(0, dot);
+                for (Property property : persistentClass.getProperties()) {
+                    if (property.fieldName().equals(relation) && property.relationship() == RelationshipType.MANY_TO_ONE
+                            && metadata.findEntity(property.targetEntity()) != null) {
+                        dependencies.add(metadata.findEntity(property.targetEntity()));
+                    }
+                }
+            }
+        }
+        for (RelationSqlBuilder.Expansion expansion : relationSqlBuilder.resolve(statement)) {
+            dependencies.add(expansion.child());
+        }
 
-    public SelectEngine(MetadataSource metadataSource) {
-        super(metadataSource);
-        this.selectSqlBuilder = new SelectSqlBuilder(MetadataBuilderFactory.createLocalBuilder(metadataSource).build());
+        for (PersistentClass dependency : dependencies) {
+            if (!dependency.getCachePolicy().cacheable()) {
+                return null;
+            }
+        }
+        return List.copyOf(dependencies);
+    }
+
+    /**
+     * 不体现在 SQL 和参数中、但影响结果的选项
+     */
+    private static String cacheOptions(SelectStatement statement) {
+        PageCriteria page = statement.getPage();
+        String paging = page == null
+                ? "-"
+                : page.getNumber() + "|" + page.getSize() + "|" + page.getMode() + "|" + QueryShape.countModeOf(page);
+        return paging + "|" + statement.isCompact() + "|" + statement.getExpand();
     }
 
     @Override
@@ -39,27 +292,50 @@ public class SelectEngine extends StatementEngine<SelectStatement, SelectResult>
                 log.info("主SQL参数: {}", preparedSql.getParameters());
             }
 
-            try (PreparedStatement stmt = conn.prepareStatement(preparedSql.getSql())) {
-                List<Object> parameters = preparedSql.getParameters();
-                for (int i = 0; i < parameters.size(); i++) {
-                    stmt.setObject(i + 1, parameters.get(i));
+            PageCriteria page = statement.getPage();
+            if (page == null) {
+                return SelectResult.of(query(conn, statement, preparedSql).records());
+            }
+
+            int pageSize = page.getSize() != null && page.getSize() > 0
+                    ? page.getSize()
+                    : SelectSqlBuilder.DEFAULT_PAGE_SIZE;
+            int pageNumber = page.getNumber() != null && page.getNumber() > 0 ? page.getNumber() : 1;
+            CountMode countMode = QueryShape.countModeOf(page);
+            if (page.getMode() == PageMode.KEYSET) {
+                return executeKeyset(conn, statement, preparedSql, pageSize, pageNumber, countMode);
+            }
+
+            switch (countMode) {
+                case WINDOW -> {
+                    Rows rows = query(conn, statement, preparedSql);
+                    long total = rows.total();
+                    // 页码超出范围时窗口列随空结果一起丢失，需要单独计数
+                    if (rows.records().isEmpty() && pageNumber > 1) {
+                        total = getTotalCount(conn, statement);
+                    }
+                    return SelectResult.of(rows.records(), (int) total, pageSize, pageNumber);
                 }
-                try (ResultSet rs = stmt.executeQuery()) {
-                    List<Map<String, Object>> records = processResultSet(rs);
-
-                    // 处理分页信息
-                    PageCriteria page = statement.getPage();
-                    int pageSize = (page != null && page.getSize() != null) ? page.getSize() : records.size();
-                    int pageNumber = (page != null && page.getNumber() != null) ? page.getNumber() : 1;
-
-                    // 如果有分页信息，则需要执行计数查询
-                    if (page != null && page.getSize() != null) {
-                        int totalCount = getTotalCount(conn, statement);
-                        return SelectResult.of(records, totalCount, pageSize, pageNumber);
-                    } else {
-                        return SelectResult.of(records);
+                case PARALLEL -> {
+                    Deadline deadline = Deadline.current();
+                    CompletableFuture<Long> count = CompletableFuture.supplyAsync(
+                            () -> countOnPooledConnection(statement, deadline), COUNT_EXECUTOR);
+                    try {
+                        Rows rows = query(conn, statement, preparedSql);
+                        return SelectResult.of(rows.records(), (int) joinCount(count), pageSize, pageNumber);
+                    } catch (Exception e) {
+                        count.cancel(true);
+                        throw e;
                     }
                 }
+                case SEPARATE -> {
+                    Rows rows = query(conn, statement, preparedSql);
+                    return SelectResult.of(rows.records(), (int) getTotalCount(conn, statement), pageSize, pageNumber);
+                }
+                default -> {
+                    Rows rows = query(conn, statement, preparedSql);
+                    return SelectResult.of(rows.records(), UNKNOWN_TOTAL, pageSize, pageNumber);
+                }
             }
         } catch (Exception e) {
             log.error("查询执行失败 Entity: {}. Error: {}", statement.getEntityId(), e.getMessage());
@@ -68,114 +344,291 @@ public class SelectEngine extends StatementEngine<SelectStatement, SelectResult>
     }
 
     /**
-     * 获取总记录数（用于分页）
+     * 流式执行查询，逐行写出结果而不在内存中保留结果集
+     * <p>
+     * 使用只进只读游标并按 {@code fetchSize} 分批从数据库拉取（MySQL 需开启 useCursorFetch），
+     * 写出阻塞时不再拉取新的批次；写出失败（例如客户端断开）或线程被中断时取消查询
      *
-     * @param conn      数据库连接
      * @param statement 查询语句
-     * @return 总记录数
-     * @throws SQLException 当SQL执行错误时抛出
+     * @param fetchSize 每批拉取的行数
+     * @param writer    行写出器
+     * @return 写出的行数
      */
-    private int getTotalCount(Connection conn, SelectStatement statement) throws SQLException {
-        try {
-            // 直接重用SelectSqlBuilder为我们生成的SQL，但只保留WHERE部分
-            PreparedSql<SelectStatement> preparedSql = selectSqlBuilder.build(statement);
-            String fullSql = preparedSql.getSql();
-            List<Object> fullParameters = preparedSql.getParameters();
-
-            StringBuilder countSql = new StringBuilder();
-            countSql.append("SELECT COUNT(*) FROM ").append(statement.getEntityId());
-
-            // 提取WHERE部分的SQL和参数
-            List<Object> countParameters = new ArrayList<>();
-            int whereIndex = fullSql.indexOf("WHERE");
-
-            if (whereIndex != -1) {
-                // 从完整SQL中提取WHERE子句部分
-                int orderByIndex = fullSql.indexOf("ORDER BY");
-                int limitIndex = fullSql.indexOf("LIMIT");
-
-                int endIndex;
-                if (orderByIndex != -1) {
-                    endIndex = orderByIndex;
-                } else if (limitIndex != -1) {
-                    endIndex = limitIndex;
-                } else {
-                    endIndex = fullSql.length();
-                }
+    public long stream(SelectStatement statement, int fetchSize, RowWriter writer)
+            throws SQLException, SqlBuildException, IOException {
+        if (statement.getExpand() != null && !statement.getExpand().isEmpty()) {
+            throw new SqlBuildException("Expand is not supported by streaming export");
+        }
+        PreparedSql<SelectStatement> preparedSql = selectSqlBuilder.build(statement);
+        log.info("流式导出 Entity: {}, SQL: {}", statement.getEntityId(), preparedSql.getSql());
 
-                // 提取条件部分并添加到计数SQL中
-                countSql.append(" WHERE ");
-                countSql.append(fullSql.substring(whereIndex + 6, endIndex).trim());
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(preparedSql.getSql(),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(fetchSize);
+            setParameters(stmt, preparedSql.getParameters());
 
-                // 计算需要多少个参数
-                int placeholderCount = 0;
-                for (int i = whereIndex; i < endIndex; i++) {
-                    if (fullSql.charAt(i) == '?') {
-                        placeholderCount++;
+            try (ResultSet rs = stmt.executeQuery()) {
+                // 与分页查询使用同一个映射器，导出的字段名和值的类型与查询结果一致
+                RowMapper mapper = rowMapper(preparedSql.getSql(), statement.getEntityId(), rs);
+                List<String> columns = mapper.getColumnKeys();
+
+                long count = 0;
+                Object[] values = new Object[columns.size()];
+                try {
+                    writer.start(columns);
+                    while (rs.next()) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new InterruptedIOException("Export interrupted");
+                        }
+                        mapper.read(rs, values);
+                        writer.write(values);
+                        // 每拉取一批推送一次，避免客户端长时间收不到数据
+                        if (++count % fetchSize == 0) {
+                            writer.flush();
+                        }
                     }
+                    writer.finish();
+                } catch (IOException e) {
+                    log.warn("流式导出中止 Entity: {}, 已写出 {} 行: {}", statement.getEntityId(), count, e.getMessage());
+                    cancelQuietly(stmt);
+                    throw e;
                 }
+                log.info("流式导出完成 Entity: {}, 行数: {}", statement.getEntityId(), count);
+                return count;
+            }
+        }
+    }
 
-                // 添加相应数量的参数
-                for (int i = 0; i < placeholderCount; i++) {
-                    countParameters.add(fullParameters.get(i));
-                }
+    private void cancelQuietly(PreparedStatement stmt) {
+        try {
+            stmt.cancel();
+        } catch (SQLException e) {
+            log.warn("取消查询失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * keyset 分页：SQL 多取一行，多出的一行存在时说明还有下一页，用本页最后一行的排序键生成游标
+     */
+    private SelectResult executeKeyset(Connection conn, SelectStatement statement,
+                                       PreparedSql<SelectStatement> preparedSql,
+                                       int pageSize, int pageNumber, CountMode countMode) throws Exception {
+        List<String> keyColumns = selectSqlBuilder.getKeysetColumns(statement);
+        Deadline deadline = Deadline.current();
+        CompletableFuture<Long> count = countMode == CountMode.PARALLEL
+                ? CompletableFuture.supplyAsync(() -> countOnPooledConnection(statement, deadline), COUNT_EXECUTOR)
+                : null;
+        try {
+            Rows rows = query(conn, statement, preparedSql, new KeysetCapture(keyColumns, pageSize));
+            String nextCursor = rows.more() ? selectSqlBuilder.encodeCursor(statement, rows.keys()) : null;
+
+            // keyset 分页没有窗口计数，WINDOW 按 SEPARATE 处理
+            long total = switch (countMode) {
+                case PARALLEL -> joinCount(count);
+                case NONE -> UNKNOWN_TOTAL;
+                default -> getTotalCount(conn, statement);
+            };
+            return SelectResult.of(rows.records(), (int) total, pageSize, pageNumber, nextCursor);
+        } catch (Exception e) {
+            if (count != null) {
+                count.cancel(true);
+            }
+            throw e;
+        }
+    }
+
+    private Rows query(Connection conn, SelectStatement statement, PreparedSql<SelectStatement> preparedSql)
+            throws SQLException, SqlBuildException {
+        return query(conn, statement, preparedSql, null);
+    }
+
+    private Rows query(Connection conn, SelectStatement statement, PreparedSql<SelectStatement> preparedSql,
+                       KeysetCapture keyset) throws SQLException, SqlBuildException {
+        List<RelationSqlBuilder.Expansion> expansions = relationSqlBuilder.resolve(statement);
+        Rows rows;
+        try (PreparedStatement stmt = conn.prepareStatement(preparedSql.getSql())) {
+            setParameters(stmt, preparedSql.getParameters());
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper mapper = rowMapper(preparedSql.getSql(), statement.getEntityId(), rs);
+                rows = processResultSet(rs, mapper, keyset, statement.isCompact());
             }
+        }
+        if (!expansions.isEmpty() && !rows.records().isEmpty()) {
+            String idField = metadata.getEntity(statement.getEntityId()).getIdProperty().fieldName();
+            for (RelationSqlBuilder.Expansion expansion : expansions) {
+                expand(conn, expansion, idField, rows.records());
+            }
+        }
+        return rows;
+    }
 
-            log.info("执行计数SQL: {}", countSql);
-            if (!countParameters.isEmpty()) {
-                log.info("计数SQL参数: {}", countParameters);
+    /**
+     * 展开一对多关联：按本页父记录主键批量查询子记录，按外键建立哈希索引后归入父记录，
+     * 没有子记录的父记录得到空列表
+     */
+    private void expand(Connection conn, RelationSqlBuilder.Expansion expansion, String idField,
+                        List<Map<String, Object>> records) throws SQLException {
+        Set<Object> parentIds = new LinkedHashSet<>();
+        for (Map<String, Object> record : records) {
+            Object id = record.get(idField);
+            if (id != null) {
+                parentIds.add(id);
             }
+        }
 
-            try (PreparedStatement stmt = conn.prepareStatement(countSql.toString())) {
-                // 设置参数
-                for (int i = 0; i < countParameters.size(); i++) {
-                    stmt.setObject(i + 1, countParameters.get(i));
+        Map<Object, List<Map<String, Object>>> children = new HashMap<>();
+        String childEntity = expansion.child().getEntityName();
+        for (PreparedSql<SelectStatement> preparedSql : relationSqlBuilder.build(expansion, List.copyOf(parentIds))) {
+            log.info("展开关联 {}, SQL: {}", expansion.field(), preparedSql.getSql());
+            try (PreparedStatement stmt = conn.prepareStatement(preparedSql.getSql())) {
+                setParameters(stmt, preparedSql.getParameters());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    RowMapper mapper = rowMapper(preparedSql.getSql(), childEntity, rs);
+                    int foreignKey = rs.findColumn(expansion.foreignKeyColumn());
+                    while (rs.next()) {
+                        children.computeIfAbsent(joinKey(rs.getObject(foreignKey)), key -> new ArrayList<>())
+                                .add(mapper.map(rs));
+                    }
                 }
+            }
+        }
+
+        for (Map<String, Object> record : records) {
+            Object id = record.get(idField);
+            record.put(expansion.field(), id == null ? List.of() : children.getOrDefault(joinKey(id), List.of()));
+        }
+    }
+
+    /**
+     * 父表主键与子表外键的列类型可能不同（例如 BIGINT 与 INT），整数统一为 Long 后再比较
+     */
+    private static Object joinKey(Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof BigInteger) {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
 
+    /**
+     * 获取总记录数（用于分页）
+     *
+     * @param conn      数据库连接
+     * @param statement 查询语句
+     * @return 总记录数
+     * @throws SQLException 当SQL执行错误时抛出
+     */
+    private long getTotalCount(Connection conn, SelectStatement statement) throws SQLException {
+        try {
+            PreparedSql<SelectStatement> countSql = selectSqlBuilder.buildCount(statement);
+
+            log.info("执行计数SQL: {}", countSql.getSql());
+            if (!countSql.getParameters().isEmpty()) {
+                log.info("计数SQL参数: {}", countSql.getParameters());
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(countSql.getSql())) {
+                setParameters(stmt, countSql.getParameters());
                 try (ResultSet rs = stmt.executeQuery()) {
                     if (rs.next()) {
-                        return rs.getInt(1);
+                        return rs.getLong(1);
                     }
                     return 0;
                 }
             }
+        } catch (SQLException e) {
+            log.error("计数查询失败: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("计数查询失败: {}", e.getMessage());
             throw new SQLException("计数查询失败: " + e.getMessage(), e);
         }
     }
 
-    private List<Map<String, Object>> processResultSet(ResultSet rs) throws SQLException {
-        List<Map<String, Object>> results = new ArrayList<>();
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
+    /**
+     * 从连接池借用另一个连接执行计数查询，只能看到已提交的数据，计数与主查询受同一个截止时间约束
+     */
+    private long countOnPooledConnection(SelectStatement statement, Deadline deadline) {
+        try (Connection conn = getConnection(deadline)) {
+            return getTotalCount(conn, statement);
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private long joinCount(CompletableFuture<Long> count) throws SQLException {
+        try {
+            return count.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw e;
+        }
+    }
+
+    private Rows processResultSet(ResultSet rs, RowMapper mapper, KeysetCapture keyset, boolean compact)
+            throws SQLException {
+        List<Map<String, Object>> results = compact ? null : new ArrayList<>();
+        ColumnarRowSet.Builder columnar = compact ? mapper.columnarBuilder() : null;
+        int count = 0;
+        long total = 0;
+        List<Object> keys = null;
+        boolean more = false;
 
         while (rs.next()) {
-            Map<String, Object> row = new LinkedHashMap<>();
-            Map<String, Map<String, Object>> relationData = new LinkedHashMap<>();
-
-            for (int i = 1; i <= columnCount; i++) {
-                String columnName = metaData.getColumnLabel(i);
-                Object value = rs.getObject(i);
-
-                // 处理关联字段 (格式: relation_field)
-                if (columnName.contains("_")) {
-                    String[] parts = columnName.split("_", 2);
-                    String relation = parts[0];
-                    String field = parts[1];
-
-                    relationData.computeIfAbsent(relation, k -> new LinkedHashMap<>())
-                            .put(field, value);
-                } else {
-                    // 普通字段直接放入row
-                    row.put(columnName, value);
+            // keyset 分页多取的一行只用于判断是否还有下一页
+            if (keyset != null && count == keyset.pageSize()) {
+                more = true;
+                break;
+            }
+            // 记录本页最后一行的排序键值
+            if (keyset != null && count == keyset.pageSize() - 1) {
+                keys = new ArrayList<>(keyset.columns().size());
+                for (String column : keyset.columns()) {
+                    keys.add(rs.getObject(column));
                 }
             }
+            // 窗口计数列不属于记录本身
+            if (count == 0 && mapper.hasTotal()) {
+                total = mapper.readTotal(rs);
+            }
+            if (compact) {
+                mapper.append(columnar, rs);
+            } else {
+                results.add(mapper.map(rs));
+            }
+            count++;
+        }
+        return new Rows(compact ? columnar.build() : results, total, keys, more);
+    }
 
-            // 合并关联数据到结果
-            relationData.forEach(row::put);
-            results.add(row);
+    /**
+     * 获取与 SQL 对应的行映射器，同一条 SQL 的结果集结构固定，首次执行时编译
+     */
+    private RowMapper rowMapper(String sql, String entityId, ResultSet rs) throws SQLException {
+        RowMapper mapper = rowMappers.getIfPresent(sql);
+        if (mapper == null) {
+            mapper = RowMapper.compile(rs.getMetaData(), metadata.getEntity(entityId), metadata);
+            rowMappers.put(sql, mapper);
         }
-        return results;
+        return mapper;
+    }
+
+    /**
+     * @param records 查询到的记录
+     * @param total   窗口计数列给出的总记录数
+     * @param keys    keyset 分页时本页最后一行的排序键值
+     * @param more    keyset 分页时是否还有下一页
+     */
+    private record Rows(List<Map<String, Object>> records, long total, List<Object> keys, boolean more) {
+    }
+
+    /**
+     * @param columns  keyset 分页的排序键列名
+     * @param pageSize 每页大小
+     */
+    private record KeysetCapture(List<String> columns, int pageSize) {
     }
-} 
\ No newline at end of file
+}
@@ -2,22 +2,221 @@ package org.waitlight.simple.jsonql.execute;
 
 import lombok.extern.slf4j.Slf4j;
 import org.waitlight.simple.jsonql.builder.SqlBuildException;
+import org.waitlight.simple.jsonql.execute.cache.RowCache;
 import org.waitlight.simple.jsonql.execute.result.ExecuteResult;
 import org.waitlight.simple.jsonql.metadata.Metadata;
-import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
+import org.waitlight.simple.jsonql.metadata.Property;
 import org.waitlight.simple.jsonql.statement.JsonQLStatement;
+import org.waitlight.simple.jsonql.statement.model.FieldStatement;
+import org.waitlight.simple.jsonql.statement.model.PersistStatement;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 public abstract class StatementEngine<T extends JsonQLStatement, R extends ExecuteResult> {
-    protected final MetadataSource metadataSource;
-    protected Metadata metadata;
+    /**
+     * 批量删除、更新默认允许影响的最大行数
+     */
+    public static final int DEFAULT_MAX_ROWS = 10_000;
 
-    protected StatementEngine(MetadataSource metadataSource) {
-        this.metadataSource = metadataSource;
+    protected final Metadata metadata;
+    protected final DataSource dataSource;
+
+    /**
+     * @param metadata   共享的元数据快照
+     * @param dataSource 借用连接的数据源
+     */
+    protected StatementEngine(Metadata metadata, DataSource dataSource) {
+        this.metadata = metadata;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * 从连接池借用连接执行语句，执行完成后归还连接
+     *
+     * @param stmt 待执行的语句
+     * @return 执行结果
+     */
+    public R execute(T stmt) throws SQLException, SqlBuildException {
+        try (Connection conn = getConnection(Deadline.current())) {
+            return execute(conn, stmt);
+        }
+    }
+
+    /**
+     * 从连接池借用连接，带有截止时间时把剩余时间设置为连接的网络超时
+     *
+     * @param deadline 截止时间，为 null 时不限制
+     */
+    protected Connection getConnection(Deadline deadline) throws SQLException {
+        if (deadline == null) {
+            return dataSource.getConnection();
+        }
+        deadline.check();
+        Connection conn = dataSource.getConnection();
+        try {
+            deadline.apply(conn);
+            return conn;
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
     }
 
     public abstract R execute(Connection conn, T stmt) throws SQLException, SqlBuildException;
-} 
\ No newline at end of file
+
+    /**
+     * 语句会写入的表，写入提交后据此使依赖这些表的查询结果缓存失效；只读语句返回空集合
+     *
+     * @param stmt 待执行的语句
+     * @return 表名集合
+     */
+    public Set<String> writtenTables(T stmt) {
+        return Set.of();
+    }
+
+    /**
+     * 语句修改或删除的记录，写入提交后据此使按主键缓存的记录失效
+     * <p>
+     * 返回表名到规范化主键的映射，主键为 null 表示无法确定、该表的所有记录都可能受影响；
+     * 默认认为写入的表中所有记录都可能受影响
+     *
+     * @param stmt 待执行的语句
+     * @return 表名到主键的映射
+     */
+    public Map<String, List<Object>> changedRows(T stmt) {
+        Map<String, List<Object>> rows = new LinkedHashMap<>();
+        writtenTables(stmt).forEach(table -> rows.put(table, null));
+        return rows;
+    }
+
+    /**
+     * 把请求中的主键规范化为记录缓存的键，有无法解析的主键时返回 null
+     */
+    protected List<Object> rowIds(PersistentClass persistentClass, Collection<?> ids) {
+        JDBCType idType = persistentClass.getIdProperty().columnType();
+        List<Object> rowIds = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            Object rowId = RowCache.normalizeId(id, idType);
+            if (rowId == null) {
+                return null;
+            }
+            rowIds.add(rowId);
+        }
+        return rowIds;
+    }
+
+    /**
+     * 收集持久化语句写入的表，包括嵌套写入的关联实体的表
+     */
+    protected Set<String> persistedTables(PersistStatement stmt, List<List<FieldStatement>> records) {
+        PersistentClass persistentClass = metadata.getEntity(stmt.getEntityId());
+        Set<String> tables = new LinkedHashSet<>();
+        collectTables(persistentClass, stmt.getFields(), tables);
+        if (records != null) {
+            records.forEach(fields -> collectTables(persistentClass, fields, tables));
+        }
+        return tables;
+    }
+
+    private void collectTables(PersistentClass persistentClass, List<FieldStatement> fields, Set<String> tables) {
+        tables.add(persistentClass.getTableName());
+        if (fields == null) {
+            return;
+        }
+        for (FieldStatement field : fields) {
+            if (!field.hasNestedStatement()) {
+                continue;
+            }
+            for (Property property : persistentClass.getProperties()) {
+                PersistentClass target = property.fieldName().equals(field.getField()) && property.targetEntity() != null
+                        ? metadata.findEntity(property.targetEntity())
+                        : null;
+                if (target != null) {
+                    field.getValues().forEach(nested -> collectTables(target, nested.getFields(), tables));
+                }
+            }
+        }
+    }
+
+    /**
+     * 开始事务；连接已处于手动提交模式时说明调用方持有外层事务（例如批量执行多条语句），
+     * 本条语句只参与其中，提交和回滚由调用方负责
+     *
+     * @return 事务是否由本次调用开始
+     */
+    protected boolean beginTransaction(Connection conn) throws SQLException {
+        if (!conn.getAutoCommit()) {
+            return false;
+        }
+        conn.setAutoCommit(false);
+        return true;
+    }
+
+    protected void commitTransaction(Connection conn, boolean ownTransaction) throws SQLException {
+        if (ownTransaction) {
+            conn.commit();
+        }
+    }
+
+    protected void rollbackTransaction(Connection conn, boolean ownTransaction, SQLException e) {
+        if (!ownTransaction) {
+            return;
+        }
+        try {
+            conn.rollback();
+            log.error("事务回滚，错误原因: {}", e.getMessage());
+        } catch (SQLException rollbackEx) {
+            log.error("事务回滚失败", rollbackEx);
+        }
+    }
+
+    /**
+     * 结束本次调用开始的事务，恢复自动提交
+     */
+    protected void endTransaction(Connection conn, boolean ownTransaction) {
+        if (!ownTransaction) {
+            return;
+        }
+        try {
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            log.error("恢复AutoCommit设置失败", e);
+        }
+    }
+
+    /**
+     * 按顺序绑定参数，null 以 {@link Types#NULL} 绑定，枚举按名称绑定
+     *
+     * @param ps         预编译语句
+     * @param parameters 参数列表
+     */
+    protected void setParameters(PreparedStatement ps, List<Object> parameters) throws SQLException {
+        if (parameters == null) {
+            return;
+        }
+        for (int i = 0; i < parameters.size(); i++) {
+            Object parameter = parameters.get(i);
+            if (parameter == null) {
+                ps.setNull(i + 1, Types.NULL);
+            } else if (parameter instanceof Enum<?> e) {
+                ps.setString(i + 1, e.name());
+            } else {
+                ps.setObject(i + 1, parameter);
+            }
+        }
+    }
+}
@@ -7,18 +7,31 @@ import org.waitlight.simple.jsonql.builder.PreparedSql;
 import org.waitlight.simple.jsonql.builder.SqlBuildException;
 import org.waitlight.simple.jsonql.builder.UpdateSqlBuilder;
 import org.waitlight.simple.jsonql.execute.result.UpdateResult;
-import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
-import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
 import org.waitlight.simple.jsonql.statement.UpdateStatement;
+import org.waitlight.simple.jsonql.statement.model.PersistStatement;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 public class UpdateEngine extends StatementEngine<UpdateStatement, UpdateResult> {
     private final UpdateSqlBuilder updateSqlBuilder;
+    /**
+     * 按条件更新或批量更新时允许影响的最大行数，0 表示不限制
+     */
+    private final int maxRows;
 
     // Helper record/class for main statement execution result
     private record MainUpdateDetail(int affectedRows) {
@@ -28,13 +41,51 @@ public class UpdateEngine extends StatementEngine<UpdateStatement, UpdateResult>
     private record NestedUpdateDetail(int affectedRows) {
     }
 
-    public UpdateEngine(MetadataSource metadataSource) {
-        super(metadataSource);
-        this.updateSqlBuilder = new UpdateSqlBuilder(MetadataBuilderFactory.createLocalBuilder(metadataSource).build());
+    public UpdateEngine(Metadata metadata, DataSource dataSource) {
+        this(metadata, dataSource, DEFAULT_MAX_ROWS);
+    }
+
+    /**
+     * @param maxRows 按条件更新或批量更新允许影响的最大行数，0 表示不限制
+     */
+    public UpdateEngine(Metadata metadata, DataSource dataSource, int maxRows) {
+        super(metadata, dataSource);
+        this.updateSqlBuilder = new UpdateSqlBuilder(metadata);
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * 按 ID 或批量更新时只影响指定的记录，只按条件更新时无法确定受影响的记录
+     */
+    @Override
+    public Map<String, List<Object>> changedRows(UpdateStatement stmt) {
+        Map<String, List<Object>> rows = super.changedRows(stmt);
+        PersistentClass persistentClass = metadata.getEntity(stmt.getEntityId());
+        List<Object> ids = null;
+        if (StringUtils.isNotBlank(stmt.getDataId())) {
+            ids = rowIds(persistentClass, List.of(stmt.getDataId()));
+        } else if (CollectionUtils.isNotEmpty(stmt.getRecords())) {
+            ids = rowIds(persistentClass, stmt.getRecords().stream().map(PersistStatement::getDataId).toList());
+        }
+        rows.put(persistentClass.getTableName(), ids);
+        return rows;
+    }
+
+    @Override
+    public Set<String> writtenTables(UpdateStatement stmt) {
+        return persistedTables(stmt, stmt.getRecords() == null ? null
+                : stmt.getRecords().stream().map(PersistStatement::getFields).toList());
     }
 
     @Override
     public UpdateResult execute(Connection conn, UpdateStatement statement) throws SQLException, SqlBuildException {
+        if (statement != null && statement.getFilters() != null) {
+            return executeByFilter(conn, statement);
+        }
+        if (statement != null && CollectionUtils.isNotEmpty(statement.getRecords())) {
+            return executeBatch(conn, statement);
+        }
+
         PreparedSql<UpdateStatement> preparedSql = updateSqlBuilder.build(statement);
 
         if (preparedSql.getStatementType() != UpdateStatement.class) {
@@ -43,12 +94,11 @@ public class UpdateEngine extends StatementEngine<UpdateStatement, UpdateResult>
 
         logStatementInfo(statement, preparedSql);
 
-        boolean originalAutoCommit = conn.getAutoCommit();
+        boolean ownTransaction = beginTransaction(conn);
         int mainAffectedRows = 0;
         int nestedAffectedRows = 0;
 
         try {
-            conn.setAutoCommit(false);
 
             MainUpdateDetail mainResult = executeMainStatement(conn, preparedSql);
             mainAffectedRows = mainResult.affectedRows();
@@ -61,17 +111,103 @@ public class UpdateEngine extends StatementEngine<UpdateStatement, UpdateResult>
                 }
             }
 
-            conn.commit();
+            commitTransaction(conn, ownTransaction);
             int totalAffectedRows = mainAffectedRows + nestedAffectedRows;
             log.info("更新事务提交成功，总影响行数: {}, 主表影响行数: {}, 嵌套表影响行数: {}",
                     totalAffectedRows, mainAffectedRows, nestedAffectedRows);
 
             return UpdateResult.of(mainAffectedRows, nestedAffectedRows);
         } catch (SQLException e) {
-            handleTransactionError(conn, e);
+            rollbackTransaction(conn, ownTransaction, e);
             throw e;
         } finally {
-            restoreAutoCommit(conn, originalAutoCommit);
+            endTransaction(conn, ownTransaction);
+        }
+    }
+
+    /**
+     * 按条件更新：先统计匹配行数检查上限，再执行一条 {@code UPDATE ... WHERE <filters>}；
+     * 指定 {@code dataId} 的条件更新最多影响一行，不需要检查
+     */
+    private UpdateResult executeByFilter(Connection conn, UpdateStatement statement)
+            throws SQLException, SqlBuildException {
+        PreparedSql<UpdateStatement> preparedSql = updateSqlBuilder.buildByFilter(statement);
+        if (maxRows > 0 && StringUtils.isBlank(statement.getDataId())) {
+            checkMaxRows(statement, count(conn, updateSqlBuilder.buildCount(statement)));
+        }
+        log.info("执行实体按条件更新语句: {}, SQL: {}, 参数: {}",
+                statement.getEntityId(), preparedSql.getSql(), preparedSql.getParameters());
+
+        try (PreparedStatement ps = conn.prepareStatement(preparedSql.getSql())) {
+            setParameters(ps, preparedSql.getParameters());
+            int affectedRows = ps.executeUpdate();
+            log.info("按条件更新影响行数: {}", affectedRows);
+            return UpdateResult.of(affectedRows);
+        }
+    }
+
+    /**
+     * 批量更新：更新字段相同的记录共用一个预编译语句，通过 JDBC 批次执行，所有批次在一个事务中提交
+     *
+     * @return 更新结果，{@code recordAffectedRows} 与记录一一对应
+     */
+    private UpdateResult executeBatch(Connection conn, UpdateStatement statement)
+            throws SQLException, SqlBuildException {
+        List<PreparedSql<UpdateStatement>> batch = updateSqlBuilder.buildBatch(statement);
+        checkMaxRows(statement, batch.size());
+
+        // 按 SQL 文本分组，保留每条记录的原始下标
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            groups.computeIfAbsent(batch.get(i).getSql(), sql -> new ArrayList<>()).add(i);
+        }
+        log.info("执行实体批量更新语句: {}, 记录数: {}, 批次数: {}", statement.getEntityId(), batch.size(), groups.size());
+
+        boolean ownTransaction = beginTransaction(conn);
+        Integer[] counts = new Integer[batch.size()];
+        Arrays.fill(counts, 0);
+        try {
+            for (Map.Entry<String, List<Integer>> group : groups.entrySet()) {
+                try (PreparedStatement ps = conn.prepareStatement(group.getKey())) {
+                    for (int index : group.getValue()) {
+                        setParameters(ps, batch.get(index).getParameters());
+                        ps.addBatch();
+                    }
+                    int[] results = ps.executeBatch();
+                    for (int i = 0; i < results.length; i++) {
+                        // 驱动无法给出单条语句的影响行数时按 1 计
+                        counts[group.getValue().get(i)] = results[i] == Statement.SUCCESS_NO_INFO
+                                ? 1
+                                : Math.max(results[i], 0);
+                    }
+                }
+            }
+            commitTransaction(conn, ownTransaction);
+
+            UpdateResult result = UpdateResult.ofRecords(Arrays.asList(counts));
+            log.info("批量更新事务提交成功，总影响行数: {}", result.getAffectedRows());
+            return result;
+        } catch (SQLException e) {
+            rollbackTransaction(conn, ownTransaction, e);
+            throw e;
+        } finally {
+            endTransaction(conn, ownTransaction);
+        }
+    }
+
+    private void checkMaxRows(UpdateStatement statement, long rows) throws SqlBuildException {
+        if (maxRows > 0 && rows > maxRows) {
+            throw new SqlBuildException("Update of entity [" + statement.getEntityId() + "] matches " + rows
+                    + " rows, exceeding the limit of " + maxRows);
+        }
+    }
+
+    private long count(Connection conn, PreparedSql<UpdateStatement> preparedSql) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(preparedSql.getSql())) {
+            setParameters(ps, preparedSql.getParameters());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
         }
     }
 
@@ -109,7 +245,7 @@ public class UpdateEngine extends StatementEngine<UpdateStatement, UpdateResult>
         }
 
         try (PreparedStatement ps = conn.prepareStatement(preparedSql.getSql())) {
-            setStatementParameters(ps, preparedSql.getParameters());
+            setParameters(ps, preparedSql.getParameters());
             int affected = ps.executeUpdate();
             return new MainUpdateDetail(affected);
         }
@@ -135,35 +271,9 @@ public class UpdateEngine extends StatementEngine<UpdateStatement, UpdateResult>
         }
 
         try (PreparedStatement ps = conn.prepareStatement(nestedSql.getSql())) {
-            setStatementParameters(ps, nestedSql.getParameters());
+            setParameters(ps, nestedSql.getParameters());
             int affected = ps.executeUpdate();
             return new NestedUpdateDetail(affected);
         }
     }
-
-    private void setStatementParameters(PreparedStatement ps, List<Object> parameters) throws SQLException {
-        if (CollectionUtils.isEmpty(parameters)) {
-            return;
-        }
-        for (int i = 0; i < parameters.size(); i++) {
-            ps.setObject(i + 1, parameters.get(i));
-        }
-    }
-
-    private void handleTransactionError(Connection conn, SQLException e) {
-        try {
-            conn.rollback();
-            log.error("更新事务回滚，错误原因: {}", e.getMessage());
-        } catch (SQLException rollbackEx) {
-            log.error("事务回滚失败", rollbackEx);
-        }
-    }
-
-    private void restoreAutoCommit(Connection conn, boolean originalAutoCommit) {
-        try {
-            conn.setAutoCommit(originalAutoCommit);
-        } catch (SQLException e) {
-            log.error("恢复AutoCommit设置失败", e);
-        }
-    }
 }
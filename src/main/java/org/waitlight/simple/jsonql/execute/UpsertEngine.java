@@ -0,0 +1,124 @@
+package org.waitlight.simple.jsonql.execute;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.waitlight.simple.jsonql.builder.PreparedSql;
+import org.waitlight.simple.jsonql.builder.SqlBuildException;
+import org.waitlight.simple.jsonql.builder.UpsertSqlBuilder;
+import org.waitlight.simple.jsonql.execute.id.IdGenerator;
+import org.waitlight.simple.jsonql.execute.id.IdGenerators;
+import org.waitlight.simple.jsonql.execute.result.UpsertResult;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
+import org.waitlight.simple.jsonql.statement.UpsertStatement;
+import org.waitlight.simple.jsonql.statement.model.FieldStatement;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+public class UpsertEngine extends StatementEngine<UpsertStatement, UpsertResult> {
+    private final UpsertSqlBuilder upsertSqlBuilder;
+    private final IdGenerators idGenerators;
+
+    public UpsertEngine(Metadata metadata, DataSource dataSource) {
+        this(metadata, dataSource, new IdGenerators(dataSource, 0));
+    }
+
+    /**
+     * @param idGenerators 客户端主键生成器，同一数据源的执行器共享
+     */
+    public UpsertEngine(Metadata metadata, DataSource dataSource, IdGenerators idGenerators) {
+        super(metadata, dataSource);
+        this.upsertSqlBuilder = new UpsertSqlBuilder(metadata);
+        this.idGenerators = idGenerators;
+    }
+
+    /**
+     * 在一个事务中依次执行插入或更新语句
+     *
+     * @param conn 数据库连接
+     * @param stmt 包含 {@code fields} 或 {@code records} 的语句
+     * @return 总影响行数
+     */
+    @Override
+    public Set<String> writtenTables(UpsertStatement stmt) {
+        return persistedTables(stmt, stmt.getRecords());
+    }
+
+    @Override
+    public UpsertResult execute(Connection conn, UpsertStatement stmt) throws SQLException, SqlBuildException {
+        List<PreparedSql<UpsertStatement>> batch = upsertSqlBuilder.buildBatch(assignIds(stmt));
+        log.info("执行实体插入或更新语句: {}, SQL条数: {}", stmt.getEntityId(), batch.size());
+
+        boolean ownTransaction = beginTransaction(conn);
+        int affectedRows = 0;
+        try {
+            for (PreparedSql<UpsertStatement> preparedSql : batch) {
+                try (PreparedStatement ps = conn.prepareStatement(preparedSql.getSql())) {
+                    setParameters(ps, preparedSql.getParameters());
+                    affectedRows += ps.executeUpdate();
+                }
+            }
+            commitTransaction(conn, ownTransaction);
+
+            log.info("插入或更新事务提交成功，总影响行数: {}", affectedRows);
+            return new UpsertResult(affectedRows);
+        } catch (SQLException e) {
+            rollbackTransaction(conn, ownTransaction, e);
+            log.error("插入或更新失败，已执行影响行数: {}", affectedRows);
+            throw e;
+        } finally {
+            endTransaction(conn, ownTransaction);
+        }
+    }
+
+    /**
+     * 实体使用客户端主键时，为未指定主键的记录分配主键；记录已存在时主键不在更新列中，不会被改写。
+     * 主键写入语句的副本，调用方重复执行同一个语句对象时重新分配
+     *
+     * @return 分配了主键的语句副本
+     */
+    private UpsertStatement assignIds(UpsertStatement stmt) {
+        UpsertStatement copy = stmt.copy();
+        PersistentClass persistentClass = metadata.getEntity(copy.getEntityId());
+        IdGenerator generator = idGenerators.get(persistentClass);
+        if (generator == null) {
+            return copy;
+        }
+
+        if (CollectionUtils.isNotEmpty(copy.getFields())) {
+            copy.setFields(withId(persistentClass, copy.getFields(), generator));
+        }
+        if (CollectionUtils.isNotEmpty(copy.getRecords())) {
+            List<List<FieldStatement>> records = new ArrayList<>(copy.getRecords().size());
+            for (List<FieldStatement> record : copy.getRecords()) {
+                records.add(withId(persistentClass, record, generator));
+            }
+            copy.setRecords(records);
+        }
+        return copy;
+    }
+
+    private static List<FieldStatement> withId(PersistentClass persistentClass, List<FieldStatement> record,
+                                               IdGenerator generator) {
+        for (FieldStatement field : record) {
+            if (persistentClass.getIdFieldName().equals(field.getField())) {
+                return record;
+            }
+        }
+        FieldStatement idField = new FieldStatement();
+        idField.setField(persistentClass.getIdFieldName());
+        idField.setValue(generator.nextId());
+
+        List<FieldStatement> fields = new ArrayList<>(record.size() + 1);
+        fields.add(idField);
+        fields.addAll(record);
+        return fields;
+    }
+}
@@ -0,0 +1,236 @@
+package org.waitlight.simple.jsonql.execute.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.waitlight.simple.jsonql.execute.result.SelectResult;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 带版本的查询结果缓存
+ * <p>
+ * 每张表有一个版本号，写入语句提交后递增。缓存结果记录查询开始前各依赖表的版本号，
+ * 读取时任一依赖表的版本号已变化则视为过期并丢弃，因此不会返回写入提交之前查询到的结果；
+ * 查询执行期间发生的写入同样会让刚放入的结果立即过期。
+ * <p>
+ * 使用 Caffeine（W-TinyLFU 淘汰策略），按估算字节数限制总大小，同时每个结果至少按
+ * {@code maximumBytes / maximumSize} 计重，缓存的结果数不超过 {@code maximumSize}。
+ * 缓存的结果由多个请求共享，放入只读的副本（见 {@link SelectResult#readOnly()}）
+ */
+@Slf4j
+public class ResultCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+    public static final long DEFAULT_MAXIMUM_BYTES = 64L * 1024 * 1024;
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+
+    private final Cache<Key, Entry> cache;
+    private final Duration defaultTtl;
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong staleCount = new AtomicLong();
+
+    public ResultCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_MAXIMUM_BYTES, DEFAULT_TTL);
+    }
+
+    /**
+     * @param maximumSize  最多缓存的结果数
+     * @param maximumBytes 缓存结果的最大估算字节数
+     * @param defaultTtl   实体未配置存活时间时使用的默认值
+     */
+    public ResultCache(int maximumSize, long maximumBytes, Duration defaultTtl) {
+        long minimumWeight = Math.max(1, maximumBytes / Math.max(1, maximumSize));
+        this.defaultTtl = defaultTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((Key key, Entry entry) -> (int) Math.min(Integer.MAX_VALUE,
+                        Math.max(minimumWeight, entry.bytes())))
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 记录依赖表当前的版本号，必须在执行查询之前调用
+     *
+     * @param tables 查询依赖的表
+     * @return 版本戳
+     */
+    public Stamp stamp(List<String> tables) {
+        long[] versions = new long[tables.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = version(tables.get(i)).get();
+        }
+        return new Stamp(List.copyOf(tables), versions);
+    }
+
+    /**
+     * 获取未过期的查询结果
+     *
+     * @param key 查询的缓存键
+     * @return 查询结果，未命中或依赖表已被写入时返回 null
+     */
+    public SelectResult get(Key key) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!isCurrent(entry.stamp())) {
+            cache.asMap().remove(key, entry);
+            staleCount.incrementAndGet();
+            return null;
+        }
+        return entry.result();
+    }
+
+    /**
+     * 放入查询结果
+     *
+     * @param key    查询的缓存键
+     * @param stamp  查询开始前由 {@link #stamp} 记录的版本戳
+     * @param result 查询结果
+     * @param ttl    存活时间，为 null 时使用默认值
+     */
+    public void put(Key key, Stamp stamp, SelectResult result, Duration ttl) {
+        // 查询期间已有写入提交时结果可能已过期，不再放入
+        if (isCurrent(stamp)) {
+            cache.put(key, new Entry(result, stamp, estimateBytes(result), (ttl == null ? defaultTtl : ttl).toNanos()));
+        }
+    }
+
+    /**
+     * 写入提交后递增表的版本号，依赖这些表的缓存结果随之失效
+     *
+     * @param tables 被写入的表
+     */
+    public void invalidate(Collection<String> tables) {
+        for (String table : tables) {
+            version(table).incrementAndGet();
+        }
+        if (!tables.isEmpty()) {
+            log.debug("查询结果缓存版本递增: {}", tables);
+        }
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 立即执行挂起的淘汰和过期清理
+     */
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    public ResultCacheStats getStats() {
+        var stats = cache.stats();
+        long weighted = cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+        return new ResultCacheStats(stats.hitCount() - staleCount.get(), stats.missCount() + staleCount.get(),
+                staleCount.get(), stats.evictionCount(), cache.estimatedSize(), weighted);
+    }
+
+    private boolean isCurrent(Stamp stamp) {
+        for (int i = 0; i < stamp.versions().length; i++) {
+            if (version(stamp.tables().get(i)).get() != stamp.versions()[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private AtomicLong version(String table) {
+        return versions.computeIfAbsent(table, key -> new AtomicLong());
+    }
+
+    /**
+     * 估算查询结果占用的字节数，只用于限制缓存大小，不要求精确
+     */
+    static long estimateBytes(SelectResult result) {
+        long bytes = 64;
+        for (Map<String, Object> record : result.getRecords()) {
+            bytes += estimateBytes(record);
+        }
+        return bytes;
+    }
+
+    private static long estimateBytes(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence text) {
+            return 40 + 2L * text.length();
+        }
+        if (value instanceof byte[] bytes) {
+            return 16 + bytes.length;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long bytes = 48;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                // 每个条目的节点开销，key 是列名字符串，通常与其它记录共享
+                bytes += 40 + estimateBytes(entry.getValue());
+            }
+            return bytes;
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = 40;
+            for (Object element : collection) {
+                bytes += 8 + estimateBytes(element);
+            }
+            return bytes;
+        }
+        return 24;
+    }
+
+    /**
+     * 查询结果的缓存键：规范化后的 SQL（同一查询形状生成的 SQL 相同）、参数值以及影响结果形式的其它选项
+     *
+     * @param sql        查询 SQL
+     * @param parameters 参数值
+     * @param options    分页、计数方式等不体现在 SQL 中的选项
+     */
+    public record Key(String sql, List<Object> parameters, String options) {
+    }
+
+    /**
+     * 查询开始前各依赖表的版本号
+     *
+     * @param tables   查询依赖的表
+     * @param versions 与 {@code tables} 一一对应的版本号
+     */
+    public record Stamp(List<String> tables, long[] versions) {
+    }
+
+    /**
+     * @param result   查询结果
+     * @param stamp    查询开始前的版本戳
+     * @param bytes    估算字节数
+     * @param ttlNanos 存活时间
+     */
+    private record Entry(SelectResult result, Stamp stamp, long bytes, long ttlNanos) {
+    }
+}
@@ -0,0 +1,20 @@
+package org.waitlight.simple.jsonql.execute.cache;
+
+/**
+ * 查询结果缓存统计
+ *
+ * @param hitCount      命中次数
+ * @param missCount     未命中次数，包括因版本过期而失效的结果
+ * @param staleCount    因实体被写入、版本过期而失效的次数
+ * @param evictionCount 淘汰次数
+ * @param size          当前缓存的结果数
+ * @param weightedBytes 当前缓存结果的估算字节数
+ */
+public record ResultCacheStats(long hitCount, long missCount, long staleCount, long evictionCount, long size,
+                               long weightedBytes) {
+
+    public double hitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 1.0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,167 @@
+package org.waitlight.simple.jsonql.execute.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigInteger;
+import java.sql.JDBCType;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按主键缓存的记录
+ * <p>
+ * 由按主键查询（{@code id eq ?}、{@code id in (...)}）的结果填充，更新、删除提交后按主键失效；
+ * 无法确定受影响主键的写入（例如按条件更新、删除）使该表的所有缓存记录失效。
+ * 与 {@link ResultCache} 一样，每张表有一个版本号，查询期间表被写入时查到的记录不会放入缓存。
+ * 缓存的记录由多个请求共享，放入只读的副本，返回给调用方前复制
+ */
+@Slf4j
+public class RowCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 100_000;
+
+    private final Cache<RowKey, Row> cache;
+    private final Duration defaultTtl;
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public RowCache() {
+        this(DEFAULT_MAXIMUM_SIZE, ResultCache.DEFAULT_TTL);
+    }
+
+    /**
+     * @param maximumSize 最多缓存的记录数
+     * @param defaultTtl  实体未配置存活时间时使用的默认值
+     */
+    public RowCache(int maximumSize, Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<RowKey, Row>() {
+                    @Override
+                    public long expireAfterCreate(RowKey key, Row row, long currentTime) {
+                        return row.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(RowKey key, Row row, long currentTime, long currentDuration) {
+                        return row.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(RowKey key, Row row, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 记录表当前的版本号，必须在执行查询之前调用
+     */
+    public long stamp(String table) {
+        return version(table).get();
+    }
+
+    /**
+     * 按主键获取缓存的记录
+     *
+     * @param table 表名
+     * @param ids   主键，需已规范化（整数统一为 Long）
+     * @return 命中的记录，按 {@code ids} 的顺序
+     */
+    public Map<Object, Map<String, Object>> getAll(String table, Collection<Object> ids) {
+        Map<Object, Map<String, Object>> rows = new LinkedHashMap<>();
+        for (Object id : ids) {
+            Row row = cache.getIfPresent(new RowKey(table, id));
+            if (row != null) {
+                rows.put(id, row.values());
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 放入查询到的记录，表在查询期间被写入时不放入
+     *
+     * @param table  表名
+     * @param stamp  查询开始前由 {@link #stamp} 记录的版本号
+     * @param id     主键，需已规范化
+     * @param values 记录
+     * @param ttl    存活时间，为 null 时使用默认值
+     */
+    public void put(String table, long stamp, Object id, Map<String, Object> values, Duration ttl) {
+        if (version(table).get() == stamp) {
+            cache.put(new RowKey(table, id), new Row(values, (ttl == null ? defaultTtl : ttl).toNanos()));
+        }
+    }
+
+    /**
+     * 更新、删除提交后使记录失效
+     *
+     * @param table 表名
+     * @param ids   受影响的主键，需已规范化；为 null 时使该表的所有记录失效
+     */
+    public void invalidate(String table, Collection<Object> ids) {
+        version(table).incrementAndGet();
+        if (ids == null) {
+            cache.asMap().keySet().removeIf(key -> key.table().equals(table));
+            log.debug("记录缓存失效，表: {}", table);
+            return;
+        }
+        ids.forEach(id -> cache.invalidate(new RowKey(table, id)));
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 记录缓存统计，淘汰次数包括过期
+     */
+    public ResultCacheStats getStats() {
+        var stats = cache.stats();
+        return new ResultCacheStats(stats.hitCount(), stats.missCount(), 0, stats.evictionCount(),
+                cache.estimatedSize(), 0);
+    }
+
+    /**
+     * 规范化主键值作为缓存键：整数统一为 Long，整数主键的字符串形式（例如请求中的 {@code "1"}）解析为 Long
+     *
+     * @param id     主键值
+     * @param idType 主键列的类型
+     * @return 规范化后的主键，无法解析时返回 null
+     */
+    public static Object normalizeId(Object id, JDBCType idType) {
+        if (id instanceof Integer || id instanceof Long || id instanceof Short || id instanceof Byte
+                || id instanceof BigInteger) {
+            return ((Number) id).longValue();
+        }
+        if (id instanceof String text && (idType == JDBCType.BIGINT || idType == JDBCType.INTEGER
+                || idType == JDBCType.SMALLINT || idType == JDBCType.TINYINT)) {
+            try {
+                return Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return id;
+    }
+
+    private AtomicLong version(String table) {
+        return versions.computeIfAbsent(table, key -> new AtomicLong());
+    }
+
+    private record RowKey(String table, Object id) {
+    }
+
+    private record Row(Map<String, Object> values, long ttlNanos) {
+    }
+}
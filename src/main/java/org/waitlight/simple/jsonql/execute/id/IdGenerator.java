@@ -0,0 +1,14 @@
+package org.waitlight.simple.jsonql.execute.id;
+
+/**
+ * 在插入前由客户端分配主键
+ */
+public interface IdGenerator {
+
+    /**
+     * 分配一个新的主键
+     *
+     * @return 主键
+     */
+    long nextId();
+}
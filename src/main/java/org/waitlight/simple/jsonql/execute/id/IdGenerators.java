@@ -0,0 +1,46 @@
+package org.waitlight.simple.jsonql.execute.id;
+
+import org.waitlight.simple.jsonql.metadata.IdGeneration;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按实体持有主键生成器
+ * <p>
+ * 生成器按表名缓存，元数据快照替换后继续使用原来的号段；同一数据源的所有执行器应共享同一个实例
+ */
+public class IdGenerators {
+
+    private final DataSource dataSource;
+    private final SnowflakeIdGenerator snowflake;
+    private final Map<String, IdGenerator> segments = new ConcurrentHashMap<>();
+
+    /**
+     * @param dataSource 号段生成器申请号段使用的数据源，应与执行语句的连接池分开
+     *                   （见 {@link org.waitlight.simple.jsonql.datasource.DataSourceRegistry#getIdDataSource}）
+     * @param workerId   Snowflake 节点号，多个应用节点需要配置不同的值
+     */
+    public IdGenerators(DataSource dataSource, long workerId) {
+        this.dataSource = dataSource;
+        this.snowflake = new SnowflakeIdGenerator(workerId);
+    }
+
+    /**
+     * 获取实体的主键生成器
+     *
+     * @param persistentClass 实体
+     * @return 主键生成器，主键由数据库自增生成时为 null
+     */
+    public IdGenerator get(PersistentClass persistentClass) {
+        IdGeneration generation = persistentClass.getIdGeneration();
+        return switch (generation.strategy()) {
+            case IDENTITY -> null;
+            case SNOWFLAKE -> snowflake;
+            case SEGMENT -> segments.computeIfAbsent(generation.table() + "." + generation.pkValue(),
+                    key -> new SegmentIdGenerator(dataSource, generation));
+        };
+    }
+}
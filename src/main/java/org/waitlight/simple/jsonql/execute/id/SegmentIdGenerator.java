@@ -0,0 +1,128 @@
+package org.waitlight.simple.jsonql.execute.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.SQLDialect;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.waitlight.simple.jsonql.metadata.IdGeneration;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 号段主键生成器
+ * <p>
+ * 序列表每行记录一个序列下一个可分配的值。号段用完时在独立的连接和事务中把该值增加 {@code allocationSize}，
+ * 得到 {@code [新值 - allocationSize, 新值)} 的号段，之后的主键在内存中分配，不访问数据库。
+ * 申请号段的事务与业务事务无关，业务回滚不会归还已分配的号段，主键可能不连续但不会重复。
+ * 申请号段时调用方通常已持有业务连接，数据源应使用独立的连接池，否则并发插入可能耗尽连接池后互相等待
+ */
+@Slf4j
+public class SegmentIdGenerator implements IdGenerator {
+
+    private final DataSource dataSource;
+    private final IdGeneration generation;
+    private final String updateSql;
+    private final String selectSql;
+    private final String insertSql;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long max;
+
+    public SegmentIdGenerator(DataSource dataSource, IdGeneration generation) {
+        this.dataSource = dataSource;
+        this.generation = generation;
+
+        DSLContext create = DSL.using(SQLDialect.MYSQL);
+        Table<?> table = DSL.table(DSL.name(generation.table()));
+        Field<Object> pk = DSL.field(DSL.name(generation.pkColumn()));
+        Field<Long> value = DSL.field(DSL.name(generation.valueColumn()), Long.class);
+        this.updateSql = create.update(table)
+                .set(value, value.plus(DSL.param("size", 0L)))
+                .where(pk.eq(DSL.param("pk")))
+                .getSQL();
+        this.selectSql = create.select(value).from(table).where(pk.eq(DSL.param("pk"))).getSQL();
+        this.insertSql = create.insertInto(table).columns(pk, value).values(null, (Long) null).getSQL();
+    }
+
+    @Override
+    public long nextId() {
+        lock.lock();
+        try {
+            if (next >= max) {
+                allocate();
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 申请一个新的号段
+     */
+    private void allocate() {
+        int size = generation.allocationSize();
+        try (Connection conn = dataSource.getConnection()) {
+            boolean originalAutoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                long end = increment(conn, size);
+                conn.commit();
+                next = end - size;
+                max = end;
+                log.info("申请主键号段: {} [{}, {})", generation.pkValue(), next, max);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(originalAutoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to allocate id segment for " + generation.pkValue(), e);
+        }
+    }
+
+    /**
+     * 序列值加上号段大小并返回新值，序列不存在时创建
+     */
+    private long increment(Connection conn, int size) throws SQLException {
+        if (update(conn, size) == 0) {
+            try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+                ps.setString(1, generation.pkValue());
+                ps.setLong(2, generation.initialValue() + 1 + size);
+                ps.executeUpdate();
+                return generation.initialValue() + 1 + size;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                // 其它节点已经创建了该序列
+                update(conn, size);
+            }
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(selectSql)) {
+            ps.setString(1, generation.pkValue());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Sequence row not found: " + generation.pkValue());
+                }
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private int update(Connection conn, int size) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+            ps.setLong(1, size);
+            ps.setString(2, generation.pkValue());
+            return ps.executeUpdate();
+        }
+    }
+}
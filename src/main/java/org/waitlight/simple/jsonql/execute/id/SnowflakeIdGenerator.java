@@ -0,0 +1,95 @@
+package org.waitlight.simple.jsonql.execute.id;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Snowflake 主键生成器
+ * <p>
+ * 64 位主键由 41 位毫秒时间戳（自 {@link #EPOCH} 起）、10 位节点号和 12 位毫秒内序号组成，
+ * 同一节点每毫秒最多生成 4096 个，多个节点需要配置不同的节点号
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    /**
+     * 2024-01-01T00:00:00Z
+     */
+    static final long EPOCH = 1704067200000L;
+
+    private static final int WORKER_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    /**
+     * 允许等待的时钟回拨时长（毫秒），超过时拒绝生成
+     */
+    private static final long MAX_BACKWARD_MILLIS = 5;
+
+    private final long workerId;
+    // 使用 ReentrantLock 而不是 synchronized，等待时不会钉住虚拟线程的载体线程
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastTimestamp = -1;
+    private long sequence;
+
+    public SnowflakeIdGenerator(long workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Snowflake worker id must be between 0 and " + MAX_WORKER_ID);
+        }
+        this.workerId = workerId;
+    }
+
+    @Override
+    public long nextId() {
+        lock.lock();
+        try {
+            long timestamp = currentTimeMillis();
+            if (timestamp < lastTimestamp) {
+                long backward = lastTimestamp - timestamp;
+                if (backward > MAX_BACKWARD_MILLIS) {
+                    throw new IllegalStateException("Clock moved backwards by " + backward + "ms");
+                }
+                sleep(backward);
+                timestamp = waitUntilAfter(lastTimestamp - 1);
+            }
+
+            if (timestamp == lastTimestamp) {
+                sequence = (sequence + 1) & SEQUENCE_MASK;
+                if (sequence == 0) {
+                    // 本毫秒的序号已用完
+                    timestamp = waitUntilAfter(lastTimestamp);
+                }
+            } else {
+                sequence = 0;
+            }
+
+            lastTimestamp = timestamp;
+            return ((timestamp - EPOCH) << (WORKER_BITS + SEQUENCE_BITS))
+                    | (workerId << SEQUENCE_BITS)
+                    | sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private long waitUntilAfter(long timestamp) {
+        long now = currentTimeMillis();
+        while (now <= timestamp) {
+            Thread.onSpinWait();
+            now = currentTimeMillis();
+        }
+        return now;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for clock", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.waitlight.simple.jsonql.execute.mapper;
+
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 按列类型读取单元格的值，在编译 {@link RowMapper} 时根据 {@link JDBCType} 选定，读取时不再判断类型
+ */
+@FunctionalInterface
+public interface ColumnReader {
+
+    Object read(ResultSet rs, int index) throws SQLException;
+
+    ColumnReader OBJECT = ResultSet::getObject;
+
+    ColumnReader LONG = (rs, index) -> {
+        long value = rs.getLong(index);
+        return rs.wasNull() ? null : value;
+    };
+
+    ColumnReader INT = (rs, index) -> {
+        int value = rs.getInt(index);
+        return rs.wasNull() ? null : value;
+    };
+
+    ColumnReader DOUBLE = (rs, index) -> {
+        double value = rs.getDouble(index);
+        return rs.wasNull() ? null : value;
+    };
+
+    ColumnReader FLOAT = (rs, index) -> {
+        float value = rs.getFloat(index);
+        return rs.wasNull() ? null : value;
+    };
+
+    ColumnReader BOOLEAN = (rs, index) -> {
+        boolean value = rs.getBoolean(index);
+        return rs.wasNull() ? null : value;
+    };
+
+    ColumnReader STRING = ResultSet::getString;
+    ColumnReader DECIMAL = ResultSet::getBigDecimal;
+    ColumnReader TIMESTAMP = ResultSet::getTimestamp;
+    ColumnReader DATE = ResultSet::getDate;
+    ColumnReader TIME = ResultSet::getTime;
+    ColumnReader BYTES = ResultSet::getBytes;
+
+    /**
+     * 根据列类型选择读取方式
+     *
+     * @param columnType 列类型，为 null 时按 {@link ResultSet#getObject(int)} 读取
+     * @return 列读取器
+     */
+    static ColumnReader of(JDBCType columnType) {
+        if (columnType == null) {
+            return OBJECT;
+        }
+        return switch (columnType) {
+            case BIGINT -> LONG;
+            case INTEGER, SMALLINT, TINYINT -> INT;
+            case DOUBLE -> DOUBLE;
+            case FLOAT, REAL -> FLOAT;
+            case BOOLEAN, BIT -> BOOLEAN;
+            case VARCHAR, CHAR, LONGVARCHAR, NVARCHAR, NCHAR -> STRING;
+            case DECIMAL, NUMERIC -> DECIMAL;
+            case TIMESTAMP -> TIMESTAMP;
+            case DATE -> DATE;
+            case TIME -> TIME;
+            case VARBINARY, BINARY, LONGVARBINARY -> BYTES;
+            default -> OBJECT;
+        };
+    }
+}
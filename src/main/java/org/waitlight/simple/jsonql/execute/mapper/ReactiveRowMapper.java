@@ -0,0 +1,126 @@
+package org.waitlight.simple.jsonql.execute.mapper;
+
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.RowMetadata;
+import org.waitlight.simple.jsonql.builder.SelectSqlBuilder;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
+import org.waitlight.simple.jsonql.metadata.Property;
+import org.waitlight.simple.jsonql.metadata.RelationshipType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * R2DBC 行映射器，列到字段的映射规则与 {@link RowMapper} 相同
+ * <p>
+ * 值的类型转换由 R2DBC 驱动完成，这里只负责按编译好的路径组装记录
+ */
+public final class ReactiveRowMapper {
+
+    private final int[] rootColumns;
+    private final String[] rootKeys;
+    private final Nested[] nested;
+    /**
+     * 窗口计数列的位置，不存在时为 -1
+     */
+    private final int totalColumn;
+    private final int capacity;
+
+    private record Nested(String key, int[] columns, String[] keys) {
+    }
+
+    private record NestedColumn(int column, String key) {
+    }
+
+    private ReactiveRowMapper(List<Integer> rootColumns, List<String> rootKeys, List<Nested> nested, int totalColumn) {
+        this.rootColumns = rootColumns.stream().mapToInt(Integer::intValue).toArray();
+        this.rootKeys = rootKeys.toArray(new String[0]);
+        this.nested = nested.toArray(new Nested[0]);
+        this.totalColumn = totalColumn;
+        this.capacity = (int) ((this.rootKeys.length + this.nested.length) / 0.75f) + 1;
+    }
+
+    /**
+     * 根据结果结构编译映射器
+     *
+     * @param metaData        行元数据
+     * @param persistentClass 查询的实体
+     * @param metadata        元数据，用于解析关联实体的列
+     * @return 行映射器
+     */
+    public static ReactiveRowMapper compile(RowMetadata metaData, PersistentClass persistentClass, Metadata metadata) {
+        List<Integer> rootColumns = new ArrayList<>();
+        List<String> rootKeys = new ArrayList<>();
+        Map<String, List<NestedColumn>> nested = new LinkedHashMap<>();
+        int totalColumn = -1;
+
+        for (int i = 0; i < metaData.getColumnMetadatas().size(); i++) {
+            String label = metaData.getColumnMetadata(i).getName();
+            if (SelectSqlBuilder.TOTAL_COLUMN.equals(label)) {
+                totalColumn = i;
+                continue;
+            }
+            if (label.startsWith(SelectSqlBuilder.HIDDEN_COLUMN_PREFIX)) {
+                continue;
+            }
+
+            int dot = label.indexOf('.');
+            if (dot > 0) {
+                String relation = label.substring(0, dot);
+                String column = label.substring(dot + 1);
+                PersistentClass target = RowMapper.targetOf(persistentClass, relation, metadata);
+                Property property = target == null ? null : RowMapper.findByColumn(target, column);
+                nested.computeIfAbsent(relation, key -> new ArrayList<>())
+                        .add(new NestedColumn(i, property == null ? column : property.fieldName()));
+                continue;
+            }
+
+            Property property = RowMapper.findByColumn(persistentClass, label);
+            if (property != null && property.relationship() == RelationshipType.MANY_TO_ONE) {
+                nested.computeIfAbsent(property.fieldName(), key -> new ArrayList<>()).add(new NestedColumn(i, "id"));
+            } else {
+                rootColumns.add(i);
+                rootKeys.add(property == null ? label : property.fieldName());
+            }
+        }
+
+        List<Nested> compiled = new ArrayList<>(nested.size());
+        nested.forEach((key, columns) -> compiled.add(new Nested(key,
+                columns.stream().mapToInt(NestedColumn::column).toArray(),
+                columns.stream().map(NestedColumn::key).toArray(String[]::new))));
+        return new ReactiveRowMapper(rootColumns, rootKeys, compiled, totalColumn);
+    }
+
+    public Map<String, Object> map(Readable row) {
+        Map<String, Object> result = new LinkedHashMap<>(capacity);
+        for (int i = 0; i < rootColumns.length; i++) {
+            result.put(rootKeys[i], row.get(rootColumns[i]));
+        }
+        for (Nested n : nested) {
+            Map<String, Object> value = new LinkedHashMap<>((int) (n.columns().length / 0.75f) + 1);
+            for (int i = 0; i < n.columns().length; i++) {
+                value.put(n.keys()[i], row.get(n.columns()[i]));
+            }
+            result.put(n.key(), value);
+        }
+        return result;
+    }
+
+    /**
+     * 读取窗口计数列
+     */
+    public long readTotal(Readable row) {
+        if (totalColumn < 0) {
+            return 0;
+        }
+        Number total = row.get(totalColumn, Number.class);
+        return total == null ? 0 : total.longValue();
+    }
+
+    public boolean hasTotal() {
+        return totalColumn >= 0;
+    }
+}
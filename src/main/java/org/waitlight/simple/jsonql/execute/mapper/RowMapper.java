@@ -0,0 +1,280 @@
+package org.waitlight.simple.jsonql.execute.mapper;
+
+import org.waitlight.simple.jsonql.builder.SelectSqlBuilder;
+import org.waitlight.simple.jsonql.execute.result.ColumnarRowSet;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
+import org.waitlight.simple.jsonql.metadata.Property;
+import org.waitlight.simple.jsonql.metadata.RelationshipType;
+
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按结果集结构编译的行映射器
+ * <p>
+ * 编译时一次性把每一列解析为（关联字段, 字段名）路径并根据 {@link Property#columnType()} 选定读取方式，
+ * 映射每一行时不再读取列名或做字符串处理。同一条 SQL 的结果集结构固定，映射器可以缓存复用。
+ * <ul>
+ *     <li>实体自身的列映射为字段名</li>
+ *     <li>多对一外键列映射为关联字段下的 {@code id}，例如 {@code user_id -> user.id}</li>
+ *     <li>{@code relation.column} 形式的列映射为关联字段下的字段</li>
+ *     <li>其它列按列名原样映射</li>
+ * </ul>
+ */
+public final class RowMapper {
+
+    /**
+     * 根对象的列
+     */
+    private final int[] rootColumns;
+    private final String[] rootKeys;
+    private final ColumnReader[] rootReaders;
+    /**
+     * 根对象列的类型，决定列式结果中的存储方式
+     */
+    private final List<JDBCType> rootTypes;
+    /**
+     * 关联对象，按首次出现的顺序排列在根对象字段之后
+     */
+    private final Nested[] nested;
+    /**
+     * 窗口计数列的位置，不存在时为 -1
+     */
+    private final int totalColumn;
+    private final int capacity;
+    private final List<String> keys;
+    /**
+     * 关联对象展开后的列名
+     */
+    private final List<String> columnKeys;
+
+    private record Nested(String key, int[] columns, String[] keys, ColumnReader[] readers) {
+    }
+
+    private RowMapper(List<Integer> rootColumns, List<String> rootKeys, List<ColumnReader> rootReaders,
+                      List<JDBCType> rootTypes, List<Nested> nested, int totalColumn) {
+        this.rootColumns = rootColumns.stream().mapToInt(Integer::intValue).toArray();
+        this.rootKeys = rootKeys.toArray(new String[0]);
+        this.rootReaders = rootReaders.toArray(new ColumnReader[0]);
+        this.rootTypes = new ArrayList<>(rootTypes);
+        this.nested = nested.toArray(new Nested[0]);
+        this.totalColumn = totalColumn;
+        // LinkedHashMap 默认负载因子为 0.75，预留足够容量避免扩容
+        this.capacity = (int) ((this.rootKeys.length + this.nested.length) / 0.75f) + 1;
+
+        List<String> keys = new ArrayList<>(rootKeys);
+        nested.forEach(n -> keys.add(n.key()));
+        this.keys = List.copyOf(keys);
+
+        List<String> columnKeys = new ArrayList<>(rootKeys);
+        for (Nested n : this.nested) {
+            for (String key : n.keys()) {
+                columnKeys.add(n.key() + "." + key);
+            }
+        }
+        this.columnKeys = List.copyOf(columnKeys);
+    }
+
+    /**
+     * 根据结果集结构编译映射器
+     *
+     * @param metaData        结果集元数据
+     * @param persistentClass 查询的实体
+     * @param metadata        元数据，用于解析关联实体的列
+     * @return 行映射器
+     */
+    public static RowMapper compile(ResultSetMetaData metaData, PersistentClass persistentClass, Metadata metadata)
+            throws SQLException {
+        List<Integer> rootColumns = new ArrayList<>();
+        List<String> rootKeys = new ArrayList<>();
+        List<ColumnReader> rootReaders = new ArrayList<>();
+        List<JDBCType> rootTypes = new ArrayList<>();
+        Map<String, NestedBuilder> nested = new LinkedHashMap<>();
+        int totalColumn = -1;
+
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String label = metaData.getColumnLabel(i);
+            if (SelectSqlBuilder.TOTAL_COLUMN.equals(label)) {
+                totalColumn = i;
+                continue;
+            }
+            // 排序等内部使用的列不属于记录本身
+            if (label.startsWith(SelectSqlBuilder.HIDDEN_COLUMN_PREFIX)) {
+                continue;
+            }
+
+            int dot = label.indexOf('.');
+            if (dot > 0) {
+                String relation = label.substring(0, dot);
+                String column = label.substring(dot + 1);
+                PersistentClass target = targetOf(persistentClass, relation, metadata);
+                Property property = target == null ? null : findByColumn(target, column);
+                nested.computeIfAbsent(relation, NestedBuilder::new)
+                        .add(i, property == null ? column : property.fieldName(), readerOf(property));
+                continue;
+            }
+
+            Property property = findByColumn(persistentClass, label);
+            if (property != null && property.relationship() == RelationshipType.MANY_TO_ONE) {
+                PersistentClass target = targetOf(persistentClass, property.fieldName(), metadata);
+                ColumnReader reader = target == null ? ColumnReader.OBJECT : readerOf(target.getIdProperty());
+                nested.computeIfAbsent(property.fieldName(), NestedBuilder::new).add(i, "id", reader);
+            } else {
+                rootColumns.add(i);
+                rootKeys.add(property == null ? label : property.fieldName());
+                rootReaders.add(readerOf(property));
+                rootTypes.add(property == null ? null : property.columnType());
+            }
+        }
+
+        List<Nested> compiled = new ArrayList<>(nested.size());
+        nested.values().forEach(builder -> compiled.add(builder.build()));
+        return new RowMapper(rootColumns, rootKeys, rootReaders, rootTypes, compiled, totalColumn);
+    }
+
+    /**
+     * 映射结果集的当前行
+     */
+    public Map<String, Object> map(ResultSet rs) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>(capacity);
+        for (int i = 0; i < rootColumns.length; i++) {
+            row.put(rootKeys[i], rootReaders[i].read(rs, rootColumns[i]));
+        }
+        for (Nested n : nested) {
+            row.put(n.key(), mapNested(rs, n));
+        }
+        return row;
+    }
+
+    /**
+     * 创建与本映射器结构一致的列式结果构建器，关联对象按普通列存储
+     */
+    public ColumnarRowSet.Builder columnarBuilder() {
+        List<JDBCType> types = new ArrayList<>(rootTypes);
+        for (int i = 0; i < nested.length; i++) {
+            types.add(null);
+        }
+        return new ColumnarRowSet.Builder(keys, types);
+    }
+
+    /**
+     * 把结果集的当前行追加到列式结果
+     */
+    public void append(ColumnarRowSet.Builder builder, ResultSet rs) throws SQLException {
+        for (int i = 0; i < rootColumns.length; i++) {
+            builder.set(i, rootReaders[i].read(rs, rootColumns[i]));
+        }
+        for (int i = 0; i < nested.length; i++) {
+            builder.set(rootColumns.length + i, mapNested(rs, nested[i]));
+        }
+        builder.endRow();
+    }
+
+    /**
+     * 按 {@link #getColumnKeys()} 的顺序读取当前行，关联对象的字段展开为单独的列，用于流式导出
+     *
+     * @param values 长度与 {@link #getColumnKeys()} 相同的数组，读取的值写入其中
+     */
+    public void read(ResultSet rs, Object[] values) throws SQLException {
+        int index = 0;
+        for (int i = 0; i < rootColumns.length; i++) {
+            values[index++] = rootReaders[i].read(rs, rootColumns[i]);
+        }
+        for (Nested n : nested) {
+            for (int i = 0; i < n.columns().length; i++) {
+                values[index++] = n.readers()[i].read(rs, n.columns()[i]);
+            }
+        }
+    }
+
+    private static Map<String, Object> mapNested(ResultSet rs, Nested n) throws SQLException {
+        Map<String, Object> value = new LinkedHashMap<>((int) (n.columns().length / 0.75f) + 1);
+        for (int i = 0; i < n.columns().length; i++) {
+            value.put(n.keys()[i], n.readers()[i].read(rs, n.columns()[i]));
+        }
+        return value;
+    }
+
+    /**
+     * 读取当前行的窗口计数列
+     */
+    public long readTotal(ResultSet rs) throws SQLException {
+        return totalColumn < 0 ? 0 : rs.getLong(totalColumn);
+    }
+
+    public boolean hasTotal() {
+        return totalColumn >= 0;
+    }
+
+    /**
+     * 映射后每行的顶层字段名
+     */
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    /**
+     * 关联对象展开后每行的列名，关联对象的字段表示为 {@code 关联字段.字段名}，例如 {@code user.id}
+     */
+    public List<String> getColumnKeys() {
+        return columnKeys;
+    }
+
+    private static ColumnReader readerOf(Property property) {
+        return property == null ? ColumnReader.OBJECT : ColumnReader.of(property.columnType());
+    }
+
+    static Property findByColumn(PersistentClass persistentClass, String columnName) {
+        for (Property property : persistentClass.getProperties()) {
+            if (columnName.equals(property.columnName())
+                    && property.relationship() != RelationshipType.ONE_TO_MANY
+                    && property.relationship() != RelationshipType.MANY_TO_MANY) {
+                return property;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查找关联字段对应的实体
+     */
+    static PersistentClass targetOf(PersistentClass persistentClass, String relation, Metadata metadata) {
+        for (Property property : persistentClass.getProperties()) {
+            if (relation.equals(property.fieldName()) && property.relationship() != null) {
+                return metadata.findEntity(property.fieldType());
+            }
+        }
+        return null;
+    }
+
+    private static final class NestedBuilder {
+        private final String key;
+        private final List<Integer> columns = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<ColumnReader> readers = new ArrayList<>();
+
+        NestedBuilder(String key) {
+            this.key = key;
+        }
+
+        void add(int column, String key, ColumnReader reader) {
+            columns.add(column);
+            keys.add(key);
+            readers.add(reader);
+        }
+
+        Nested build() {
+            return new Nested(key,
+                    columns.stream().mapToInt(Integer::intValue).toArray(),
+                    keys.toArray(new String[0]),
+                    readers.toArray(new ColumnReader[0]));
+        }
+    }
+}
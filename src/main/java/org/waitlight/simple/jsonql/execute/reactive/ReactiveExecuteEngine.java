@@ -0,0 +1,140 @@
+package org.waitlight.simple.jsonql.execute.reactive;
+
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.waitlight.simple.jsonql.execute.cache.ResultCache;
+import org.waitlight.simple.jsonql.execute.id.IdGenerators;
+import org.waitlight.simple.jsonql.execute.result.ExecuteResult;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.metadata.MetadataException;
+import org.waitlight.simple.jsonql.metadata.MetadataHolder;
+import org.waitlight.simple.jsonql.statement.InsertStatement;
+import org.waitlight.simple.jsonql.statement.JsonQLStatement;
+import org.waitlight.simple.jsonql.statement.SelectStatement;
+import org.waitlight.simple.jsonql.statement.StatementParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于 R2DBC 的执行引擎，与 {@link org.waitlight.simple.jsonql.execute.ExecuteEngine} 共享元数据和 SQL 构建器，
+ * 目前支持查询和插入语句
+ */
+@Slf4j
+public class ReactiveExecuteEngine {
+
+    private final MetadataHolder metadataHolder;
+    private final ConnectionFactory connectionFactory;
+    private final IdGenerators idGenerators;
+    /**
+     * 与 JDBC 执行引擎共享的查询结果缓存，写入后使其失效，为 null 时不处理
+     */
+    private final ResultCache resultCache;
+    private final StatementParser parser;
+    private volatile BoundEngines executors;
+
+    /**
+     * 与某一份元数据快照绑定的执行器集合
+     */
+    private record BoundEngines(Metadata metadata,
+                                Map<Class<? extends JsonQLStatement>, ReactiveStatementEngine<? extends JsonQLStatement, ? extends ExecuteResult>> engines) {
+    }
+
+    /**
+     * @param metadataHolder    共享的元数据快照持有者
+     * @param connectionFactory R2DBC 连接工厂
+     * @param idGenerators      客户端主键生成器，与同一数据库的 JDBC 执行引擎共享时号段不会重复申请
+     */
+    public ReactiveExecuteEngine(MetadataHolder metadataHolder, ConnectionFactory connectionFactory,
+                                 IdGenerators idGenerators) {
+        this(metadataHolder, connectionFactory, idGenerators, null);
+    }
+
+    /**
+     * @param metadataHolder    共享的元数据快照持有者
+     * @param connectionFactory R2DBC 连接工厂
+     * @param idGenerators      客户端主键生成器，与同一数据库的 JDBC 执行引擎共享时号段不会重复申请
+     * @param resultCache       JDBC 执行引擎的查询结果缓存，写入结束后使被写入表的缓存结果失效，为 null 时不处理
+     */
+    public ReactiveExecuteEngine(MetadataHolder metadataHolder, ConnectionFactory connectionFactory,
+                                 IdGenerators idGenerators, ResultCache resultCache) {
+        this.metadataHolder = metadataHolder;
+        this.connectionFactory = connectionFactory;
+        this.idGenerators = idGenerators;
+        this.resultCache = resultCache;
+        this.parser = new StatementParser();
+        this.executors = initializeExecutors(metadataHolder.get());
+    }
+
+    private BoundEngines initializeExecutors(Metadata metadata) {
+        Map<Class<? extends JsonQLStatement>, ReactiveStatementEngine<? extends JsonQLStatement, ? extends ExecuteResult>> engines = new HashMap<>();
+        engines.put(SelectStatement.class, new ReactiveSelectEngine(metadata, connectionFactory));
+        engines.put(InsertStatement.class, new ReactiveInsertEngine(metadata, connectionFactory, idGenerators));
+        return new BoundEngines(metadata, engines);
+    }
+
+    /**
+     * 获取与当前元数据快照绑定的执行器，快照被替换后重新创建执行器
+     */
+    private BoundEngines currentExecutors() {
+        Metadata metadata = metadataHolder.get();
+        BoundEngines current = executors;
+        if (current.metadata() != metadata) {
+            current = initializeExecutors(metadata);
+            executors = current;
+        }
+        return current;
+    }
+
+    /**
+     * 执行JsonQL语句
+     *
+     * @param jsonQuery           JSON格式的语句
+     * @param jsonQLStatementType 语句类型
+     * @return 执行结果
+     */
+    public Mono<ExecuteResult> execute(String jsonQuery, Class<? extends JsonQLStatement> jsonQLStatementType) {
+        return Mono.fromCallable(() -> parser.parse(jsonQuery, jsonQLStatementType)).flatMap(this::execute);
+    }
+
+    /**
+     * 执行已解析的语句
+     *
+     * @param statement 语句
+     * @return 执行结果
+     */
+    @SuppressWarnings("unchecked")
+    public Mono<ExecuteResult> execute(JsonQLStatement statement) {
+        BoundEngines engines = currentExecutors();
+        ReactiveStatementEngine<JsonQLStatement, ExecuteResult> executor =
+                (ReactiveStatementEngine<JsonQLStatement, ExecuteResult>) engines.engines().get(statement.getClass());
+        if (executor == null) {
+            return Mono.error(new IllegalStateException("Unsupported statement type: " + statement.getClass()));
+        }
+        if (resultCache == null || statement instanceof SelectStatement) {
+            return executor.execute(statement);
+        }
+        // 响应式插入不支持嵌套写入，只写入语句本身的实体
+        return executor.execute(statement).doFinally(signal -> {
+            try {
+                resultCache.invalidate(Set.of(engines.metadata().getEntity(statement.getEntityId()).getTableName()));
+            } catch (MetadataException e) {
+                log.warn("解析写入的表失败 Entity: {}: {}", statement.getEntityId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 流式执行查询语句，结果行按下游的请求量逐行发出
+     *
+     * @param statement 查询语句
+     * @return 查询结果行
+     */
+    public Flux<Map<String, Object>> stream(SelectStatement statement) {
+        ReactiveSelectEngine engine = (ReactiveSelectEngine) currentExecutors().engines().get(SelectStatement.class);
+        return engine.stream(statement);
+    }
+}
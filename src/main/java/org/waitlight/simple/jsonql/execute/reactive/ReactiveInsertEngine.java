@@ -0,0 +1,198 @@
+package org.waitlight.simple.jsonql.execute.reactive;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.waitlight.simple.jsonql.builder.InsertSqlBuilder;
+import org.waitlight.simple.jsonql.builder.PreparedSql;
+import org.waitlight.simple.jsonql.builder.SqlBuildException;
+import org.waitlight.simple.jsonql.execute.id.IdGenerator;
+import org.waitlight.simple.jsonql.execute.id.IdGenerators;
+import org.waitlight.simple.jsonql.execute.result.InsertResult;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.metadata.PersistentClass;
+import org.waitlight.simple.jsonql.statement.InsertStatement;
+import org.waitlight.simple.jsonql.statement.model.FieldStatement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于 R2DBC 的插入执行器，支持单条记录和 {@code records} 批量插入，所有 SQL 在一个事务中执行
+ * <p>
+ * 嵌套实体的插入依赖主实体的主键，需要使用 JDBC 的 {@link org.waitlight.simple.jsonql.execute.InsertEngine}
+ */
+@Slf4j
+public class ReactiveInsertEngine extends ReactiveStatementEngine<InsertStatement, InsertResult> {
+
+    private final InsertSqlBuilder insertSqlBuilder;
+    private final IdGenerators idGenerators;
+
+    /**
+     * @param idGenerators 客户端主键生成器，号段生成器申请号段时会阻塞，在弹性线程池上执行
+     */
+    public ReactiveInsertEngine(Metadata metadata, ConnectionFactory connectionFactory, IdGenerators idGenerators) {
+        super(metadata, connectionFactory);
+        this.insertSqlBuilder = new InsertSqlBuilder(metadata);
+        this.idGenerators = idGenerators;
+    }
+
+    /**
+     * @param batch       待执行的 SQL
+     * @param assignedIds 客户端分配的主键，为 null 时读取数据库生成的主键
+     * @param idColumn    主键列名
+     */
+    private record Plan(List<PreparedSql<InsertStatement>> batch, List<Long> assignedIds, String idColumn) {
+    }
+
+    /**
+     * @param affectedRows 影响行数
+     * @param generatedId  数据库生成的主键
+     */
+    private record Outcome(long affectedRows, Long generatedId) {
+    }
+
+    @Override
+    public Mono<InsertResult> execute(Connection conn, InsertStatement stmt) {
+        return Mono.fromCallable(() -> plan(stmt))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(plan -> Mono.from(conn.beginTransaction())
+                        .thenMany(Flux.fromIterable(plan.batch())
+                                .concatMap(sql -> executeInsert(conn, sql,
+                                        plan.assignedIds() == null ? plan.idColumn() : null)))
+                        .collectList()
+                        .flatMap(outcomes -> Mono.from(conn.commitTransaction()).thenReturn(result(plan, outcomes)))
+                        .onErrorResume(e -> Mono.from(conn.rollbackTransaction()).then(Mono.error(e))))
+                .doOnSuccess(result -> log.info("插入事务提交成功，总影响行数: {}, 主ID: {}",
+                        result.getAffectedRows(), result.getMainIds()))
+                .doOnError(e -> log.error("插入执行失败 Entity: {}. Error: {}", stmt.getEntityId(), e.getMessage()));
+    }
+
+    /**
+     * 分配客户端主键并构建 SQL，号段生成器可能访问数据库
+     */
+    private Plan plan(InsertStatement stmt) throws SqlBuildException {
+        if (stmt == null || StringUtils.isBlank(stmt.getEntityId())) {
+            throw new SqlBuildException("entityId is required for insert statements");
+        }
+        // 主键写入语句的副本，调用方重复执行同一个语句对象时重新分配
+        InsertStatement copy = stmt.copy();
+        PersistentClass persistentClass = metadata.getEntity(copy.getEntityId());
+        String idColumn = persistentClass.getIdProperty().columnName();
+        IdGenerator generator = idGenerators.get(persistentClass);
+
+        if (CollectionUtils.isNotEmpty(copy.getRecords())) {
+            List<Long> assignedIds = generator == null ? null : assignRecordIds(copy, persistentClass, generator);
+            List<PreparedSql<InsertStatement>> batch = insertSqlBuilder.buildBatch(copy);
+            log.info("执行实体批量插入语句: {}, 记录数: {}, SQL条数: {}",
+                    copy.getEntityId(), copy.getRecords().size(), batch.size());
+            return new Plan(batch, assignedIds, idColumn);
+        }
+
+        if (generator != null && copy.getFields() != null
+                && findField(copy.getFields(), persistentClass.getIdFieldName()) == null) {
+            copy.getFields().add(idField(persistentClass, generator.nextId()));
+        }
+        PreparedSql<InsertStatement> preparedSql = insertSqlBuilder.build(copy);
+        if (CollectionUtils.isNotEmpty(preparedSql.getNestedSQLs())) {
+            throw new SqlBuildException("Nested inserts are not supported by the reactive engine");
+        }
+        if (StringUtils.isBlank(preparedSql.getSql())) {
+            return new Plan(List.of(), List.of(), idColumn);
+        }
+        log.info("执行实体插入语句: {}, SQL: {}, 参数: {}",
+                copy.getEntityId(), preparedSql.getSql(), preparedSql.getParameters());
+        return new Plan(List.of(preparedSql),
+                preparedSql.getAssignedId() == null ? null : List.of(preparedSql.getAssignedId()), idColumn);
+    }
+
+    /**
+     * 为批量插入的记录分配主键，规则与 JDBC 执行器相同
+     *
+     * @return 与记录一一对应的主键，存在非数值主键时为 null
+     */
+    private static List<Long> assignRecordIds(InsertStatement stmt, PersistentClass persistentClass,
+                                              IdGenerator generator) {
+        List<List<FieldStatement>> records = new ArrayList<>(stmt.getRecords().size());
+        List<Long> ids = new ArrayList<>(stmt.getRecords().size());
+        for (List<FieldStatement> record : stmt.getRecords()) {
+            FieldStatement idField = findField(record, persistentClass.getIdFieldName());
+            if (idField != null && idField.getValue() instanceof Number number) {
+                records.add(record);
+                ids.add(number.longValue());
+                continue;
+            }
+            if (idField != null) {
+                return null;
+            }
+            long id = generator.nextId();
+            List<FieldStatement> fields = new ArrayList<>(record.size() + 1);
+            fields.add(idField(persistentClass, id));
+            fields.addAll(record);
+            records.add(fields);
+            ids.add(id);
+        }
+        stmt.setRecords(records);
+        return ids;
+    }
+
+    private static FieldStatement idField(PersistentClass persistentClass, long id) {
+        FieldStatement idField = new FieldStatement();
+        idField.setField(persistentClass.getIdFieldName());
+        idField.setValue(id);
+        return idField;
+    }
+
+    private static FieldStatement findField(List<FieldStatement> fields, String fieldName) {
+        for (FieldStatement field : fields) {
+            if (fieldName.equals(field.getField())) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param idColumn 需要返回数据库生成主键时的主键列名，为 null 时不返回
+     */
+    private Flux<Outcome> executeInsert(Connection conn, PreparedSql<InsertStatement> preparedSql, String idColumn) {
+        Statement statement = bind(conn.createStatement(preparedSql.getSql()), preparedSql.getParameters());
+        if (idColumn != null) {
+            statement.returnGeneratedValues(idColumn);
+        }
+        // 多行 INSERT 生成的主键按 VALUES 的顺序返回
+        return Flux.from(statement.execute())
+                .concatMap(result -> result.flatMap(segment -> {
+                    if (segment instanceof Result.UpdateCount count) {
+                        return Mono.just(new Outcome(count.value(), null));
+                    }
+                    if (segment instanceof Result.RowSegment row) {
+                        Number id = row.row().get(0, Number.class);
+                        return Mono.just(new Outcome(0, id == null ? null : id.longValue()));
+                    }
+                    return Mono.empty();
+                }));
+    }
+
+    private static InsertResult result(Plan plan, List<Outcome> outcomes) {
+        List<Long> generatedIds = outcomes.stream()
+                .filter(outcome -> outcome.generatedId() != null)
+                .map(Outcome::generatedId)
+                .toList();
+        long affectedRows = outcomes.stream().mapToLong(Outcome::affectedRows).sum();
+        // 部分驱动返回生成的主键时不再单独返回影响行数
+        if (affectedRows == 0) {
+            affectedRows = generatedIds.size();
+        }
+        return new InsertResult((int) affectedRows,
+                plan.assignedIds() != null ? plan.assignedIds() : generatedIds, Collections.emptyList());
+    }
+}
@@ -0,0 +1,145 @@
+package org.waitlight.simple.jsonql.execute.reactive;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.waitlight.simple.jsonql.builder.PreparedSql;
+import org.waitlight.simple.jsonql.builder.QueryShape;
+import org.waitlight.simple.jsonql.builder.SelectPlanCache;
+import org.waitlight.simple.jsonql.builder.SelectSqlBuilder;
+import org.waitlight.simple.jsonql.builder.SqlBuildException;
+import org.waitlight.simple.jsonql.execute.SelectEngine;
+import org.waitlight.simple.jsonql.execute.mapper.ReactiveRowMapper;
+import org.waitlight.simple.jsonql.execute.result.SelectResult;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.statement.SelectStatement;
+import org.waitlight.simple.jsonql.statement.model.CountMode;
+import org.waitlight.simple.jsonql.statement.model.PageCriteria;
+import org.waitlight.simple.jsonql.statement.model.PageMode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于 R2DBC 的查询执行器
+ * <p>
+ * 一个 R2DBC 连接同一时间只能执行一条语句，分页计数在主查询之后于同一连接上执行，{@link CountMode#PARALLEL}
+ * 按 {@link CountMode#SEPARATE} 处理；暂不支持 keyset 分页
+ */
+@Slf4j
+public class ReactiveSelectEngine extends ReactiveStatementEngine<SelectStatement, SelectResult> {
+
+    private final SelectSqlBuilder selectSqlBuilder;
+    private final Cache<String, ReactiveRowMapper> rowMappers = Caffeine.newBuilder()
+            .maximumSize(SelectPlanCache.DEFAULT_MAXIMUM_SIZE)
+            .build();
+
+    public ReactiveSelectEngine(Metadata metadata, ConnectionFactory connectionFactory) {
+        super(metadata, connectionFactory);
+        this.selectSqlBuilder = new SelectSqlBuilder(metadata);
+    }
+
+    @Override
+    public Mono<SelectResult> execute(Connection conn, SelectStatement statement) {
+        return Mono.defer(() -> {
+            PreparedSql<SelectStatement> preparedSql;
+            try {
+                preparedSql = build(statement);
+            } catch (SqlBuildException e) {
+                return Mono.error(e);
+            }
+
+            PageCriteria page = statement.getPage();
+            AtomicLong windowTotal = new AtomicLong();
+            Mono<List<Map<String, Object>>> records = rows(conn, statement, preparedSql, windowTotal).collectList();
+            if (page == null) {
+                return records.map(SelectResult::of);
+            }
+
+            int pageSize = page.getSize() != null && page.getSize() > 0
+                    ? page.getSize()
+                    : SelectSqlBuilder.DEFAULT_PAGE_SIZE;
+            int pageNumber = page.getNumber() != null && page.getNumber() > 0 ? page.getNumber() : 1;
+            CountMode countMode = QueryShape.countModeOf(page);
+            return records.flatMap(rows -> {
+                Mono<Long> total = switch (countMode) {
+                    case NONE -> Mono.just((long) SelectEngine.UNKNOWN_TOTAL);
+                    // 页码超出范围时窗口列随空结果一起丢失，需要单独计数
+                    case WINDOW -> rows.isEmpty() && pageNumber > 1
+                            ? count(conn, statement)
+                            : Mono.just(windowTotal.get());
+                    default -> count(conn, statement);
+                };
+                return total.map(count -> SelectResult.of(rows, (int) (long) count, pageSize, pageNumber));
+            });
+        }).doOnError(e -> log.error("查询执行失败 Entity: {}. Error: {}", statement.getEntityId(), e.getMessage()));
+    }
+
+    /**
+     * 流式查询，每行映射后立即发出，下游的请求量决定从数据库拉取的速度
+     *
+     * @param statement 查询语句
+     * @return 查询结果行
+     */
+    public Flux<Map<String, Object>> stream(SelectStatement statement) {
+        return Flux.defer(() -> {
+            PreparedSql<SelectStatement> preparedSql;
+            try {
+                preparedSql = build(statement);
+            } catch (SqlBuildException e) {
+                return Flux.error(e);
+            }
+            return Flux.usingWhen(connectionFactory.create(),
+                    conn -> rows(conn, statement, preparedSql, new AtomicLong()),
+                    Connection::close);
+        });
+    }
+
+    private PreparedSql<SelectStatement> build(SelectStatement statement) throws SqlBuildException {
+        if (statement.getPage() != null && statement.getPage().getMode() == PageMode.KEYSET) {
+            throw new SqlBuildException("Keyset paging is not supported by the reactive engine");
+        }
+        if (statement.getExpand() != null && !statement.getExpand().isEmpty()) {
+            throw new SqlBuildException("Expand is not supported by the reactive engine");
+        }
+        PreparedSql<SelectStatement> preparedSql = selectSqlBuilder.build(statement);
+        log.info("执行查询语句 Entity: {}, SQL: {}, 参数: {}",
+                statement.getEntityId(), preparedSql.getSql(), preparedSql.getParameters());
+        return preparedSql;
+    }
+
+    private Flux<Map<String, Object>> rows(Connection conn, SelectStatement statement,
+                                           PreparedSql<SelectStatement> preparedSql, AtomicLong windowTotal) {
+        return Flux.from(bind(conn.createStatement(preparedSql.getSql()), preparedSql.getParameters()).execute())
+                .flatMap(result -> result.map((row, rowMetadata) -> {
+                    ReactiveRowMapper mapper = rowMappers.get(preparedSql.getSql(), sql ->
+                            ReactiveRowMapper.compile(rowMetadata, metadata.getEntity(statement.getEntityId()), metadata));
+                    if (mapper.hasTotal() && windowTotal.get() == 0) {
+                        windowTotal.set(mapper.readTotal(row));
+                    }
+                    return mapper.map(row);
+                }));
+    }
+
+    private Mono<Long> count(Connection conn, SelectStatement statement) {
+        return Mono.defer(() -> {
+            PreparedSql<SelectStatement> countSql;
+            try {
+                countSql = selectSqlBuilder.buildCount(statement);
+            } catch (SqlBuildException e) {
+                return Mono.error(e);
+            }
+            log.info("执行计数SQL: {}", countSql.getSql());
+            return Flux.from(bind(conn.createStatement(countSql.getSql()), countSql.getParameters()).execute())
+                    .flatMap(result -> result.map(row -> row.get(0, Number.class)))
+                    .next()
+                    .map(Number::longValue)
+                    .defaultIfEmpty(0L);
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package org.waitlight.simple.jsonql.execute.reactive;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import org.waitlight.simple.jsonql.execute.result.ExecuteResult;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.statement.JsonQLStatement;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * 基于 R2DBC 的语句执行器，与 {@link org.waitlight.simple.jsonql.execute.StatementEngine} 使用相同的 SQL 构建器，
+ * 执行过程不阻塞线程
+ */
+public abstract class ReactiveStatementEngine<T extends JsonQLStatement, R extends ExecuteResult> {
+
+    protected final Metadata metadata;
+    protected final ConnectionFactory connectionFactory;
+
+    /**
+     * @param metadata          共享的元数据快照
+     * @param connectionFactory 借用连接的连接工厂，通常是 r2dbc-pool 连接池
+     */
+    protected ReactiveStatementEngine(Metadata metadata, ConnectionFactory connectionFactory) {
+        this.metadata = metadata;
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * 借用连接执行语句，结果发出或出错后归还连接
+     *
+     * @param stmt 待执行的语句
+     * @return 执行结果
+     */
+    public Mono<R> execute(T stmt) {
+        return Mono.usingWhen(connectionFactory.create(), conn -> execute(conn, stmt), Connection::close);
+    }
+
+    public abstract Mono<R> execute(Connection conn, T stmt);
+
+    /**
+     * 按顺序绑定参数，null 以 {@link Object} 类型绑定，枚举按名称绑定
+     *
+     * @param statement  R2DBC 语句
+     * @param parameters 参数列表
+     * @return 绑定参数后的语句
+     */
+    protected static Statement bind(Statement statement, List<Object> parameters) {
+        for (int i = 0; i < parameters.size(); i++) {
+            Object parameter = parameters.get(i);
+            if (parameter == null) {
+                statement.bindNull(i, Object.class);
+            } else if (parameter instanceof Enum<?> e) {
+                statement.bind(i, e.name());
+            } else {
+                statement.bind(i, parameter);
+            }
+        }
+        return statement;
+    }
+}
@@ -0,0 +1,13 @@
+package org.waitlight.simple.jsonql.execute.result;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * 批量执行结果，与语句一一对应
+ */
+@Value
+public class BatchResult implements ExecuteResult {
+    List<ExecuteResult> results;
+}
@@ -0,0 +1,456 @@
+package org.waitlight.simple.jsonql.execute.result;
+
+import java.sql.JDBCType;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * 列式存储的只读查询结果
+ * <p>
+ * 所有行共享一份列名，数值和时间列以基本类型数组存储，低基数字符串列使用字典编码。
+ * {@link #get(int)} 返回轻量的行视图，行视图实现 {@link Map}，序列化后的 JSON 与普通的行 Map 相同，
+ * 只在读取单元格时才创建包装对象
+ */
+public final class ColumnarRowSet extends AbstractList<Map<String, Object>> implements RandomAccess {
+
+    private final String[] keys;
+    private final Column[] columns;
+    private final int size;
+
+    private ColumnarRowSet(String[] keys, Column[] columns, int size) {
+        this.keys = keys;
+        this.columns = columns;
+        this.size = size;
+    }
+
+    @Override
+    public Map<String, Object> get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new RowView(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 读取单元格
+     *
+     * @param row    行号
+     * @param column 列序号
+     * @return 单元格的值
+     */
+    public Object getValue(int row, int column) {
+        return columns[column].get(row);
+    }
+
+    public List<String> getKeys() {
+        return List.of(keys);
+    }
+
+    /**
+     * 行视图，只持有行号
+     */
+    private final class RowView extends AbstractMap<String, Object> {
+        private final int row;
+
+        private RowView(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public Object get(Object key) {
+            int column = indexOf(key);
+            return column < 0 ? null : columns[column].get(row);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int column;
+
+                        @Override
+                        public boolean hasNext() {
+                            return column < keys.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (column >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int current = column++;
+                            return new SimpleImmutableEntry<>(keys[current], columns[current].get(row));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * 逐行追加数据构建 {@link ColumnarRowSet}
+     */
+    public static final class Builder {
+        private final String[] keys;
+        private final Column[] columns;
+        private int size;
+
+        /**
+         * @param keys  列名
+         * @param types 列类型，决定列的存储方式，未知类型为 null
+         */
+        public Builder(List<String> keys, List<JDBCType> types) {
+            this.keys = keys.toArray(new String[0]);
+            this.columns = new Column[this.keys.length];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = Column.of(types.get(i));
+            }
+        }
+
+        /**
+         * 追加一个单元格，每行按列顺序依次追加，最后调用 {@link #endRow()}
+         */
+        public void set(int column, Object value) {
+            columns[column].add(size, value);
+        }
+
+        public void endRow() {
+            size++;
+        }
+
+        public ColumnarRowSet build() {
+            for (Column column : columns) {
+                column.trim(size);
+            }
+            return new ColumnarRowSet(keys, columns, size);
+        }
+    }
+
+    private abstract static class Column {
+        private static final int INITIAL_CAPACITY = 16;
+
+        static Column of(JDBCType type) {
+            if (type == null) {
+                return new ObjectColumn();
+            }
+            return switch (type) {
+                case BIGINT, INTEGER, SMALLINT, TINYINT -> new LongColumn(type);
+                case DOUBLE, FLOAT, REAL -> new DoubleColumn(type);
+                case BOOLEAN, BIT -> new BooleanColumn();
+                case TIMESTAMP -> new TimestampColumn();
+                case VARCHAR, CHAR, LONGVARCHAR, NVARCHAR, NCHAR -> new StringColumn();
+                default -> new ObjectColumn();
+            };
+        }
+
+        static int grow(int capacity, int row) {
+            int newCapacity = Math.max(capacity, INITIAL_CAPACITY);
+            while (newCapacity <= row) {
+                newCapacity = newCapacity << 1;
+            }
+            return newCapacity;
+        }
+
+        abstract void add(int row, Object value);
+
+        abstract Object get(int row);
+
+        abstract void trim(int size);
+    }
+
+    /**
+     * 基本类型列的公共部分，NULL 记录在位图中
+     */
+    private abstract static class PrimitiveColumn extends Column {
+        protected final BitSet nulls = new BitSet();
+
+        @Override
+        final void add(int row, Object value) {
+            ensureCapacity(row);
+            if (value == null) {
+                nulls.set(row);
+            } else {
+                set(row, value);
+            }
+        }
+
+        @Override
+        final Object get(int row) {
+            return nulls.get(row) ? null : box(row);
+        }
+
+        abstract void ensureCapacity(int row);
+
+        abstract void set(int row, Object value);
+
+        abstract Object box(int row);
+    }
+
+    private static final class LongColumn extends PrimitiveColumn {
+        private final boolean narrow;
+        private long[] values = new long[0];
+
+        LongColumn(JDBCType type) {
+            // 实体字段为 Integer/Short/Byte 时统一按 Integer 返回，与逐行映射的结果一致
+            this.narrow = type != JDBCType.BIGINT;
+        }
+
+        @Override
+        void ensureCapacity(int row) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+        }
+
+        @Override
+        void set(int row, Object value) {
+            values[row] = ((Number) value).longValue();
+        }
+
+        @Override
+        Object box(int row) {
+            return narrow ? (Object) (int) values[row] : (Object) values[row];
+        }
+
+        @Override
+        void trim(int size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class DoubleColumn extends PrimitiveColumn {
+        private final boolean single;
+        private double[] values = new double[0];
+
+        DoubleColumn(JDBCType type) {
+            this.single = type != JDBCType.DOUBLE;
+        }
+
+        @Override
+        void ensureCapacity(int row) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+        }
+
+        @Override
+        void set(int row, Object value) {
+            values[row] = ((Number) value).doubleValue();
+        }
+
+        @Override
+        Object box(int row) {
+            return single ? (Object) (float) values[row] : (Object) values[row];
+        }
+
+        @Override
+        void trim(int size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class BooleanColumn extends PrimitiveColumn {
+        private final BitSet values = new BitSet();
+
+        @Override
+        void ensureCapacity(int row) {
+        }
+
+        @Override
+        void set(int row, Object value) {
+            values.set(row, (Boolean) value);
+        }
+
+        @Override
+        Object box(int row) {
+            return values.get(row);
+        }
+
+        @Override
+        void trim(int size) {
+        }
+    }
+
+    /**
+     * 时间戳按毫秒和纳秒两个基本类型数组存储
+     */
+    private static final class TimestampColumn extends PrimitiveColumn {
+        private long[] millis = new long[0];
+        private int[] nanos = new int[0];
+
+        @Override
+        void ensureCapacity(int row) {
+            if (row >= millis.length) {
+                int capacity = grow(millis.length, row);
+                millis = Arrays.copyOf(millis, capacity);
+                nanos = Arrays.copyOf(nanos, capacity);
+            }
+        }
+
+        @Override
+        void set(int row, Object value) {
+            Timestamp timestamp = (Timestamp) value;
+            millis[row] = timestamp.getTime();
+            nanos[row] = timestamp.getNanos();
+        }
+
+        @Override
+        Object box(int row) {
+            Timestamp timestamp = new Timestamp(millis[row]);
+            timestamp.setNanos(nanos[row]);
+            return timestamp;
+        }
+
+        @Override
+        void trim(int size) {
+            millis = Arrays.copyOf(millis, size);
+            nanos = Arrays.copyOf(nanos, size);
+        }
+    }
+
+    /**
+     * 字符串列，先按字典编码存储，不同值超过 {@link #DICTIONARY_LIMIT} 个时退化为普通数组
+     */
+    private static final class StringColumn extends Column {
+        private static final int DICTIONARY_LIMIT = 1024;
+        private static final int NULL_CODE = -1;
+
+        private Map<String, Integer> codes = new HashMap<>();
+        private String[] dictionary = new String[0];
+        private int[] encoded = new int[0];
+        private String[] plain;
+
+        @Override
+        void add(int row, Object value) {
+            String string = (String) value;
+            if (plain != null) {
+                if (row >= plain.length) {
+                    plain = Arrays.copyOf(plain, grow(plain.length, row));
+                }
+                plain[row] = string;
+                return;
+            }
+
+            if (row >= encoded.length) {
+                encoded = Arrays.copyOf(encoded, grow(encoded.length, row));
+            }
+            if (string == null) {
+                encoded[row] = NULL_CODE;
+                return;
+            }
+            Integer code = codes.get(string);
+            if (code == null) {
+                if (codes.size() >= DICTIONARY_LIMIT) {
+                    decode(row);
+                    add(row, value);
+                    return;
+                }
+                code = codes.size();
+                codes.put(string, code);
+                if (code >= dictionary.length) {
+                    dictionary = Arrays.copyOf(dictionary, grow(dictionary.length, code));
+                }
+                dictionary[code] = string;
+            }
+            encoded[row] = code;
+        }
+
+        /**
+         * 高基数列不适合字典编码，转换为普通数组
+         */
+        private void decode(int rows) {
+            plain = new String[encoded.length];
+            for (int i = 0; i < rows; i++) {
+                plain[i] = encoded[i] == NULL_CODE ? null : dictionary[encoded[i]];
+            }
+            codes = null;
+            dictionary = null;
+            encoded = null;
+        }
+
+        @Override
+        Object get(int row) {
+            if (plain != null) {
+                return plain[row];
+            }
+            int code = encoded[row];
+            return code == NULL_CODE ? null : dictionary[code];
+        }
+
+        @Override
+        void trim(int size) {
+            if (plain != null) {
+                plain = Arrays.copyOf(plain, size);
+            } else {
+                encoded = Arrays.copyOf(encoded, size);
+                dictionary = Arrays.copyOf(dictionary, codes.size());
+                // 构建完成后不再需要反查表
+                codes = null;
+            }
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+        private Object[] values = new Object[0];
+
+        @Override
+        void add(int row, Object value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+            values[row] = value;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        void trim(int size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+}
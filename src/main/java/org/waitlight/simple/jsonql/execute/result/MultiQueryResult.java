@@ -0,0 +1,20 @@
+package org.waitlight.simple.jsonql.execute.result;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * 多查询执行结果，按请求中的查询名称返回
+ */
+@Value
+public class MultiQueryResult implements ExecuteResult {
+    /**
+     * 执行成功的查询结果
+     */
+    Map<String, ExecuteResult> results;
+    /**
+     * 执行失败的查询及失败原因
+     */
+    Map<String, String> errors;
+}
@@ -2,7 +2,9 @@ package org.waitlight.simple.jsonql.execute.result;
 
 import lombok.Getter;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -15,12 +17,18 @@ public class SelectResult implements ExecuteResult {
     private final int totalCount;
     private final int pageSize;
     private final int pageNumber;
+    /**
+     * keyset 分页的下一页游标，没有下一页时为 null
+     */
+    private final String nextCursor;
 
-    private SelectResult(List<Map<String, Object>> records, int totalCount, int pageSize, int pageNumber) {
+    private SelectResult(List<Map<String, Object>> records, int totalCount, int pageSize, int pageNumber,
+                         String nextCursor) {
         this.records = records;
         this.totalCount = totalCount;
         this.pageSize = pageSize;
         this.pageNumber = pageNumber;
+        this.nextCursor = nextCursor;
     }
 
     /**
@@ -33,10 +41,25 @@ public class SelectResult implements ExecuteResult {
      * @return 查询结果对象
      */
     public static SelectResult of(List<Map<String, Object>> records, int totalCount, int pageSize, int pageNumber) {
+        return of(records, totalCount, pageSize, pageNumber, null);
+    }
+
+    /**
+     * 创建 keyset 分页查询结果
+     *
+     * @param records    查询结果记录
+     * @param totalCount 总记录数
+     * @param pageSize   每页大小
+     * @param pageNumber 当前页码
+     * @param nextCursor 下一页游标，没有下一页时为 null
+     * @return 查询结果对象
+     */
+    public static SelectResult of(List<Map<String, Object>> records, int totalCount, int pageSize, int pageNumber,
+                                  String nextCursor) {
         if (records == null) {
             records = Collections.emptyList();
         }
-        return new SelectResult(records, totalCount, pageSize, pageNumber);
+        return new SelectResult(records, totalCount, pageSize, pageNumber, nextCursor);
     }
 
     /**
@@ -49,6 +72,46 @@ public class SelectResult implements ExecuteResult {
         if (records == null) {
             records = Collections.emptyList();
         }
-        return new SelectResult(records, records.size(), records.size(), 1);
+        return new SelectResult(records, records.size(), records.size(), 1, null);
+    }
+
+    /**
+     * 创建只读副本，供多个请求共享的缓存结果使用
+     * <p>
+     * 记录和展开的子记录都不能被修改，修改时抛出 {@link UnsupportedOperationException}；
+     * 列式结果本身只读，不复制；单元格的值本身不复制
+     *
+     * @return 只读的查询结果
+     */
+    public SelectResult readOnly() {
+        if (records instanceof ColumnarRowSet) {
+            return this;
+        }
+        List<Map<String, Object>> copy = new ArrayList<>(records.size());
+        records.forEach(record -> copy.add(readOnly(record)));
+        return new SelectResult(Collections.unmodifiableList(copy), totalCount, pageSize, pageNumber, nextCursor);
+    }
+
+    /**
+     * 创建记录的只读副本，展开的子记录同样只读
+     *
+     * @param record 记录
+     * @return 只读的记录，保持原有的字段顺序
+     */
+    public static Map<String, Object> readOnly(Map<String, Object> record) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        record.forEach((key, value) -> copy.put(key, readOnlyValue(value)));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object readOnlyValue(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return readOnly((Map<String, Object>) map);
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(SelectResult::readOnlyValue).toList();
+        }
+        return value;
     }
 }
@@ -2,6 +2,9 @@ package org.waitlight.simple.jsonql.execute.result;
 
 import lombok.Getter;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * 更新操作执行结果类，包含影响行数信息
  */
@@ -10,11 +13,17 @@ public class UpdateResult implements ExecuteResult {
     private final int affectedRows;
     private final int mainAffectedRows;
     private final int nestedAffectedRows;
+    /**
+     * 批量更新时每条记录的影响行数，与 {@code records} 的顺序一致，其它更新方式为空
+     */
+    private final List<Integer> recordAffectedRows;
 
-    private UpdateResult(int affectedRows, int mainAffectedRows, int nestedAffectedRows) {
+    private UpdateResult(int affectedRows, int mainAffectedRows, int nestedAffectedRows,
+                         List<Integer> recordAffectedRows) {
         this.affectedRows = affectedRows;
         this.mainAffectedRows = mainAffectedRows;
         this.nestedAffectedRows = nestedAffectedRows;
+        this.recordAffectedRows = recordAffectedRows;
     }
 
     /**
@@ -24,7 +33,7 @@ public class UpdateResult implements ExecuteResult {
      * @return 更新结果对象
      */
     public static UpdateResult of(int affectedRows) {
-        return new UpdateResult(affectedRows, affectedRows, 0);
+        return new UpdateResult(affectedRows, affectedRows, 0, Collections.emptyList());
     }
 
     /**
@@ -35,6 +44,18 @@ public class UpdateResult implements ExecuteResult {
      * @return 更新结果对象
      */
     public static UpdateResult of(int mainAffectedRows, int nestedAffectedRows) {
-        return new UpdateResult(mainAffectedRows + nestedAffectedRows, mainAffectedRows, nestedAffectedRows);
+        return new UpdateResult(mainAffectedRows + nestedAffectedRows, mainAffectedRows, nestedAffectedRows,
+                Collections.emptyList());
+    }
+
+    /**
+     * 创建批量更新的结果对象
+     *
+     * @param recordAffectedRows 每条记录的影响行数
+     * @return 更新结果对象
+     */
+    public static UpdateResult ofRecords(List<Integer> recordAffectedRows) {
+        int affectedRows = recordAffectedRows.stream().mapToInt(Integer::intValue).sum();
+        return new UpdateResult(affectedRows, affectedRows, 0, List.copyOf(recordAffectedRows));
     }
 }
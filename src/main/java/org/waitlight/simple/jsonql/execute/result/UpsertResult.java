@@ -0,0 +1,13 @@
+package org.waitlight.simple.jsonql.execute.result;
+
+import lombok.Value;
+
+/**
+ * 插入或更新操作执行结果
+ * <p>
+ * MySQL 对插入的行计 1，对更新的行计 2，值未变化的行按驱动的 {@code useAffectedRows} 设置计 0 或 1
+ */
+@Value
+public class UpsertResult implements ExecuteResult {
+    int affectedRows;
+}
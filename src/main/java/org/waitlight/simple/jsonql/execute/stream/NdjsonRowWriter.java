@@ -0,0 +1,75 @@
+package org.waitlight.simple.jsonql.execute.stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 按 NDJSON 格式写出，每行一个 JSON 对象
+ * <p>
+ * {@code 关联字段.字段名} 形式的列写为嵌套对象，与查询结果的结构一致
+ */
+public class NdjsonRowWriter implements RowWriter {
+
+    private final JsonGenerator generator;
+    /**
+     * 每一列所属的关联字段，不属于关联对象时为 null
+     */
+    private String[] groups;
+    private String[] names;
+
+    public NdjsonRowWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        // 每个对象之间使用换行分隔，而不是默认的空格
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void start(List<String> columns) {
+        this.groups = new String[columns.size()];
+        this.names = new String[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i);
+            int dot = column.indexOf('.');
+            groups[i] = dot > 0 ? column.substring(0, dot) : null;
+            names[i] = dot > 0 ? column.substring(dot + 1) : column;
+        }
+    }
+
+    @Override
+    public void write(Object[] values) throws IOException {
+        generator.writeStartObject();
+        String group = null;
+        for (int i = 0; i < values.length; i++) {
+            if (group != null && !group.equals(groups[i])) {
+                generator.writeEndObject();
+                group = null;
+            }
+            if (group == null && groups[i] != null) {
+                group = groups[i];
+                generator.writeFieldName(group);
+                generator.writeStartObject();
+            }
+            generator.writeFieldName(names[i]);
+            generator.writeObject(values[i]);
+        }
+        if (group != null) {
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+}
@@ -0,0 +1,36 @@
+package org.waitlight.simple.jsonql.execute.stream;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 逐行写出查询结果，用于流式导出
+ * <p>
+ * 实现类不应缓存已写出的行，{@link #write(Object[])} 传入的数组会被复用
+ */
+public interface RowWriter {
+
+    /**
+     * 写出第一行之前调用
+     *
+     * @param columns 列名，{@code 关联字段.字段名} 形式的列属于多对一关联对象，同一关联对象的列相邻
+     */
+    void start(List<String> columns) throws IOException;
+
+    /**
+     * 写出一行
+     *
+     * @param values 按列顺序排列的值
+     */
+    void write(Object[] values) throws IOException;
+
+    /**
+     * 写出最后一行之后调用
+     */
+    void finish() throws IOException;
+
+    /**
+     * 将已写出的内容推送给客户端
+     */
+    void flush() throws IOException;
+}
@@ -0,0 +1,21 @@
+package org.waitlight.simple.jsonql.metadata;
+
+import java.time.Duration;
+
+/**
+ * 实体的查询结果缓存策略
+ * <p>
+ * 由实体类上的注解配置：
+ * <ul>
+ *     <li>{@code @Cacheable(false)}：该实体的查询结果不缓存，默认缓存</li>
+ *     <li>{@code @CacheTtl(秒数)}：缓存结果的存活时间，未配置时使用全局的默认值</li>
+ * </ul>
+ * 结果缓存整体默认关闭，需要通过 {@code jsonql.cache.enabled} 开启
+ *
+ * @param cacheable 是否缓存该实体的查询结果
+ * @param ttl       缓存结果的存活时间，为 null 时使用全局默认值
+ */
+public record CachePolicy(boolean cacheable, Duration ttl) {
+
+    public static final CachePolicy DEFAULT = new CachePolicy(true, null);
+}
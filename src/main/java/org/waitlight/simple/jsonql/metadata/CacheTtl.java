@@ -0,0 +1,21 @@
+package org.waitlight.simple.jsonql.metadata;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 实体查询结果在缓存中的存活时间，见 {@link CachePolicy}
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheTtl {
+
+    /**
+     * 存活时间（秒），必须大于 0
+     */
+    long value();
+}
@@ -0,0 +1,52 @@
+package org.waitlight.simple.jsonql.metadata;
+
+/**
+ * 实体主键的生成方式
+ * <p>
+ * 由 {@code @GeneratedValue} 配置：
+ * <ul>
+ *     <li>未配置或 {@code IDENTITY}：数据库自增，插入后通过 generated keys 取回</li>
+ *     <li>{@code strategy = TABLE}：号段分配，从序列表一次申请 {@code allocationSize} 个 ID，可配合 {@code @TableGenerator}</li>
+ *     <li>{@code generator = "snowflake"}：Snowflake 算法在本地生成</li>
+ * </ul>
+ * 后两种方式在发送 INSERT 之前就确定主键，父子记录的插入不再依赖父记录返回的自增主键
+ *
+ * @param strategy       生成方式
+ * @param table          号段分配的序列表
+ * @param pkColumn       序列表中序列名称列
+ * @param valueColumn    序列表中下一个可分配值的列
+ * @param pkValue        序列名称，默认为实体的表名
+ * @param initialValue   序列初始值，第一个分配的 ID 为 {@code initialValue + 1}
+ * @param allocationSize 每次申请的号段大小
+ */
+public record IdGeneration(
+        IdStrategy strategy,
+        String table,
+        String pkColumn,
+        String valueColumn,
+        String pkValue,
+        long initialValue,
+        int allocationSize
+) {
+
+    public static final IdGeneration IDENTITY = new IdGeneration(IdStrategy.IDENTITY, null, null, null, null, 0, 0);
+    public static final IdGeneration SNOWFLAKE = new IdGeneration(IdStrategy.SNOWFLAKE, null, null, null, null, 0, 0);
+
+    public static final String DEFAULT_TABLE = "jsonql_sequence";
+    public static final String DEFAULT_PK_COLUMN = "sequence_name";
+    public static final String DEFAULT_VALUE_COLUMN = "next_val";
+    public static final String SNOWFLAKE_GENERATOR = "snowflake";
+
+    public enum IdStrategy {
+        IDENTITY,
+        SEGMENT,
+        SNOWFLAKE
+    }
+
+    /**
+     * 是否在插入前由客户端分配主键
+     */
+    public boolean clientAssigned() {
+        return strategy != IdStrategy.IDENTITY;
+    }
+}
@@ -7,6 +7,9 @@ import org.waitlight.simple.jsonql.util.IStringUtil;
 import org.waitlight.simple.jsonql.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
@@ -22,7 +25,7 @@ public class LocalClassMetadataBuilder extends MetadataBuilder {
 
     @Override
     public Metadata build() {
-        Metadata metadata = new Metadata();
+        List<PersistentClass> persistentClasses = new ArrayList<>();
         Set<Class<?>> entityClasses = metadataSource.getEntityClasses();
 
         if (CollectionUtils.isEmpty(entityClasses)) {
@@ -34,10 +37,17 @@ public class LocalClassMetadataBuilder extends MetadataBuilder {
                 continue;
             }
 
-            final PersistentClass persistentClass = new PersistentClass(entityClass, entityClass.getSimpleName());
-            handleTableAnnotation(entityClass, persistentClass);
+            final PersistentClass.Builder persistentClass =
+                    new PersistentClass.Builder(entityClass, entityClass.getSimpleName());
+            String tableName = handleTableAnnotation(entityClass);
+            persistentClass.setTableName(tableName);
+            handleCacheAnnotations(entityClass, persistentClass);
             for (Field field : entityClass.getDeclaredFields()) {
                 Property.Builder propertyBuilder = handlePropertyMapping(field);
+                if (field.isAnnotationPresent(Id.class)) {
+                    persistentClass.setIdFieldName(field.getName());
+                    persistentClass.setIdGeneration(handleGeneratedValueAnnotation(field, tableName));
+                }
 
                 handleOneToManyAnnotation(persistentClass, field, entityClass, propertyBuilder);
                 handleManyToOneAnnotation(persistentClass, field, propertyBuilder);
@@ -45,23 +55,68 @@ public class LocalClassMetadataBuilder extends MetadataBuilder {
 
                 persistentClass.addProperty(propertyBuilder.build());
             }
-            metadata.add(persistentClass);
+            persistentClasses.add(persistentClass.build());
         }
 
-        return metadata;
+        return new Metadata(persistentClasses);
     }
 
-    private void handleTableAnnotation(Class<?> entityClass, PersistentClass persistentClass) {
+    /**
+     * 解析主键的生成方式，见 {@link IdGeneration}
+     */
+    private IdGeneration handleGeneratedValueAnnotation(Field field, String tableName) {
+        GeneratedValue generatedValue = field.getAnnotation(GeneratedValue.class);
+        if (generatedValue == null) {
+            return IdGeneration.IDENTITY;
+        }
+        if (IdGeneration.SNOWFLAKE_GENERATOR.equalsIgnoreCase(generatedValue.generator())) {
+            return IdGeneration.SNOWFLAKE;
+        }
+        if (generatedValue.strategy() != GenerationType.TABLE) {
+            return IdGeneration.IDENTITY;
+        }
+
+        TableGenerator generator = field.getAnnotation(TableGenerator.class);
+        if (generator == null) {
+            return new IdGeneration(IdGeneration.IdStrategy.SEGMENT, IdGeneration.DEFAULT_TABLE,
+                    IdGeneration.DEFAULT_PK_COLUMN, IdGeneration.DEFAULT_VALUE_COLUMN,
+                    tableName, 0, 50);
+        }
+        return new IdGeneration(IdGeneration.IdStrategy.SEGMENT,
+                StringUtils.defaultIfBlank(generator.table(), IdGeneration.DEFAULT_TABLE),
+                StringUtils.defaultIfBlank(generator.pkColumnName(), IdGeneration.DEFAULT_PK_COLUMN),
+                StringUtils.defaultIfBlank(generator.valueColumnName(), IdGeneration.DEFAULT_VALUE_COLUMN),
+                StringUtils.defaultIfBlank(generator.pkColumnValue(), tableName),
+                generator.initialValue(),
+                Math.max(1, generator.allocationSize()));
+    }
+
+    /**
+     * 解析查询结果缓存策略，见 {@link CachePolicy}
+     */
+    private void handleCacheAnnotations(Class<?> entityClass, PersistentClass.Builder persistentClass) {
+        Cacheable cacheable = entityClass.getAnnotation(Cacheable.class);
+        CacheTtl ttl = entityClass.getAnnotation(CacheTtl.class);
+        if (cacheable == null && ttl == null) {
+            return;
+        }
+        if (ttl != null && ttl.value() <= 0) {
+            throw new MetadataException("@CacheTtl of entity [%s] must be positive", entityClass.getSimpleName());
+        }
+        persistentClass.setCachePolicy(new CachePolicy(cacheable == null || cacheable.value(),
+                ttl == null ? null : Duration.ofSeconds(ttl.value())));
+    }
+
+    private String handleTableAnnotation(Class<?> entityClass) {
         if (entityClass.isAnnotationPresent(Table.class)) {
             Table table = entityClass.getAnnotation(Table.class);
-            persistentClass.setTableName(table.name());
-        } else {
-            persistentClass.setTableName(IStringUtil.camelToSnake(entityClass.getSimpleName()));
+            return table.name();
         }
+        return IStringUtil.camelToSnake(entityClass.getSimpleName());
     }
 
 
-    private void handleOneToManyAnnotation(PersistentClass persistentClass,
+    private void handleOneToManyAnnotation(PersistentClass.Builder persistentClass,
                                            Field field,
                                            Class<?> entityClass,
                                            Property.Builder propertyBuilder) {
@@ -84,7 +139,7 @@ public class LocalClassMetadataBuilder extends MetadataBuilder {
         persistentClass.addRelationProperty(targetEntity, RelationshipType.ONE_TO_MANY);
     }
 
-    private void handleManyToOneAnnotation(PersistentClass persistentClass,
+    private void handleManyToOneAnnotation(PersistentClass.Builder persistentClass,
                                            Field field,
                                            Property.Builder propertyBuilder) {
         if (!field.isAnnotationPresent(ManyToOne.class)) {
@@ -92,7 +147,7 @@ public class LocalClassMetadataBuilder extends MetadataBuilder {
         }
 
         propertyBuilder.setRelationship(RelationshipType.MANY_TO_ONE);
-        propertyBuilder.setTargetEntity(field.getClass());
+        propertyBuilder.setTargetEntity(field.getType());
         JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
         if (Objects.nonNull(joinColumn) && StringUtils.isNotBlank(joinColumn.name())) {
             propertyBuilder.setColumnName(joinColumn.name());
@@ -106,7 +161,7 @@ public class LocalClassMetadataBuilder extends MetadataBuilder {
         persistentClass.addRelationProperty(field.getType(), RelationshipType.MANY_TO_ONE);
     }
 
-    private void handleManyToManyAnnotation(PersistentClass persistentClass,
+    private void handleManyToManyAnnotation(PersistentClass.Builder persistentClass,
                                             Field field,
                                             Class<?> entityClass,
                                             Property.Builder propertyBuilder) {
@@ -14,30 +14,41 @@ import org.apache.calcite.tools.Frameworks;
 import org.apache.commons.lang3.StringUtils;
 
 import java.sql.JDBCType;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
 
+/**
+ * 元数据快照
+ * <p>
+ * 构建完成后不可变，可以在多个执行引擎和 SQL 构建器之间安全地共享；元数据发生变化时应构建新的快照，
+ * 并通过 {@link MetadataHolder} 整体替换
+ */
 public class Metadata {
-    private final Map<String, PersistentClass> entities = new HashMap<>();
+    private final Map<String, PersistentClass> entities;
     private final SchemaPlus schema;
     @Getter
     private final FrameworkConfig frameworkConfig;
 
-    public Metadata() {
+    public Metadata(Collection<PersistentClass> persistentClasses) {
         this.schema = CalciteSchema.createRootSchema(true, true).plus();
         this.frameworkConfig = Frameworks.newConfigBuilder()
                 .defaultSchema(schema)
                 .build();
+
+        Map<String, PersistentClass> entities = new HashMap<>();
+        for (PersistentClass persistentClass : persistentClasses) {
+            add(entities, persistentClass);
+        }
+        this.entities = Collections.unmodifiableMap(entities);
     }
 
     /**
      * 添加实体类到元数据中，并将其注册到 Calcite Schema
      *
+     * @param entities        实体名称到持久化类的映射
      * @param persistentClass 持久化类元数据信息
      * @throws MetadataException 如果实体名称重复则抛出异常
      */
-    public void add(PersistentClass persistentClass) {
+    private void add(Map<String, PersistentClass> entities, PersistentClass persistentClass) {
         String entityName = persistentClass.getEntityName();
         entityName = StringUtils.uncapitalize(entityName);
 
@@ -48,6 +59,25 @@ public class Metadata {
         add2Schema(persistentClass);
     }
 
+    public Collection<PersistentClass> getEntities() {
+        return entities.values();
+    }
+
+    /**
+     * 按实体类查找实体
+     *
+     * @param entityClass 实体类
+     * @return 实体，未注册时为 null
+     */
+    public PersistentClass findEntity(Class<?> entityClass) {
+        for (PersistentClass entity : entities.values()) {
+            if (entity.getEntityClass() == entityClass) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
     public PersistentClass getEntity(String entityName) {
         if (StringUtils.isBlank(entityName)) {
             throw new MetadataException("Entity [null] not found");
@@ -81,6 +111,11 @@ public class Metadata {
         RelDataTypeFactory.Builder builder = typeFactory.builder();
 
         for (Property property : persistentClass.getProperties()) {
+            // 一对多、多对多关系在本表中没有对应的列
+            if (property.relationship() == RelationshipType.ONE_TO_MANY
+                    || property.relationship() == RelationshipType.MANY_TO_MANY) {
+                continue;
+            }
             String columnName = property.columnName();
             JDBCType columnType = property.columnType();
             SqlTypeName sqlTypeName = SqlTypeName.getNameForJdbcType(columnType.getVendorTypeNumber());
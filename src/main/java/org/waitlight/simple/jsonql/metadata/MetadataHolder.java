@@ -0,0 +1,62 @@
+package org.waitlight.simple.jsonql.metadata;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 持有当前生效的 {@link Metadata} 快照
+ * <p>
+ * 元数据只在创建和刷新时构建一次，所有执行引擎和 SQL 构建器共享同一份快照；
+ * 元数据变化时构建新快照并原子替换，正在执行的请求继续使用旧快照，新请求使用新快照
+ */
+@Slf4j
+public class MetadataHolder {
+
+    private final MetadataSource metadataSource;
+    private final AtomicReference<Metadata> current;
+
+    public MetadataHolder(MetadataSource metadataSource) {
+        this.metadataSource = metadataSource;
+        this.current = new AtomicReference<>(MetadataBuilderFactory.createLocalBuilder(metadataSource).build());
+    }
+
+    public MetadataHolder(Metadata metadata) {
+        this.metadataSource = null;
+        this.current = new AtomicReference<>(Objects.requireNonNull(metadata, "metadata"));
+    }
+
+    /**
+     * 获取当前生效的元数据快照
+     *
+     * @return 元数据快照
+     */
+    public Metadata get() {
+        return current.get();
+    }
+
+    /**
+     * 从 {@link MetadataSource} 重新构建元数据并替换当前快照
+     *
+     * @return 新的元数据快照
+     */
+    public Metadata refresh() {
+        if (metadataSource == null) {
+            throw new MetadataException("MetadataSource is not available, use swap(Metadata) instead");
+        }
+        Metadata metadata = MetadataBuilderFactory.createLocalBuilder(metadataSource).build();
+        swap(metadata);
+        return metadata;
+    }
+
+    /**
+     * 原子替换当前快照
+     *
+     * @param metadata 新的元数据快照
+     */
+    public void swap(Metadata metadata) {
+        current.set(Objects.requireNonNull(metadata, "metadata"));
+        log.info("元数据快照已替换，实体数: {}", metadata.getEntities().size());
+    }
+}
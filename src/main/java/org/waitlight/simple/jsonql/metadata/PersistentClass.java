@@ -1,7 +1,6 @@
 package org.waitlight.simple.jsonql.metadata;
 
 import lombok.Getter;
-import lombok.Setter;
 import org.waitlight.simple.jsonql.builder.SqlBuildException;
 
 import java.util.ArrayList;
@@ -9,30 +8,52 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * 实体的持久化信息，通过 {@link Builder} 创建，创建后不可修改
+ */
 @Getter
-@Setter
 public class PersistentClass {
-    private Class<?> entityClass;
-    private String entityName;
+    private final Class<?> entityClass;
+    private final String entityName;
 
-    private String tableName;
+    private final String tableName;
 
-    private List<Property> properties = new ArrayList<>();
+    // 主键字段名，未标注 @Id 时默认为 id
+    private final String idFieldName;
 
-    // 与当前类有应用关系的其他类
-    private Map<Class<?>, RelationshipType> relations = new HashMap<>();
+    // 主键生成方式，默认数据库自增
+    private final IdGeneration idGeneration;
 
-    public PersistentClass(Class<?> entityClazz, String entityName) {
-        this.entityClass = entityClazz;
-        this.entityName = entityName;
-    }
+    // 查询结果缓存策略，默认缓存并使用全局存活时间
+    private final CachePolicy cachePolicy;
+
+    private final List<Property> properties;
 
-    public void addProperty(Property property) {
-        properties.add(property);
+    // 与当前类有应用关系的其他类
+    private final Map<Class<?>, RelationshipType> relations;
+
+    private PersistentClass(Builder builder) {
+        this.entityClass = builder.entityClass;
+        this.entityName = builder.entityName;
+        this.tableName = builder.tableName;
+        this.idFieldName = builder.idFieldName;
+        this.idGeneration = builder.idGeneration;
+        this.cachePolicy = builder.cachePolicy;
+        this.properties = List.copyOf(builder.properties);
+        this.relations = Map.copyOf(builder.relations);
     }
 
-    public void addRelationProperty(Class<?> targetEntity, RelationshipType relationshipType) {
-        relations.put(targetEntity, relationshipType);
+    /**
+     * 获取主键属性
+     *
+     * @return 主键属性
+     * @throws MetadataException 如果找不到主键属性
+     */
+    public Property getIdProperty() {
+        return properties.stream()
+                .filter(property -> property.fieldName().equals(idFieldName))
+                .findFirst()
+                .orElseThrow(() -> new MetadataException("Entity [%s] has no id property", entityName));
     }
 
     public Property getPropertyForRelClass(Class<?> targetEntity) throws SqlBuildException {
@@ -46,4 +67,54 @@ public class PersistentClass {
                 .findFirst()
                 .orElseThrow(() -> new SqlBuildException("No relation property found"));
     }
+
+    public static class Builder {
+        private final Class<?> entityClass;
+        private final String entityName;
+        private String tableName;
+        private String idFieldName = "id";
+        private IdGeneration idGeneration = IdGeneration.IDENTITY;
+        private CachePolicy cachePolicy = CachePolicy.DEFAULT;
+        private final List<Property> properties = new ArrayList<>();
+        private final Map<Class<?>, RelationshipType> relations = new HashMap<>();
+
+        public Builder(Class<?> entityClass, String entityName) {
+            this.entityClass = entityClass;
+            this.entityName = entityName;
+        }
+
+        public Builder setTableName(String tableName) {
+            this.tableName = tableName;
+            return this;
+        }
+
+        public Builder setIdFieldName(String idFieldName) {
+            this.idFieldName = idFieldName;
+            return this;
+        }
+
+        public Builder setIdGeneration(IdGeneration idGeneration) {
+            this.idGeneration = idGeneration;
+            return this;
+        }
+
+        public Builder setCachePolicy(CachePolicy cachePolicy) {
+            this.cachePolicy = cachePolicy;
+            return this;
+        }
+
+        public Builder addProperty(Property property) {
+            properties.add(property);
+            return this;
+        }
+
+        public Builder addRelationProperty(Class<?> targetEntity, RelationshipType relationshipType) {
+            relations.put(targetEntity, relationshipType);
+            return this;
+        }
+
+        public PersistentClass build() {
+            return new PersistentClass(this);
+        }
+    }
 }
@@ -0,0 +1,16 @@
+package org.waitlight.simple.jsonql.statement;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.waitlight.simple.jsonql.statement.model.BatchItem;
+
+import java.util.List;
+
+/**
+ * 在同一个连接、同一个事务中按顺序执行的多条语句，任意一条失败时全部回滚
+ */
+@Getter
+@Setter
+public class BatchStatement {
+    private List<BatchItem> statements;
+}
@@ -2,6 +2,7 @@ package org.waitlight.simple.jsonql.statement;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.waitlight.simple.jsonql.statement.model.FilterCriteria;
 
 import java.util.List;
 
@@ -9,5 +10,14 @@ import java.util.List;
 @Getter
 public class DeleteStatement extends JsonQLStatement {
     private String id; // 单个ID删除
-    private List<String> ids; // 保留原有字段以保持兼容性
-}
\ No newline at end of file
+    private List<String> ids; // 按ID列表批量删除
+    /**
+     * 按条件删除，与查询的 {@code filters} 格式相同，不能与 {@code id}/{@code ids} 同时使用
+     */
+    private FilterCriteria filters;
+    /**
+     * 每批删除的行数：按 ID 列表删除时为每条 IN 列表的长度，按条件删除时为每次 {@code DELETE ... LIMIT} 的行数，
+     * 按条件删除未指定时一次删除所有匹配的行
+     */
+    private Integer batchSize;
+}
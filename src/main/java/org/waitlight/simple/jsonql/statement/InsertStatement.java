@@ -2,9 +2,29 @@ package org.waitlight.simple.jsonql.statement;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.waitlight.simple.jsonql.statement.model.FieldStatement;
 import org.waitlight.simple.jsonql.statement.model.PersistStatement;
 
+import java.util.List;
+
 @Getter
 @Setter
 public class InsertStatement extends PersistStatement {
+    /**
+     * 批量插入的记录，每条记录是同一实体的一组字段，与 {@code fields} 互斥
+     */
+    private List<List<FieldStatement>> records;
+    /**
+     * 批量插入时每条 INSERT 语句最多包含的行数，为空时使用 {@code InsertSqlBuilder.DEFAULT_BATCH_SIZE}
+     */
+    private Integer batchSize;
+
+    @Override
+    public InsertStatement copy() {
+        InsertStatement copy = new InsertStatement();
+        copyTo(copy);
+        copy.setRecords(copyRecords(records));
+        copy.setBatchSize(batchSize);
+        return copy;
+    }
 }
\ No newline at end of file
@@ -11,7 +11,21 @@ import java.util.List;
 @Getter
 @Setter
 public class SelectStatement extends JsonQLStatement {
+    /**
+     * 查询的字段，为空时查询实体的所有字段；多对一关联可以用 {@code user} 或 {@code user.id} 查询外键，
+     * 用 {@code user.name} 或 {@code user.*} 通过 LEFT JOIN 在同一次查询中取回关联实体的字段
+     */
+    private List<String> select;
     private FilterCriteria filters;
     private List<SortCriteria> sort;
     private PageCriteria page;
+    /**
+     * 以列式结构保存查询结果，减少大页查询时每行 Map 的内存开销，序列化结果不变
+     */
+    private boolean compact;
+    /**
+     * 要展开的一对多关联字段，例如 {@code ["blogs"]}；每个关联对整页父记录只执行一次批量查询，
+     * 子记录按外键归入父记录的同名字段。不能与 {@code compact} 同时使用，指定 select 时需包含主键
+     */
+    private List<String> expand;
 }
\ No newline at end of file
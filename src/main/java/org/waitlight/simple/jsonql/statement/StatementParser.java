@@ -1,5 +1,6 @@
 package org.waitlight.simple.jsonql.statement;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
 
@@ -39,4 +40,41 @@ public class StatementParser {
         return statement;
     }
 
-} 
\ No newline at end of file
+    /**
+     * 将JSON节点解析为指定类型的JsonQLStatement对象，用于批量执行中的单条语句
+     *
+     * @param node                JSON节点
+     * @param jsonQLStatementType 目标JsonQLStatement类型
+     * @return 指定类型的JsonQLStatement对象
+     * @throws JsonQLStatementException 解析异常
+     */
+    public <T extends JsonQLStatement> T parse(JsonNode node, Class<T> jsonQLStatementType) throws JsonQLStatementException {
+        if (node == null || node.isNull()) {
+            throw new JsonQLStatementException("JsonQL cannot be empty");
+        }
+        try {
+            return objectMapper.treeToValue(node, jsonQLStatementType);
+        } catch (Exception e) {
+            throw new JsonQLStatementException(
+                    "Failed to parse JsonQL to " + jsonQLStatementType.getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 解析批量执行的语句列表
+     *
+     * @param jsonQL JSON字符串
+     * @return 批量语句
+     * @throws JsonQLStatementException 解析异常
+     */
+    public BatchStatement parseBatch(String jsonQL) throws JsonQLStatementException {
+        if (StringUtils.isBlank(jsonQL)) {
+            throw new JsonQLStatementException("JsonQL cannot be empty");
+        }
+        try {
+            return objectMapper.readValue(jsonQL, BatchStatement.class);
+        } catch (Exception e) {
+            throw new JsonQLStatementException("Failed to parse JsonQL to BatchStatement: " + e.getMessage(), e);
+        }
+    }
+}
@@ -2,9 +2,30 @@ package org.waitlight.simple.jsonql.statement;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.waitlight.simple.jsonql.statement.model.FilterCriteria;
 import org.waitlight.simple.jsonql.statement.model.PersistStatement;
 
+import java.util.List;
+
 @Setter
 @Getter
 public class UpdateStatement extends PersistStatement {
-}
\ No newline at end of file
+    /**
+     * 按条件更新，把 {@code fields} 应用到所有匹配的行，格式与查询的 {@code filters} 相同；
+     * 与 {@code dataId} 同时使用时只在该记录满足条件时更新
+     */
+    private FilterCriteria filters;
+    /**
+     * 批量更新的记录，每条记录包含 {@code dataId} 和要更新的字段，与 {@code fields} 互斥
+     */
+    private List<PersistStatement> records;
+
+    @Override
+    public UpdateStatement copy() {
+        UpdateStatement copy = new UpdateStatement();
+        copyTo(copy);
+        copy.setFilters(filters);
+        copy.setRecords(records == null ? null : records.stream().map(PersistStatement::copy).toList());
+        return copy;
+    }
+}
@@ -0,0 +1,45 @@
+package org.waitlight.simple.jsonql.statement;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.waitlight.simple.jsonql.statement.model.FieldStatement;
+import org.waitlight.simple.jsonql.statement.model.PersistStatement;
+
+import java.util.List;
+
+/**
+ * 插入或更新语句，生成 {@code INSERT ... ON DUPLICATE KEY UPDATE}，一次往返完成“按业务键查找后插入或更新”
+ * <p>
+ * 是否冲突由 MySQL 根据主键和唯一索引判断，{@code conflictFields} 应与表上的某个唯一索引一致
+ */
+@Getter
+@Setter
+public class UpsertStatement extends PersistStatement {
+    /**
+     * 批量插入或更新的记录，每条记录是同一实体的一组字段，与 {@code fields} 互斥
+     */
+    private List<List<FieldStatement>> records;
+    /**
+     * 冲突判断使用的字段（唯一索引的列），每条记录都必须包含，发生冲突时不会被更新
+     */
+    private List<String> conflictFields;
+    /**
+     * 发生冲突时更新的字段，为空时更新记录中除冲突字段和主键外的所有字段
+     */
+    private List<String> updateFields;
+    /**
+     * 每条语句最多包含的行数，为空时使用 {@code InsertSqlBuilder.DEFAULT_BATCH_SIZE}
+     */
+    private Integer batchSize;
+
+    @Override
+    public UpsertStatement copy() {
+        UpsertStatement copy = new UpsertStatement();
+        copyTo(copy);
+        copy.setRecords(copyRecords(records));
+        copy.setConflictFields(conflictFields);
+        copy.setUpdateFields(updateFields);
+        copy.setBatchSize(batchSize);
+        return copy;
+    }
+}
@@ -0,0 +1,23 @@
+package org.waitlight.simple.jsonql.statement.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 批量执行中的一条语句
+ */
+@Getter
+@Setter
+public class BatchItem {
+    private StatementType type;
+    /**
+     * 引用名，后续语句中值为 {@code "${ref}"} 的字段替换为本条插入生成的第一个主键，
+     * {@code "${ref[i]}"} 替换为第 i 条记录的主键
+     */
+    private String ref;
+    /**
+     * 语句内容，格式与单独执行时相同，引用在执行到本条语句时才解析
+     */
+    private JsonNode statement;
+}
@@ -0,0 +1,40 @@
+package org.waitlight.simple.jsonql.statement.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * 分页查询获取总记录数的方式
+ */
+public enum CountMode {
+    /**
+     * 在数据查询中附加 {@code COUNT(*) OVER()} 窗口列，一次往返同时取得数据和总数
+     */
+    WINDOW,
+    /**
+     * 在另一个连接上与数据查询并发执行计数查询
+     */
+    PARALLEL,
+    /**
+     * 数据查询完成后在同一连接上执行计数查询
+     */
+    SEPARATE,
+    /**
+     * 不统计总数
+     */
+    NONE;
+
+    @JsonValue
+    public String getValue() {
+        return name().toLowerCase();
+    }
+
+    @JsonCreator
+    public static CountMode fromValue(String value) {
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown count mode: " + value);
+        }
+    }
+}
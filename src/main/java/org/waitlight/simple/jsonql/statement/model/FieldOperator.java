@@ -0,0 +1,52 @@
+package org.waitlight.simple.jsonql.statement.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * 更新字段的方式，除 {@link #SET} 外都基于列的当前值计算，在数据库中原子完成
+ */
+public enum FieldOperator {
+    /**
+     * {@code col = ?}
+     */
+    SET,
+    /**
+     * {@code col = COALESCE(col, 0) + ?}
+     */
+    INC,
+    /**
+     * {@code col = COALESCE(col, 0) - ?}
+     */
+    DEC,
+    /**
+     * {@code col = LEAST(COALESCE(col, ?), ?)}，取当前值和给定值中较小的一个
+     */
+    MIN,
+    /**
+     * {@code col = GREATEST(COALESCE(col, ?), ?)}，取当前值和给定值中较大的一个
+     */
+    MAX,
+    /**
+     * {@code col = COALESCE(col, ?)}，只在当前值为 NULL 时写入
+     */
+    COALESCE,
+    /**
+     * {@code col = CONCAT(COALESCE(col, ''), ?)}，在当前字符串后追加
+     */
+    APPEND;
+
+    @JsonValue
+    public String getValue() {
+        return name().toLowerCase();
+    }
+
+    @JsonCreator
+    public static FieldOperator fromValue(String value) {
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown field operator: " + value);
+        }
+    }
+}
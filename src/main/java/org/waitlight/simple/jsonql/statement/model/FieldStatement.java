@@ -11,6 +11,22 @@ public class FieldStatement {
     private String field;
     private Object value;
     private List<PersistStatement> values;
+    /**
+     * 更新方式，为空时直接赋值，只用于更新语句
+     */
+    private FieldOperator operator;
+
+    /**
+     * 复制字段，嵌套语句一并复制
+     */
+    public FieldStatement copy() {
+        FieldStatement copy = new FieldStatement();
+        copy.setField(field);
+        copy.setValue(value);
+        copy.setValues(values == null ? null : values.stream().map(PersistStatement::copy).toList());
+        copy.setOperator(operator);
+        return copy;
+    }
 
     public boolean hasNestedStatement() {
         return isValid() && CollectionUtils.isNotEmpty(values);
@@ -8,4 +8,16 @@ import lombok.Setter;
 public class PageCriteria {
     private Integer size;
     private Integer number;
-}
\ No newline at end of file
+    /**
+     * 总记录数统计方式，默认 {@link CountMode#WINDOW}
+     */
+    private CountMode count = CountMode.WINDOW;
+    /**
+     * 分页方式，默认 {@link PageMode#OFFSET}
+     */
+    private PageMode mode = PageMode.OFFSET;
+    /**
+     * {@link PageMode#KEYSET} 分页的续页游标，取自上一页结果的 nextCursor，第一页为空
+     */
+    private String cursor;
+}
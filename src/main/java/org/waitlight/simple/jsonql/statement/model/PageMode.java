@@ -0,0 +1,32 @@
+package org.waitlight.simple.jsonql.statement.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * 分页方式
+ */
+public enum PageMode {
+    /**
+     * 按页码计算 {@code LIMIT offset, size}
+     */
+    OFFSET,
+    /**
+     * 按上一页最后一行的排序键定位（keyset / seek），翻页代价与页码无关
+     */
+    KEYSET;
+
+    @JsonValue
+    public String getValue() {
+        return name().toLowerCase();
+    }
+
+    @JsonCreator
+    public static PageMode fromValue(String value) {
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown page mode: " + value);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.waitlight.simple.jsonql.statement.JsonQLStatement;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -14,4 +15,41 @@ import java.util.List;
 public class PersistStatement extends JsonQLStatement {
     private String dataId;
     private List<FieldStatement> fields;
+
+    /**
+     * 复制语句，字段列表和嵌套语句一并复制，字段值本身不复制
+     * <p>
+     * 执行器需要补充字段（例如客户端分配的主键）时在副本上修改，重复执行同一个语句对象不会沿用上次补充的值
+     */
+    public PersistStatement copy() {
+        PersistStatement copy = new PersistStatement();
+        copyTo(copy);
+        return copy;
+    }
+
+    protected void copyTo(PersistStatement copy) {
+        copy.setAppId(getAppId());
+        copy.setFormId(getFormId());
+        copy.setEntityId(getEntityId());
+        copy.setDataId(dataId);
+        copy.setFields(copyFields(fields));
+    }
+
+    protected static List<List<FieldStatement>> copyRecords(List<List<FieldStatement>> records) {
+        if (records == null) {
+            return null;
+        }
+        List<List<FieldStatement>> copy = new ArrayList<>(records.size());
+        records.forEach(record -> copy.add(copyFields(record)));
+        return copy;
+    }
+
+    private static List<FieldStatement> copyFields(List<FieldStatement> fields) {
+        if (fields == null) {
+            return null;
+        }
+        List<FieldStatement> copy = new ArrayList<>(fields.size());
+        fields.forEach(field -> copy.add(field.copy()));
+        return copy;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package org.waitlight.simple.jsonql.statement.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import org.waitlight.simple.jsonql.statement.DeleteStatement;
+import org.waitlight.simple.jsonql.statement.InsertStatement;
+import org.waitlight.simple.jsonql.statement.JsonQLStatement;
+import org.waitlight.simple.jsonql.statement.SelectStatement;
+import org.waitlight.simple.jsonql.statement.UpdateStatement;
+import org.waitlight.simple.jsonql.statement.UpsertStatement;
+
+/**
+ * 语句类型，用于批量执行时区分每条语句
+ */
+public enum StatementType {
+    SELECT(SelectStatement.class),
+    INSERT(InsertStatement.class),
+    UPDATE(UpdateStatement.class),
+    DELETE(DeleteStatement.class),
+    UPSERT(UpsertStatement.class);
+
+    private final Class<? extends JsonQLStatement> statementClass;
+
+    StatementType(Class<? extends JsonQLStatement> statementClass) {
+        this.statementClass = statementClass;
+    }
+
+    public Class<? extends JsonQLStatement> getStatementClass() {
+        return statementClass;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return name().toLowerCase();
+    }
+
+    @JsonCreator
+    public static StatementType fromValue(String value) {
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown statement type: " + value);
+        }
+    }
+}
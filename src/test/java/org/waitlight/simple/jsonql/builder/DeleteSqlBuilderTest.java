@@ -0,0 +1,86 @@
+package org.waitlight.simple.jsonql.builder;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.entity.Blog;
+import org.waitlight.simple.jsonql.entity.User;
+import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
+import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.statement.DeleteStatement;
+import org.waitlight.simple.jsonql.statement.StatementParser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DeleteSqlBuilderTest {
+
+    private static DeleteSqlBuilder deleteSqlBuilder;
+    private final StatementParser parser = new StatementParser();
+
+    @BeforeAll
+    public static void setUp() {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        deleteSqlBuilder = new DeleteSqlBuilder(MetadataBuilderFactory.createLocalBuilder(metadataSource).build());
+    }
+
+    @Test
+    public void buildBatch_ids_chunkedIntoInLists() throws Exception {
+        DeleteStatement statement = parser.parse("""
+                {"entityId": "user", "ids": ["1", "2", "3", "2", "4", "5"], "batchSize": 2}
+                """, DeleteStatement.class);
+
+        List<PreparedSql<DeleteStatement>> result = deleteSqlBuilder.buildBatch(statement);
+
+        assertEquals(3, result.size());
+        assertEquals("delete from `user` where `id` in (?, ?)", result.get(0).getSql());
+        assertEquals(List.of("1", "2"), result.get(0).getParameters());
+        assertEquals(List.of("3", "4"), result.get(1).getParameters());
+        assertEquals("delete from `user` where `id` in (?)", result.get(2).getSql());
+    }
+
+    @Test
+    public void buildByFilter_conditions_mapToColumnsWithLimit() throws Exception {
+        DeleteStatement statement = parser.parse("""
+                {
+                    "entityId": "blog",
+                    "filters": {
+                        "rel": "and",
+                        "conditions": [
+                            {"field": "user", "method": "eq", "value": 7},
+                            {"field": "title", "method": "like", "value": "draft"},
+                            {"field": "content", "method": "eq"}
+                        ]
+                    }
+                }
+                """, DeleteStatement.class);
+
+        PreparedSql<DeleteStatement> result = deleteSqlBuilder.buildByFilter(statement, 100);
+
+        assertEquals("delete from `blog` where (`user_id` = ? and `title` like ? and `content` is null) limit ?",
+                result.getSql());
+        assertEquals(List.of(7, "%draft%", 100), result.getParameters());
+        assertEquals("select count(*) from `blog` where (`user_id` = ? and `title` like ? and `content` is null)",
+                deleteSqlBuilder.buildCount(statement).getSql());
+    }
+
+    @Test
+    public void buildByFilter_emptyOrUnsupportedConditions_throwsException() throws Exception {
+        DeleteStatement empty = parser.parse("""
+                {"entityId": "user", "filters": {"conditions": []}}
+                """, DeleteStatement.class);
+        DeleteStatement unsupported = parser.parse("""
+                {"entityId": "user", "filters": {"conditions": [ {"field": "name", "method": "exists"} ]}}
+                """, DeleteStatement.class);
+        DeleteStatement combined = parser.parse("""
+                {"entityId": "user", "ids": ["1"], "filters": {"conditions": [ {"field": "name", "method": "eq"} ]}}
+                """, DeleteStatement.class);
+
+        assertThrows(SqlBuildException.class, () -> deleteSqlBuilder.buildByFilter(empty, null));
+        assertThrows(SqlBuildException.class, () -> deleteSqlBuilder.buildByFilter(unsupported, null));
+        assertThrows(SqlBuildException.class, () -> deleteSqlBuilder.buildByFilter(combined, null));
+    }
+}
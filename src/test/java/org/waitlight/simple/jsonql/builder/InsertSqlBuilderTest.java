@@ -0,0 +1,103 @@
+package org.waitlight.simple.jsonql.builder;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.entity.Blog;
+import org.waitlight.simple.jsonql.entity.User;
+import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
+import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.statement.InsertStatement;
+import org.waitlight.simple.jsonql.statement.model.FieldOperator;
+import org.waitlight.simple.jsonql.statement.model.FieldStatement;
+import org.waitlight.simple.jsonql.statement.model.PersistStatement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InsertSqlBuilderTest {
+
+    private static InsertSqlBuilder insertSqlBuilder;
+
+    @BeforeAll
+    public static void setUp() {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        insertSqlBuilder = new InsertSqlBuilder(MetadataBuilderFactory.createLocalBuilder(metadataSource).build());
+    }
+
+    @Test
+    public void buildBatch_records_chunkedIntoMultiRowInserts() throws Exception {
+        List<List<FieldStatement>> records = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            records.add(List.of(field("name", "user" + i)));
+        }
+        InsertStatement statement = batch("user", records);
+        statement.setBatchSize(2);
+
+        List<PreparedSql<InsertStatement>> result = insertSqlBuilder.buildBatch(statement);
+
+        assertEquals(3, result.size());
+        assertTrue(result.get(0).getSql().contains("values (?), (?)"));
+        assertEquals(List.of("user0", "user1"), result.get(0).getParameters());
+        assertEquals(List.of("user4"), result.get(2).getParameters());
+    }
+
+    @Test
+    public void buildBatch_differentColumns_startNewStatementInOrder() throws Exception {
+        InsertStatement statement = batch("blog", List.of(
+                List.of(field("title", "a")),
+                List.of(field("title", "b"), field("content", null)),
+                List.of(field("title", "c"), field("content", "d"))));
+
+        List<PreparedSql<InsertStatement>> result = insertSqlBuilder.buildBatch(statement);
+
+        assertEquals(2, result.size());
+        assertEquals(List.of("a"), result.get(0).getParameters());
+        assertTrue(result.get(1).getSql().contains("(`title`, `content`) values (?, ?), (?, ?)"));
+        assertEquals(4, result.get(1).getParameters().size());
+    }
+
+    @Test
+    public void buildBatch_nestedOrUnknownField_throwsException() {
+        FieldStatement nested = new FieldStatement();
+        nested.setField("blogs");
+        nested.setValues(List.of(new PersistStatement()));
+
+        assertThrows(SqlBuildException.class,
+                () -> insertSqlBuilder.buildBatch(batch("user", List.of(List.of(nested)))));
+        assertThrows(SqlBuildException.class,
+                () -> insertSqlBuilder.buildBatch(batch("user", List.of(List.of(field("age", 1))))));
+    }
+
+    @Test
+    public void build_fieldOperator_throwsException() {
+        FieldStatement inc = field("name", "tom");
+        inc.setOperator(FieldOperator.INC);
+        InsertStatement single = new InsertStatement();
+        single.setEntityId("user");
+        single.setFields(new ArrayList<>(List.of(inc)));
+
+        assertThrows(SqlBuildException.class, () -> insertSqlBuilder.build(single));
+        assertThrows(SqlBuildException.class,
+                () -> insertSqlBuilder.buildBatch(batch("user", List.of(List.of(inc)))));
+    }
+
+    private static InsertStatement batch(String entityId, List<List<FieldStatement>> records) {
+        InsertStatement statement = new InsertStatement();
+        statement.setEntityId(entityId);
+        statement.setRecords(records);
+        return statement;
+    }
+
+    private static FieldStatement field(String name, Object value) {
+        FieldStatement field = new FieldStatement();
+        field.setField(name);
+        field.setValue(value);
+        return field;
+    }
+}
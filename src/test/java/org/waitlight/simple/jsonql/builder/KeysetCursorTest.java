@@ -0,0 +1,32 @@
+package org.waitlight.simple.jsonql.builder;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void decode_encodedCursor_returnsKeys() throws Exception {
+        String cursor = KeysetCursor.encode(List.of(3, "tom"), "user|id");
+
+        assertEquals(List.of(3, "tom"), KeysetCursor.decode(cursor, "user|id", 2));
+        assertThrows(SqlBuildException.class, () -> KeysetCursor.decode(cursor, "user|name", 2));
+    }
+
+    @Test
+    public void decode_craftedCursor_throwsSqlBuildException() {
+        for (String json : List.of("null", "{\"f\": 1, \"k\": [1]}", "{\"k\": [1]}", "[1]")) {
+            String cursor = Base64.getUrlEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+
+            SqlBuildException e = assertThrows(SqlBuildException.class,
+                    () -> KeysetCursor.decode(cursor, "user|id", 1), json);
+            assertEquals("Invalid page cursor", e.getMessage(), json);
+        }
+    }
+}
@@ -2,18 +2,26 @@ package org.waitlight.simple.jsonql.builder;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.entity.Blog;
 import org.waitlight.simple.jsonql.entity.User;
 import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
 import org.waitlight.simple.jsonql.metadata.MetadataSource;
 import org.waitlight.simple.jsonql.statement.SelectStatement;
+import org.waitlight.simple.jsonql.statement.model.CountMode;
+import org.waitlight.simple.jsonql.statement.model.DirectionType;
 import org.waitlight.simple.jsonql.statement.model.FilterCondition;
 import org.waitlight.simple.jsonql.statement.model.FilterCriteria;
 import org.waitlight.simple.jsonql.statement.model.MethodType;
 import org.waitlight.simple.jsonql.statement.model.PageCriteria;
+import org.waitlight.simple.jsonql.statement.model.PageMode;
+import org.waitlight.simple.jsonql.statement.model.SortCriteria;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SelectSqlBuilderTest {
@@ -81,4 +89,314 @@ public class SelectSqlBuilderTest {
         assertTrue(result.getSql().contains("SELECT"));
         assertTrue(result.getSql().contains("LIMIT"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void build_sameShapeDifferentValues_reusesCachedPlan() throws Exception {
+        SelectSqlBuilder builder = new SelectSqlBuilder(
+                MetadataBuilderFactory.createLocalBuilder(userMetadataSource()).build());
+
+        PreparedSql<SelectStatement> first = builder.build(pagedSelectById(1L, 1));
+        PreparedSql<SelectStatement> second = builder.build(pagedSelectById(2L, 3));
+
+        assertEquals(first.getSql(), second.getSql());
+        assertTrue(first.getSql().contains("?"));
+        assertEquals(List.of(1L, 10, 0), first.getParameters());
+        assertEquals(List.of(2L, 10, 20), second.getParameters());
+
+        PlanCacheStats stats = builder.getPlanCacheStats();
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.hitCount());
+    }
+
+    @Test
+    public void build_inListLengthsInSameBucket_shareOnePlan() throws Exception {
+        SelectSqlBuilder builder = new SelectSqlBuilder(
+                MetadataBuilderFactory.createLocalBuilder(userMetadataSource()).build());
+
+        PreparedSql<SelectStatement> three = builder.build(selectByIds(List.of(1L, 2L, 3L)));
+        PreparedSql<SelectStatement> four = builder.build(selectByIds(List.of(1L, 2L, 3L, 4L)));
+
+        assertEquals(three.getSql(), four.getSql());
+        assertEquals(List.of(1L, 2L, 3L, 3L), three.getParameters());
+        assertEquals(1, builder.getPlanCacheStats().size());
+    }
+
+    @Test
+    public void build_comparisonAndSort_rendersPlaceholdersWithoutNullEmulation() throws Exception {
+        FilterCondition gt = new FilterCondition();
+        gt.setField("id");
+        gt.setMethod(MethodType.GT);
+        gt.setValue(5L);
+
+        FilterCondition between = new FilterCondition();
+        between.setField("id");
+        between.setMethod(MethodType.BETWEEN);
+        between.setValues(List.of(1L, 100L));
+
+        FilterCriteria filters = new FilterCriteria();
+        filters.setRel("AND");
+        filters.setConditions(List.of(gt, between));
+
+        SortCriteria sort = new SortCriteria();
+        sort.setField("id");
+        sort.setDirection(DirectionType.DESC);
+
+        SelectStatement statement = new SelectStatement();
+        statement.setEntityId("user");
+        statement.setFilters(filters);
+        statement.setSort(List.of(sort));
+
+        PreparedSql<SelectStatement> result = selectSqlBuilder.build(statement);
+
+        assertTrue(result.getSql().contains("`id` > ?"));
+        assertTrue(result.getSql().contains("ORDER BY `id` DESC"));
+        assertFalse(result.getSql().contains("IS NULL"));
+        assertEquals(List.of(5L, 1L, 100L), result.getParameters());
+    }
+
+    @Test
+    public void build_windowCountPage_addsTotalColumn() throws Exception {
+        PreparedSql<SelectStatement> result = selectSqlBuilder.build(pagedSelectById(1L, 2));
+
+        assertTrue(result.getSql().contains("COUNT(*) OVER"));
+        assertTrue(result.getSql().contains(SelectSqlBuilder.TOTAL_COLUMN));
+        assertEquals(List.of(1L, 10, 10), result.getParameters());
+    }
+
+    @Test
+    public void buildCount_pagedSelect_keepsOnlyFilterParameters() throws Exception {
+        SelectStatement statement = pagedSelectById(1L, 2);
+        statement.getPage().setCount(CountMode.SEPARATE);
+
+        PreparedSql<SelectStatement> rows = selectSqlBuilder.build(statement);
+        PreparedSql<SelectStatement> count = selectSqlBuilder.buildCount(statement);
+
+        assertFalse(rows.getSql().contains("OVER"));
+        assertTrue(count.getSql().contains("COUNT(*)"));
+        assertFalse(count.getSql().contains("LIMIT"));
+        assertEquals(List.of(1L), count.getParameters());
+    }
+
+    @Test
+    public void build_keysetFirstPage_ordersByTieBreakerWithoutOffset() throws Exception {
+        SelectStatement statement = keysetSelectByName(null);
+
+        PreparedSql<SelectStatement> result = selectSqlBuilder.build(statement);
+
+        assertTrue(result.getSql().contains("ORDER BY `name` DESC, `id`"));
+        assertFalse(result.getSql().contains("OFFSET"));
+        assertEquals(List.of(11), result.getParameters());
+    }
+
+    @Test
+    public void build_keysetWithCursor_seeksAfterLastRow() throws Exception {
+        String cursor = selectSqlBuilder.encodeCursor(keysetSelectByName(null), List.of("tom", 5L));
+
+        PreparedSql<SelectStatement> result = selectSqlBuilder.build(keysetSelectByName(cursor));
+
+        assertTrue(result.getSql().contains("`name` < ?"));
+        assertTrue(result.getSql().contains("`id` > ?"));
+        assertEquals(List.of("tom", "tom", 5, 11), result.getParameters());
+        assertEquals(List.of("name", "id"), selectSqlBuilder.getKeysetColumns(keysetSelectByName(cursor)));
+    }
+
+    @Test
+    public void build_keysetWithForeignCursor_throwsException() throws Exception {
+        SelectStatement other = keysetSelectByName(null);
+        other.setSort(null);
+        String cursor = selectSqlBuilder.encodeCursor(other, List.of(5L));
+
+        assertThrows(SqlBuildException.class, () -> selectSqlBuilder.build(keysetSelectByName(cursor)));
+        assertThrows(SqlBuildException.class, () -> selectSqlBuilder.build(keysetSelectByName("not-a-cursor")));
+    }
+
+    @Test
+    public void build_selectFields_projectsOnlyRequestedColumns() throws Exception {
+        SelectStatement statement = keysetSelectByName(null);
+        statement.setSelect(List.of("name"));
+
+        PreparedSql<SelectStatement> result = selectSqlBuilder.build(statement);
+
+        assertTrue(result.getSql().startsWith("SELECT `name`, `id` AS `__s0`\n"));
+        assertTrue(result.getSql().contains("ORDER BY `name` DESC, `id`"));
+        assertEquals(List.of("name", "__s0"), selectSqlBuilder.getKeysetColumns(statement));
+    }
+
+    @Test
+    public void build_selectManyToOnePath_readsForeignKeyColumn() throws Exception {
+        MetadataSource metadataSource = userMetadataSource();
+        metadataSource.registry(Blog.class);
+        SelectSqlBuilder builder = new SelectSqlBuilder(
+                MetadataBuilderFactory.createLocalBuilder(metadataSource).build());
+
+        SelectStatement statement = new SelectStatement();
+        statement.setEntityId("blog");
+        statement.setSelect(List.of("title", "user.id", "user"));
+
+        PreparedSql<SelectStatement> result = builder.build(statement);
+
+        assertTrue(result.getSql().startsWith("SELECT `title`, `user_id`\n"));
+        assertFalse(result.getSql().contains("JOIN"));
+    }
+
+    @Test
+    public void build_selectManyToOneField_leftJoinsRelatedEntity() throws Exception {
+        MetadataSource metadataSource = userMetadataSource();
+        metadataSource.registry(Blog.class);
+        SelectSqlBuilder builder = new SelectSqlBuilder(
+                MetadataBuilderFactory.createLocalBuilder(metadataSource).build());
+
+        SelectStatement statement = new SelectStatement();
+        statement.setEntityId("blog");
+        statement.setSelect(List.of("id", "title", "user.name"));
+        FilterCondition condition = new FilterCondition();
+        condition.setField("title");
+        condition.setMethod(MethodType.EQ);
+        condition.setValue("t1");
+        FilterCriteria filters = new FilterCriteria();
+        filters.setConditions(List.of(condition));
+        statement.setFilters(filters);
+        PageCriteria page = new PageCriteria();
+        page.setNumber(1);
+        page.setSize(10);
+        statement.setPage(page);
+
+        PreparedSql<SelectStatement> result = builder.build(statement);
+
+        assertTrue(result.getSql().startsWith(
+                "SELECT `blog`.`id`, `blog`.`title`, `blog`.`user_id`, `user`.`name` AS `user.name`"));
+        assertTrue(result.getSql().contains("FROM `blog` LEFT JOIN `user` ON `blog`.`user_id` = `user`.`id`\n"
+                + "WHERE `blog`.`title` = ?"));
+        assertEquals(List.of("t1", 10, 0), result.getParameters());
+        assertFalse(builder.buildCount(statement).getSql().contains("JOIN"));
+
+        statement.setSelect(List.of("user.age"));
+        assertThrows(SqlBuildException.class, () -> builder.build(statement));
+        statement.setSelect(List.of("title.name"));
+        assertThrows(SqlBuildException.class, () -> builder.build(statement));
+    }
+
+    @Test
+    public void build_selectUnknownOrCollectionField_throwsException() {
+        SelectStatement unknown = new SelectStatement();
+        unknown.setEntityId("user");
+        unknown.setSelect(List.of("age"));
+
+        SelectStatement collection = new SelectStatement();
+        collection.setEntityId("user");
+        collection.setSelect(List.of("blogs"));
+
+        assertThrows(SqlBuildException.class, () -> selectSqlBuilder.build(unknown));
+        assertThrows(SqlBuildException.class, () -> selectSqlBuilder.build(collection));
+    }
+
+    @Test
+    public void build_emptyInList_matchesNoRows() throws Exception {
+        SelectStatement statement = selectByIds(List.of());
+
+        PreparedSql<SelectStatement> result = selectSqlBuilder.build(statement);
+
+        assertTrue(result.getSql().contains("WHERE 1 = 0"));
+        assertEquals(List.of(), result.getParameters());
+        assertTrue(selectSqlBuilder.buildCount(statement).getSql().contains("WHERE 1 = 0"));
+
+        FilterCondition name = new FilterCondition();
+        name.setField("name");
+        name.setMethod(MethodType.EQ);
+        name.setValue("tom");
+        statement.getFilters().setRel("or");
+        statement.getFilters().setConditions(List.of(statement.getFilters().getConditions().get(0), name));
+        PreparedSql<SelectStatement> either = selectSqlBuilder.build(statement);
+
+        assertTrue(either.getSql().contains("FROM `user`\nWHERE `name` = ?"));
+        assertEquals(List.of("tom"), either.getParameters());
+    }
+
+    @Test
+    public void build_likeWithoutValue_throwsException() {
+        FilterCondition condition = new FilterCondition();
+        condition.setField("name");
+        condition.setMethod(MethodType.LIKE);
+        SelectStatement statement = selectByIds(List.of(1L));
+        statement.getFilters().setConditions(List.of(condition));
+
+        assertThrows(SqlBuildException.class, () -> selectSqlBuilder.build(statement));
+    }
+
+    @Test
+    public void build_unsupportedFilterMethod_throwsException() {
+        FilterCondition exists = new FilterCondition();
+        exists.setField("name");
+        exists.setMethod(MethodType.EXISTS);
+        FilterCondition isValue = new FilterCondition();
+        isValue.setField("name");
+        isValue.setMethod(MethodType.IS);
+        isValue.setValue("tom");
+
+        SelectStatement statement = selectByIds(List.of(1L));
+        statement.getFilters().setConditions(List.of(exists));
+        assertThrows(SqlBuildException.class, () -> selectSqlBuilder.build(statement));
+        statement.getFilters().setConditions(List.of(isValue));
+        assertThrows(SqlBuildException.class, () -> selectSqlBuilder.build(statement));
+    }
+
+    private static SelectStatement keysetSelectByName(String cursor) {
+        SortCriteria sort = new SortCriteria();
+        sort.setField("name");
+        sort.setDirection(DirectionType.DESC);
+
+        PageCriteria page = new PageCriteria();
+        page.setSize(10);
+        page.setMode(PageMode.KEYSET);
+        page.setCount(CountMode.NONE);
+        page.setCursor(cursor);
+
+        SelectStatement statement = new SelectStatement();
+        statement.setEntityId("user");
+        statement.setSort(List.of(sort));
+        statement.setPage(page);
+        return statement;
+    }
+
+    private static MetadataSource userMetadataSource() {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        return metadataSource;
+    }
+
+    private static SelectStatement pagedSelectById(Long id, int pageNumber) {
+        FilterCondition condition = new FilterCondition();
+        condition.setField("id");
+        condition.setMethod(MethodType.EQ);
+        condition.setValue(id);
+
+        FilterCriteria filters = new FilterCriteria();
+        filters.setRel("AND");
+        filters.setConditions(List.of(condition));
+
+        PageCriteria page = new PageCriteria();
+        page.setSize(10);
+        page.setNumber(pageNumber);
+
+        SelectStatement statement = new SelectStatement();
+        statement.setEntityId("user");
+        statement.setFilters(filters);
+        statement.setPage(page);
+        return statement;
+    }
+
+    private static SelectStatement selectByIds(List<Object> ids) {
+        FilterCondition condition = new FilterCondition();
+        condition.setField("id");
+        condition.setMethod(MethodType.IN);
+        condition.setValues(ids);
+
+        FilterCriteria filters = new FilterCriteria();
+        filters.setConditions(List.of(condition));
+
+        SelectStatement statement = new SelectStatement();
+        statement.setEntityId("user");
+        statement.setFilters(filters);
+        return statement;
+    }
+}
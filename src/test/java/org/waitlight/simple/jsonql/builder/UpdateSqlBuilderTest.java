@@ -0,0 +1,138 @@
+package org.waitlight.simple.jsonql.builder;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.entity.Blog;
+import org.waitlight.simple.jsonql.entity.User;
+import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
+import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.statement.StatementParser;
+import org.waitlight.simple.jsonql.statement.UpdateStatement;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UpdateSqlBuilderTest {
+
+    private static UpdateSqlBuilder updateSqlBuilder;
+    private final StatementParser parser = new StatementParser();
+
+    @BeforeAll
+    public static void setUp() {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        updateSqlBuilder = new UpdateSqlBuilder(MetadataBuilderFactory.createLocalBuilder(metadataSource).build());
+    }
+
+    @Test
+    public void buildByFilter_setAppliedToMatchingRows() throws Exception {
+        UpdateStatement statement = parser.parse("""
+                {
+                    "entityId": "blog",
+                    "fields": [
+                        {"field": "title", "value": "archived"},
+                        {"field": "content"}
+                    ],
+                    "filters": {
+                        "rel": "or",
+                        "conditions": [
+                            {"field": "user", "method": "in", "values": [1, 2]},
+                            {"field": "title", "method": "eq"}
+                        ]
+                    }
+                }
+                """, UpdateStatement.class);
+
+        PreparedSql<UpdateStatement> result = updateSqlBuilder.buildByFilter(statement);
+
+        assertEquals("update `blog` set `title` = ?, `content` = ? where (`user_id` in (?, ?) or `title` is null)",
+                result.getSql());
+        assertEquals(Arrays.asList("archived", null, 1, 2), result.getParameters());
+    }
+
+    @Test
+    public void buildBatch_recordsWithSameFields_shareSqlText() throws Exception {
+        UpdateStatement statement = parser.parse("""
+                {
+                    "entityId": "user",
+                    "records": [
+                        {"dataId": "1", "fields": [ {"field": "name", "value": "a"} ]},
+                        {"dataId": "2", "fields": [ {"field": "name", "value": "b"} ]}
+                    ]
+                }
+                """, UpdateStatement.class);
+
+        List<PreparedSql<UpdateStatement>> result = updateSqlBuilder.buildBatch(statement);
+
+        assertEquals(2, result.size());
+        assertEquals("update `user` set `name` = ? where `id` = ?", result.get(0).getSql());
+        assertEquals(result.get(0).getSql(), result.get(1).getSql());
+        assertEquals(List.of("b", "2"), result.get(1).getParameters());
+    }
+
+    @Test
+    public void buildBatch_recordWithoutDataId_throwsException() throws Exception {
+        UpdateStatement statement = parser.parse("""
+                {"entityId": "user", "records": [ {"fields": [ {"field": "name", "value": "a"} ]} ]}
+                """, UpdateStatement.class);
+
+        assertThrows(SqlBuildException.class, () -> updateSqlBuilder.buildBatch(statement));
+    }
+
+    @Test
+    public void build_fieldOperators_renderedAsExpressionsOfCurrentValue() throws Exception {
+        UpdateStatement statement = parser.parse("""
+                {
+                    "entityId": "blog",
+                    "dataId": "9",
+                    "fields": [
+                        {"field": "title", "operator": "append", "value": "!"},
+                        {"field": "content", "operator": "coalesce", "value": "empty"}
+                    ]
+                }
+                """, UpdateStatement.class);
+
+        PreparedSql<UpdateStatement> result = updateSqlBuilder.build(statement);
+
+        assertEquals("update `blog` set `title` = concat(cast(coalesce(`title`, '') as char), cast(? as char)), "
+                + "`content` = coalesce(`content`, ?) where `id` = ?", result.getSql());
+        assertEquals(List.of("!", "empty", "9"), result.getParameters());
+    }
+
+    @Test
+    public void buildByFilter_withDataId_conditionalIncrement() throws Exception {
+        UpdateStatement statement = parser.parse("""
+                {
+                    "entityId": "blog",
+                    "dataId": "9",
+                    "fields": [
+                        {"field": "user", "operator": "dec", "value": 1},
+                        {"field": "title", "operator": "max", "value": "m"}
+                    ],
+                    "filters": {"conditions": [ {"field": "user", "method": "ge", "value": 1} ]}
+                }
+                """, UpdateStatement.class);
+
+        PreparedSql<UpdateStatement> result = updateSqlBuilder.buildByFilter(statement);
+
+        assertEquals("update `blog` set `user_id` = (coalesce(`user_id`, 0) - ?), "
+                + "`title` = greatest(coalesce(`title`, ?), ?) where (`id` = ? and `user_id` >= ?)", result.getSql());
+        assertEquals(List.of(1, "m", "m", "9", 1), result.getParameters());
+    }
+
+    @Test
+    public void buildBatch_operatorWithoutValue_throwsException() throws Exception {
+        UpdateStatement statement = parser.parse("""
+                {
+                    "entityId": "blog",
+                    "records": [ {"dataId": "9", "fields": [ {"field": "title", "operator": "inc"} ]} ]
+                }
+                """, UpdateStatement.class);
+
+        assertThrows(SqlBuildException.class, () -> updateSqlBuilder.buildBatch(statement));
+    }
+}
@@ -0,0 +1,97 @@
+package org.waitlight.simple.jsonql.builder;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.entity.Blog;
+import org.waitlight.simple.jsonql.entity.User;
+import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
+import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.statement.StatementParser;
+import org.waitlight.simple.jsonql.statement.UpsertStatement;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UpsertSqlBuilderTest {
+
+    private static UpsertSqlBuilder upsertSqlBuilder;
+    private final StatementParser parser = new StatementParser();
+
+    @BeforeAll
+    public static void setUp() {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        upsertSqlBuilder = new UpsertSqlBuilder(MetadataBuilderFactory.createLocalBuilder(metadataSource).build());
+    }
+
+    @Test
+    public void build_defaultUpdateList_excludesConflictAndIdColumns() throws Exception {
+        UpsertStatement statement = parser.parse("""
+                {
+                    "entityId": "blog",
+                    "conflictFields": ["title"],
+                    "fields": [
+                        {"field": "id", "value": 5},
+                        {"field": "title", "value": "a"},
+                        {"field": "content", "value": "b"}
+                    ]
+                }
+                """, UpsertStatement.class);
+
+        PreparedSql<UpsertStatement> result = upsertSqlBuilder.build(statement);
+
+        assertEquals("insert into `blog` (`id`, `title`, `content`) values (?, ?, ?) as `t` "
+                + "on duplicate key update `content` = `t`.`content`", result.getSql());
+        assertEquals(List.of(5, "a", "b"), result.getParameters());
+    }
+
+    @Test
+    public void buildBatch_records_chunkedWithExplicitUpdateList() throws Exception {
+        UpsertStatement statement = parser.parse("""
+                {
+                    "entityId": "blog",
+                    "conflictFields": ["title"],
+                    "updateFields": ["user"],
+                    "batchSize": 2,
+                    "records": [
+                        [ {"field": "title", "value": "a"}, {"field": "user", "value": 1} ],
+                        [ {"field": "title", "value": "b"}, {"field": "user", "value": 1} ],
+                        [ {"field": "title", "value": "c"}, {"field": "user", "value": 2} ]
+                    ]
+                }
+                """, UpsertStatement.class);
+
+        List<PreparedSql<UpsertStatement>> result = upsertSqlBuilder.buildBatch(statement);
+
+        assertEquals(2, result.size());
+        assertEquals("insert into `blog` (`title`, `user_id`) values (?, ?), (?, ?) as `t` "
+                + "on duplicate key update `user_id` = `t`.`user_id`", result.get(0).getSql());
+        assertEquals(List.of("c", 2), result.get(1).getParameters());
+    }
+
+    @Test
+    public void buildBatch_missingConflictField_throwsException() throws Exception {
+        UpsertStatement noConflict = parser.parse("""
+                {"entityId": "blog", "fields": [ {"field": "title", "value": "a"} ]}
+                """, UpsertStatement.class);
+        UpsertStatement recordWithoutKey = parser.parse("""
+                {"entityId": "blog", "conflictFields": ["title"], "fields": [ {"field": "content", "value": "a"} ]}
+                """, UpsertStatement.class);
+
+        assertThrows(SqlBuildException.class, () -> upsertSqlBuilder.buildBatch(noConflict));
+        assertThrows(SqlBuildException.class, () -> upsertSqlBuilder.buildBatch(recordWithoutKey));
+    }
+
+    @Test
+    public void buildBatch_fieldOperator_throwsException() throws Exception {
+        UpsertStatement statement = parser.parse("""
+                {"entityId": "blog", "conflictFields": ["title"],
+                 "fields": [ {"field": "title", "value": "a"}, {"field": "content", "value": "b", "operator": "append"} ]}
+                """, UpsertStatement.class);
+
+        assertThrows(SqlBuildException.class, () -> upsertSqlBuilder.buildBatch(statement));
+    }
+}
@@ -0,0 +1,84 @@
+package org.waitlight.simple.jsonql.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.config.JsonQLProperties;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataSourceRegistryTest {
+
+    @Test
+    public void register_warmUpWithDatabaseDown_registersWithoutFailing() {
+        JsonQLProperties.DataSourceProperties properties = new JsonQLProperties.DataSourceProperties();
+        properties.setUrl("jdbc:h2:tcp://127.0.0.1:1/unreachable");
+        properties.setMinimumIdle(1);
+        properties.setConnectionTimeout(250);
+
+        try (DataSourceRegistry registry = new DataSourceRegistry()) {
+            DataSource dataSource = registry.register("down", properties);
+
+            assertEquals(Set.of("down"), registry.getNames());
+            assertFalse(((HikariDataSource) dataSource).isClosed());
+        }
+    }
+
+    @Test
+    public void register_duplicateName_throwsAndKeepsFirstPool() throws Exception {
+        JsonQLProperties.DataSourceProperties properties = new JsonQLProperties.DataSourceProperties();
+        properties.setUrl("jdbc:h2:mem:jsonql_registry;DB_CLOSE_DELAY=-1");
+        properties.setWarmUp(false);
+
+        try (DataSourceRegistry registry = new DataSourceRegistry()) {
+            DataSource first = registry.register("main", properties);
+
+            assertThrows(IllegalArgumentException.class, () -> registry.register("main", properties));
+            assertSame(first, registry.getDataSource("main"));
+            try (Connection conn = first.getConnection()) {
+                assertTrue(conn.isValid(1));
+            }
+        }
+    }
+
+    @Test
+    public void getIdDataSource_configuredPool_separateFromStatementPool() {
+        JsonQLProperties.DataSourceProperties properties = new JsonQLProperties.DataSourceProperties();
+        properties.setUrl("jdbc:h2:mem:jsonql_registry_id;DB_CLOSE_DELAY=-1");
+        properties.setWarmUp(false);
+
+        try (DataSourceRegistry registry = new DataSourceRegistry()) {
+            DataSource main = registry.register("main", properties);
+            registry.register("external", new HikariDataSource());
+
+            HikariDataSource idDataSource = (HikariDataSource) registry.getIdDataSource("main");
+            assertNotSame(main, idDataSource);
+            assertEquals(2, idDataSource.getMaximumPoolSize());
+            assertSame(registry.getDataSource("external"), registry.getIdDataSource("external"));
+        }
+    }
+
+    @Test
+    public void close_externalDataSource_leftOpen() {
+        JsonQLProperties.DataSourceProperties properties = new JsonQLProperties.DataSourceProperties();
+        properties.setUrl("jdbc:h2:mem:jsonql_registry_close;DB_CLOSE_DELAY=-1");
+        properties.setWarmUp(false);
+
+        try (HikariDataSource external = new HikariDataSource()) {
+            DataSourceRegistry registry = new DataSourceRegistry();
+            HikariDataSource owned = (HikariDataSource) registry.register("main", properties);
+            HikariDataSource idDataSource = (HikariDataSource) registry.getIdDataSource("main");
+            registry.register("external", external);
+
+            registry.close();
+
+            assertTrue(owned.isClosed());
+            assertTrue(idDataSource.isClosed());
+            assertFalse(external.isClosed());
+            assertTrue(registry.getNames().isEmpty());
+        }
+    }
+}
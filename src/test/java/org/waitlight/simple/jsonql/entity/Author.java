@@ -0,0 +1,24 @@
+package org.waitlight.simple.jsonql.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.OneToMany;
+import lombok.Data;
+import org.waitlight.simple.jsonql.metadata.CacheTtl;
+
+import java.util.List;
+
+@Entity
+@Data
+@CacheTtl(30)
+public class Author {
+    @Id
+    @GeneratedValue(generator = "snowflake")
+    private Long id;
+    @Column
+    private String name;
+    @OneToMany(mappedBy = "author")
+    private List<Post> posts;
+}
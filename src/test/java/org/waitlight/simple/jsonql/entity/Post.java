@@ -0,0 +1,27 @@
+package org.waitlight.simple.jsonql.entity;
+
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.TableGenerator;
+import lombok.Data;
+
+@Entity
+@Data
+@Cacheable(false)
+public class Post {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE)
+    @TableGenerator(name = "post", allocationSize = 100)
+    private Long id;
+    @Column
+    private String title;
+    @ManyToOne
+    @JoinColumn(name = "author_id")
+    private Author author;
+}
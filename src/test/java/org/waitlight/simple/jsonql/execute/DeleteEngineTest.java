@@ -2,18 +2,31 @@ package org.waitlight.simple.jsonql.execute;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.builder.SqlBuildException;
 import org.waitlight.simple.jsonql.entity.Blog;
 import org.waitlight.simple.jsonql.entity.User;
 import org.waitlight.simple.jsonql.execute.result.DeleteResult;
 import org.waitlight.simple.jsonql.execute.result.ExecuteResult;
 import org.waitlight.simple.jsonql.execute.result.InsertResult;
+import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
 import org.waitlight.simple.jsonql.metadata.MetadataSource;
 import org.waitlight.simple.jsonql.statement.DeleteStatement;
 import org.waitlight.simple.jsonql.statement.InsertStatement;
+import org.waitlight.simple.jsonql.statement.StatementParser;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class DeleteEngineTest {
     private static ExecuteEngine engine;
@@ -23,7 +36,7 @@ public class DeleteEngineTest {
         MetadataSource metadataSource = new MetadataSource();
         metadataSource.registry(User.class);
         metadataSource.registry(Blog.class);
-        engine = new ExecuteEngine(metadataSource);
+        engine = new ExecuteEngine(metadataSource, TestDataSources.registry());
     }
 
     @Test
@@ -66,4 +79,57 @@ public class DeleteEngineTest {
         DeleteResult deleteResult = (DeleteResult) deleteResultObj;
         assertEquals(1, deleteResult.getAffectedRows());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void execute_filterWithBatchSize_loopsUntilLastPartialBatch() throws Exception {
+        Connection conn = mock(Connection.class);
+        PreparedStatement count = mock(PreparedStatement.class);
+        PreparedStatement delete = mock(PreparedStatement.class);
+        ResultSet countResult = mock(ResultSet.class);
+        when(conn.getAutoCommit()).thenReturn(true);
+        when(conn.prepareStatement(startsWith("select count(*)"))).thenReturn(count);
+        when(conn.prepareStatement(startsWith("delete from `blog`"))).thenReturn(delete);
+        when(count.executeQuery()).thenReturn(countResult);
+        when(countResult.next()).thenReturn(true);
+        when(countResult.getLong(1)).thenReturn(250L);
+        when(delete.executeUpdate()).thenReturn(100, 100, 50);
+
+        DeleteResult result = deleteEngine(1000).execute(conn, filterStatement());
+
+        assertEquals(250, result.getAffectedRows());
+        verify(delete, times(3)).executeUpdate();
+        verify(delete, times(3)).setObject(2, 100);
+    }
+
+    @Test
+    public void execute_filterExceedingMaxRows_rejectedBeforeDelete() throws Exception {
+        Connection conn = mock(Connection.class);
+        PreparedStatement count = mock(PreparedStatement.class);
+        ResultSet countResult = mock(ResultSet.class);
+        when(conn.prepareStatement(startsWith("select count(*)"))).thenReturn(count);
+        when(count.executeQuery()).thenReturn(countResult);
+        when(countResult.next()).thenReturn(true);
+        when(countResult.getLong(1)).thenReturn(250L);
+
+        assertThrows(SqlBuildException.class, () -> deleteEngine(200).execute(conn, filterStatement()));
+        verify(conn, never()).prepareStatement(startsWith("delete"));
+    }
+
+    private static DeleteEngine deleteEngine(int maxRows) {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        return new DeleteEngine(MetadataBuilderFactory.createLocalBuilder(metadataSource).build(),
+                mock(DataSource.class), maxRows);
+    }
+
+    private static DeleteStatement filterStatement() throws Exception {
+        return new StatementParser().parse("""
+                {
+                    "entityId": "blog",
+                    "filters": {"conditions": [ {"field": "title", "method": "eq", "value": "draft"} ]},
+                    "batchSize": 100
+                }
+                """, DeleteStatement.class);
+    }
+}
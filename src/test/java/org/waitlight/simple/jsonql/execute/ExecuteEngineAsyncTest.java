@@ -0,0 +1,127 @@
+package org.waitlight.simple.jsonql.execute;
+
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.datasource.ConcurrencyLimiter;
+import org.waitlight.simple.jsonql.datasource.DataSourceRegistry;
+import org.waitlight.simple.jsonql.entity.Blog;
+import org.waitlight.simple.jsonql.entity.User;
+import org.waitlight.simple.jsonql.execute.result.DeleteResult;
+import org.waitlight.simple.jsonql.execute.result.ExecuteResult;
+import org.waitlight.simple.jsonql.execute.result.MultiQueryResult;
+import org.waitlight.simple.jsonql.metadata.MetadataHolder;
+import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.statement.DeleteStatement;
+import org.waitlight.simple.jsonql.statement.SelectStatement;
+import org.waitlight.simple.jsonql.statement.StatementParser;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+public class ExecuteEngineAsyncTest {
+
+    private final StatementParser parser = new StatementParser();
+
+    @Test
+    public void executeAsync_runsOnVirtualThreadAndReleasesPermit() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection conn = mock(Connection.class);
+        PreparedStatement delete = mock(PreparedStatement.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+        when(conn.prepareStatement(startsWith("delete"))).thenReturn(delete);
+        when(delete.executeUpdate()).thenReturn(1);
+        ExecuteEngine engine = engine(dataSource);
+
+        CompletableFuture<ExecuteResult> result = engine.executeAsync(
+                parser.parse("{\"entityId\": \"user\", \"id\": \"1\"}", DeleteStatement.class),
+                Duration.ofSeconds(30));
+
+        assertEquals(1, assertInstanceOf(DeleteResult.class, result.get()).getAffectedRows());
+        assertEquals(0, engine.getLimiter().getInFlight());
+        verify(conn).setNetworkTimeout(any(), anyInt());
+    }
+
+    @Test
+    public void executeAsync_expiredDeadline_failsWithoutBorrowingConnection() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        ExecuteEngine engine = engine(dataSource);
+
+        CompletableFuture<ExecuteResult> result = engine.executeAsync(
+                parser.parse("{\"entityId\": \"user\", \"id\": \"1\"}", DeleteStatement.class), Duration.ZERO);
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(SQLTimeoutException.class, e.getCause());
+        verify(dataSource, never()).getConnection();
+    }
+
+    @Test
+    public void executeAll_capsParallelismAndReportsFailuresByName() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> {
+            Connection conn = mock(Connection.class);
+            PreparedStatement select = mock(PreparedStatement.class);
+            ResultSet rs = mock(ResultSet.class);
+            when(conn.prepareStatement(anyString())).thenReturn(select);
+            when(rs.getMetaData()).thenReturn(mock(ResultSetMetaData.class));
+            when(select.executeQuery()).thenAnswer(query -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(50);
+                running.decrementAndGet();
+                return rs;
+            });
+            return conn;
+        });
+        Map<String, SelectStatement> statements = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            statements.put("users" + i, parser.parse("{\"entityId\": \"user\"}", SelectStatement.class));
+        }
+        statements.put("broken", parser.parse("{\"entityId\": \"missing\"}", SelectStatement.class));
+
+        MultiQueryResult result = engine(dataSource).executeAll(statements, 2, null);
+
+        assertEquals(5, result.getResults().size());
+        assertEquals(Set.of("broken"), result.getErrors().keySet());
+        assertTrue(maxRunning.get() <= 2, "max concurrent queries: " + maxRunning.get());
+    }
+
+    @Test
+    public void acquire_limitReached_timesOutAndCountsRejection() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        limiter.acquire(-1);
+
+        assertThrows(SQLTimeoutException.class, () -> limiter.acquire(10));
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(1, limiter.getRejected());
+
+        limiter.release();
+        limiter.acquire(10);
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    private static ExecuteEngine engine(DataSource dataSource) {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        DataSourceRegistry registry = new DataSourceRegistry();
+        registry.register(DataSourceRegistry.DEFAULT_NAME, dataSource);
+        return new ExecuteEngine(new MetadataHolder(metadataSource), registry);
+    }
+}
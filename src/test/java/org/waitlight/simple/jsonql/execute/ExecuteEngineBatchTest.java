@@ -0,0 +1,131 @@
+package org.waitlight.simple.jsonql.execute;
+
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.builder.SqlBuildException;
+import org.waitlight.simple.jsonql.datasource.DataSourceRegistry;
+import org.waitlight.simple.jsonql.entity.Blog;
+import org.waitlight.simple.jsonql.entity.User;
+import org.waitlight.simple.jsonql.execute.result.BatchResult;
+import org.waitlight.simple.jsonql.execute.result.InsertResult;
+import org.waitlight.simple.jsonql.metadata.MetadataHolder;
+import org.waitlight.simple.jsonql.metadata.MetadataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+public class ExecuteEngineBatchTest {
+
+    private static final String BATCH = """
+            {
+                "statements": [
+                    {"type": "insert", "ref": "owner", "statement": {
+                        "entityId": "user", "fields": [ {"field": "name", "value": "batch"} ]
+                    }},
+                    {"type": "insert", "statement": {
+                        "entityId": "blog", "fields": [
+                            {"field": "title", "value": "first"},
+                            {"field": "user", "value": "${owner}"}
+                        ]
+                    }}
+                ]
+            }
+            """;
+
+    @Test
+    public void executeBatch_referencesGeneratedIdAndCommitsOnce() throws Exception {
+        Connection conn = mock(Connection.class);
+        when(conn.getAutoCommit()).thenReturn(true, false);
+        PreparedStatement insertUser = generatedKey(conn, "insert into `user`", 42L);
+        PreparedStatement insertBlog = generatedKey(conn, "insert into `blog`", 7L);
+
+        BatchResult result = engine(conn).executeBatch(BATCH);
+
+        assertEquals(2, result.getResults().size());
+        assertEquals(List.of(42L), ((InsertResult) result.getResults().get(0)).getMainIds());
+        verify(insertBlog).setObject(2, 42L);
+        verify(insertUser).executeUpdate();
+        verify(conn, times(1)).commit();
+        verify(conn, never()).rollback();
+    }
+
+    @Test
+    public void executeBatch_failingStatement_rollsBackWholeBatch() throws Exception {
+        Connection conn = mock(Connection.class);
+        when(conn.getAutoCommit()).thenReturn(true, false);
+        generatedKey(conn, "insert into `user`", 42L);
+        PreparedStatement insertBlog = mock(PreparedStatement.class);
+        when(conn.prepareStatement(startsWith("insert into `blog`"), anyInt())).thenReturn(insertBlog);
+        when(insertBlog.executeUpdate()).thenThrow(new SQLException("duplicate"));
+
+        assertThrows(SQLException.class, () -> engine(conn).executeBatch(BATCH));
+        verify(conn).rollback();
+        verify(conn, never()).commit();
+        verify(conn).setAutoCommit(true);
+    }
+
+    @Test
+    public void executeBatch_referenceOnUpsert_rejectedBeforeExecution() throws Exception {
+        Connection conn = mock(Connection.class);
+        when(conn.getAutoCommit()).thenReturn(true, false);
+
+        assertThrows(SqlBuildException.class, () -> engine(conn).executeBatch("""
+                {"statements": [ {"type": "upsert", "ref": "owner", "statement": {
+                    "entityId": "user", "conflictFields": ["id"], "fields": [ {"field": "id", "value": 1} ]
+                }} ]}
+                """));
+        verify(conn, never()).prepareStatement(anyString());
+        verify(conn, never()).commit();
+    }
+
+    @Test
+    public void executeBatch_referenceIndexOverflow_throwsSqlBuildException() throws Exception {
+        Connection conn = mock(Connection.class);
+        when(conn.getAutoCommit()).thenReturn(true, false);
+        generatedKey(conn, "insert into `user`", 42L);
+
+        assertThrows(SqlBuildException.class, () -> engine(conn).executeBatch("""
+                {"statements": [
+                    {"type": "insert", "ref": "owner", "statement": {
+                        "entityId": "user", "fields": [ {"field": "name", "value": "batch"} ]
+                    }},
+                    {"type": "insert", "statement": {
+                        "entityId": "blog", "fields": [ {"field": "user", "value": "${owner[99999999999]}"} ]
+                    }}
+                ]}
+                """));
+        verify(conn).rollback();
+        verify(conn, never()).commit();
+    }
+
+    private static PreparedStatement generatedKey(Connection conn, String sqlPrefix, long id) throws SQLException {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        ResultSet keys = mock(ResultSet.class);
+        when(conn.prepareStatement(startsWith(sqlPrefix), anyInt())).thenReturn(ps);
+        when(ps.executeUpdate()).thenReturn(1);
+        when(ps.getGeneratedKeys()).thenReturn(keys);
+        when(keys.next()).thenReturn(true, false);
+        when(keys.getLong(1)).thenReturn(id);
+        return ps;
+    }
+
+    private static ExecuteEngine engine(Connection conn) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        DataSourceRegistry registry = new DataSourceRegistry();
+        registry.register(DataSourceRegistry.DEFAULT_NAME, dataSource);
+        return new ExecuteEngine(new MetadataHolder(metadataSource), registry);
+    }
+}
@@ -0,0 +1,70 @@
+package org.waitlight.simple.jsonql.execute;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.entity.Author;
+import org.waitlight.simple.jsonql.entity.Post;
+import org.waitlight.simple.jsonql.execute.result.InsertResult;
+import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
+import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.statement.InsertStatement;
+import org.waitlight.simple.jsonql.statement.StatementParser;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InsertEngineIdTest {
+
+    private static InsertEngine engine;
+    private final StatementParser parser = new StatementParser();
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:jsonql_insert_id;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("create table `author` (`id` bigint primary key, `name` varchar(64))");
+            stmt.execute("create table `post` (`id` bigint primary key, `title` varchar(64), `author_id` bigint)");
+            stmt.execute("create table `jsonql_sequence` (`sequence_name` varchar(64) primary key, `next_val` bigint)");
+        }
+
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(Author.class);
+        metadataSource.registry(Post.class);
+        engine = new InsertEngine(MetadataBuilderFactory.createLocalBuilder(metadataSource).build(), dataSource);
+    }
+
+    @Test
+    public void execute_sameStatementTwice_assignsNewIdsWithoutModifyingStatement() throws Exception {
+        InsertStatement statement = parser.parse("""
+                {"entityId": "author", "fields": [ {"field": "name", "value": "tom"} ]}
+                """, InsertStatement.class);
+
+        InsertResult first = engine.execute(statement);
+        InsertResult second = engine.execute(statement);
+
+        assertNotEquals(first.getMainIds(), second.getMainIds());
+        assertEquals(1, statement.getFields().size());
+    }
+
+    @Test
+    public void execute_sameBatchTwice_assignsNewSegmentIdsWithoutModifyingRecords() throws Exception {
+        InsertStatement statement = parser.parse("""
+                {"entityId": "post", "records": [
+                    [ {"field": "title", "value": "a"} ],
+                    [ {"field": "title", "value": "b"} ]
+                ]}
+                """, InsertStatement.class);
+
+        InsertResult first = engine.execute(statement);
+        InsertResult second = engine.execute(statement);
+
+        assertEquals(2, first.getMainIds().size());
+        assertEquals(first.getMainIds().get(1) + 1, second.getMainIds().get(0));
+        assertEquals(1, statement.getRecords().get(0).size());
+    }
+}
@@ -2,14 +2,31 @@ package org.waitlight.simple.jsonql.execute;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.entity.Author;
 import org.waitlight.simple.jsonql.entity.Blog;
+import org.waitlight.simple.jsonql.entity.Post;
 import org.waitlight.simple.jsonql.entity.User;
 import org.waitlight.simple.jsonql.execute.result.ExecuteResult;
 import org.waitlight.simple.jsonql.execute.result.InsertResult;
+import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
 import org.waitlight.simple.jsonql.metadata.MetadataSource;
 import org.waitlight.simple.jsonql.statement.InsertStatement;
+import org.waitlight.simple.jsonql.statement.StatementParser;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class InsertEngineTest {
     private static ExecuteEngine engine;
@@ -19,7 +36,7 @@ public class InsertEngineTest {
         MetadataSource metadataSource = new MetadataSource();
         metadataSource.registry(User.class);
         metadataSource.registry(Blog.class);
-        engine = new ExecuteEngine(metadataSource);
+        engine = new ExecuteEngine(metadataSource, TestDataSources.registry());
     }
 
     @Test
@@ -179,4 +196,135 @@ public class InsertEngineTest {
         assertTrue(insertResult.getAffectedRows() > 0);
         assertFalse(insertResult.getMainIds().isEmpty());
     }
+
+    @Test
+    public void execute_batchInsert_returnsIdsInRecordOrder() throws Exception {
+        String jsonCreate = """
+                {
+                    "appId": "123456",
+                    "formId": "89757",
+                    "entityId": "user",
+                    "batchSize": 2,
+                    "records": [
+                        [ {"field": "name", "value": "batch-1"} ],
+                        [ {"field": "name", "value": "batch-2"} ],
+                        [ {"field": "name", "value": "batch-3"} ]
+                    ]
+                }
+                """;
+
+        ExecuteResult result = engine.execute(jsonCreate, InsertStatement.class);
+
+        assertInstanceOf(InsertResult.class, result);
+        InsertResult insertResult = (InsertResult) result;
+        assertEquals(3, insertResult.getAffectedRows());
+        assertEquals(3, insertResult.getMainIds().size());
+        assertTrue(insertResult.getMainIds().get(0) < insertResult.getMainIds().get(2));
+    }
+
+    @Test
+    public void execute_nestedChildren_sharePreparedStatementBatch() throws Exception {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        InsertEngine insertEngine = new InsertEngine(
+                MetadataBuilderFactory.createLocalBuilder(metadataSource).build(), mock(DataSource.class));
+
+        Connection conn = mock(Connection.class);
+        PreparedStatement main = mock(PreparedStatement.class);
+        PreparedStatement child = mock(PreparedStatement.class);
+        ResultSet mainKeys = mock(ResultSet.class);
+        ResultSet childKeys = mock(ResultSet.class);
+        when(conn.prepareStatement(startsWith("insert into `user`"), anyInt())).thenReturn(main);
+        when(conn.prepareStatement(startsWith("insert into `blog`"), anyInt())).thenReturn(child);
+        when(main.executeUpdate()).thenReturn(1);
+        when(main.getGeneratedKeys()).thenReturn(mainKeys);
+        when(mainKeys.next()).thenReturn(true);
+        when(mainKeys.getLong(1)).thenReturn(9L);
+        when(child.executeBatch()).thenReturn(new int[]{1, 1, 1});
+        when(child.getGeneratedKeys()).thenReturn(childKeys);
+        when(childKeys.next()).thenReturn(true, true, true, false);
+        when(childKeys.getLong(1)).thenReturn(20L, 21L, 22L);
+
+        InsertStatement statement = new StatementParser().parse("""
+                {
+                    "entityId": "user",
+                    "fields": [
+                        {"field": "name", "value": "tom"},
+                        {
+                            "field": "blogs",
+                            "values": [
+                                {"entityId": "blog", "fields": [ {"field": "title", "value": "a"} ]},
+                                {"entityId": "blog", "fields": [ {"field": "title", "value": "b"} ]},
+                                {"entityId": "blog", "fields": [ {"field": "title", "value": "c"} ]}
+                            ]
+                        }
+                    ]
+                }
+                """, InsertStatement.class);
+
+        InsertResult result = insertEngine.execute(conn, statement);
+
+        verify(conn, times(1)).prepareStatement(startsWith("insert into `blog`"), anyInt());
+        verify(child, times(3)).addBatch();
+        verify(child, times(3)).setObject(2, 9L);
+        assertEquals(List.of(20L, 21L, 22L), result.getNestedIds());
+        assertEquals(4, result.getAffectedRows());
+    }
+
+    @Test
+    public void execute_clientAssignedIds_skipGeneratedKeys() throws Exception {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(Author.class);
+        metadataSource.registry(Post.class);
+
+        // 号段申请使用独立的连接
+        DataSource dataSource = mock(DataSource.class);
+        Connection sequenceConn = mock(Connection.class);
+        PreparedStatement update = mock(PreparedStatement.class);
+        PreparedStatement select = mock(PreparedStatement.class);
+        ResultSet segment = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(sequenceConn);
+        when(sequenceConn.prepareStatement(startsWith("update"))).thenReturn(update);
+        when(sequenceConn.prepareStatement(startsWith("select"))).thenReturn(select);
+        when(update.executeUpdate()).thenReturn(1);
+        when(select.executeQuery()).thenReturn(segment);
+        when(segment.next()).thenReturn(true);
+        when(segment.getLong(1)).thenReturn(101L);
+
+        Connection conn = mock(Connection.class);
+        PreparedStatement main = mock(PreparedStatement.class);
+        PreparedStatement child = mock(PreparedStatement.class);
+        when(conn.prepareStatement(startsWith("insert into `author`"))).thenReturn(main);
+        when(conn.prepareStatement(startsWith("insert into `post`"))).thenReturn(child);
+        when(main.executeUpdate()).thenReturn(1);
+        when(child.executeBatch()).thenReturn(new int[]{1, 1});
+
+        InsertEngine insertEngine = new InsertEngine(
+                MetadataBuilderFactory.createLocalBuilder(metadataSource).build(), dataSource);
+        InsertStatement statement = new StatementParser().parse("""
+                {
+                    "entityId": "author",
+                    "fields": [
+                        {"field": "name", "value": "tom"},
+                        {
+                            "field": "posts",
+                            "values": [
+                                {"entityId": "post", "fields": [ {"field": "title", "value": "a"} ]},
+                                {"entityId": "post", "fields": [ {"field": "title", "value": "b"} ]}
+                            ]
+                        }
+                    ]
+                }
+                """, InsertStatement.class);
+
+        InsertResult result = insertEngine.execute(conn, statement);
+
+        assertEquals(1, result.getMainIds().size());
+        assertTrue(result.getMainIds().getFirst() > 0);
+        assertEquals(List.of(1L, 2L), result.getNestedIds());
+        verify(main, never()).getGeneratedKeys();
+        verify(child, never()).getGeneratedKeys();
+        verify(child, times(2)).setObject(3, result.getMainIds().getFirst());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package org.waitlight.simple.jsonql.execute;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.builder.SqlBuildException;
+import org.waitlight.simple.jsonql.entity.Blog;
+import org.waitlight.simple.jsonql.entity.User;
+import org.waitlight.simple.jsonql.execute.result.SelectResult;
+import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
+import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.statement.SelectStatement;
+import org.waitlight.simple.jsonql.statement.StatementParser;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SelectEngineExpandTest {
+
+    private static JdbcDataSource dataSource;
+    private static SelectEngine engine;
+    private final StatementParser parser = new StatementParser();
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:jsonql_expand;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("create table `user` (`id` bigint auto_increment primary key, `name` varchar(64))");
+            stmt.execute("create table `blog` (`id` bigint auto_increment primary key, "
+                    + "`title` varchar(64), `content` varchar(255), `user_id` int)");
+            stmt.execute("insert into `user` (`id`, `name`) values (1, 'tom'), (2, 'amy'), (3, 'bob')");
+            stmt.execute("insert into `blog` (`id`, `title`, `user_id`) values "
+                    + "(10, 't1', 1), (11, 't2', 2), (12, 't3', 1), (13, 'other', 3)");
+        }
+
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        engine = new SelectEngine(MetadataBuilderFactory.createLocalBuilder(metadataSource).build(), dataSource);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void execute_expandOneToMany_loadsChildrenOfPageInOneQuery() throws Exception {
+        SelectStatement statement = parser.parse("""
+                {"entityId": "user", "select": ["id", "name"], "expand": ["blogs"],
+                 "filters": {"conditions": [ {"field": "id", "method": "in", "values": [1, 2]} ]},
+                 "sort": [ {"field": "id", "direction": "asc"} ]}
+                """, SelectStatement.class);
+
+        try (Connection conn = spy(dataSource.getConnection())) {
+            SelectResult result = engine.execute(conn, statement);
+
+            // 主查询一条，子记录一条，不随父记录数增长
+            verify(conn, times(2)).prepareStatement(anyString());
+            List<Map<String, Object>> records = result.getRecords();
+            assertEquals(2, records.size());
+            List<Map<String, Object>> tomBlogs = (List<Map<String, Object>>) records.get(0).get("blogs");
+            assertEquals(List.of("t1", "t3"), tomBlogs.stream().map(blog -> blog.get("title")).toList());
+            List<Map<String, Object>> amyBlogs = (List<Map<String, Object>>) records.get(1).get("blogs");
+            assertEquals(List.of("t2"), amyBlogs.stream().map(blog -> blog.get("title")).toList());
+        }
+    }
+
+    @Test
+    public void execute_selectManyToOneField_embedsJoinedEntity() throws Exception {
+        SelectStatement statement = parser.parse("""
+                {"entityId": "blog", "select": ["title", "user.name"],
+                 "sort": [ {"field": "id", "direction": "asc"} ],
+                 "page": {"number": 1, "size": 2}}
+                """, SelectStatement.class);
+
+        try (Connection conn = dataSource.getConnection()) {
+            SelectResult result = engine.execute(conn, statement);
+
+            assertEquals(4, result.getTotalCount());
+            assertEquals(Map.of("title", "t1", "user", Map.of("id", 1L, "name", "tom")), result.getRecords().get(0));
+            assertEquals(Map.of("title", "t2", "user", Map.of("id", 2L, "name", "amy")), result.getRecords().get(1));
+        }
+    }
+
+    @Test
+    public void execute_invalidExpand_throwsBuildException() throws Exception {
+        SelectStatement manyToOne = parser.parse("""
+                {"entityId": "blog", "expand": ["user"]}
+                """, SelectStatement.class);
+        SelectStatement withoutId = parser.parse("""
+                {"entityId": "user", "select": ["name"], "expand": ["blogs"]}
+                """, SelectStatement.class);
+
+        try (Connection conn = dataSource.getConnection()) {
+            SQLException e = assertThrows(SQLException.class, () -> engine.execute(conn, manyToOne));
+            assertInstanceOf(SqlBuildException.class, e.getCause());
+            e = assertThrows(SQLException.class, () -> engine.execute(conn, withoutId));
+            assertInstanceOf(SqlBuildException.class, e.getCause());
+        }
+    }
+}
@@ -30,7 +30,7 @@ public class SelectEngineTest {
         MetadataSource metadataSource = new MetadataSource();
         metadataSource.registry(User.class);
         metadataSource.registry(Blog.class);
-        engine = new ExecuteEngine(metadataSource);
+        engine = new ExecuteEngine(metadataSource, TestDataSources.registry());
     }
 
     @BeforeEach
@@ -0,0 +1,35 @@
+package org.waitlight.simple.jsonql.execute;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.waitlight.simple.jsonql.config.JsonQLProperties;
+import org.waitlight.simple.jsonql.datasource.DataSourceRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 测试用数据源，从 test 资源目录下的 application.properties 读取 {@code jsonql.*} 配置
+ */
+public final class TestDataSources {
+
+    private static DataSourceRegistry registry;
+
+    private TestDataSources() {
+    }
+
+    public static synchronized DataSourceRegistry registry() {
+        if (registry == null) {
+            try {
+                MapConfigurationPropertySource source = new MapConfigurationPropertySource(
+                        PropertiesLoaderUtils.loadAllProperties("application.properties"));
+                JsonQLProperties properties = new Binder(source).bind("jsonql", JsonQLProperties.class).get();
+                registry = new DataSourceRegistry(properties);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return registry;
+    }
+}
@@ -7,13 +7,24 @@ import org.waitlight.simple.jsonql.entity.User;
 import org.waitlight.simple.jsonql.execute.result.ExecuteResult;
 import org.waitlight.simple.jsonql.execute.result.InsertResult;
 import org.waitlight.simple.jsonql.execute.result.UpdateResult;
+import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
 import org.waitlight.simple.jsonql.metadata.MetadataSource;
 import org.waitlight.simple.jsonql.statement.InsertStatement;
+import org.waitlight.simple.jsonql.statement.StatementParser;
 import org.waitlight.simple.jsonql.statement.UpdateStatement;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class UpdateEngineTest {
     private static ExecuteEngine engine;
@@ -23,7 +34,7 @@ public class UpdateEngineTest {
         MetadataSource metadataSource = new MetadataSource();
         metadataSource.registry(User.class);
         metadataSource.registry(Blog.class);
-        engine = new ExecuteEngine(metadataSource);
+        engine = new ExecuteEngine(metadataSource, TestDataSources.registry());
     }
 
     @Test
@@ -316,4 +327,40 @@ public class UpdateEngineTest {
         UpdateResult updateResult = (UpdateResult) result;
         assertTrue(updateResult.getAffectedRows() > 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void execute_batchRecords_reportsAffectedRowsPerRecord() throws Exception {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        UpdateEngine updateEngine = new UpdateEngine(
+                MetadataBuilderFactory.createLocalBuilder(metadataSource).build(), mock(DataSource.class));
+
+        Connection conn = mock(Connection.class);
+        PreparedStatement byTitle = mock(PreparedStatement.class);
+        PreparedStatement byTitleAndContent = mock(PreparedStatement.class);
+        when(conn.getAutoCommit()).thenReturn(true);
+        when(conn.prepareStatement(startsWith("update `blog` set `title` = ? where"))).thenReturn(byTitle);
+        when(conn.prepareStatement(startsWith("update `blog` set `title` = ?, `content`"))).thenReturn(byTitleAndContent);
+        when(byTitle.executeBatch()).thenReturn(new int[]{1, 0});
+        when(byTitleAndContent.executeBatch()).thenReturn(new int[]{1});
+
+        UpdateStatement statement = new StatementParser().parse("""
+                {
+                    "entityId": "blog",
+                    "records": [
+                        {"dataId": "1", "fields": [ {"field": "title", "value": "a"} ]},
+                        {"dataId": "2", "fields": [ {"field": "title", "value": "b"}, {"field": "content", "value": "x"} ]},
+                        {"dataId": "3", "fields": [ {"field": "title", "value": "c"} ]}
+                    ]
+                }
+                """, UpdateStatement.class);
+
+        UpdateResult result = updateEngine.execute(conn, statement);
+
+        verify(byTitle, times(2)).addBatch();
+        verify(conn).commit();
+        assertEquals(List.of(1, 1, 0), result.getRecordAffectedRows());
+        assertEquals(2, result.getAffectedRows());
+    }
+}
@@ -0,0 +1,155 @@
+package org.waitlight.simple.jsonql.execute.cache;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.datasource.DataSourceRegistry;
+import org.waitlight.simple.jsonql.entity.Blog;
+import org.waitlight.simple.jsonql.entity.User;
+import org.waitlight.simple.jsonql.execute.ExecuteEngine;
+import org.waitlight.simple.jsonql.execute.ExecuteOptions;
+import org.waitlight.simple.jsonql.execute.result.SelectResult;
+import org.waitlight.simple.jsonql.metadata.MetadataHolder;
+import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.statement.SelectStatement;
+import org.waitlight.simple.jsonql.statement.UpdateStatement;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ResultCacheTest {
+
+    private static final String SELECT_TOM = """
+            {"entityId": "user", "select": ["id", "name"],
+             "filters": {"conditions": [ {"field": "id", "method": "eq", "value": 1} ]}}
+            """;
+
+    private static JdbcDataSource dataSource;
+    private static ExecuteEngine engine;
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:jsonql_cache;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection conn = h2.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("create table `user` (`id` bigint auto_increment primary key, `name` varchar(64))");
+            stmt.execute("create table `blog` (`id` bigint auto_increment primary key, "
+                    + "`title` varchar(64), `content` varchar(255), `user_id` bigint)");
+            stmt.execute("insert into `user` (`id`, `name`) values (1, 'tom')");
+        }
+        dataSource = spy(h2);
+
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        DataSourceRegistry registry = new DataSourceRegistry();
+        registry.register(DataSourceRegistry.DEFAULT_NAME, dataSource);
+        engine = new ExecuteEngine(new MetadataHolder(metadataSource), registry,
+                new ExecuteOptions.Builder().setResultCache(new ResultCache()).build());
+    }
+
+    @Test
+    public void execute_repeatedSelect_servedFromCacheUntilEntityIsWritten() throws Exception {
+        SelectResult first = (SelectResult) engine.execute(SELECT_TOM, SelectStatement.class);
+        SelectResult second = (SelectResult) engine.execute(SELECT_TOM, SelectStatement.class);
+
+        assertSame(first, second);
+        verify(dataSource, times(1)).getConnection();
+
+        engine.execute("""
+                {"entityId": "user", "dataId": "1", "fields": [ {"field": "name", "value": "jerry"} ]}
+                """, UpdateStatement.class);
+        SelectResult third = (SelectResult) engine.execute(SELECT_TOM, SelectStatement.class);
+
+        assertEquals("jerry", third.getRecords().get(0).get("name"));
+        ResultCacheStats stats = engine.getResultCache().getStats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.staleCount());
+    }
+
+    @Test
+    public void execute_mutatingCachedRecord_doesNotAffectNextHit() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:jsonql_cache;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        DataSourceRegistry registry = new DataSourceRegistry();
+        registry.register(DataSourceRegistry.DEFAULT_NAME, h2);
+        ExecuteEngine cached = new ExecuteEngine(new MetadataHolder(metadataSource), registry,
+                new ExecuteOptions.Builder().setResultCache(new ResultCache()).build());
+        String select = """
+                {"entityId": "user", "select": ["id", "name"], "sort": [ {"field": "id", "direction": "asc"} ]}
+                """;
+
+        SelectResult miss = (SelectResult) cached.execute(select, SelectStatement.class);
+        Object name = miss.getRecords().get(0).get("name");
+        assertThrows(UnsupportedOperationException.class, () -> miss.getRecords().get(0).put("name", "changed"));
+        SelectResult hit = (SelectResult) cached.execute(select, SelectStatement.class);
+        assertThrows(UnsupportedOperationException.class, () -> hit.getRecords().remove(0));
+
+        assertEquals(name, hit.getRecords().get(0).get("name"));
+        assertEquals(1, cached.getResultCache().getStats().hitCount());
+    }
+
+    @Test
+    public void getPlanCacheStats_metadataSwapped_followsCurrentSnapshot() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:jsonql_cache;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        DataSourceRegistry registry = new DataSourceRegistry();
+        registry.register(DataSourceRegistry.DEFAULT_NAME, h2);
+        MetadataHolder holder = new MetadataHolder(metadataSource);
+        ExecuteEngine uncached = new ExecuteEngine(holder, registry);
+
+        uncached.execute(SELECT_TOM, SelectStatement.class);
+        uncached.execute(SELECT_TOM, SelectStatement.class);
+        assertEquals(1, uncached.getPlanCacheStats().hitCount());
+
+        holder.refresh();
+        assertEquals(0, uncached.getPlanCacheStats().size());
+        uncached.execute(SELECT_TOM, SelectStatement.class);
+        assertEquals(1, uncached.getPlanCacheStats().missCount());
+    }
+
+    @Test
+    public void put_tableWrittenDuringQuery_resultNotCached() {
+        ResultCache cache = new ResultCache();
+        ResultCache.Key key = new ResultCache.Key("select 1", List.of(), "-");
+        SelectResult result = SelectResult.of(List.of(Map.of("id", 1L)));
+
+        ResultCache.Stamp stamp = cache.stamp(List.of("user", "blog"));
+        cache.invalidate(List.of("blog"));
+        cache.put(key, stamp, result, null);
+        assertNull(cache.get(key));
+
+        cache.put(key, cache.stamp(List.of("user", "blog")), result, null);
+        assertSame(result, cache.get(key));
+        cache.invalidate(List.of("order"));
+        assertSame(result, cache.get(key));
+    }
+
+    @Test
+    public void put_entriesBeyondMaximumSize_evicted() {
+        ResultCache cache = new ResultCache(2, 1024 * 1024, Duration.ofMinutes(1));
+        ResultCache.Stamp stamp = cache.stamp(List.of("user"));
+        for (int i = 0; i < 10; i++) {
+            cache.put(new ResultCache.Key("select " + i, List.of(), "-"), stamp,
+                    SelectResult.of(List.of(Map.of("id", (long) i))), null);
+        }
+
+        cache.cleanUp();
+        assertTrue(cache.getStats().size() <= 2);
+    }
+}
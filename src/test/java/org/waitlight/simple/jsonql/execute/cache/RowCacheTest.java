@@ -0,0 +1,155 @@
+package org.waitlight.simple.jsonql.execute.cache;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.datasource.DataSourceRegistry;
+import org.waitlight.simple.jsonql.entity.Blog;
+import org.waitlight.simple.jsonql.entity.User;
+import org.waitlight.simple.jsonql.execute.ExecuteEngine;
+import org.waitlight.simple.jsonql.execute.ExecuteOptions;
+import org.waitlight.simple.jsonql.execute.result.SelectResult;
+import org.waitlight.simple.jsonql.metadata.MetadataHolder;
+import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.statement.DeleteStatement;
+import org.waitlight.simple.jsonql.statement.SelectStatement;
+import org.waitlight.simple.jsonql.statement.UpdateStatement;
+
+import java.sql.Connection;
+import java.sql.JDBCType;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class RowCacheTest {
+
+    private static JdbcDataSource dataSource;
+    private static ExecuteEngine engine;
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:jsonql_row_cache;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection conn = h2.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("create table `user` (`id` bigint auto_increment primary key, `name` varchar(64))");
+            stmt.execute("create table `blog` (`id` bigint auto_increment primary key, "
+                    + "`title` varchar(64), `content` varchar(255), `user_id` bigint)");
+            stmt.execute("insert into `user` (`id`, `name`) values (1, 'tom'), (2, 'bob'), (3, 'amy')");
+            stmt.execute("insert into `blog` (`id`, `title`, `user_id`) values (1, 'a', 1), (2, 'b', 1), (3, 'c', 2)");
+        }
+        dataSource = spy(h2);
+
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        DataSourceRegistry registry = new DataSourceRegistry();
+        registry.register(DataSourceRegistry.DEFAULT_NAME, dataSource);
+        engine = new ExecuteEngine(new MetadataHolder(metadataSource), registry,
+                new ExecuteOptions.Builder().setRowCache(new RowCache()).build());
+    }
+
+    @BeforeEach
+    public void resetCache() {
+        engine.getRowCache().clear();
+        clearInvocations(dataSource);
+    }
+
+    @Test
+    public void execute_pointSelect_servedFromCacheUntilRowIsUpdated() throws Exception {
+        String select = """
+                {"entityId": "user", "filters": {"conditions": [ {"field": "id", "method": "eq", "value": "3"} ]}}
+                """;
+        engine.execute(select, SelectStatement.class);
+        SelectResult cached = (SelectResult) engine.execute(select, SelectStatement.class);
+
+        assertEquals("amy", cached.getRecords().get(0).get("name"));
+        verify(dataSource, times(1)).getConnection();
+
+        engine.execute("""
+                {"entityId": "user", "dataId": "3", "fields": [ {"field": "name", "value": "ann"} ]}
+                """, UpdateStatement.class);
+        SelectResult updated = (SelectResult) engine.execute(select, SelectStatement.class);
+
+        assertEquals("ann", updated.getRecords().get(0).get("name"));
+        verify(dataSource, times(3)).getConnection();
+    }
+
+    @Test
+    public void execute_inSelect_fetchesOnlyMissesInOneQuery() throws Exception {
+        engine.execute("""
+                {"entityId": "blog", "filters": {"conditions": [ {"field": "id", "method": "eq", "value": 2} ]}}
+                """, SelectStatement.class);
+        clearInvocations(dataSource);
+
+        SelectResult result = (SelectResult) engine.execute("""
+                {"entityId": "blog",
+                 "filters": {"conditions": [ {"field": "id", "method": "in", "values": [3, 2, 9, 1]} ]}}
+                """, SelectStatement.class);
+
+        List<Object> titles = result.getRecords().stream().map(record -> record.get("title")).toList();
+        assertEquals(List.of("c", "b", "a"), titles);
+        verify(dataSource, times(1)).getConnection();
+        assertEquals(3, engine.getRowCache().getStats().size());
+
+        clearInvocations(dataSource);
+        engine.execute("""
+                {"entityId": "blog",
+                 "filters": {"conditions": [ {"field": "id", "method": "in", "values": [1, 3]} ]}}
+                """, SelectStatement.class);
+        verify(dataSource, times(0)).getConnection();
+    }
+
+    @Test
+    public void execute_mutatingReturnedRecord_doesNotAffectCachedRow() throws Exception {
+        String select = """
+                {"entityId": "blog", "filters": {"conditions": [ {"field": "id", "method": "eq", "value": 3} ]}}
+                """;
+        SelectResult miss = (SelectResult) engine.execute(select, SelectStatement.class);
+        miss.getRecords().get(0).put("title", "changed");
+        SelectResult hit = (SelectResult) engine.execute(select, SelectStatement.class);
+        hit.getRecords().get(0).put("title", "changed again");
+
+        SelectResult next = (SelectResult) engine.execute(select, SelectStatement.class);
+        assertEquals("c", next.getRecords().get(0).get("title"));
+        verify(dataSource, times(1)).getConnection();
+    }
+
+    @Test
+    public void execute_deleteByFilter_invalidatesAllRowsOfTable() throws Exception {
+        String select = """
+                {"entityId": "user", "filters": {"conditions": [ {"field": "id", "method": "in", "values": [1, 2]} ]}}
+                """;
+        engine.execute(select, SelectStatement.class);
+
+        engine.execute("""
+                {"entityId": "user", "filters": {"conditions": [ {"field": "name", "method": "eq", "value": "bob"} ]}}
+                """, DeleteStatement.class);
+        SelectResult result = (SelectResult) engine.execute(select, SelectStatement.class);
+
+        assertEquals(1, result.getRecords().size());
+        assertEquals("tom", result.getRecords().get(0).get("name"));
+        verify(dataSource, times(3)).getConnection();
+    }
+
+    @Test
+    public void put_tableWrittenDuringQuery_rowNotCached() {
+        RowCache cache = new RowCache();
+        long stamp = cache.stamp("user");
+        cache.invalidate("user", List.of(5L));
+        cache.put("user", stamp, 5L, Map.of("id", 5L), null);
+
+        assertTrue(cache.getAll("user", List.of(5L)).isEmpty());
+
+        cache.put("user", cache.stamp("user"), 5L, Map.of("id", 5L), null);
+        assertEquals(1, cache.getAll("user", List.of(5L)).size());
+        assertEquals(5L, RowCache.normalizeId("5", JDBCType.BIGINT));
+    }
+}
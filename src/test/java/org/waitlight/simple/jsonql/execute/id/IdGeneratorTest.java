@@ -0,0 +1,73 @@
+package org.waitlight.simple.jsonql.execute.id;
+
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.metadata.IdGeneration;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IdGeneratorTest {
+
+    @Test
+    public void snowflake_sameMillisecond_generatesIncreasingUniqueIds() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5);
+        Set<Long> ids = new HashSet<>();
+        long last = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > last);
+            assertEquals(5, (id >> 12) & SnowflakeIdGenerator.MAX_WORKER_ID);
+            ids.add(id);
+            last = id;
+        }
+        assertEquals(10_000, ids.size());
+    }
+
+    @Test
+    public void snowflake_invalidWorkerId_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+    }
+
+    @Test
+    public void segment_allocatesFromSequenceTableOncePerSegment() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection conn = mock(Connection.class);
+        PreparedStatement update = mock(PreparedStatement.class);
+        PreparedStatement select = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+        when(conn.getAutoCommit()).thenReturn(true);
+        when(conn.prepareStatement(startsWith("update"))).thenReturn(update);
+        when(conn.prepareStatement(startsWith("select"))).thenReturn(select);
+        when(update.executeUpdate()).thenReturn(1);
+        when(select.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getLong(1)).thenReturn(101L, 104L);
+
+        IdGeneration generation = new IdGeneration(IdGeneration.IdStrategy.SEGMENT, "jsonql_sequence",
+                "sequence_name", "next_val", "post", 0, 3);
+        SegmentIdGenerator generator = new SegmentIdGenerator(dataSource, generation);
+
+        assertEquals(98, generator.nextId());
+        assertEquals(99, generator.nextId());
+        assertEquals(100, generator.nextId());
+        assertEquals(101, generator.nextId());
+
+        verify(update, times(2)).executeUpdate();
+        verify(update, times(2)).setString(2, "post");
+        verify(conn, times(2)).commit();
+    }
+}
@@ -0,0 +1,99 @@
+package org.waitlight.simple.jsonql.execute.mapper;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.entity.Blog;
+import org.waitlight.simple.jsonql.entity.User;
+import org.waitlight.simple.jsonql.metadata.Metadata;
+import org.waitlight.simple.jsonql.metadata.MetadataBuilderFactory;
+import org.waitlight.simple.jsonql.metadata.MetadataSource;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RowMapperTest {
+
+    private static Metadata metadata;
+
+    @BeforeAll
+    public static void setUp() {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        metadata = MetadataBuilderFactory.createLocalBuilder(metadataSource).build();
+    }
+
+    @Test
+    public void map_snakeCaseAndForeignKeyColumns_resolvedFromMetadata() throws Exception {
+        ResultSetMetaData metaData = metaData("id", "title", "created_at", "user_id", "__total");
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(7L);
+        when(rs.getString(2)).thenReturn("hello");
+        when(rs.getObject(3)).thenReturn("2025-01-01");
+        when(rs.getLong(4)).thenReturn(3L);
+        when(rs.getLong(5)).thenReturn(42L);
+
+        RowMapper mapper = RowMapper.compile(metaData, metadata.getEntity("blog"), metadata);
+        Map<String, Object> row = mapper.map(rs);
+
+        assertEquals(List.of("id", "title", "created_at", "user"), mapper.getKeys());
+        assertEquals(7L, row.get("id"));
+        assertEquals("hello", row.get("title"));
+        // 不属于关联关系的下划线列不再被拆分
+        assertEquals("2025-01-01", row.get("created_at"));
+        assertEquals(Map.of("id", 3L), row.get("user"));
+        assertFalse(row.containsKey("__total"));
+        assertTrue(mapper.hasTotal());
+        assertEquals(42L, mapper.readTotal(rs));
+        verify(rs).getLong(1);
+    }
+
+    @Test
+    public void map_nullPrimitiveColumn_returnsNull() throws Exception {
+        ResultSetMetaData metaData = metaData("id");
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(0L);
+        when(rs.wasNull()).thenReturn(true);
+
+        RowMapper mapper = RowMapper.compile(metaData, metadata.getEntity("user"), metadata);
+
+        assertNull(mapper.map(rs).get("id"));
+        assertFalse(mapper.hasTotal());
+    }
+
+    @Test
+    public void read_relationColumns_flattenedWithFieldNames() throws Exception {
+        ResultSetMetaData metaData = metaData("id", "title", "user_id", "user.name");
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(7L);
+        when(rs.getString(2)).thenReturn("hello");
+        when(rs.getLong(3)).thenReturn(3L);
+        when(rs.getString(4)).thenReturn("tom");
+
+        RowMapper mapper = RowMapper.compile(metaData, metadata.getEntity("blog"), metadata);
+        Object[] values = new Object[mapper.getColumnKeys().size()];
+        mapper.read(rs, values);
+
+        assertEquals(List.of("id", "title", "user.id", "user.name"), mapper.getColumnKeys());
+        assertEquals(List.of(7L, "hello", 3L, "tom"), List.of(values));
+    }
+
+    private static ResultSetMetaData metaData(String... labels) throws Exception {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(labels[i]);
+        }
+        return metaData;
+    }
+}
@@ -0,0 +1,109 @@
+package org.waitlight.simple.jsonql.execute.reactive;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.entity.Blog;
+import org.waitlight.simple.jsonql.entity.User;
+import org.waitlight.simple.jsonql.execute.id.IdGenerators;
+import org.waitlight.simple.jsonql.execute.result.InsertResult;
+import org.waitlight.simple.jsonql.execute.result.SelectResult;
+import org.waitlight.simple.jsonql.metadata.MetadataHolder;
+import org.waitlight.simple.jsonql.metadata.MetadataSource;
+import org.waitlight.simple.jsonql.statement.InsertStatement;
+import org.waitlight.simple.jsonql.statement.SelectStatement;
+import org.waitlight.simple.jsonql.statement.StatementParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReactiveExecuteEngineTest {
+
+    private static ReactiveExecuteEngine engine;
+
+    @BeforeAll
+    public static void setUp() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///jsonql_reactive?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        Mono.usingWhen(connectionFactory.create(), conn -> Flux.concat(
+                        execute(conn, "create table `user` (`id` bigint auto_increment primary key, `name` varchar(64))"),
+                        execute(conn, "create table `blog` (`id` bigint auto_increment primary key, "
+                                + "`title` varchar(64), `content` varchar(255), `user_id` bigint)"))
+                .then(), Connection::close).block();
+
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        engine = new ReactiveExecuteEngine(new MetadataHolder(metadataSource), connectionFactory,
+                new IdGenerators(null, 0));
+    }
+
+    private static Mono<Void> execute(Connection conn, String sql) {
+        return Flux.from(conn.createStatement(sql).execute()).flatMap(Result::getRowsUpdated).then();
+    }
+
+    @Test
+    public void execute_insertThenSelect_returnsGeneratedIdsAndRows() {
+        InsertResult inserted = (InsertResult) engine.execute("""
+                {"entityId": "user", "records": [
+                    [{"field": "name", "value": "reactive-a"}],
+                    [{"field": "name", "value": "reactive-b"}]
+                ]}
+                """, InsertStatement.class).block();
+        assertNotNull(inserted);
+        assertEquals(2, inserted.getAffectedRows());
+        assertEquals(2, inserted.getMainIds().size());
+
+        SelectResult selected = (SelectResult) engine.execute("""
+                {"entityId": "user", "select": ["id", "name"],
+                 "filters": {"conditions": [ {"field": "name", "method": "like", "value": "reactive-"} ]},
+                 "sort": [ {"field": "id", "direction": "asc"} ],
+                 "page": {"number": 1, "size": 1}}
+                """, SelectStatement.class).block();
+        assertNotNull(selected);
+        assertEquals(1, selected.getRecords().size());
+        assertEquals("reactive-a", selected.getRecords().get(0).get("name"));
+        assertEquals(2, selected.getTotalCount());
+    }
+
+    @Test
+    public void stream_manyToOneColumn_emitsNestedRows() throws Exception {
+        InsertResult user = (InsertResult) engine.execute("""
+                {"entityId": "user", "fields": [ {"field": "name", "value": "stream-owner"} ]}
+                """, InsertStatement.class).block();
+        Long userId = user.getMainIds().get(0);
+        engine.execute("""
+                {"entityId": "blog", "fields": [
+                    {"field": "title", "value": "stream-title"},
+                    {"field": "user", "value": %d}
+                ]}
+                """.formatted(userId), InsertStatement.class).block();
+
+        SelectStatement statement = new StatementParser().parse("""
+                {"entityId": "blog", "select": ["title", "user"],
+                 "filters": {"conditions": [ {"field": "title", "method": "eq", "value": "stream-title"} ]}}
+                """, SelectStatement.class);
+        StepVerifier.create(engine.stream(statement))
+                .assertNext(row -> {
+                    assertEquals("stream-title", row.get("title"));
+                    assertEquals(Map.of("id", userId), row.get("user"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void execute_keysetPage_failsWithBuildException() {
+        StepVerifier.create(engine.execute("""
+                        {"entityId": "user", "page": {"size": 1, "mode": "keyset"}}
+                        """, SelectStatement.class))
+                .expectErrorMatches(e -> e.getMessage().contains("Keyset"))
+                .verify();
+    }
+}
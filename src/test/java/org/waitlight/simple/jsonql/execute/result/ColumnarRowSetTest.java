@@ -0,0 +1,92 @@
+package org.waitlight.simple.jsonql.execute.result;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.sql.JDBCType;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ColumnarRowSetTest {
+
+    private static final List<String> KEYS = List.of("id", "age", "score", "active", "status", "createdAt", "user");
+    private static final List<JDBCType> TYPES = Arrays.asList(JDBCType.BIGINT, JDBCType.INTEGER, JDBCType.DOUBLE,
+            JDBCType.BOOLEAN, JDBCType.VARCHAR, JDBCType.TIMESTAMP, null);
+
+    @Test
+    public void rows_serializeSameAsMaps() throws Exception {
+        ColumnarRowSet.Builder builder = new ColumnarRowSet.Builder(KEYS, TYPES);
+        List<Map<String, Object>> maps = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Object[] values = {
+                    (long) i,
+                    i % 7 == 0 ? null : i,
+                    i % 5 == 0 ? null : i / 4.0,
+                    i % 3 == 0 ? null : i % 2 == 0,
+                    i % 11 == 0 ? null : "S" + (i % 3),
+                    i % 13 == 0 ? null : new Timestamp(1_700_000_000_000L + i),
+                    Map.of("id", (long) i)
+            };
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int c = 0; c < values.length; c++) {
+                builder.set(c, values[c]);
+                map.put(KEYS.get(c), values[c]);
+            }
+            builder.endRow();
+            maps.add(map);
+        }
+        ColumnarRowSet rows = builder.build();
+
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(maps.size(), rows.size());
+        assertEquals(mapper.writeValueAsString(maps), mapper.writeValueAsString(rows));
+        assertEquals(maps, rows);
+    }
+
+    @Test
+    public void stringColumn_lowCardinality_sharesDictionaryValues() {
+        ColumnarRowSet.Builder builder = new ColumnarRowSet.Builder(List.of("status"), List.of(JDBCType.VARCHAR));
+        for (int i = 0; i < 10; i++) {
+            builder.set(0, new String(i % 2 == 0 ? "OPEN" : "CLOSED"));
+            builder.endRow();
+        }
+        ColumnarRowSet rows = builder.build();
+
+        assertSame(rows.get(0).get("status"), rows.get(8).get("status"));
+        assertEquals("CLOSED", rows.get(9).get("status"));
+    }
+
+    @Test
+    public void stringColumn_highCardinality_fallsBackToPlainValues() {
+        ColumnarRowSet.Builder builder = new ColumnarRowSet.Builder(List.of("name"), List.of(JDBCType.VARCHAR));
+        for (int i = 0; i < 3000; i++) {
+            builder.set(0, i == 1500 ? null : "name-" + i);
+            builder.endRow();
+        }
+        ColumnarRowSet rows = builder.build();
+
+        assertEquals("name-0", rows.get(0).get("name"));
+        assertNull(rows.get(1500).get("name"));
+        assertEquals("name-2999", rows.get(2999).get("name"));
+    }
+
+    @Test
+    public void rowView_unknownKey_isAbsent() {
+        ColumnarRowSet.Builder builder = new ColumnarRowSet.Builder(List.of("id"), List.of(JDBCType.INTEGER));
+        builder.set(0, 1);
+        builder.endRow();
+        Map<String, Object> row = builder.build().get(0);
+
+        assertEquals(1, row.get("id"));
+        assertNull(row.get("name"));
+        assertEquals(Map.of("id", 1), row);
+    }
+}
@@ -0,0 +1,52 @@
+package org.waitlight.simple.jsonql.execute.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RowWriterTest {
+
+    @Test
+    public void csv_specialCharacters_areQuoted() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowWriter writer = ExportFormat.CSV.newWriter(out, new ObjectMapper());
+
+        writer.start(List.of("id", "name"));
+        writer.write(new Object[]{1L, "tom, \"jr\""});
+        writer.write(new Object[]{2L, null});
+        writer.finish();
+
+        assertEquals("id,name\r\n1,\"tom, \"\"jr\"\"\"\r\n2,\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void ndjson_eachRow_isOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowWriter writer = ExportFormat.NDJSON.newWriter(out, new ObjectMapper());
+
+        writer.start(List.of("id", "name"));
+        writer.write(new Object[]{1L, "tom"});
+        writer.write(new Object[]{2L, null});
+        writer.finish();
+
+        assertEquals("{\"id\":1,\"name\":\"tom\"}\n{\"id\":2,\"name\":null}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void ndjson_relationColumns_writtenAsNestedObject() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowWriter writer = ExportFormat.NDJSON.newWriter(out, new ObjectMapper());
+
+        writer.start(List.of("id", "user.id", "user.name", "post.id"));
+        writer.write(new Object[]{1L, 3L, "tom", 5L});
+        writer.finish();
+
+        assertEquals("{\"id\":1,\"user\":{\"id\":3,\"name\":\"tom\"},\"post\":{\"id\":5}}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+}
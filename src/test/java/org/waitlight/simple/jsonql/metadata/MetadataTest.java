@@ -2,9 +2,13 @@ package org.waitlight.simple.jsonql.metadata;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.waitlight.simple.jsonql.entity.Author;
 import org.waitlight.simple.jsonql.entity.Blog;
+import org.waitlight.simple.jsonql.entity.Post;
 import org.waitlight.simple.jsonql.entity.User;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class MetadataTest {
@@ -92,4 +96,53 @@ public class MetadataTest {
                     }
                 });
     }
+
+    @Test
+    void refresh_metadataHolder_swapsImmutableSnapshot() {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(User.class);
+        metadataSource.registry(Blog.class);
+        MetadataHolder holder = new MetadataHolder(metadataSource);
+
+        Metadata before = holder.get();
+        assertSame(before, holder.get(), "Snapshot should be shared until refreshed");
+        assertThrows(UnsupportedOperationException.class,
+                () -> before.getEntity("user").getProperties().add(null));
+        assertThrows(UnsupportedOperationException.class,
+                () -> before.getEntity("user").getRelations().clear());
+
+        Metadata after = holder.refresh();
+        assertNotSame(before, after, "Refresh should swap in a new snapshot");
+        assertSame(after, holder.get());
+        assertNotNull(after.getEntity("blog"));
+    }
+
+    @Test
+    void getIdGeneration_generatedValueAnnotations_resolvedFromIdField() {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(Author.class);
+        metadataSource.registry(Post.class);
+        Metadata generated = MetadataBuilderFactory.createLocalBuilder(metadataSource).build();
+
+        assertEquals(IdGeneration.IDENTITY, metadata.getEntity("User").getIdGeneration());
+        assertEquals(IdGeneration.SNOWFLAKE, generated.getEntity("Author").getIdGeneration());
+
+        IdGeneration segment = generated.getEntity("Post").getIdGeneration();
+        assertEquals(IdGeneration.IdStrategy.SEGMENT, segment.strategy());
+        assertEquals(IdGeneration.DEFAULT_TABLE, segment.table());
+        assertEquals("post", segment.pkValue());
+        assertEquals(100, segment.allocationSize());
+    }
+
+    @Test
+    void getCachePolicy_cacheAnnotations_resolvedFromEntityClass() {
+        MetadataSource metadataSource = new MetadataSource();
+        metadataSource.registry(Author.class);
+        metadataSource.registry(Post.class);
+        Metadata annotated = MetadataBuilderFactory.createLocalBuilder(metadataSource).build();
+
+        assertEquals(CachePolicy.DEFAULT, metadata.getEntity("User").getCachePolicy());
+        assertEquals(new CachePolicy(true, Duration.ofSeconds(30)), annotated.getEntity("Author").getCachePolicy());
+        assertFalse(annotated.getEntity("Post").getCachePolicy().cacheable());
+    }
 }